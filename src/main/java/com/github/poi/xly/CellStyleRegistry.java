@@ -0,0 +1,151 @@
+package com.github.poi.xly;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.VerticalAlignment;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFFont;
+
+/**
+ * Create each distinct cell style (and font) only once per workbook.<br/>
+ * Excel limits the number of styles to 64000 per workbook, creating a style
+ * per cell also bloats styles.xml.
+ */
+class CellStyleRegistry {
+
+    /**
+     * Everything that make two styles different. <br/>
+     * Colors are either a hexadecimal rgb code or an indexed color (-1 when not
+     * set).
+     */
+    static final class StyleKey {
+
+        private final short dataFormat;
+
+        private final String fillColor;
+
+        private final short fillBackgroundIndex;
+
+        private final short fillForegroundIndex;
+
+        private final FillPatternType fillPattern;
+
+        private final String fontColor;
+
+        private final short fontIndex;
+
+        private final HorizontalAlignment horizontalAlignment;
+
+        private final VerticalAlignment verticalAlignment;
+
+        StyleKey(short dataFormat, String fontColor, short fontIndex, String fillColor, short fillForegroundIndex,
+                short fillBackgroundIndex, FillPatternType fillPattern, HorizontalAlignment horizontalAlignment,
+                VerticalAlignment verticalAlignment) {
+            this.dataFormat = dataFormat;
+            this.fontColor = fontColor;
+            this.fontIndex = fontIndex;
+            this.fillColor = fillColor;
+            this.fillForegroundIndex = fillForegroundIndex;
+            this.fillBackgroundIndex = fillBackgroundIndex;
+            this.fillPattern = fillPattern;
+            this.horizontalAlignment = horizontalAlignment;
+            this.verticalAlignment = verticalAlignment;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof StyleKey)) {
+                return false;
+            }
+            final StyleKey other = (StyleKey) obj;
+            return dataFormat == other.dataFormat && fontIndex == other.fontIndex
+                    && fillForegroundIndex == other.fillForegroundIndex
+                    && fillBackgroundIndex == other.fillBackgroundIndex && fillPattern == other.fillPattern
+                    && horizontalAlignment == other.horizontalAlignment
+                    && verticalAlignment == other.verticalAlignment && Objects.equals(fontColor, other.fontColor)
+                    && Objects.equals(fillColor, other.fillColor);
+        }
+
+        boolean hasFont() {
+            return fontColor != null || fontIndex >= 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dataFormat, fontColor, fontIndex, fillColor, fillForegroundIndex, fillBackgroundIndex,
+                    fillPattern, horizontalAlignment, verticalAlignment);
+        }
+    }
+
+    static final short NO_INDEX = -1;
+
+    private final Map<String, Font> fonts = new HashMap<>();
+
+    private final Map<StyleKey, CellStyle> styles = new HashMap<>();
+
+    private final Workbook workbook;
+
+    CellStyleRegistry(Workbook workbook) {
+        this.workbook = workbook;
+    }
+
+    private CellStyle createStyle(StyleKey key) {
+        final XSSFCellStyle style = (XSSFCellStyle) workbook.createCellStyle();
+        if (key.dataFormat != 0) {
+            style.setDataFormat(key.dataFormat);
+        }
+        if (key.verticalAlignment != null) {
+            style.setVerticalAlignment(key.verticalAlignment);
+        }
+        if (key.horizontalAlignment != null) {
+            style.setAlignment(key.horizontalAlignment);
+        }
+        if (key.fillColor != null) {
+            style.setFillBackgroundColor(XLYFormatter.toColor(key.fillColor));
+            style.setFillForegroundColor(XLYFormatter.toColor(key.fillColor));
+        }
+        if (key.fillForegroundIndex != NO_INDEX) {
+            style.setFillForegroundColor(key.fillForegroundIndex);
+        }
+        if (key.fillBackgroundIndex != NO_INDEX) {
+            style.setFillBackgroundColor(key.fillBackgroundIndex);
+        }
+        if (key.fillPattern != null) {
+            style.setFillPattern(key.fillPattern);
+        }
+        if (key.hasFont()) {
+            style.setFont(getFont(key.fontColor, key.fontIndex));
+        }
+        return style;
+    }
+
+    /**
+     * @return the style matching the key, created on first call
+     */
+    CellStyle getCellStyle(StyleKey key) {
+        return styles.computeIfAbsent(key, this::createStyle);
+    }
+
+    private Font getFont(String fontColor, short fontIndex) {
+        final String fontKey = fontColor != null ? fontColor : String.valueOf(fontIndex);
+        return fonts.computeIfAbsent(fontKey, k -> {
+            final Font font = workbook.createFont();
+            if (fontColor != null) {
+                ((XSSFFont) font).setColor(XLYFormatter.toColor(fontColor));
+            } else {
+                font.setColor(fontIndex);
+            }
+            return font;
+        });
+    }
+}
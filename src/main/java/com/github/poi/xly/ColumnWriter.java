@@ -0,0 +1,190 @@
+package com.github.poi.xly;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Date;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+
+import com.github.poi.xly.stream.WorkbookWriter;
+
+/**
+ * Write the values of one @XLYColumn into cells.<br/>
+ * The kind of value (numeric, boolean, date...) and the style are resolved
+ * once from the field type (see
+ * {@link XLYFormatter#getColumnWriter(Field, com.github.poi.xly.annotation.XLYColumn)}),
+ * then each value is written without any type check on the field nor string
+ * conversion. Null values are left empty.
+ */
+public abstract class ColumnWriter {
+
+    private static final class BooleanWriter extends ColumnWriter {
+
+        BooleanWriter(CellStyle cellStyle) {
+            super(cellStyle);
+        }
+
+        private boolean toBoolean(Object value) {
+            return value instanceof Boolean ? (Boolean) value : Boolean.parseBoolean(value.toString());
+        }
+
+        @Override
+        void writeValue(Cell cell, Object value) {
+            cell.setCellValue(toBoolean(value));
+        }
+
+        @Override
+        void writeValue(WorkbookWriter workbookWriter, int column, Object value) throws IOException {
+            workbookWriter.writeCell(column, toBoolean(value), styleIndex);
+        }
+    }
+
+    private static final class DateWriter extends ColumnWriter {
+
+        DateWriter(CellStyle cellStyle) {
+            super(cellStyle);
+        }
+
+        @Override
+        void writeValue(Cell cell, Object value) {
+            cell.setCellValue((Date) value);
+        }
+
+        @Override
+        void writeValue(WorkbookWriter workbookWriter, int column, Object value) throws IOException {
+            workbookWriter.writeCell(column, (Date) value, styleIndex);
+        }
+    }
+
+    /**
+     * Labels are computed once per constant.
+     */
+    private static final class EnumWriter extends ColumnWriter {
+
+        private final String[] labels;
+
+        EnumWriter(CellStyle cellStyle, Class<?> enumType) {
+            super(cellStyle);
+            final Object[] constants = enumType.getEnumConstants();
+            labels = new String[constants.length];
+            for (int i = 0; i < constants.length; i++) {
+                labels[i] = constants[i].toString();
+            }
+        }
+
+        private String toLabel(Object value) {
+            return labels[((Enum<?>) value).ordinal()];
+        }
+
+        @Override
+        void writeValue(Cell cell, Object value) {
+            cell.setCellValue(toLabel(value));
+        }
+
+        @Override
+        void writeValue(WorkbookWriter workbookWriter, int column, Object value) throws IOException {
+            workbookWriter.writeCell(column, toLabel(value), styleIndex);
+        }
+    }
+
+    private static final class NumericWriter extends ColumnWriter {
+
+        NumericWriter(CellStyle cellStyle) {
+            super(cellStyle);
+        }
+
+        private double toDouble(Object value) {
+            return value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value.toString());
+        }
+
+        @Override
+        void writeValue(Cell cell, Object value) {
+            cell.setCellValue(toDouble(value));
+        }
+
+        @Override
+        void writeValue(WorkbookWriter workbookWriter, int column, Object value) throws IOException {
+            workbookWriter.writeCell(column, toDouble(value), styleIndex);
+        }
+    }
+
+    /**
+     * Also used for LocalDate (written as text with the date style).
+     */
+    private static final class StringWriter extends ColumnWriter {
+
+        StringWriter(CellStyle cellStyle) {
+            super(cellStyle);
+        }
+
+        @Override
+        void writeValue(Cell cell, Object value) {
+            cell.setCellValue(value.toString());
+        }
+
+        @Override
+        void writeValue(WorkbookWriter workbookWriter, int column, Object value) throws IOException {
+            workbookWriter.writeCell(column, value.toString(), styleIndex);
+        }
+    }
+
+    /**
+     * Same type resolution as the previous XLYFormatter#formatCell (first
+     * match wins: boolean, numeric, date, then text).
+     */
+    static ColumnWriter of(Field field, CellStyle cellStyle) {
+        final Class<?> type = field.getType();
+        if (type.isAssignableFrom(Boolean.class)) {
+            return new BooleanWriter(cellStyle);
+        } else if (type.isAssignableFrom(Double.class) || type.isAssignableFrom(Integer.class)
+                || type.isAssignableFrom(Long.class)) {
+            return new NumericWriter(cellStyle);
+        } else if (type.isAssignableFrom(Date.class)) {
+            return new DateWriter(cellStyle);
+        } else if (type.isEnum()) {
+            return new EnumWriter(cellStyle, type);
+        }
+        return new StringWriter(cellStyle);
+    }
+
+    private final CellStyle cellStyle;
+
+    final short styleIndex;
+
+    ColumnWriter(CellStyle cellStyle) {
+        this.cellStyle = cellStyle;
+        this.styleIndex = cellStyle.getIndex();
+    }
+
+    public CellStyle getCellStyle() {
+        return cellStyle;
+    }
+
+    /**
+     * Set the value and the style of the cell, nothing is done for a null
+     * value.
+     */
+    public void write(Cell cell, Object value) {
+        if (value != null) {
+            writeValue(cell, value);
+            cell.setCellStyle(cellStyle);
+        }
+    }
+
+    /**
+     * Write the cell with {@link WorkbookWriter}, a null value gives a blank
+     * cell without style.
+     */
+    public void write(WorkbookWriter workbookWriter, int column, Object value) throws IOException {
+        if (value == null) {
+            workbookWriter.writeBlankCell(column, 0);
+        } else {
+            writeValue(workbookWriter, column, value);
+        }
+    }
+
+    abstract void writeValue(Cell cell, Object value);
+
+    abstract void writeValue(WorkbookWriter workbookWriter, int column, Object value) throws IOException;
+}
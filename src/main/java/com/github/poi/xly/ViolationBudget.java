@@ -0,0 +1,183 @@
+package com.github.poi.xly;
+
+import java.util.Arrays;
+
+/**
+ * Limits of one validation (see {@link XLYValidator#setMaxViolations(int)}):
+ * counts the violations by workbook, sheet and column and tells the
+ * validators when to stop scanning. The result is flagged as truncated as soon
+ * as a violation is dropped or rows are left unchecked.<br/>
+ * Used by the thread running the validation, only {@link #isExpired()} may be
+ * called from other threads.
+ */
+final class ViolationBudget {
+
+    private int[] columnViolations = new int[0];
+
+    /** System.nanoTime() deadline, only checked if timed */
+    private final long deadline;
+
+    private final int maxViolations;
+
+    private final int maxViolationsPerColumn;
+
+    private final int maxViolationsPerSheet;
+
+    private int sheetViolations;
+
+    private final boolean timed;
+
+    private boolean truncated;
+
+    private int violations;
+
+    /**
+     * @param timeBudgetNanos
+     *            0 for no time limit
+     */
+    ViolationBudget(int maxViolations, int maxViolationsPerSheet, int maxViolationsPerColumn, long timeBudgetNanos) {
+        this.maxViolations = maxViolations;
+        this.maxViolationsPerSheet = maxViolationsPerSheet;
+        this.maxViolationsPerColumn = maxViolationsPerColumn;
+        this.timed = timeBudgetNanos > 0;
+        this.deadline = System.nanoTime() + timeBudgetNanos;
+    }
+
+    /**
+     * Count a cell violation.
+     *
+     * @return false if the violation must be dropped (a limit is already
+     *         reached)
+     */
+    boolean addCellViolation(int column) {
+        if (isColumnFull(column) || !addRowViolation()) {
+            truncated = true;
+            return false;
+        }
+        if (column < columnViolations.length) {
+            columnViolations[column]++;
+        }
+        return true;
+    }
+
+    /**
+     * Count a row violation.
+     *
+     * @return false if the violation must be dropped (a limit is already
+     *         reached)
+     */
+    boolean addRowViolation() {
+        if (isSheetFull()) {
+            truncated = true;
+            return false;
+        }
+        violations++;
+        sheetViolations++;
+        return true;
+    }
+
+    /**
+     * Call before validating the cells of a column.
+     *
+     * @return false if the column already has its maximum of violations, its
+     *         cells are then left unchecked
+     */
+    boolean checkColumn(int column) {
+        if (isColumnFull(column)) {
+            truncated = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Call before validating another row of the sheet.
+     *
+     * @return false if the scan of the sheet must stop
+     */
+    boolean checkSheet() {
+        if (isSheetFull() || isExpired()) {
+            truncated = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Call before giving another row to the row constraints.
+     *
+     * @return false once the time budget is spent
+     */
+    boolean checkTime() {
+        if (isExpired()) {
+            truncated = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Call before validating another sheet.
+     *
+     * @return false if the scan of the workbook must stop
+     */
+    boolean checkWorkbook() {
+        if (violations >= maxViolations || isExpired()) {
+            truncated = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the number of violations is limited: the pending
+     *         ExistConstraint chunks are then checked regularly so that their
+     *         violations count before the end of the sheet
+     */
+    boolean hasViolationLimit() {
+        return maxViolations < Integer.MAX_VALUE || maxViolationsPerSheet < Integer.MAX_VALUE
+                || maxViolationsPerColumn < Integer.MAX_VALUE;
+    }
+
+    private boolean isColumnFull(int column) {
+        return column < columnViolations.length && columnViolations[column] >= maxViolationsPerColumn;
+    }
+
+    /**
+     * @return true once the time budget is spent
+     */
+    boolean isExpired() {
+        return timed && System.nanoTime() - deadline > 0;
+    }
+
+    private boolean isSheetFull() {
+        return violations >= maxViolations || sheetViolations >= maxViolationsPerSheet;
+    }
+
+    /**
+     * @return true if violations were dropped or rows left unchecked
+     */
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Reset the sheet and column counts.
+     */
+    void startSheet(int columns) {
+        sheetViolations = 0;
+        if (columnViolations.length < columns) {
+            columnViolations = new int[columns];
+        } else {
+            Arrays.fill(columnViolations, 0);
+        }
+    }
+
+    /**
+     * Flag the result as truncated, e.g. when the time budget ran out while
+     * the rows were validated in parallel.
+     */
+    void truncate() {
+        truncated = true;
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.poi.xly;
+
+import java.util.List;
+
+import com.github.poi.xly.annotation.XLYSheet;
+
+/**
+ * Receive the beans of a sheet by batch while the excel file is still being
+ * parsed.
+ *
+ * @see XLYStreamingImporter#importBatches(java.io.InputStream, int, XLYBatchHandler)
+ */
+@FunctionalInterface
+public interface XLYBatchHandler {
+
+    /**
+     * @param xlySheet
+     *            the sheet the beans belong to
+     * @param beans
+     *            instances of {@link XLYSheet#type()} in the file order, a new
+     *            list is created for each batch
+     */
+    void handle(XLYSheet xlySheet, List<?> beans);
+}
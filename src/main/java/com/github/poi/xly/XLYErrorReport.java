@@ -0,0 +1,345 @@
+package com.github.poi.xly;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import com.github.poi.xly.stream.WorkbookWriter;
+
+/**
+ * Write the rows in error of a rejected file instead of the whole annotated
+ * file, see {@link XLYReportFormat}. Cell values are written as displayed
+ * (DataFormatter), rows are written as they are given: sorted by sheet then
+ * by row number.
+ *
+ * <pre>
+ * (startSheet, addRow*)* ... close
+ * </pre>
+ */
+abstract class XLYErrorReport implements Closeable {
+
+    /**
+     * Comma separated values, quoted when needed (RFC 4180). Values that a
+     * spreadsheet would run as a formula (starting with =, +, -, @, tab or
+     * CR) are prefixed with ', plain numbers are kept as they are.
+     */
+    private static final class CsvReport extends XLYErrorReport {
+
+        private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?([eE][-+]?\\d+)?");
+
+        private final Writer writer;
+
+        CsvReport(OutputStream outputStream) {
+            writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+
+        private void writeRecord(List<String> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeValue(values.get(i));
+            }
+            writer.write("\r\n");
+        }
+
+        private boolean isFormula(String value) {
+            if (value.isEmpty()) {
+                return false;
+            }
+            switch (value.charAt(0)) {
+            case '=':
+            case '+':
+            case '@':
+            case '\t':
+            case '\r':
+                return true;
+            case '-':
+                return !NUMBER.matcher(value).matches();
+            default:
+                return false;
+            }
+        }
+
+        @Override
+        void writeRow(int rownum, List<String> values, Collection<Integer> errorColumns, List<String> messages)
+                throws IOException {
+            final List<String> record = new ArrayList<>(values.size() + 3);
+            record.add(getSheetName());
+            record.add(Integer.toString(rownum + 1));
+            record.addAll(values);
+            record.add(String.join("\n", messages));
+            writeRecord(record);
+        }
+
+        @Override
+        void writeSheet(List<String> headers) throws IOException {
+            final List<String> record = new ArrayList<>(headers.size() + 3);
+            record.add("Sheet");
+            record.add("Line");
+            record.addAll(headers);
+            record.add("Errors");
+            writeRecord(record);
+        }
+
+        private void writeValue(String cellValue) throws IOException {
+            final String value = isFormula(cellValue) ? "'" + cellValue : cellValue;
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                final char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    /**
+     * One JSON object per line, the values are keyed by header (column name
+     * when the header is blank).
+     */
+    private static final class JsonLinesReport extends XLYErrorReport {
+
+        private final Writer writer;
+
+        JsonLinesReport(OutputStream outputStream) {
+            writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+
+        private String getKey(int column) {
+            final List<String> headers = getHeaders();
+            final String header = column < headers.size() ? headers.get(column) : "";
+            return header.trim().isEmpty() ? CellReference.convertNumToColString(column) : header;
+        }
+
+        private void writeString(String value) throws IOException {
+            writer.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+                }
+            }
+            writer.write('"');
+        }
+
+        @Override
+        void writeRow(int rownum, List<String> values, Collection<Integer> errorColumns, List<String> messages)
+                throws IOException {
+            writer.write("{\"sheet\":");
+            writeString(getSheetName());
+            writer.write(",\"line\":");
+            writer.write(Integer.toString(rownum + 1));
+            writer.write(",\"values\":{");
+            for (int column = 0; column < values.size(); column++) {
+                if (column > 0) {
+                    writer.write(',');
+                }
+                writeString(getKey(column));
+                writer.write(':');
+                writeString(values.get(column));
+            }
+            writer.write("},\"errorColumns\":[");
+            boolean first = true;
+            for (final int column : errorColumns) {
+                if (!first) {
+                    writer.write(',');
+                }
+                first = false;
+                writeString(getKey(column));
+            }
+            writer.write("],\"errors\":[");
+            for (int i = 0; i < messages.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeString(messages.get(i));
+            }
+            writer.write("]}\n");
+        }
+
+        @Override
+        void writeSheet(List<String> headers) {
+            // the sheet and the headers are repeated in each object
+        }
+    }
+
+    /**
+     * .xlsx streamed with {@link WorkbookWriter}, the original line is the
+     * first column.
+     */
+    private static final class XlsxReport extends XLYErrorReport {
+
+        private final int errorStyle;
+
+        private int rownum;
+
+        private final XSSFWorkbook stylesWorkbook = new XSSFWorkbook();
+
+        private final WorkbookWriter workbookWriter;
+
+        XlsxReport(OutputStream outputStream) {
+            // only used to hold the styles, never written
+            errorStyle = new XLYFormatter(stylesWorkbook).getErrorStyle().getIndex();
+            workbookWriter = new WorkbookWriter(outputStream, stylesWorkbook.getStylesSource());
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                workbookWriter.close();
+            } finally {
+                stylesWorkbook.close();
+            }
+        }
+
+        @Override
+        void writeRow(int rownum, List<String> values, Collection<Integer> errorColumns, List<String> messages)
+                throws IOException {
+            workbookWriter.startRow(++this.rownum);
+            workbookWriter.writeCell(0, rownum + 1, 0);
+            for (int column = 0; column < values.size(); column++) {
+                workbookWriter.writeCell(column + 1, values.get(column),
+                        errorColumns.contains(column) ? errorStyle : 0);
+            }
+            workbookWriter.writeCell(values.size() + 1, String.join("\n", messages), errorStyle);
+            workbookWriter.endRow();
+        }
+
+        @Override
+        void writeSheet(List<String> headers) throws IOException {
+            workbookWriter.startSheet(getSheetName());
+            workbookWriter.startRow(0);
+            workbookWriter.writeCell(0, "Line", 0);
+            for (int column = 0; column < headers.size(); column++) {
+                workbookWriter.writeCell(column + 1, headers.get(column), 0);
+            }
+            workbookWriter.writeCell(headers.size() + 1, "Errors", 0);
+            workbookWriter.endRow();
+            rownum = 0;
+        }
+    }
+
+    /**
+     * @param outputStream
+     *            not closed by the report
+     */
+    static XLYErrorReport newReport(XLYReportFormat reportFormat, OutputStream outputStream) {
+        switch (reportFormat) {
+        case ERROR_ROWS_XLSX:
+            return new XlsxReport(outputStream);
+        case ERROR_ROWS_CSV:
+            return new CsvReport(outputStream);
+        case ERROR_ROWS_JSON_LINES:
+            return new JsonLinesReport(outputStream);
+        default:
+            throw new IllegalArgumentException("Not an error rows format: " + reportFormat);
+        }
+    }
+
+    private final DataFormatter dataFormatter = new DataFormatter();
+
+    private List<String> headers = Collections.emptyList();
+
+    private String sheetName;
+
+    /**
+     * Write a row in error of the current sheet.
+     *
+     * @param errorColumns
+     *            indexes of the cells in error, ascending
+     * @param messages
+     *            cell and row messages of the row
+     */
+    void addRow(Row row, Collection<Integer> errorColumns, List<String> messages) throws IOException {
+        if (sheetName == null) {
+            throw new IllegalStateException("No sheet started");
+        }
+        final List<String> values = new ArrayList<>(headers.size());
+        for (int column = 0; column < headers.size(); column++) {
+            values.add(dataFormatter.formatCellValue(row.getCell(column)));
+        }
+        writeRow(row.getRowNum(), values, errorColumns, messages);
+    }
+
+    List<String> getHeaders() {
+        return headers;
+    }
+
+    String getSheetName() {
+        return sheetName;
+    }
+
+    /**
+     * Start the rows in error of a sheet.
+     *
+     * @param header
+     *            first row of the sheet, its cells give the columns of the
+     *            report, may be null
+     */
+    void startSheet(String sheetName, Row header) throws IOException {
+        this.sheetName = sheetName;
+        final List<String> headers = new ArrayList<>();
+        if (header != null) {
+            for (int column = 0; column < header.getLastCellNum(); column++) {
+                headers.add(dataFormatter.formatCellValue(header.getCell(column)));
+            }
+        }
+        this.headers = headers;
+        writeSheet(headers);
+    }
+
+    abstract void writeRow(int rownum, List<String> values, Collection<Integer> errorColumns, List<String> messages)
+            throws IOException;
+
+    abstract void writeSheet(List<String> headers) throws IOException;
+}
@@ -0,0 +1,125 @@
+package com.github.poi.xly;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+/**
+ * Collect the validation errors of a workbook by sheet and row, then write
+ * them at once with {@link #flush()}: each cell in error gets the error style
+ * once and each row gets a single comment cell with all its messages (see
+ * {@link XLYFormatter#addErrorMessage(Cell, String)} for the layout).<br/>
+ * Messages of a row are written in the order they were added. A sink is used
+ * for one validation and by one thread.
+ */
+public class XLYErrorSink {
+
+    /**
+     * Errors of one row.
+     */
+    private static final class RowErrors {
+
+        private final List<Cell> cells = new ArrayList<>();
+
+        private final List<String> messages = new ArrayList<>();
+
+        private final Row row;
+
+        RowErrors(Row row) {
+            this.row = row;
+        }
+    }
+
+    private final Map<Sheet, Map<Integer, RowErrors>> errorsBySheet = new LinkedHashMap<>();
+
+    private int size;
+
+    private final XLYFormatter xlyFormatter;
+
+    public XLYErrorSink(XLYFormatter xlyFormatter) {
+        if (xlyFormatter == null) {
+            throw new IllegalArgumentException("xlyFormatter must not be null");
+        }
+        this.xlyFormatter = xlyFormatter;
+    }
+
+    /**
+     * Cell validation error: the cell will be red and the message added at the
+     * end of its row.
+     */
+    public void addError(Cell cell, String message) {
+        final RowErrors rowErrors = getRowErrors(cell.getRow());
+        rowErrors.cells.add(cell);
+        rowErrors.messages.add(message);
+        size++;
+    }
+
+    /**
+     * Row validation error: the message will be added at the end of the row.
+     */
+    public void addError(Row row, String message) {
+        getRowErrors(row).messages.add(message);
+        size++;
+    }
+
+    /**
+     * Write the errors collected so far to the workbook.
+     */
+    public void flush() {
+        for (final Map.Entry<Sheet, Map<Integer, RowErrors>> entry : errorsBySheet.entrySet()) {
+            final int commentIndex = XLYFormatter.getErrorCommentIndex(entry.getKey());
+            for (final RowErrors rowErrors : entry.getValue().values()) {
+                xlyFormatter.addErrorMessages(rowErrors.row, commentIndex, rowErrors.cells, rowErrors.messages);
+            }
+        }
+        errorsBySheet.clear();
+        size = 0;
+    }
+
+    /**
+     * Write the errors collected so far to the report instead of the
+     * workbook, the rows of each sheet in ascending order.
+     */
+    void flush(XLYErrorReport errorReport) throws IOException {
+        for (final Map.Entry<Sheet, Map<Integer, RowErrors>> entry : errorsBySheet.entrySet()) {
+            final Sheet sheet = entry.getKey();
+            errorReport.startSheet(sheet.getSheetName(), sheet.getRow(0));
+            for (final RowErrors rowErrors : new TreeMap<>(entry.getValue()).values()) {
+                final TreeSet<Integer> errorColumns = new TreeSet<>();
+                for (final Cell cell : rowErrors.cells) {
+                    errorColumns.add(cell.getColumnIndex());
+                }
+                errorReport.addRow(rowErrors.row, errorColumns, rowErrors.messages);
+            }
+        }
+        errorsBySheet.clear();
+        size = 0;
+    }
+
+    private RowErrors getRowErrors(Row row) {
+        return errorsBySheet.computeIfAbsent(row.getSheet(), s -> new LinkedHashMap<>())
+                .computeIfAbsent(row.getRowNum(), r -> new RowErrors(row));
+    }
+
+    /**
+     * @return true if no error is waiting for {@link #flush()}
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return number of messages waiting for {@link #flush()}
+     */
+    public int size() {
+        return size;
+    }
+}
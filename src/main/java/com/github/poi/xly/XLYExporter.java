@@ -5,10 +5,9 @@ import static com.github.poi.xly.XLYException.XLYError.UNEXCEPTED_ERROR;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.reflect.Field;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
-import org.apache.commons.beanutils.PropertyUtils;
 import org.apache.poi.xssf.streaming.SXSSFCell;
 import org.apache.poi.xssf.streaming.SXSSFRow;
 import org.apache.poi.xssf.streaming.SXSSFSheet;
@@ -16,26 +15,42 @@ import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.poi.xly.accessor.SheetAccessor;
 import com.github.poi.xly.annotation.XLYColumn;
 import com.github.poi.xly.annotation.XLYSheet;
 
+/**
+ * Generate an excel file from an object annotated with @XLYWorkbook.<br/>
+ * Built with {@link #XLYExporter(Class)} the exporter holds no per export
+ * state: one instance per workbook class can be shared between threads and
+ * the annotations are only parsed once.
+ */
 public class XLYExporter {
 
     private static final Logger logger = LoggerFactory.getLogger(XLYExporter.class);
 
-    private SXSSFWorkbook workbook;
-
-    private XLYFormatter xlyFormatter;
-
-    private XLYMetadataParser xlyMetadataParser;
+    private final XLYMetadataParser xlyMetadataParser;
 
     private final Object xlyWorkbook;
 
+    /**
+     * Reusable and thread-safe exporter, see
+     * {@link #export(Object, OutputStream)}.
+     *
+     * @param workbookClass
+     *            the class annotated with @XLYWorkbook
+     */
+    public XLYExporter(Class<?> workbookClass) {
+        this.xlyMetadataParser = new XLYMetadataParser(workbookClass);
+        this.xlyWorkbook = null;
+    }
+
     /**
      * @param workbook
      *            object annotated with @XLYWorkbook
      */
     public XLYExporter(Object xlyWorkbook) {
+        this.xlyMetadataParser = xlyWorkbook == null ? null : new XLYMetadataParser(xlyWorkbook);
         this.xlyWorkbook = xlyWorkbook;
     }
 
@@ -43,23 +58,32 @@ public class XLYExporter {
      * 
      * Generate an excel file. <br/>
      * 
+     * @param xlyWorkbook
+     *            object annotated with @XLYWorkbook, instance of the class
+     *            given to {@link #XLYExporter(Class)}
      * @param outputStream
      *            the outputstream to write the result to.
-     * @return isSuccessful: true if generation without errors
      */
-    public void export(OutputStream outputStream) {
-        xlyMetadataParser = new XLYMetadataParser(xlyWorkbook);
-        if (xlyWorkbook == null) {
-            throw new IllegalArgumentException("workbook can't be null");
-        }
+    public void export(Object xlyWorkbook, OutputStream outputStream) {
+        final XLYMetadataParser xlyMetadataParser = getMetadataParser(xlyWorkbook);
+        SXSSFWorkbook workbook = null;
         try {
             workbook = new SXSSFWorkbook();
-            xlyFormatter = new XLYFormatter(workbook);
+            final XLYFormatter xlyFormatter = new XLYFormatter(workbook);
             final List<XLYSheet> xlySheets = xlyMetadataParser.getSheets();
             for (final XLYSheet xlySheet : xlySheets) {
-                final SXSSFSheet sheet = createSheet(xlySheet);
-                final List<?> beans = xlyMetadataParser.getValues(xlyWorkbook, xlySheet);
-                populateSheet(sheet, xlySheet, beans);
+                final SXSSFSheet sheet = createSheet(workbook, xlyFormatter, xlySheet);
+                final Object source = xlyMetadataParser.getSource(xlyWorkbook, xlySheet);
+                Throwable failure = null;
+                try {
+                    populateSheet(sheet, xlySheet, xlyMetadataParser, xlyFormatter,
+                            xlyMetadataParser.getIterator(source));
+                } catch (final Throwable e) {
+                    failure = e;
+                    throw e;
+                } finally {
+                    close(source, failure);
+                }
             }
             workbook.write(outputStream);
         } catch (final IOException e) {
@@ -72,10 +96,45 @@ public class XLYExporter {
         }
     }
 
+    /**
+     * 
+     * Generate an excel file from the workbook given to
+     * {@link #XLYExporter(Object)}. <br/>
+     * 
+     * @param outputStream
+     *            the outputstream to write the result to.
+     */
+    public void export(OutputStream outputStream) {
+        export(xlyWorkbook, outputStream);
+    }
+
+    /**
+     * Close the source of the sheet if needed (Stream, database cursor...),
+     * sources are only iterated once. As with a try-with-resources, a close
+     * failure is suppressed by the failure already thrown.
+     *
+     * @param failure
+     *            thrown while the source was read, null if none
+     */
+    protected void close(Object source, Throwable failure) {
+        if (source instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) source).close();
+            } catch (Exception e) {
+                if (failure != null) {
+                    failure.addSuppressed(e);
+                    return;
+                }
+                logger.error(e.getMessage(), e);
+                throw new XLYException(UNEXCEPTED_ERROR, e);
+            }
+        }
+    }
+
     /**
      * Create a sheet and set columns headers.
      */
-    private SXSSFSheet createSheet(final XLYSheet xlySheet) {
+    private SXSSFSheet createSheet(SXSSFWorkbook workbook, XLYFormatter xlyFormatter, final XLYSheet xlySheet) {
         final SXSSFSheet sheet = workbook.createSheet(xlySheet.name());
         final SXSSFRow headerRow = sheet.createRow(0);
         final XLYColumn[] xlyColumns = xlySheet.columns();
@@ -89,31 +148,62 @@ public class XLYExporter {
         return sheet;
     }
 
-    private Object getProperty(Object bean, XLYColumn xlyColumn) {
+    /**
+     * Resolve the writer of each column once, then only the column index is
+     * used.
+     */
+    protected ColumnWriter[] getColumnWriters(XLYMetadataParser xlyMetadataParser, XLYFormatter xlyFormatter,
+            XLYSheet xlySheet) {
+        final XLYColumn[] xlyColumns = xlySheet.columns();
+        final Field[] fields = xlyMetadataParser.getColumnFields(xlySheet);
+        final ColumnWriter[] columnWriters = new ColumnWriter[xlyColumns.length];
+        for (int column = 0; column < xlyColumns.length; column++) {
+            columnWriters[column] = xlyFormatter.getColumnWriter(fields[column], xlyColumns[column]);
+        }
+        return columnWriters;
+    }
+
+    /**
+     * @return the parser matching the workbook to export (the one built once
+     *         in the constructor)
+     */
+    protected XLYMetadataParser getMetadataParser(Object xlyWorkbook) {
+        if (xlyWorkbook == null || xlyMetadataParser == null) {
+            throw new IllegalArgumentException("workbook can't be null");
+        }
+        if (!xlyMetadataParser.getWorkbookClass().isInstance(xlyWorkbook)) {
+            throw new IllegalArgumentException("Expected a workbook of type "
+                    + xlyMetadataParser.getWorkbookClass().getName() + " got " + xlyWorkbook.getClass().getName());
+        }
+        return xlyMetadataParser;
+    }
+
+    protected Object getProperty(Object bean, SheetAccessor sheetAccessor, int column) {
         try {
-            return PropertyUtils.getProperty(bean, xlyColumn.field());
+            return sheetAccessor.get(bean, column);
         } catch (ReflectiveOperationException e) {
             logger.error(e.getMessage(), e);
             throw new RuntimeException(e.getMessage(), e);
         }
     }
 
-    private void populateRow(SXSSFRow row, XLYColumn[] xlyColumns, Map<String, Field> fields, Object bean) {
-        for (int column = 0; column < xlyColumns.length; column++) {
-            final XLYColumn xlyColumn = xlyColumns[column];
-            final Field field = fields.get(xlyColumn.field());
+    private void populateRow(SXSSFRow row, ColumnWriter[] columnWriters, SheetAccessor sheetAccessor, Object bean) {
+        for (int column = 0; column < columnWriters.length; column++) {
             final SXSSFCell cell = row.createCell(column);
-            final Object value = getProperty(bean, xlyColumn);
-            xlyFormatter.formatCell(field, xlyColumn, cell, value);
+            columnWriters[column].write(cell, getProperty(bean, sheetAccessor, column));
         }
     }
 
-    private void populateSheet(final SXSSFSheet sheet, final XLYSheet xlySheet, List<?> beans) {
+    private void populateSheet(final SXSSFSheet sheet, final XLYSheet xlySheet, XLYMetadataParser xlyMetadataParser,
+            XLYFormatter xlyFormatter, Iterator<?> beans) {
         int rownum = 1; // 1 because we skip the first row (a.k.a header)
-        final Map<String, Field> fields = xlyMetadataParser.getDataFields(xlySheet.type(), xlySheet.columns());
-        for (final Object bean : beans) {
+        // resolve writers and accessors once, then only use the column index
+        final ColumnWriter[] columnWriters = getColumnWriters(xlyMetadataParser, xlyFormatter, xlySheet);
+        final SheetAccessor sheetAccessor = xlyMetadataParser.getSheetSchema(xlySheet).getSheetAccessor();
+        while (beans.hasNext()) {
+            final Object bean = beans.next();
             final SXSSFRow row = sheet.createRow(rownum);
-            populateRow(row, xlySheet.columns(), fields, bean);
+            populateRow(row, columnWriters, sheetAccessor, bean);
             rownum++;
         }
     }
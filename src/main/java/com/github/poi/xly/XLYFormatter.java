@@ -4,26 +4,27 @@ import java.awt.Color;
 import java.lang.reflect.Field;
 import java.time.LocalDate;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.poi.hssf.util.HSSFColor;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.DataFormat;
 import org.apache.poi.ss.usermodel.FillPatternType;
-import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
 import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.VerticalAlignment;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.streaming.SXSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFColor;
-import org.apache.poi.xssf.usermodel.XSSFFont;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.poi.xly.CellStyleRegistry.StyleKey;
 import com.github.poi.xly.annotation.XLYColumn;
 
 /**
@@ -38,6 +39,8 @@ public class XLYFormatter {
 
     public static final short RED_INDEX = HSSFColor.RED.index;
 
+    private static final short NO_INDEX = CellStyleRegistry.NO_INDEX;
+
     public static XSSFColor toColor(String hexacode) {
         int red = Integer.valueOf(hexacode.substring(0, 2), 16);
         int green = Integer.valueOf(hexacode.substring(2, 4), 16);
@@ -46,20 +49,27 @@ public class XLYFormatter {
         return xssfColor;
     }
 
+    /** resolved writers by field, then by column */
+    private final Map<Field, Map<XLYColumn, ColumnWriter>> columnWriters = new HashMap<>();
+
     /** default cell formating for data */
     private final DataFormat dataFormat;
 
+    /** date cell formating by date pattern */
+    private final Map<String, CellStyle> dateCellStyles = new HashMap<>();
+
     /** default cell formating */
     private final CellStyle defaultCellStyle;
 
     /** error cell formating */
     private final CellStyle errorStyle;
 
-    private final Workbook workbook;
+    private final CellStyleRegistry styleRegistry;
 
     public XLYFormatter(Workbook workbook) {
-        this.workbook = workbook;
-        defaultCellStyle = workbook.createCellStyle();
+        styleRegistry = new CellStyleRegistry(workbook);
+        defaultCellStyle = styleRegistry.getCellStyle(new StyleKey((short) 0, null, NO_INDEX, null, NO_INDEX,
+                NO_INDEX, null, null, null));
         dataFormat = workbook.createDataFormat();
         errorStyle = initErrorStyle();
     }
@@ -81,6 +91,15 @@ public class XLYFormatter {
         }
     }
 
+    /**
+     * @return headers last column + 1, where the error messages are written
+     */
+    static int getErrorCommentIndex(Sheet sheet) {
+        final Row headers = sheet.getRow(0);
+        // getLastCellNum() returns the last column PLUS ONE
+        return headers == null ? -1 : headers.getLastCellNum();
+    }
+
     /**
      * Set erorStyle to cell + add error message at the end of the row. <br/>
      * Use in case of cell validation error.
@@ -93,6 +112,25 @@ public class XLYFormatter {
         addCommentCell(message, commentIndex, row);
     }
 
+    /**
+     * Set errorStyle to the cells and add all the messages of the row in one
+     * go (see {@link XLYErrorSink}).
+     *
+     * @param commentIndex
+     *            see {@link #getErrorCommentIndex(Sheet)}
+     */
+    void addErrorMessages(Row row, int commentIndex, List<Cell> cells, List<String> messages) {
+        for (final Cell cell : cells) {
+            cell.setCellStyle(errorStyle);
+        }
+        if (commentIndex < 0) {
+            final String msg = "Unable to add error comment to current line. The current row {} of sheet {} doesn't seems to have any cell (lastCellNum {}).";
+            logger.error(msg, row.getRowNum(), row.getSheet().getSheetName(), commentIndex);
+            return;
+        }
+        addCommentCell(String.join("\n", messages), commentIndex, row);
+    }
+
     /**
      * Add error message at the end of the row. <br/>
      * Use in case of row validation error.
@@ -118,105 +156,103 @@ public class XLYFormatter {
     }
 
     public void formatCell(Field field, XLYColumn xlyColumn, Cell cell, Object value) {
-        if (value != null) {
-            if (field.getType().isAssignableFrom(Boolean.class)) {
-                cell.setCellValue(value.toString());
-                cell.setCellType(CellType.BOOLEAN);
-            } else if (isNumeric(field)) {
-                cell.setCellValue(Double.valueOf(value.toString()));
-                cell.setCellType(CellType.NUMERIC);
-            } else if (isDate(field)) {
-                if (field.getType().isAssignableFrom(Date.class)) {
-                    cell.setCellValue((Date) value);
-                } else {
-                    cell.setCellValue(value.toString());
-                }
-            } else {
-                cell.setCellValue(value.toString());
-                cell.setCellType(CellType.STRING);
-            }
-
-            // set cell style
-            if (isDate(field)) {
-                final CellStyle dateCellStyle = workbook.createCellStyle();
-                dateCellStyle.setDataFormat(dataFormat.getFormat(xlyColumn.datePattern()));
-                cell.setCellStyle(dateCellStyle);
-            } else {
-                cell.setCellStyle(defaultCellStyle);
-            }
-        }
+        getColumnWriter(field, xlyColumn).write(cell, value);
     }
 
     public void formatHeader(final XLYColumn xlyColumn, final Cell cell) {
-        final XSSFCellStyle style = (XSSFCellStyle) workbook.createCellStyle();
-        style.setVerticalAlignment(VerticalAlignment.CENTER);
-        style.setAlignment(HorizontalAlignment.CENTER);
+        cell.setCellStyle(getHeaderStyle(xlyColumn));
+    }
+
+    /**
+     * Resolve once how the values of the column are written (kind of value +
+     * style), to be reused for all the rows. The writer is kept by the
+     * formatter, {@link #formatCell(Field, XLYColumn, Cell, Object)} doesn't
+     * resolve it again for each cell.
+     */
+    public ColumnWriter getColumnWriter(Field field, XLYColumn xlyColumn) {
+        return columnWriters.computeIfAbsent(field, key -> new HashMap<>()).computeIfAbsent(xlyColumn, key -> {
+            final CellStyle cellStyle = isDate(field) ? getDateCellStyle(xlyColumn.datePattern())
+                    : defaultCellStyle;
+            return ColumnWriter.of(field, cellStyle);
+        });
+    }
+
+    public DataFormat getDataFormat() {
+        return dataFormat;
+    }
+
+    /**
+     * @return the shared style for date cells with this pattern
+     */
+    private CellStyle getDateCellStyle(String datePattern) {
+        return dateCellStyles.computeIfAbsent(datePattern, pattern -> styleRegistry.getCellStyle(
+                new StyleKey(dataFormat.getFormat(pattern), null, NO_INDEX, null, NO_INDEX, NO_INDEX, null, null, null)));
+    }
+
+    public CellStyle getDefaultCellStyle() {
+        return defaultCellStyle;
+    }
+
+    /**
+     * @return the style of the cells in error (red, white font)
+     */
+    CellStyle getErrorStyle() {
+        return errorStyle;
+    }
+
+    /**
+     * @return the shared style of the header cell of the column
+     */
+    CellStyle getHeaderStyle(final XLYColumn xlyColumn) {
+        final String fillColor;
+        final short fillForegroundIndex;
+        final FillPatternType fillPattern;
         // change color foreground
         if (!Colors.WHITE.equals(xlyColumn.headerForeground())) {
             // convert HEX format color (see XLYPalette.enum) to RGB format
             // color
-            final XSSFColor xssfColor = toColor(xlyColumn.headerForeground());
-            style.setFillBackgroundColor(xssfColor);
-            style.setFillForegroundColor(xssfColor);
-            style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            fillColor = xlyColumn.headerForeground();
+            fillForegroundIndex = NO_INDEX;
+            fillPattern = FillPatternType.SOLID_FOREGROUND;
         } else {
             // default foreground color
-            style.setFillForegroundColor(HSSFColor.WHITE.index);
-            style.setFillPattern(FillPatternType.NO_FILL);
+            fillColor = null;
+            fillForegroundIndex = HSSFColor.WHITE.index;
+            fillPattern = FillPatternType.NO_FILL;
         }
         // change color font
-        final Font font = workbook.createFont();
+        final String fontColor;
+        final short fontIndex;
         if (!Colors.BLACK.equals(xlyColumn.headerFont())) {
-            final int fontColor = Integer.parseInt(xlyColumn.headerFont(), 16);
-            final XSSFColor xssfColor = new XSSFColor(new Color(fontColor));
-            ((XSSFFont) font).setColor(xssfColor);
+            fontColor = xlyColumn.headerFont();
+            fontIndex = NO_INDEX;
         } else { // default font color
-            font.setColor(HSSFColor.BLACK.index);
+            fontColor = null;
+            fontIndex = HSSFColor.BLACK.index;
         }
-        style.setFont(font);
-        cell.setCellStyle(style);
-    }
-
-    public DataFormat getDataFormat() {
-        return dataFormat;
-    }
-
-    public CellStyle getDefaultCellStyle() {
-        return defaultCellStyle;
+        final StyleKey key = new StyleKey((short) 0, fontColor, fontIndex, fillColor, fillForegroundIndex, NO_INDEX,
+                fillPattern, HorizontalAlignment.CENTER, VerticalAlignment.CENTER);
+        return styleRegistry.getCellStyle(key);
     }
 
     /**
      * @return headers last column + 1
      */
     private int getErrorCommentIndex(Row row) {
-        final Row headers = row.getSheet().getRow(0);
-        final int commentIndex = headers.getLastCellNum(); // see javadoc
-                                                           // returns PLUS ONE
-        return commentIndex;
+        return getErrorCommentIndex(row.getSheet());
     }
 
     /**
      * Create the style for further usage.
      */
     private CellStyle initErrorStyle() {
-        final CellStyle style = workbook.createCellStyle();
-        // add foreground red
-        style.setFillForegroundColor(RED_INDEX);
-        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        style.setFillBackgroundColor(RED_INDEX);
-        // add font white
-        final Font font = workbook.createFont();
-        font.setColor(IndexedColors.WHITE.getIndex());
-        style.setFont(font);
-        return style;
+        // foreground red + font white
+        final StyleKey key = new StyleKey((short) 0, null, IndexedColors.WHITE.getIndex(), null, RED_INDEX, RED_INDEX,
+                FillPatternType.SOLID_FOREGROUND, null, null);
+        return styleRegistry.getCellStyle(key);
     }
 
     private boolean isDate(Field field) {
         return field.getType().isAssignableFrom(Date.class) || field.getType().isAssignableFrom(LocalDate.class);
     }
-
-    private boolean isNumeric(Field field) {
-        return field.getType().isAssignableFrom(Double.class) || field.getType().isAssignableFrom(Integer.class)
-                || field.getType().isAssignableFrom(Long.class);
-    }
 }
@@ -0,0 +1,40 @@
+package com.github.poi.xly;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Outcome of {@link XLYValidatingImporter#validateAndSave(java.io.InputStream, java.io.OutputStream)}:
+ * either the populated workbook or the violations (the annotated file has
+ * then been written to the outputStream).
+ */
+public class XLYImportResult<T> {
+
+    private final Set<String> violations;
+
+    private final T workbook;
+
+    XLYImportResult(T workbook, Set<String> violations) {
+        this.workbook = workbook;
+        this.violations = Collections.unmodifiableSet(violations);
+    }
+
+    /**
+     * @return an empty set if the file is valid, otherwise the error messages
+     *         (same as {@link XLYValidator#validate(java.io.InputStream, java.io.OutputStream)})
+     */
+    public Set<String> getViolations() {
+        return violations;
+    }
+
+    /**
+     * @return the imported workbook, null if the file is not valid
+     */
+    public T getWorkbook() {
+        return workbook;
+    }
+
+    public boolean isValid() {
+        return violations.isEmpty();
+    }
+}
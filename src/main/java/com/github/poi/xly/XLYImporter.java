@@ -2,7 +2,6 @@ package com.github.poi.xly;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -11,7 +10,6 @@ import java.util.Map;
 import org.apache.commons.beanutils.ConvertUtilsBean;
 import org.apache.commons.beanutils.ConvertUtilsBean2;
 import org.apache.commons.beanutils.Converter;
-import org.apache.commons.beanutils.PropertyUtils;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.CellType;
@@ -22,45 +20,85 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.poi.xly.accessor.SheetAccessor;
 import com.github.poi.xly.annotation.XLYColumn;
 import com.github.poi.xly.annotation.XLYSheet;
 
 /**
- * Construct the object and sub-objects to be saved to the database.
+ * Construct the object and sub-objects to be saved to the database.<br/>
+ * Once the workbook class is set (see {@link #XLYImporter(Class)}) and the
+ * converters registered, the importer holds no per import state: one instance
+ * can be shared between threads and the annotations are only parsed once.
  */
 public class XLYImporter<T> {
 
     private static final Logger logger = LoggerFactory.getLogger(XLYImporter.class);
 
-    private ConvertUtilsBean converter = new ConvertUtilsBean2();
+    private final ConvertUtilsBean converter = new ConvertUtilsBean2();
 
-    private Class<T> workbookClass;
+    /** parsed once per workbook class */
+    private volatile XLYMetadataParser xlyMetadataParser;
 
-    private XLYMetadataParser xlyMetadataParser;
+    public XLYImporter() {
+    }
+
+    /**
+     * @param workbookClass
+     *            the class annotated with @XLYWorkbook to create
+     */
+    public XLYImporter(Class<T> workbookClass) {
+        if (workbookClass == null) {
+            throw new IllegalArgumentException("workbookClass must not be null");
+        }
+        setWorkbookClass(workbookClass);
+    }
+
+    /**
+     * Create the bean of a row and set its properties.
+     *
+     * @param values
+     *            cell values indexed like {@link XLYSheet#columns()} (null if
+     *            no cell)
+     * @return null if the bean can't be created (error is logged)
+     */
+    protected Object createObject(XLYSheet xlySheet, SheetAccessor sheetAccessor, Map<String, Class<?>> columnsTypes,
+            Object[] values) {
+        try {
+            final Object bean = sheetAccessor.newInstance();
+            final XLYColumn[] xlyColumns = xlySheet.columns();
+            for (int i = 0; i < xlyColumns.length; i++) {
+                if (values[i] != null) {
+                    final Class<?> type = columnsTypes.get(xlyColumns[i].field());
+                    final Object converted = converter.convert(values[i], type);
+                    sheetAccessor.set(bean, i, converted);
+                }
+            }
+            return bean;
+        } catch (ReflectiveOperationException e) {
+            logger.error(e.getMessage(), e);
+            return null;
+        }
+    }
 
-    private List<?> createObjects(XSSFSheet sheet, XLYSheet xlySheet) {
+    private List<?> createObjects(XSSFSheet sheet, XLYSheet xlySheet, XLYMetadataParser xlyMetadataParser) {
         final Map<String, Class<?>> columnsTypes = xlyMetadataParser.getColumnTypes(xlySheet);
+        final SheetAccessor sheetAccessor = xlyMetadataParser.getSheetSchema(xlySheet).getSheetAccessor();
         final List<Object> beans = new ArrayList<>();
         final Iterator<Row> rowIterator = sheet.iterator();
         Row row = rowIterator.next(); // skip first row (a.k.a header)
+        final XLYColumn[] xlyColumns = xlySheet.columns();
         while (rowIterator.hasNext()) {
             row = rowIterator.next();
-            try {
-                final Object bean = xlySheet.type().newInstance();
-                final XLYColumn[] xlyColumns = xlySheet.columns();
-                for (int i = 0; i < xlyColumns.length; i++) {
-                    final Cell cell = row.getCell(i);
-                    if (cell != null) {
-                        final CellType cellType = cell.getCellTypeEnum();
-                        final Object value = getCellValue(cell, cellType);
-                        final Class<?> type = columnsTypes.get(xlyColumns[i].field());
-                        final Object converted = converter.convert(value, type);
-                        PropertyUtils.setProperty(bean, xlyColumns[i].field(), converted);
-                    }
+            final Object[] values = new Object[xlyColumns.length];
+            for (int i = 0; i < xlyColumns.length; i++) {
+                final Cell cell = row.getCell(i);
+                if (cell != null) {
+                    values[i] = getCellValue(cell, cell.getCellTypeEnum());
                 }
+            }
+            final Object bean = createObject(xlySheet, sheetAccessor, columnsTypes, values);
+            if (bean != null) {
                 beans.add(bean);
-            } catch (ReflectiveOperationException e) {
-                logger.error(e.getMessage(), e);
             }
         }
         return beans;
@@ -96,10 +134,22 @@ public class XLYImporter<T> {
         return value;
     }
 
+    /**
+     * @return the parser of the workbook class, null if not set
+     */
+    protected XLYMetadataParser getMetadataParser() {
+        return xlyMetadataParser;
+    }
+
+    @SuppressWarnings("unchecked")
     public Class<T> getWorkbookClass() {
-        return workbookClass;
+        final XLYMetadataParser xlyMetadataParser = this.xlyMetadataParser;
+        return xlyMetadataParser == null ? null : (Class<T>) xlyMetadataParser.getWorkbookClass();
     }
 
+    /**
+     * Register the converters before sharing the importer between threads.
+     */
     public void register(Converter converter, Class<?> clazz) {
         this.converter.register(converter, clazz);
     }
@@ -109,7 +159,8 @@ public class XLYImporter<T> {
      *         {@link XLYImporter#XLYImporter(Class)}
      */
     public T save(InputStream inputStream) {
-        if (inputStream == null || workbookClass == null) {
+        final XLYMetadataParser xlyMetadataParser = this.xlyMetadataParser;
+        if (inputStream == null || xlyMetadataParser == null) {
             throw new IllegalArgumentException("inputStream or workbookClass must not be null");
         }
         XSSFWorkbook workbook = null;
@@ -119,8 +170,8 @@ public class XLYImporter<T> {
             // code
             // see: http://poi.apache.org/spreadsheet/how-to.html#xssf_sax_api
             workbook = new XSSFWorkbook(inputStream);
-            final T xlyWorkbook = workbookClass.newInstance();
-            xlyMetadataParser = new XLYMetadataParser(xlyWorkbook);
+            @SuppressWarnings("unchecked")
+            final T xlyWorkbook = (T) xlyMetadataParser.getWorkbookClass().newInstance();
             final List<XLYSheet> xlySheets = xlyMetadataParser.getSheets();
             for (final XLYSheet xlySheet : xlySheets) {
                 if (xlySheet.toImport()) {
@@ -128,9 +179,8 @@ public class XLYImporter<T> {
                     // the sheet is suppose to be there because it is tested
                     // during
                     // XLYValidation#handleUnexistingSheet()
-                    final List<?> beans = createObjects(sheet, xlySheet);
-                    final Field field = xlyMetadataParser.getField(xlySheet);
-                    PropertyUtils.setProperty(xlyWorkbook, field.getName(), beans);
+                    final List<?> beans = createObjects(sheet, xlySheet, xlyMetadataParser);
+                    xlyMetadataParser.getSheetSchema(xlySheet).getPropertyAccessor().set(xlyWorkbook, beans);
                 }
             }
             return xlyWorkbook;
@@ -149,6 +199,6 @@ public class XLYImporter<T> {
     }
 
     public void setWorkbookClass(Class<T> workbookClass) {
-        this.workbookClass = workbookClass;
+        this.xlyMetadataParser = workbookClass == null ? null : new XLYMetadataParser(workbookClass);
     }
 }
@@ -2,26 +2,35 @@ package com.github.poi.xly;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.BaseStream;
+import java.util.stream.Stream;
 
-import org.apache.commons.beanutils.PropertyUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.poi.xly.annotation.XLYColumn;
 import com.github.poi.xly.annotation.XLYSheet;
-import com.github.poi.xly.annotation.XLYWorkbook;
-
+import com.github.poi.xly.schema.ColumnSchema;
+import com.github.poi.xly.schema.SheetSchema;
+import com.github.poi.xly.schema.WorkbookSchema;
+
+/**
+ * Read the @XLYWorkbook/@XLYSheet/@XLYColumn annotations of a workbook
+ * class.<br/>
+ * Immutable once built: can be shared between threads.
+ */
 public class XLYMetadataParser {
 
     private static final Logger logger = LoggerFactory.getLogger(XLYMetadataParser.class);
 
-    private final LinkedHashMap<XLYSheet, Field> sheets = new LinkedHashMap<>();
-
-    private final Class<?> workbookClass;
+    private final WorkbookSchema workbookSchema;
 
     /**
      * @param the
@@ -31,9 +40,7 @@ public class XLYMetadataParser {
         if (workbookClass == null) {
             throw new IllegalArgumentException("workbookClass can't be null");
         }
-        this.workbookClass = workbookClass;
-        assertWorkbookAnnotation(workbookClass);
-        parseSheets();
+        workbookSchema = WorkbookSchema.of(workbookClass);
     }
 
     /**
@@ -44,18 +51,14 @@ public class XLYMetadataParser {
         if (workbook == null) {
             throw new IllegalArgumentException("workbook can't be null");
         }
-        workbookClass = workbook.getClass();
-        assertWorkbookAnnotation(workbookClass);
-        parseSheets();
+        workbookSchema = WorkbookSchema.of(workbook.getClass());
     }
 
     /**
-     * Check that object is correctly annotated.
+     * @return the class annotated with @XLYWorkbook
      */
-    private void assertWorkbookAnnotation(Class<?> workbookClass) {
-        if (workbookClass.getAnnotation(XLYWorkbook.class) == null) {
-            throw new IllegalArgumentException("workbookClass must be annotated with @XLYWorkbook");
-        }
+    public Class<?> getWorkbookClass() {
+        return workbookSchema.getWorkbookClass();
     }
 
     /**
@@ -63,19 +66,16 @@ public class XLYMetadataParser {
      *         Intger,Double, String)
      */
     public Map<String, Class<?>> getColumnTypes(XLYSheet xlySheet) {
-        try {
-            final Map<String, Class<?>> columnTypes = new HashMap<>();
-            for (XLYColumn xlyColumn : xlySheet.columns()) {
-                final Class<?> beanClass = xlySheet.type();
-                final String fieldName = xlyColumn.field();
-                final Field field = beanClass.getDeclaredField(fieldName);
-                columnTypes.put(fieldName, field.getType());
+        final Map<String, Class<?>> columnTypes = new HashMap<>();
+        for (ColumnSchema column : getSheetSchema(xlySheet).getColumns()) {
+            if (column.getField() == null) {
+                final String msg = "No field " + column.getXlyColumn().field() + " in " + xlySheet.type();
+                logger.error(msg);
+                throw new RuntimeException(msg, new NoSuchFieldException(column.getXlyColumn().field()));
             }
-            return columnTypes;
-        } catch (ReflectiveOperationException e) {
-            logger.error(e.getMessage(), e);
-            throw new RuntimeException(e.getMessage(), e);
+            columnTypes.put(column.getXlyColumn().field(), column.getType());
         }
+        return columnTypes;
     }
 
     /**
@@ -92,33 +92,76 @@ public class XLYMetadataParser {
         return fields;
     }
 
+    /**
+     * @return the bean field of each column, in {@link XLYSheet#columns()}
+     *         order
+     */
+    public Field[] getColumnFields(XLYSheet xlySheet) {
+        final List<ColumnSchema> columns = getSheetSchema(xlySheet).getColumns();
+        final Field[] fields = new Field[columns.size()];
+        for (int column = 0; column < fields.length; column++) {
+            fields[column] = columns.get(column).getField();
+            if (fields[column] == null) {
+                final NoSuchFieldException e = new NoSuchFieldException(columns.get(column).getXlyColumn().field());
+                logger.error(e.getMessage(), e);
+                throw new XLYException(e);
+            }
+        }
+        return fields;
+    }
+
     private Field getField(Class<?> beanClass, XLYColumn xlyColumn) {
-        try {
-            return beanClass.getDeclaredField(xlyColumn.field());
-        } catch (ReflectiveOperationException e) {
+        final Field field = WorkbookSchema.findField(beanClass, xlyColumn.field());
+        if (field == null) {
+            final NoSuchFieldException e = new NoSuchFieldException(xlyColumn.field());
             logger.error(e.getMessage(), e);
             throw new XLYException(e);
         }
+        return field;
     }
 
     public Field getField(XLYSheet xlySheet) {
-        return sheets.get(xlySheet);
+        final SheetSchema sheetSchema = workbookSchema.getSheet(xlySheet);
+        return sheetSchema == null ? null : sheetSchema.getField();
     }
 
-    private Object getProperty(Object bean, Field field) {
+    private Object getProperty(Object bean, XLYSheet xlySheet) {
         try {
-            return PropertyUtils.getProperty(bean, field.getName());
+            return getSheetSchema(xlySheet).getPropertyAccessor().get(bean);
         } catch (ReflectiveOperationException e) {
             logger.error(e.getMessage(), e);
             throw new XLYException(e);
         }
     }
 
+    /**
+     * @return the compiled schema of the workbook class (shared, immutable)
+     */
+    public WorkbookSchema getSchema() {
+        return workbookSchema;
+    }
+
+    /**
+     * @return the compiled schema of the sheet
+     */
+    public SheetSchema getSheetSchema(XLYSheet xlySheet) {
+        final SheetSchema sheetSchema = workbookSchema.getSheet(xlySheet);
+        if (sheetSchema == null) {
+            throw new IllegalArgumentException(
+                    "Sheet " + xlySheet.name() + " doesn't belong to " + workbookSchema.getWorkbookClass());
+        }
+        return sheetSchema;
+    }
+
     /**
      * warning: not *just* a simple getter.
      */
     public List<XLYSheet> getSheets() {
-        return new ArrayList<>(sheets.keySet());
+        final List<XLYSheet> sheets = new ArrayList<>();
+        for (SheetSchema sheetSchema : workbookSchema.getSheets()) {
+            sheets.add(sheetSchema.getXlySheet());
+        }
+        return sheets;
     }
 
     /***
@@ -129,8 +172,7 @@ public class XLYMetadataParser {
      * @return the list of beans (db tuples)
      */
     public List<?> getValues(final Object workbook, XLYSheet xlySheet) {
-        final Field field = getField(xlySheet);
-        final Object scrollableResults = getProperty(workbook, field);
+        final Object scrollableResults = getProperty(workbook, xlySheet);
         if (scrollableResults instanceof List<?>) {
             return (List<?>) scrollableResults;
         }
@@ -139,13 +181,44 @@ public class XLYMetadataParser {
         throw new IllegalStateException(msg);
     }
 
-    private void parseSheets() {
-        final Field[] fields = workbookClass.getDeclaredFields();
-        for (final Field field : fields) {
-            final XLYSheet annotation = field.getAnnotation(XLYSheet.class);
-            if (annotation != null) {
-                sheets.put(annotation, field);
-            }
+    /**
+     * @param source
+     *            the value returned by {@link #getSource(Object, XLYSheet)}
+     * @return an iterator over the beans of the source, an empty iterator if
+     *         the source is null
+     */
+    public Iterator<?> getIterator(Object source) {
+        if (source == null) {
+            return Collections.emptyIterator();
+        }
+        if (source instanceof Iterable<?>) {
+            return ((Iterable<?>) source).iterator();
+        }
+        if (source instanceof Iterator<?>) {
+            return (Iterator<?>) source;
+        }
+        if (source instanceof BaseStream<?, ?>) {
+            return ((BaseStream<?, ?>) source).iterator();
         }
+        if (source instanceof Spliterator<?>) {
+            return Spliterators.iterator((Spliterator<?>) source);
+        }
+        final String msg = "Expected " + Iterable.class.getCanonicalName() + ", " + Iterator.class.getCanonicalName()
+                + ", " + Stream.class.getCanonicalName() + " or " + Spliterator.class.getCanonicalName() + " got "
+                + source.getClass().getCanonicalName();
+        throw new IllegalStateException(msg);
+    }
+
+    /**
+     * @param workbook
+     *            an object annotated with @XLYWorkbook
+     * @param xlySheet
+     *            the associated sheet
+     * @return the raw value of the sheet field: a List or any source supported
+     *         by {@link #getIterator(Object)} (for example a Stream over a
+     *         database cursor)
+     */
+    public Object getSource(final Object workbook, XLYSheet xlySheet) {
+        return getProperty(workbook, xlySheet);
     }
 }
@@ -0,0 +1,37 @@
+package com.github.poi.xly;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * What {@link XLYValidator#validate(InputStream, OutputStream)} writes into
+ * the outputStream when the file is rejected, see
+ * {@link XLYValidator#setReportFormat(XLYReportFormat)}.<br/>
+ * The error rows formats only contain the rows in error: their line in the
+ * uploaded file, the values of the cells under the headers and the messages,
+ * so their size depends on the number of errors rather than on the size of the
+ * file.
+ */
+public enum XLYReportFormat {
+
+    /** the uploaded file with red cells and messages (default) */
+    ANNOTATED_WORKBOOK,
+
+    /**
+     * .xlsx file with one sheet per sheet in error: "Line", the headers then
+     * "Errors", the cells in error are red
+     */
+    ERROR_ROWS_XLSX,
+
+    /**
+     * UTF-8 CSV: each sheet in error starts with a "Sheet,Line,headers...,Errors"
+     * record followed by its rows in error
+     */
+    ERROR_ROWS_CSV,
+
+    /**
+     * UTF-8 JSON Lines, one object per row in error:
+     * {"sheet":..,"line":..,"values":{header:value..},"errorColumns":[header..],"errors":[message..]}
+     */
+    ERROR_ROWS_JSON_LINES
+}
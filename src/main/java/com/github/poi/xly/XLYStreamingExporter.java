@@ -0,0 +1,159 @@
+package com.github.poi.xly;
+
+import static com.github.poi.xly.XLYException.XLYError.UNEXCEPTED_ERROR;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.poi.xly.accessor.SheetAccessor;
+import com.github.poi.xly.annotation.XLYColumn;
+import com.github.poi.xly.annotation.XLYSheet;
+import com.github.poi.xly.stream.WorkbookWriter;
+
+/**
+ * Same as {@link XLYExporter} but the .xlsx is written directly into the
+ * outputStream while the beans are read (no SXSSFWorkbook temporary files):
+ * the first bytes are sent as soon as the first sheet starts, e.g. for an http
+ * download.<br/>
+ * The file content (values, styles, sheets) is identical to the one produced
+ * by {@link XLYExporter}, strings are written inline instead of in a shared
+ * strings table. If a source fails, the workbook parts are not written: the
+ * output is not a readable .xlsx.
+ *
+ * @see WorkbookWriter
+ */
+public class XLYStreamingExporter extends XLYExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(XLYStreamingExporter.class);
+
+    /**
+     * Reusable and thread-safe exporter, see
+     * {@link #export(Object, OutputStream)}.
+     *
+     * @param workbookClass
+     *            the class annotated with @XLYWorkbook
+     */
+    public XLYStreamingExporter(Class<?> workbookClass) {
+        super(workbookClass);
+    }
+
+    /**
+     * @param workbook
+     *            object annotated with @XLYWorkbook
+     */
+    public XLYStreamingExporter(Object xlyWorkbook) {
+        super(xlyWorkbook);
+    }
+
+    /**
+     * Generate an excel file. <br/>
+     * The outputStream is not closed.
+     *
+     * @param outputStream
+     *            the outputstream to write the result to.
+     */
+    @Override
+    public void export(Object xlyWorkbook, OutputStream outputStream) {
+        final XLYMetadataParser xlyMetadataParser = getMetadataParser(xlyWorkbook);
+        if (outputStream == null) {
+            throw new IllegalArgumentException("outputStream can't be null");
+        }
+        // only used to hold the styles, never written
+        final XSSFWorkbook stylesWorkbook = new XSSFWorkbook();
+        final XLYFormatter xlyFormatter = new XLYFormatter(stylesWorkbook);
+        final WorkbookWriter workbookWriter = new WorkbookWriter(outputStream, stylesWorkbook.getStylesSource());
+        boolean written = false;
+        try {
+            for (final XLYSheet xlySheet : xlyMetadataParser.getSheets()) {
+                writeHeader(workbookWriter, xlySheet, stylesWorkbook, xlyFormatter);
+                final Object source = xlyMetadataParser.getSource(xlyWorkbook, xlySheet);
+                Throwable failure = null;
+                try {
+                    writeRows(workbookWriter, xlySheet, xlyMetadataParser, xlyFormatter,
+                            xlyMetadataParser.getIterator(source));
+                } catch (final Throwable e) {
+                    failure = e;
+                    throw e;
+                } finally {
+                    close(source, failure);
+                }
+                workbookWriter.endSheet();
+            }
+            workbookWriter.close();
+            written = true;
+        } catch (final IOException e) {
+            logger.error(e.getMessage(), e);
+            throw new XLYException(UNEXCEPTED_ERROR, e);
+        } finally {
+            if (!written) {
+                abort(workbookWriter);
+            }
+        }
+    }
+
+    /**
+     * Leave an unreadable file rather than a valid but truncated one, the
+     * original failure is the one thrown.
+     */
+    private void abort(WorkbookWriter workbookWriter) {
+        try {
+            workbookWriter.abort();
+        } catch (final IOException e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Start the sheet and write the header row. <br/>
+     * Column widths are computed on the header like {@link XLYExporter} does,
+     * using a scratch sheet of the styles workbook.
+     */
+    private void writeHeader(WorkbookWriter workbookWriter, XLYSheet xlySheet, XSSFWorkbook stylesWorkbook,
+            XLYFormatter xlyFormatter) throws IOException {
+        final XLYColumn[] xlyColumns = xlySheet.columns();
+        final XSSFSheet scratchSheet = stylesWorkbook.createSheet();
+        final XSSFRow headerRow = scratchSheet.createRow(0);
+        final int[] columnWidths = new int[xlyColumns.length];
+        for (int column = 0; column < xlyColumns.length; column++) {
+            final XSSFCell cell = headerRow.createCell(column);
+            cell.setCellValue(xlyColumns[column].headerTitle());
+            xlyFormatter.formatHeader(xlyColumns[column], cell);
+            scratchSheet.autoSizeColumn(column);
+            columnWidths[column] = scratchSheet.getColumnWidth(column);
+        }
+        stylesWorkbook.removeSheetAt(stylesWorkbook.getSheetIndex(scratchSheet));
+
+        workbookWriter.startSheet(xlySheet.name(), columnWidths);
+        workbookWriter.startRow(0);
+        for (int column = 0; column < xlyColumns.length; column++) {
+            final XLYColumn xlyColumn = xlyColumns[column];
+            workbookWriter.writeCell(column, xlyColumn.headerTitle(),
+                    xlyFormatter.getHeaderStyle(xlyColumn).getIndex());
+        }
+        workbookWriter.endRow();
+    }
+
+    private void writeRows(WorkbookWriter workbookWriter, XLYSheet xlySheet, XLYMetadataParser xlyMetadataParser,
+            XLYFormatter xlyFormatter, Iterator<?> beans) throws IOException {
+        final ColumnWriter[] columnWriters = getColumnWriters(xlyMetadataParser, xlyFormatter, xlySheet);
+        final SheetAccessor sheetAccessor = xlyMetadataParser.getSheetSchema(xlySheet).getSheetAccessor();
+        int rownum = 1; // 1 because we skip the first row (a.k.a header)
+        while (beans.hasNext()) {
+            final Object bean = beans.next();
+            workbookWriter.startRow(rownum);
+            for (int column = 0; column < columnWriters.length; column++) {
+                columnWriters[column].write(workbookWriter, column, getProperty(bean, sheetAccessor, column));
+            }
+            workbookWriter.endRow();
+            rownum++;
+        }
+    }
+}
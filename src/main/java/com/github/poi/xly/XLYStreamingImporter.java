@@ -0,0 +1,206 @@
+package com.github.poi.xly;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.poi.xly.XLYException.XLYError;
+import com.github.poi.xly.accessor.SheetAccessor;
+import com.github.poi.xly.annotation.XLYColumn;
+import com.github.poi.xly.annotation.XLYSheet;
+import com.github.poi.xly.stream.RowHandler;
+import com.github.poi.xly.stream.SheetCell;
+import com.github.poi.xly.stream.SheetRow;
+import com.github.poi.xly.stream.WorkbookReader;
+
+/**
+ * Same as {@link XLYImporter} but using the SAX event model instead of loading
+ * the whole excel file in memory (XSSFWorkbook).<br/>
+ * Only one row is kept in memory during parsing, the beans produced are
+ * identical to the ones produced by {@link XLYImporter}.
+ *
+ * @see WorkbookReader
+ */
+public class XLYStreamingImporter<T> extends XLYImporter<T> {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private static final Logger logger = LoggerFactory.getLogger(XLYStreamingImporter.class);
+
+    public XLYStreamingImporter() {
+    }
+
+    /**
+     * @param workbookClass
+     *            the class annotated with @XLYWorkbook to create
+     */
+    public XLYStreamingImporter(Class<T> workbookClass) {
+        super(workbookClass);
+    }
+
+    /**
+     * Parse the sheet and give the beans to the batchHandler each time
+     * batchSize beans have been created (and once at the end for the
+     * remaining ones).
+     */
+    private void createObjects(WorkbookReader workbookReader, XLYSheet xlySheet, XLYMetadataParser xlyMetadataParser,
+            int batchSize, XLYBatchHandler batchHandler) throws IOException {
+        final Map<String, Class<?>> columnsTypes = xlyMetadataParser.getColumnTypes(xlySheet);
+        final SheetAccessor sheetAccessor = xlyMetadataParser.getSheetSchema(xlySheet).getSheetAccessor();
+        final XLYColumn[] xlyColumns = xlySheet.columns();
+        final RowHandler rowHandler = new RowHandler() {
+            private List<Object> beans = newBatch(batchSize);
+
+            private boolean header = true;
+
+            @Override
+            public void endSheet() {
+                if (!beans.isEmpty()) {
+                    batchHandler.handle(xlySheet, beans);
+                }
+            }
+
+            @Override
+            public void handleRow(SheetRow row) {
+                if (header) {
+                    header = false; // skip first row (a.k.a header)
+                    return;
+                }
+                final Object bean = createObject(xlySheet, sheetAccessor, columnsTypes,
+                        getCellValues(row, xlyColumns.length));
+                if (bean != null) {
+                    beans.add(bean);
+                }
+                if (beans.size() >= batchSize) {
+                    batchHandler.handle(xlySheet, beans);
+                    beans = newBatch(batchSize);
+                }
+            }
+        };
+        if (!workbookReader.readSheet(xlySheet.name(), rowHandler)) {
+            logger.error("Unable to find sheet with name: {} during excel import (excel sheetNames: {});",
+                    xlySheet.name(), workbookReader.getSheetNames());
+            throw new XLYException(XLYError.MISSING_SHEET);
+        }
+    }
+
+    /**
+     * @return the values of the first columns of the row, see
+     *         {@link #createObject(XLYSheet, SheetAccessor, Map, Object[])}
+     */
+    protected Object[] getCellValues(SheetRow row, int columns) {
+        final Object[] values = new Object[columns];
+        for (int i = 0; i < columns; i++) {
+            final SheetCell cell = row.getCell(i);
+            if (cell != null) {
+                values[i] = getCellValue(cell);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Same conversion as {@link XLYImporter} does with a poi Cell.
+     */
+    private Object getCellValue(final SheetCell cell) {
+        final CellType cellType = cell.getCellTypeEnum();
+        final Object value;
+        switch (cellType) {
+        case NUMERIC:
+            if (cell.isDateFormatted()) {
+                value = cell.getDateCellValue();
+            } else {
+                value = cell.getNumericCellValue();
+            }
+            break;
+        case BOOLEAN:
+            value = cell.getBooleanCellValue();
+            break;
+        case STRING:
+            value = cell.getStringCellValue();
+            break;
+        case BLANK:
+            value = "";
+            break;
+        default:
+            final String msg = String.format("Unhandle cell type: %s for cell: %s", cellType.name(), cell.getAddress());
+            logger.error(msg);
+            throw new IllegalStateException(msg);
+        }
+        return value;
+    }
+
+    /**
+     * Import the sheets without keeping all the beans in memory: beans are
+     * handed over to the batchHandler as soon as batchSize rows have been
+     * parsed (for example to do a jdbc batch insert) and can then be garbage
+     * collected.<br/>
+     * Sheets are processed in the workbook class order, sheets with
+     * {@link XLYSheet#toImport()} false are skipped.
+     *
+     * @param batchSize
+     *            maximum number of beans given to each
+     *            {@link XLYBatchHandler#handle(XLYSheet, List)} call
+     */
+    public void importBatches(InputStream inputStream, int batchSize, XLYBatchHandler batchHandler) {
+        final XLYMetadataParser xlyMetadataParser = getMetadataParser();
+        if (inputStream == null || xlyMetadataParser == null || batchHandler == null) {
+            throw new IllegalArgumentException("inputStream, workbookClass or batchHandler must not be null");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be greater than 0");
+        }
+        try (WorkbookReader workbookReader = new WorkbookReader(inputStream)) {
+            for (final XLYSheet xlySheet : xlyMetadataParser.getSheets()) {
+                if (xlySheet.toImport()) {
+                    createObjects(workbookReader, xlySheet, xlyMetadataParser, batchSize, batchHandler);
+                }
+            }
+        } catch (final IOException e) {
+            logger.error(e.getMessage(), e);
+            throw new XLYException(e);
+        }
+    }
+
+    private List<Object> newBatch(int batchSize) {
+        return new ArrayList<>(Math.min(batchSize, DEFAULT_CAPACITY));
+    }
+
+    /**
+     * @return the workbook object as define in
+     *         {@link XLYImporter#setWorkbookClass(Class)}
+     */
+    @Override
+    public T save(InputStream inputStream) {
+        final XLYMetadataParser xlyMetadataParser = getMetadataParser();
+        if (inputStream == null || xlyMetadataParser == null) {
+            throw new IllegalArgumentException("inputStream or workbookClass must not be null");
+        }
+        try (WorkbookReader workbookReader = new WorkbookReader(inputStream)) {
+            @SuppressWarnings("unchecked")
+            final T xlyWorkbook = (T) xlyMetadataParser.getWorkbookClass().newInstance();
+            final List<XLYSheet> xlySheets = xlyMetadataParser.getSheets();
+            for (final XLYSheet xlySheet : xlySheets) {
+                if (xlySheet.toImport()) {
+                    // a single batch with all the beans (none for an empty
+                    // sheet), set as it is
+                    final List<List<?>> batches = new ArrayList<>(1);
+                    createObjects(workbookReader, xlySheet, xlyMetadataParser, Integer.MAX_VALUE,
+                            (sheet, batch) -> batches.add(batch));
+                    xlyMetadataParser.getSheetSchema(xlySheet).getPropertyAccessor().set(xlyWorkbook,
+                            batches.isEmpty() ? new ArrayList<>() : batches.get(0));
+                }
+            }
+            return xlyWorkbook;
+        } catch (final IOException | ReflectiveOperationException e) {
+            logger.error(e.getMessage(), e);
+            throw new XLYException(e);
+        }
+    }
+}
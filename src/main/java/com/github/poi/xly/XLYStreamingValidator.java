@@ -0,0 +1,396 @@
+package com.github.poi.xly;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.poi.xly.XLYException.XLYError;
+import com.github.poi.xly.annotation.XLYSheet;
+import com.github.poi.xly.schema.SheetSchema;
+import com.github.poi.xly.stream.RowHandler;
+import com.github.poi.xly.stream.ScratchSheet;
+import com.github.poi.xly.stream.SheetRow;
+import com.github.poi.xly.stream.SheetRowIterator;
+import com.github.poi.xly.stream.WorkbookPatcher;
+import com.github.poi.xly.stream.WorkbookReader;
+import com.github.poi.xly.validation.CellValidatorManager;
+import com.github.poi.xly.validation.ColumnValidationPlan;
+import com.github.poi.xly.validation.ConstraintLocator;
+import com.github.poi.xly.validation.RowConstraint;
+import com.github.poi.xly.validation.RowValidationPass;
+import com.github.poi.xly.validation.RowValidatorManager;
+import com.github.poi.xly.validation.StreamingRowConstraint;
+
+/**
+ * Same as {@link XLYValidator} but the sheets are read with the SAX event
+ * model instead of being loaded in memory (XSSFWorkbook): memory depends on
+ * the number of errors, not on the number of rows.<br/>
+ * Each row is copied into a scratch poi row (see {@link ScratchSheet}) so that
+ * the cell validators, constraints and row constraints run unchanged. Errors
+ * are recorded by coordinates and only written once the sheets have been read,
+ * when the file is rejected. Violations and annotated file (or
+ * report, see {@link #setReportFormat(XLYReportFormat)}) are the same as the
+ * ones of {@link XLYValidator}.
+ */
+public class XLYStreamingValidator extends XLYValidator {
+
+    /**
+     * Errors of one row, see {@link XLYErrorReport}.
+     */
+    private static final class RowErrors {
+
+        private final TreeSet<Integer> columns = new TreeSet<>();
+
+        private final List<String> messages = new ArrayList<>();
+    }
+
+    /**
+     * Errors of one sheet, kept until the annotated file is written.
+     */
+    static final class SheetViolations {
+
+        private final List<int[]> cells = new ArrayList<>();
+
+        private final List<String> cellMessages = new ArrayList<>();
+
+        private final List<Integer> rows = new ArrayList<>();
+
+        private final List<String> rowMessages = new ArrayList<>();
+
+        void addCell(int rownum, int column, String message) {
+            cells.add(new int[] { rownum, column });
+            cellMessages.add(message);
+        }
+
+        void addRow(int rownum, String message) {
+            rows.add(rownum);
+            rowMessages.add(message);
+        }
+
+        boolean isEmpty() {
+            return cells.isEmpty() && rows.isEmpty();
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(XLYStreamingValidator.class);
+
+    /**
+     * @param constraintLocator
+     */
+    public XLYStreamingValidator(ConstraintLocator constraintLocator) {
+        super(constraintLocator);
+    }
+
+    /**
+     * @param constraintLocator
+     * @param workbookClass
+     *            the class annotated with @XLYWorbook representing the
+     *            inputStream to validate
+     */
+    public XLYStreamingValidator(ConstraintLocator constraintLocator, Class<?> workbookClass) {
+        super(constraintLocator, workbookClass);
+    }
+
+    /**
+     * Write the file with the errors (red cells, messages at the end of the
+     * rows, red tabs) like {@link XLYValidator} does: only the sheets in error
+     * and the styles are rewritten, see {@link WorkbookPatcher}. The file is
+     * loaded in a XSSFWorkbook if it can't be patched.
+     */
+    void annotate(WorkbookReader workbookReader, Map<String, SheetViolations> violationsBySheet,
+            OutputStream outputStream) throws IOException {
+        final XLYReportFormat reportFormat = getReportFormat();
+        if (reportFormat != XLYReportFormat.ANNOTATED_WORKBOOK) {
+            try (XLYErrorReport errorReport = XLYErrorReport.newReport(reportFormat, outputStream)) {
+                report(workbookReader, violationsBySheet, errorReport);
+            }
+            return;
+        }
+        final WorkbookPatcher workbookPatcher = new WorkbookPatcher(workbookReader);
+        for (Map.Entry<String, SheetViolations> entry : violationsBySheet.entrySet()) {
+            final SheetViolations sheetViolations = entry.getValue();
+            for (int i = 0; i < sheetViolations.cells.size(); i++) {
+                final int[] coordinates = sheetViolations.cells.get(i);
+                workbookPatcher.addCellError(entry.getKey(), coordinates[0], coordinates[1],
+                        sheetViolations.cellMessages.get(i));
+            }
+            for (int i = 0; i < sheetViolations.rows.size(); i++) {
+                workbookPatcher.addRowError(entry.getKey(), sheetViolations.rows.get(i),
+                        sheetViolations.rowMessages.get(i));
+            }
+        }
+        if (workbookPatcher.write(outputStream)) {
+            return;
+        }
+        logger.info("Unable to patch the file, loading it to write the errors");
+        try (InputStream file = workbookReader.openFile(); XSSFWorkbook workbook = new XSSFWorkbook(file)) {
+            final XLYErrorSink errorSink = new XLYErrorSink(new XLYFormatter(workbook));
+            for (Map.Entry<String, SheetViolations> entry : violationsBySheet.entrySet()) {
+                final XSSFSheet sheet = workbook.getSheet(entry.getKey());
+                final SheetViolations sheetViolations = entry.getValue();
+                for (int i = 0; i < sheetViolations.cells.size(); i++) {
+                    final int[] coordinates = sheetViolations.cells.get(i);
+                    final Row row = sheet.getRow(coordinates[0]);
+                    Cell cell = row.getCell(coordinates[1]);
+                    if (cell == null) {
+                        cell = row.createCell(coordinates[1]);
+                    }
+                    errorSink.addError(cell, sheetViolations.cellMessages.get(i));
+                }
+                for (int i = 0; i < sheetViolations.rows.size(); i++) {
+                    errorSink.addError(sheet.getRow(sheetViolations.rows.get(i)),
+                            sheetViolations.rowMessages.get(i));
+                }
+                sheet.setTabColor(XLYFormatter.RED);
+            }
+            errorSink.flush();
+            workbook.write(outputStream);
+        }
+    }
+
+    /**
+     * Write the rows in error to the report: the sheets in error are parsed
+     * again, up to their last row in error.
+     */
+    private void report(WorkbookReader workbookReader, Map<String, SheetViolations> violationsBySheet,
+            XLYErrorReport errorReport) throws IOException {
+        try (ScratchSheet scratchSheet = new ScratchSheet()) {
+            for (Map.Entry<String, SheetViolations> entry : violationsBySheet.entrySet()) {
+                final SheetViolations sheetViolations = entry.getValue();
+                final TreeMap<Integer, RowErrors> rows = new TreeMap<>();
+                for (int i = 0; i < sheetViolations.cells.size(); i++) {
+                    final int[] coordinates = sheetViolations.cells.get(i);
+                    final RowErrors rowErrors = rows.computeIfAbsent(coordinates[0], r -> new RowErrors());
+                    rowErrors.columns.add(coordinates[1]);
+                    rowErrors.messages.add(sheetViolations.cellMessages.get(i));
+                }
+                for (int i = 0; i < sheetViolations.rows.size(); i++) {
+                    rows.computeIfAbsent(sheetViolations.rows.get(i), r -> new RowErrors()).messages
+                            .add(sheetViolations.rowMessages.get(i));
+                }
+                try (SheetRowIterator sheetRows = workbookReader.iterateSheet(entry.getKey())) {
+                    boolean header = true;
+                    while (sheetRows.hasNext() && !rows.isEmpty()) {
+                        final SheetRow sheetRow = sheetRows.next();
+                        if (header) {
+                            header = false;
+                            errorReport.startSheet(entry.getKey(), scratchSheet.copy(sheetRow));
+                            continue;
+                        }
+                        final RowErrors rowErrors = rows.remove(sheetRow.getRowNum());
+                        if (rowErrors != null) {
+                            errorReport.addRow(scratchSheet.copy(sheetRow), rowErrors.columns, rowErrors.messages);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Collect the violations of the row constraints of the sheet, the
+     * {@link StreamingRowConstraint}s have been given the rows during the cell
+     * validations, the other ones are each run on a new pass over the rows
+     * (streamed as well).
+     */
+    private void validateRows(WorkbookReader workbookReader, ScratchSheet scratchSheet, XLYSheet xlySheet,
+            RowValidationPass rowValidationPass, SheetViolations sheetViolations, Set<String> violations,
+            ViolationBudget violationBudget) {
+        for (Map<Integer, String> rowViolations : rowValidationPass.finish(
+                rowConstraint -> validateRows(workbookReader, scratchSheet, xlySheet, rowConstraint, violationBudget))) {
+            for (Map.Entry<Integer, String> rowViolation : new TreeMap<>(rowViolations).entrySet()) {
+                if (violationBudget.addRowViolation()) {
+                    sheetViolations.addRow(rowViolation.getKey(), rowViolation.getValue());
+                    violations.add(
+                            RowValidatorManager.formatViolation(rowViolation.getKey(), rowViolation.getValue()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Run a row constraint on a new pass over the rows, until the time budget
+     * is spent.
+     */
+    private Map<Integer, String> validateRows(WorkbookReader workbookReader, ScratchSheet scratchSheet,
+            XLYSheet xlySheet, RowConstraint rowConstraint, ViolationBudget violationBudget) {
+        try (SheetRowIterator sheetRows = workbookReader.iterateSheet(xlySheet.name())) {
+            return rowConstraint.validate(new Iterator<Row>() {
+                @Override
+                public boolean hasNext() {
+                    return sheetRows.hasNext() && violationBudget.checkTime();
+                }
+
+                @Override
+                public Row next() {
+                    return scratchSheet.copy(sheetRows.next());
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public XLYValidationResult validateWithResult(InputStream inputStream, OutputStream outputStream) {
+        final XLYMetadataParser xlyMetadataParser = getMetadataParser();
+        if (xlyMetadataParser == null) {
+            throw new IllegalArgumentException("workbookClass must not be null");
+        }
+        final ViolationBudget violationBudget = newViolationBudget();
+        final Set<String> violations = new HashSet<>();
+        final Map<String, SheetViolations> violationsBySheet = new LinkedHashMap<>();
+        try (WorkbookReader workbookReader = new WorkbookReader(inputStream);
+                ScratchSheet scratchSheet = new ScratchSheet()) {
+            final CellValidatorManager cellValidatorManager = newCellValidatorManager(scratchSheet);
+            for (final XLYSheet xlySheet : xlyMetadataParser.getSheets()) {
+                if (xlySheet.toImport()) {
+                    if (!violationBudget.checkWorkbook()) {
+                        break;
+                    }
+                    final SheetViolations sheetViolations = validateSheet(workbookReader, scratchSheet, xlySheet,
+                            xlyMetadataParser, cellValidatorManager, violations, null, violationBudget);
+                    if (!sheetViolations.isEmpty()) {
+                        violationsBySheet.put(xlySheet.name(), sheetViolations);
+                    }
+                }
+            }
+            if (!violations.isEmpty()) {
+                annotate(workbookReader, violationsBySheet, outputStream);
+            }
+        } catch (IOException e) {
+            handleIOException(e);
+        }
+        if (violationBudget.isTruncated()) {
+            logTruncated(violations);
+        }
+        return new XLYValidationResult(violations, violationBudget.isTruncated());
+    }
+
+    /**
+     * Create the manager of one validation, its constraint locator is the one
+     * of the validation (see {@link ConstraintLocator#forValidation()}).
+     */
+    CellValidatorManager newCellValidatorManager(ScratchSheet scratchSheet) {
+        return new CellValidatorManager(getConstraintLocator().forValidation(),
+                new XLYFormatter(scratchSheet.getWorkbook()));
+    }
+
+    /**
+     * Run the cell validations while parsing the sheet, then the row
+     * validations if there are no cell errors (see {@link XLYValidator}). The
+     * {@link StreamingRowConstraint}s are given the rows during the same
+     * parsing, their violations are dropped if there are cell errors.
+     *
+     * @param violations
+     *            the messages of the whole workbook, completed with the ones
+     *            of the sheet
+     * @param rowListener
+     *            called with each data row once its cells have been
+     *            validated (the ExistConstraint violations may be reported
+     *            later, by chunks), may be null
+     * @param violationBudget
+     *            the parsing of the sheet stops once a limit is reached
+     */
+    SheetViolations validateSheet(WorkbookReader workbookReader, ScratchSheet scratchSheet, XLYSheet xlySheet,
+            XLYMetadataParser xlyMetadataParser, CellValidatorManager cellValidatorManager, Set<String> violations,
+            RowHandler rowListener, ViolationBudget violationBudget) throws IOException {
+        final SheetViolations sheetViolations = new SheetViolations();
+        final SheetSchema sheetSchema = xlyMetadataParser.getSheetSchema(xlySheet);
+        violationBudget.startSheet(sheetSchema.getColumns().size());
+        final List<ColumnValidationPlan> validationPlan = cellValidatorManager.getValidationPlan(sheetSchema,
+                (rownum, column, message) -> {
+                    // ExistConstraint checked by chunks
+                    if (violationBudget.addCellViolation(column)) {
+                        sheetViolations.addCell(rownum, column, message);
+                        violations.add(message);
+                    }
+                });
+        final RowValidationPass rowValidationPass = new RowValidationPass(cellValidatorManager.getConstraintLocator(),
+                xlySheet);
+        final RowHandler rowHandler = new RowHandler() {
+            private boolean header = true;
+
+            @Override
+            public void handleRow(SheetRow sheetRow) {
+                if (header) {
+                    header = false; // skip first row (a.k.a headers)
+                    if (rowValidationPass.isStreaming()) {
+                        rowValidationPass.start(scratchSheet.copy(sheetRow));
+                    }
+                    return;
+                }
+                final Row row = scratchSheet.copy(sheetRow);
+                for (int column = 0; column < validationPlan.size(); column++) {
+                    if (!violationBudget.checkColumn(column)) {
+                        continue;
+                    }
+                    Cell cell = row.getCell(column);
+                    if (cell == null) {
+                        cell = row.createCell(column);
+                    }
+                    for (String message : cellValidatorManager.getViolations(cell, validationPlan.get(column))) {
+                        if (violationBudget.addCellViolation(column)) {
+                            sheetViolations.addCell(sheetRow.getRowNum(), column, message);
+                            violations.add(message);
+                        }
+                    }
+                }
+                if (sheetViolations.isEmpty() && !rowValidationPass.isDone()) {
+                    // the row violations are only reported if there are no
+                    // cell violations
+                    rowValidationPass.checkRow(row);
+                }
+                if (rowListener != null) {
+                    rowListener.handleRow(sheetRow);
+                }
+            }
+        };
+        try {
+            try (SheetRowIterator sheetRows = workbookReader.iterateSheet(xlySheet.name())) {
+                if (sheetRows == null) {
+                    logger.error("Unable to find sheet with name: {} during excel import (excel sheetNames: {});",
+                            xlySheet.name(), workbookReader.getSheetNames());
+                    throw new XLYException(XLYError.MISSING_SHEET);
+                }
+                // pulled rather than parsed with readSheet to stop at a limit
+                final boolean flushRegularly = violationBudget.hasViolationLimit();
+                int rows = -1; // the header row is not counted
+                while (sheetRows.hasNext() && violationBudget.checkSheet()) {
+                    rowHandler.handleRow(sheetRows.next());
+                    if (flushRegularly && ++rows % EXIST_FLUSH_ROWS == 0) {
+                        // the limits must see the ExistConstraint violations
+                        cellValidatorManager.flush(validationPlan);
+                    }
+                }
+            }
+            cellValidatorManager.flush(validationPlan);
+            if (sheetViolations.isEmpty() && violationBudget.checkSheet()) {
+                validateRows(workbookReader, scratchSheet, xlySheet, rowValidationPass, sheetViolations, violations,
+                        violationBudget);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            rowValidationPass.close();
+        }
+        return sheetViolations;
+    }
+}
@@ -0,0 +1,177 @@
+package com.github.poi.xly;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.beanutils.Converter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.poi.xly.XLYStreamingValidator.SheetViolations;
+import com.github.poi.xly.accessor.SheetAccessor;
+import com.github.poi.xly.annotation.XLYSheet;
+import com.github.poi.xly.stream.RowHandler;
+import com.github.poi.xly.stream.ScratchSheet;
+import com.github.poi.xly.stream.SheetRow;
+import com.github.poi.xly.stream.WorkbookReader;
+import com.github.poi.xly.validation.CellValidatorManager;
+import com.github.poi.xly.validation.ConstraintLocator;
+
+/**
+ * Validate and import an upload in one go, instead of calling
+ * {@link XLYValidator#validate(InputStream, OutputStream)} then
+ * {@link XLYImporter#save(InputStream)}: the file is unzipped once and each
+ * sheet is parsed once (SAX) to run the cell validations and create the
+ * beans. Row constraints run on a second streamed pass of the sheet, like
+ * with {@link XLYStreamingValidator}.<br/>
+ * Beans are dropped as soon as a violation is found. Violations and annotated
+ * file are the same as the ones of {@link XLYStreamingValidator}, beans the
+ * same as the ones of {@link XLYStreamingImporter}.<br/>
+ * The workbook class is given to the constructor only: it is shared by the
+ * validator and the importer this class is made of.
+ */
+public class XLYValidatingImporter<T> {
+
+    /**
+     * Beans of one sheet, created while the cells are validated.
+     */
+    private final class SheetImport implements RowHandler {
+
+        private List<Object> beans = new ArrayList<>();
+
+        private final Map<String, Class<?>> columnsTypes;
+
+        /** first conversion error, only reported if the file is valid */
+        private RuntimeException conversionError;
+
+        private final SheetAccessor sheetAccessor;
+
+        private final Set<String> violations;
+
+        private final XLYSheet xlySheet;
+
+        SheetImport(XLYSheet xlySheet, XLYMetadataParser xlyMetadataParser, Set<String> violations) {
+            this.xlySheet = xlySheet;
+            this.violations = violations;
+            this.columnsTypes = xlyMetadataParser.getColumnTypes(xlySheet);
+            this.sheetAccessor = xlyMetadataParser.getSheetSchema(xlySheet).getSheetAccessor();
+        }
+
+        @Override
+        public void handleRow(SheetRow row) {
+            if (!violations.isEmpty() || conversionError != null) {
+                beans = null; // the workbook won't be returned
+                return;
+            }
+            try {
+                final Object bean = xlyImporter.createObject(xlySheet, sheetAccessor, columnsTypes,
+                        xlyImporter.getCellValues(row, xlySheet.columns().length));
+                if (bean != null) {
+                    beans.add(bean);
+                }
+            } catch (RuntimeException e) {
+                conversionError = e;
+            }
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(XLYValidatingImporter.class);
+
+    private final XLYStreamingImporter<T> xlyImporter;
+
+    private final XLYStreamingValidator xlyValidator;
+
+    /**
+     * @param constraintLocator
+     * @param workbookClass
+     *            the class annotated with @XLYWorkbook to validate and create
+     */
+    public XLYValidatingImporter(ConstraintLocator constraintLocator, Class<T> workbookClass) {
+        this.xlyImporter = new XLYStreamingImporter<>(workbookClass);
+        this.xlyValidator = new XLYStreamingValidator(constraintLocator, workbookClass);
+    }
+
+    public Class<T> getWorkbookClass() {
+        return xlyImporter.getWorkbookClass();
+    }
+
+    /**
+     * @see XLYImporter#register(Converter, Class)
+     */
+    public void register(Converter converter, Class<?> clazz) {
+        xlyImporter.register(converter, clazz);
+    }
+
+    /**
+     * @see XLYValidator#setReportFormat(XLYReportFormat)
+     */
+    public void setReportFormat(XLYReportFormat reportFormat) {
+        xlyValidator.setReportFormat(reportFormat);
+    }
+
+    /**
+     * @param inputStream
+     *            the .xlsx file
+     * @param outputStream
+     *            the input .xlsx file + errors (a.k.a excel red cells +
+     *            message) or the rows in error (see
+     *            {@link #setReportFormat(XLYReportFormat)}), only written if
+     *            there are errors
+     * @return the workbook object if the file is valid, the violations
+     *         otherwise
+     */
+    public XLYImportResult<T> validateAndSave(InputStream inputStream, OutputStream outputStream) {
+        final XLYMetadataParser xlyMetadataParser = xlyImporter.getMetadataParser();
+        if (inputStream == null) {
+            throw new IllegalArgumentException("inputStream must not be null");
+        }
+        final Set<String> violations = new HashSet<>();
+        final Map<String, SheetViolations> violationsBySheet = new LinkedHashMap<>();
+        try (WorkbookReader workbookReader = new WorkbookReader(inputStream);
+                ScratchSheet scratchSheet = new ScratchSheet()) {
+            @SuppressWarnings("unchecked")
+            final T xlyWorkbook = (T) xlyMetadataParser.getWorkbookClass().newInstance();
+            final CellValidatorManager cellValidatorManager = xlyValidator.newCellValidatorManager(scratchSheet);
+            // no limit: the beans are only returned if the whole file is valid
+            final ViolationBudget violationBudget = xlyValidator.newViolationBudget();
+            RuntimeException conversionError = null;
+            for (final XLYSheet xlySheet : xlyMetadataParser.getSheets()) {
+                if (xlySheet.toImport()) {
+                    final SheetImport sheetImport = new SheetImport(xlySheet, xlyMetadataParser, violations);
+                    final SheetViolations sheetViolations = xlyValidator.validateSheet(workbookReader,
+                            scratchSheet, xlySheet, xlyMetadataParser, cellValidatorManager, violations,
+                            sheetImport, violationBudget);
+                    if (!sheetViolations.isEmpty()) {
+                        violationsBySheet.put(xlySheet.name(), sheetViolations);
+                    } else if (violations.isEmpty() && conversionError == null) {
+                        conversionError = sheetImport.conversionError;
+                        xlyMetadataParser.getSheetSchema(xlySheet).getPropertyAccessor().set(xlyWorkbook,
+                                sheetImport.beans);
+                    }
+                }
+            }
+            if (!violations.isEmpty()) {
+                xlyValidator.annotate(workbookReader, violationsBySheet, outputStream);
+                return new XLYImportResult<>(null, violations);
+            }
+            if (conversionError != null) {
+                // same failure as XLYImporter#save on a valid file
+                throw conversionError;
+            }
+            return new XLYImportResult<>(xlyWorkbook, violations);
+        } catch (final IOException e) {
+            xlyValidator.handleIOException(e);
+            return null;
+        } catch (final ReflectiveOperationException e) {
+            logger.error(e.getMessage(), e);
+            throw new XLYException(e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.poi.xly;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Outcome of {@link XLYValidator#validateWithResult(java.io.InputStream, java.io.OutputStream)}:
+ * the violations and whether the validation stopped before the end of the
+ * file because of a limit (see {@link XLYValidator#setMaxViolations(int)}).
+ */
+public class XLYValidationResult {
+
+    private final boolean truncated;
+
+    private final Set<String> violations;
+
+    XLYValidationResult(Set<String> violations, boolean truncated) {
+        this.violations = Collections.unmodifiableSet(violations);
+        this.truncated = truncated;
+    }
+
+    /**
+     * @return the error messages found, empty if none (unlike
+     *         {@link XLYValidator#validate(java.io.InputStream, java.io.OutputStream)}
+     *         a truncated validation adds no message, see
+     *         {@link #isTruncated()})
+     */
+    public Set<String> getViolations() {
+        return violations;
+    }
+
+    /**
+     * @return true if a limit was reached: violations were dropped or rows
+     *         were left unchecked, the file may have more errors
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * A truncated result with no violation (time budget spent) is not valid:
+     * the file has not been fully checked.
+     */
+    public boolean isValid() {
+        return violations.isEmpty() && !truncated;
+    }
+}
@@ -3,11 +3,14 @@ package com.github.poi.xly;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.poi.openxml4j.util.ZipSecureFile;
 import org.apache.poi.ss.usermodel.Cell;
@@ -19,35 +22,158 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.poi.xly.XLYException.XLYError;
-import com.github.poi.xly.annotation.XLYColumn;
 import com.github.poi.xly.annotation.XLYSheet;
+import com.github.poi.xly.schema.SheetSchema;
 import com.github.poi.xly.validation.CellValidatorManager;
+import com.github.poi.xly.validation.ColumnValidationPlan;
 import com.github.poi.xly.validation.ConstraintLocator;
 import com.github.poi.xly.validation.RowValidatorManager;
 
 /**
  * Validate the content of the excel file using the validators define
- * the @Workbook.
+ * the @Workbook.<br/>
+ * Once the workbook class is set (see
+ * {@link #XLYValidator(ConstraintLocator, Class)}) the validator holds no per
+ * validation state: one instance can be shared between threads (as long as
+ * the constraints are) and the annotations are only parsed once.<br/>
+ * With {@link #setForkJoinPool(ForkJoinPool)} the cells are validated by
+ * chunks of rows in parallel, the workbook is then only modified by the
+ * calling thread once the cells have been validated.<br/>
+ * With {@link #setReportFormat(XLYReportFormat)} a rejected file gives a report
+ * of its rows in error instead of the annotated file.<br/>
+ * The scan can be stopped early with limits: number of violations of the
+ * workbook, of a sheet, of a column, and time budget (see
+ * {@link #validateWithResult(InputStream, OutputStream)} to know if a limit was
+ * reached).
  */
 public class XLYValidator {
 
+    /**
+     * A message to add to a cell once the chunks have been validated.
+     */
+    private static final class CellViolation {
+
+        private final int column;
+
+        private final String message;
+
+        private final int rownum;
+
+        CellViolation(int rownum, int column, String message) {
+            this.rownum = rownum;
+            this.column = column;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Validate the cells of the rows [from, to[, split in two tasks above
+     * chunkSize rows. Each chunk has its own validation plan (see
+     * {@link ColumnValidationPlan}) and only reads the workbook.
+     */
+    private static final class CellValidationTask extends RecursiveTask<List<CellViolation>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final CellValidatorManager cellValidatorManager;
+
+        private final int chunkSize;
+
+        private final ViolationBudget violationBudget;
+
+        private final int from;
+
+        private final List<Row> rows;
+
+        private final SheetSchema sheetSchema;
+
+        private final int to;
+
+        CellValidationTask(List<Row> rows, int from, int to, int chunkSize, SheetSchema sheetSchema,
+                CellValidatorManager cellValidatorManager, ViolationBudget violationBudget) {
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.sheetSchema = sheetSchema;
+            this.cellValidatorManager = cellValidatorManager;
+            this.violationBudget = violationBudget;
+        }
+
+        /**
+         * @return the violations in the sequential validation order (rows,
+         *         columns, then the ExistConstraints checked by
+         *         chunks), stops once the time budget is spent
+         */
+        @Override
+        protected List<CellViolation> compute() {
+            if (to - from > chunkSize) {
+                final int middle = (from + to) >>> 1;
+                final CellValidationTask first = new CellValidationTask(rows, from, middle, chunkSize, sheetSchema,
+                        cellValidatorManager, violationBudget);
+                first.fork();
+                final List<CellViolation> second = new CellValidationTask(rows, middle, to, chunkSize, sheetSchema,
+                        cellValidatorManager, violationBudget).compute();
+                final List<CellViolation> violations = first.join();
+                violations.addAll(second);
+                return violations;
+            }
+            final List<CellViolation> violations = new ArrayList<>();
+            final List<ColumnValidationPlan> validationPlan = cellValidatorManager.getValidationPlan(sheetSchema,
+                    (rownum, column, message) -> violations.add(new CellViolation(rownum, column, message)));
+            for (int i = from; i < to && !violationBudget.isExpired(); i++) {
+                final Row row = rows.get(i);
+                for (int column = 0; column < validationPlan.size(); column++) {
+                    for (String message : cellValidatorManager.getViolations(row.getCell(column),
+                            validationPlan.get(column))) {
+                        violations.add(new CellViolation(row.getRowNum(), column, message));
+                    }
+                }
+            }
+            cellValidatorManager.flush(validationPlan);
+            return violations;
+        }
+    }
+
+    static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    /**
+     * Rows after which the pending ExistConstraint chunks are checked when the
+     * number of violations is limited.
+     */
+    static final int EXIST_FLUSH_ROWS = 1000;
+
     private static final Logger logger = LoggerFactory.getLogger(XLYValidator.class);
 
-    private CellValidatorManager cellValidatorManager;
+    /**
+     * Added by {@link #validate(InputStream, OutputStream)} when a limit
+     * stopped the validation.
+     */
+    public static final String TRUNCATED_MESSAGE = "Validation stopped by a limit, the file has not been fully checked";
+
+    private volatile int chunkSize = DEFAULT_CHUNK_SIZE;
 
     private final ConstraintLocator constraintLocator;
 
-    private RowValidatorManager rowValidatorManager;
+    /** null to validate the cells in the calling thread */
+    private volatile ForkJoinPool forkJoinPool;
+
+    private volatile int maxViolations = Integer.MAX_VALUE;
+
+    private volatile int maxViolationsPerColumn = Integer.MAX_VALUE;
+
+    private volatile int maxViolationsPerSheet = Integer.MAX_VALUE;
+
+    private volatile XLYReportFormat reportFormat = XLYReportFormat.ANNOTATED_WORKBOOK;
 
-    private Class<?> workbookClass;
+    /** 0 for no time limit */
+    private volatile long timeBudgetNanos;
 
-    private XLYMetadataParser xlyMetadataParser;
+    /** parsed once per workbook class */
+    private volatile XLYMetadataParser xlyMetadataParser;
 
     /**
      * 
-     * @param workbookClass
-     *            the class annotated with @XLYWorbook representing the
-     *            inputStream to validate
      * @param constraintLocator
      */
     public XLYValidator(ConstraintLocator constraintLocator) {
@@ -57,8 +183,39 @@ public class XLYValidator {
         this.constraintLocator = constraintLocator;
     }
 
+    /**
+     * 
+     * @param constraintLocator
+     * @param workbookClass
+     *            the class annotated with @XLYWorbook representing the
+     *            inputStream to validate
+     */
+    public XLYValidator(ConstraintLocator constraintLocator, Class<?> workbookClass) {
+        this(constraintLocator);
+        if (workbookClass == null) {
+            throw new IllegalArgumentException("workbookClass must not be null");
+        }
+        setWorkbookClass(workbookClass);
+    }
+
+    protected ConstraintLocator getConstraintLocator() {
+        return constraintLocator;
+    }
+
+    /**
+     * @return the parser of the workbook class, null if not set
+     */
+    protected XLYMetadataParser getMetadataParser() {
+        return xlyMetadataParser;
+    }
+
+    public XLYReportFormat getReportFormat() {
+        return reportFormat;
+    }
+
     public Class<?> getWorkbookClass() {
-        return workbookClass;
+        final XLYMetadataParser xlyMetadataParser = this.xlyMetadataParser;
+        return xlyMetadataParser == null ? null : xlyMetadataParser.getWorkbookClass();
     }
 
     /**
@@ -68,7 +225,7 @@ public class XLYValidator {
      * 
      * @see ZipSecureFile
      */
-    private void handleIOException(IOException e) {
+    protected void handleIOException(IOException e) {
         if (e.getCause() != null && e.getCause().getMessage() != null
                 && e.getCause().getMessage().startsWith("Zip bomb detected!")) {
             throw new XLYException(XLYError.PROTECTED_VIEW_ENABLE, e);
@@ -93,16 +250,138 @@ public class XLYValidator {
         throw new XLYException(XLYError.MISSING_SHEET);
     }
 
+    /**
+     * @return true if the file has no error, false if it has errors or if a
+     *         limit stopped its validation
+     */
     public boolean isValid(final InputStream inputStream, OutputStream outputStream) {
-        final Set<String> messages = validate(inputStream, outputStream);
-        if (!messages.isEmpty()) {
-            logger.info("Excel validation errors: {}", String.join(",", messages));
+        final XLYValidationResult result = validateWithResult(inputStream, outputStream);
+        if (!result.getViolations().isEmpty()) {
+            logger.info("Excel validation errors: {}", String.join(",", result.getViolations()));
+        }
+        return result.isValid();
+    }
+
+    /**
+     * Log the end of a validation stopped by a limit.
+     */
+    void logTruncated(Set<String> violations) {
+        logger.info("Excel validation stopped by a limit after {} distinct errors", violations.size());
+    }
+
+    /**
+     * @return the limits of one validation, the time budget starts now
+     */
+    ViolationBudget newViolationBudget() {
+        return new ViolationBudget(maxViolations, maxViolationsPerSheet, maxViolationsPerColumn, timeBudgetNanos);
+    }
+
+    /**
+     * @param chunkSize
+     *            rows validated by each parallel task (see
+     *            {@link #setForkJoinPool(ForkJoinPool)}), {@value #DEFAULT_CHUNK_SIZE}
+     *            by default
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Validate the cells of each sheet by chunks of rows in the pool (e.g.
+     * {@link ForkJoinPool#commonPool()}), the constraints located for a
+     * validation are then called from several threads and must be thread safe
+     * (or located per thread, see
+     * {@link com.github.poi.xly.validation.CachingConstraintLocator}). The row
+     * constraints and the annotations of the workbook still run in the
+     * calling thread. Not supported by {@link XLYStreamingValidator}.
+     *
+     * @param forkJoinPool
+     *            null to validate the cells in the calling thread (default)
+     */
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    /**
+     * Stop the validation once the workbook has this number of violations
+     * (cell and row violations, not distinct messages), the remaining sheets
+     * and rows are not checked.
+     *
+     * @param maxViolations
+     *            no limit by default
+     */
+    public void setMaxViolations(int maxViolations) {
+        if (maxViolations < 1) {
+            throw new IllegalArgumentException("maxViolations must be positive");
+        }
+        this.maxViolations = maxViolations;
+    }
+
+    /**
+     * Stop checking the cells of a column once it has this number of
+     * violations in a sheet, the other columns are still checked. With
+     * {@link #setForkJoinPool(ForkJoinPool)} the cells are all checked and the
+     * extra violations dropped.
+     *
+     * @param maxViolationsPerColumn
+     *            no limit by default
+     */
+    public void setMaxViolationsPerColumn(int maxViolationsPerColumn) {
+        if (maxViolationsPerColumn < 1) {
+            throw new IllegalArgumentException("maxViolationsPerColumn must be positive");
+        }
+        this.maxViolationsPerColumn = maxViolationsPerColumn;
+    }
+
+    /**
+     * Stop the validation of a sheet once it has this number of violations,
+     * the next sheets are still checked. With
+     * {@link #setForkJoinPool(ForkJoinPool)} the cells are all checked and the
+     * extra violations dropped.
+     *
+     * @param maxViolationsPerSheet
+     *            no limit by default
+     */
+    public void setMaxViolationsPerSheet(int maxViolationsPerSheet) {
+        if (maxViolationsPerSheet < 1) {
+            throw new IllegalArgumentException("maxViolationsPerSheet must be positive");
+        }
+        this.maxViolationsPerSheet = maxViolationsPerSheet;
+    }
+
+    /**
+     * @param reportFormat
+     *            what is written into the outputStream of
+     *            {@link #validate(InputStream, OutputStream)} when there are
+     *            errors, {@link XLYReportFormat#ANNOTATED_WORKBOOK} by default
+     */
+    public void setReportFormat(XLYReportFormat reportFormat) {
+        if (reportFormat == null) {
+            throw new IllegalArgumentException("reportFormat must not be null");
+        }
+        this.reportFormat = reportFormat;
+    }
+
+    /**
+     * Stop the validation once it has lasted this long (loading of the file
+     * included), checked before each row: a row constraint already running is
+     * not interrupted but is given no more rows.
+     *
+     * @param timeBudget
+     *            0 for no time limit (default)
+     */
+    public void setTimeBudget(long timeBudget, TimeUnit unit) {
+        if (timeBudget < 0) {
+            throw new IllegalArgumentException("timeBudget must not be negative");
         }
-        return messages.isEmpty();
+        this.timeBudgetNanos = unit.toNanos(timeBudget);
     }
 
     public void setWorkbookClass(Class<?> workbookClass) {
-        this.workbookClass = workbookClass;
+        this.xlyMetadataParser = workbookClass == null ? null : new XLYMetadataParser(workbookClass);
     }
 
     /**
@@ -110,20 +389,39 @@ public class XLYValidator {
      *            the .xlsx file
      * @param outputStream
      *            the modified input .xlsx file + errors (a.k.a excel red cells
-     *            + message)
-     * @return an empty set if no error otherwise a list of error messages
+     *            + message), or the rows in error depending on
+     *            {@link #setReportFormat(XLYReportFormat)}, only written if
+     *            there are errors
+     * @return an empty set if the whole file was checked without error,
+     *         otherwise the error messages, plus {@link #TRUNCATED_MESSAGE} if
+     *         a limit stopped the validation (even without any error)
      */
     public Set<String> validate(InputStream inputStream, OutputStream outputStream) {
-        if (workbookClass == null || constraintLocator == null) {
+        final XLYValidationResult result = validateWithResult(inputStream, outputStream);
+        if (!result.isTruncated()) {
+            return result.getViolations();
+        }
+        final Set<String> violations = new HashSet<>(result.getViolations());
+        violations.add(TRUNCATED_MESSAGE);
+        return violations;
+    }
+
+    /**
+     * Same as {@link #validate(InputStream, OutputStream)}, the result tells
+     * if a limit stopped the validation before the end of the file.
+     */
+    public XLYValidationResult validateWithResult(InputStream inputStream, OutputStream outputStream) {
+        final XLYMetadataParser xlyMetadataParser = this.xlyMetadataParser;
+        if (xlyMetadataParser == null) {
             throw new IllegalArgumentException("workbookClass must not be null");
         }
+        final ViolationBudget violationBudget = newViolationBudget();
         // Store the unique list of error messages.
         // Using a {@link Set} instead of a {@link List} helps us remove
         // duplicate error messages.
         // Reset to empty set when calling {@link #validate(InputStream,
         // OutputStream)}
         final Set<String> violations = new HashSet<>();
-        xlyMetadataParser = new XLYMetadataParser(workbookClass);
         XSSFWorkbook workbook = null;
         try {
             // XSSFWorkbook(inputStream) load all the excel file in memory but
@@ -131,9 +429,12 @@ public class XLYValidator {
             // code
             // see: http://poi.apache.org/spreadsheet/how-to.html#xssf_sax_api
             workbook = new XSSFWorkbook(inputStream);
-            final XLYFormatter xlyFormatter = new XLYFormatter(workbook);
-            cellValidatorManager = new CellValidatorManager(constraintLocator, xlyFormatter);
-            rowValidatorManager = new RowValidatorManager(constraintLocator, xlyFormatter);
+            final XLYErrorSink errorSink = new XLYErrorSink(new XLYFormatter(workbook));
+            final ConstraintLocator validationConstraintLocator = constraintLocator.forValidation();
+            final CellValidatorManager cellValidatorManager = new CellValidatorManager(validationConstraintLocator,
+                    errorSink);
+            final RowValidatorManager rowValidatorManager = new RowValidatorManager(validationConstraintLocator,
+                    errorSink);
             final List<XLYSheet> xlySheets = xlyMetadataParser.getSheets();
             for (final XLYSheet xlySheet : xlySheets) {
                 if (xlySheet.toImport()) {
@@ -141,11 +442,23 @@ public class XLYValidator {
                     if (sheet == null) {
                         handleUnexistingSheet(workbook, xlySheet);
                     }
-                    violations.addAll(validateSheet(sheet, xlySheet));
+                    if (!violationBudget.checkWorkbook()) {
+                        break;
+                    }
+                    violations.addAll(validateSheet(sheet, xlySheet, xlyMetadataParser, errorSink,
+                            cellValidatorManager, rowValidatorManager, violationBudget));
                 }
             }
             if (!violations.isEmpty()) {
-                workbook.write(outputStream);
+                final XLYReportFormat reportFormat = this.reportFormat;
+                if (reportFormat == XLYReportFormat.ANNOTATED_WORKBOOK) {
+                    errorSink.flush();
+                    workbook.write(outputStream);
+                } else {
+                    try (XLYErrorReport errorReport = XLYErrorReport.newReport(reportFormat, outputStream)) {
+                        errorSink.flush(errorReport);
+                    }
+                }
             }
         } catch (IOException e) {
             handleIOException(e);
@@ -158,45 +471,123 @@ public class XLYValidator {
                 logger.error(e.getMessage(), e);
             }
         }
-        return violations;
+        if (violationBudget.isTruncated()) {
+            logTruncated(violations);
+        }
+        return new XLYValidationResult(violations, violationBudget.isTruncated());
     }
 
     /**
      * For each sheet rows run cells validations then row validations. <br/>
      * <b>Gotcha</b>: if row.getCell() is null we create the cell so that we can
      * add a error color to it later with
-     * {@link XLYFormatter#addErrorMessage(Cell, String)}
+     * {@link XLYErrorSink#addError(Cell, String)}
      * 
      * @return
      */
-    private Set<String> validateSheet(XSSFSheet sheet, XLYSheet xlySheet) {
+    private Set<String> validateSheet(XSSFSheet sheet, XLYSheet xlySheet, XLYMetadataParser xlyMetadataParser,
+            XLYErrorSink errorSink, CellValidatorManager cellValidatorManager,
+            RowValidatorManager rowValidatorManager, ViolationBudget violationBudget) {
+        final SheetSchema sheetSchema = xlyMetadataParser.getSheetSchema(xlySheet);
+        violationBudget.startSheet(sheetSchema.getColumns().size());
+        final ForkJoinPool forkJoinPool = this.forkJoinPool;
+        final Set<String> sheetViolations = forkJoinPool == null
+                ? validateCells(sheet, sheetSchema, errorSink, cellValidatorManager, violationBudget)
+                : validateCells(sheet, sheetSchema, errorSink, cellValidatorManager, violationBudget, forkJoinPool);
+        if (sheetViolations.isEmpty() && violationBudget.checkSheet()) {
+            // do the rows validation only if no cell errors
+            // avoid iterating over all rows one more time, anyway this sheet is
+            // already not valid
+            // the end user will on start to see those errors once he has fix
+            // cells errors
+            // deliberately choose performance improvement over user experience
+            sheetViolations.addAll(rowValidatorManager.validateRows(sheet, xlySheet,
+                    violationBudget::checkTime, violationBudget::addRowViolation));
+        }
+        if (!sheetViolations.isEmpty()) {
+            sheet.setTabColor(XLYFormatter.RED);
+        }
+        return sheetViolations;
+    }
+
+    /**
+     * Validate and annotate the cells of the sheet in the calling thread.
+     */
+    private Set<String> validateCells(XSSFSheet sheet, SheetSchema sheetSchema, XLYErrorSink errorSink,
+            CellValidatorManager cellValidatorManager, ViolationBudget violationBudget) {
         final Set<String> sheetViolations = new HashSet<>();
+        final List<ColumnValidationPlan> validationPlan = cellValidatorManager.getValidationPlan(sheetSchema,
+                (rownum, column, message) -> {
+                    // ExistConstraint checked by chunks
+                    if (violationBudget.addCellViolation(column)) {
+                        errorSink.addError(sheet.getRow(rownum).getCell(column), message);
+                        sheetViolations.add(message);
+                    }
+                });
+        final boolean flushRegularly = violationBudget.hasViolationLimit();
         final Iterator<Row> rowIterator = sheet.iterator();
         Row row = rowIterator.next(); // skip first row (a.k.a headers)
-        while (rowIterator.hasNext()) {
+        int rows = 0;
+        while (rowIterator.hasNext() && violationBudget.checkSheet()) {
             row = rowIterator.next();
-            final XLYColumn[] xlyColumns = xlySheet.columns();
-            for (int column = 0; column < xlyColumns.length; column++) {
-                final XLYColumn xlyColumn = xlyColumns[column];
+            for (int column = 0; column < validationPlan.size(); column++) {
+                if (!violationBudget.checkColumn(column)) {
+                    continue;
+                }
                 Cell cell = row.getCell(column);
                 if (cell == null) {
-                    cell = row.createCell(column); // see method javadoc
+                    cell = row.createCell(column); // see validateSheet javadoc
+                }
+                for (String message : cellValidatorManager.getViolations(cell, validationPlan.get(column))) {
+                    if (violationBudget.addCellViolation(column)) {
+                        errorSink.addError(cell, message);
+                        sheetViolations.add(message);
+                    }
                 }
-                final Field field = xlyMetadataParser.getField(xlySheet);
-                sheetViolations.addAll(cellValidatorManager.validate(cell, xlyColumn, field));
+            }
+            if (flushRegularly && ++rows % EXIST_FLUSH_ROWS == 0) {
+                // the limits must see the ExistConstraint violations
+                cellValidatorManager.flush(validationPlan);
             }
         }
-        if (sheetViolations.isEmpty()) {
-            // do the rows validation only if no cell errors
-            // avoid iterating over all rows one more time, anyway this sheet is
-            // already not valid
-            // the end user will on start to see those errors once he has fix
-            // cells errors
-            // deliberately choose performance improvement over user experience
-            sheetViolations.addAll(rowValidatorManager.validateRows(sheet, xlySheet));
+        cellValidatorManager.flush(validationPlan);
+        return sheetViolations;
+    }
+
+    /**
+     * Validate the cells of the sheet by chunks of rows in the pool, then
+     * annotate them in the calling thread. The missing cells are created
+     * before, so that the tasks only read the workbook. The limits on the
+     * number of violations are applied once the tasks are done, in the
+     * sequential validation order.
+     */
+    private Set<String> validateCells(XSSFSheet sheet, SheetSchema sheetSchema, XLYErrorSink errorSink,
+            CellValidatorManager cellValidatorManager, ViolationBudget violationBudget, ForkJoinPool forkJoinPool) {
+        final int columns = sheetSchema.getColumns().size();
+        final List<Row> rows = new ArrayList<>(sheet.getLastRowNum());
+        final Iterator<Row> rowIterator = sheet.iterator();
+        rowIterator.next(); // skip first row (a.k.a headers)
+        while (rowIterator.hasNext()) {
+            final Row row = rowIterator.next();
+            for (int column = 0; column < columns; column++) {
+                if (row.getCell(column) == null) {
+                    row.createCell(column); // see validateSheet javadoc
+                }
+            }
+            rows.add(row);
         }
-        if (!sheetViolations.isEmpty()) {
-            sheet.setTabColor(XLYFormatter.RED);
+        final List<CellViolation> cellViolations = forkJoinPool.invoke(new CellValidationTask(rows, 0, rows.size(),
+                chunkSize, sheetSchema, cellValidatorManager, violationBudget));
+        if (violationBudget.isExpired()) {
+            violationBudget.truncate();
+        }
+        final Set<String> sheetViolations = new HashSet<>();
+        for (final CellViolation cellViolation : cellViolations) {
+            if (violationBudget.addCellViolation(cellViolation.column)) {
+                errorSink.addError(sheet.getRow(cellViolation.rownum).getCell(cellViolation.column),
+                        cellViolation.message);
+                sheetViolations.add(cellViolation.message);
+            }
         }
         return sheetViolations;
     }
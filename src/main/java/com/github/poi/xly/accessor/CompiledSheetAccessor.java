@@ -0,0 +1,70 @@
+package com.github.poi.xly.accessor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+
+import com.github.poi.xly.annotation.XLYColumn;
+import com.github.poi.xly.annotation.XLYSheet;
+
+/**
+ * {@link SheetAccessor} using one {@link PropertyAccessor} per column and a
+ * MethodHandle on the default constructor.
+ */
+public class CompiledSheetAccessor implements SheetAccessor {
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private final Class<?> beanClass;
+
+    private final MethodHandle constructor;
+
+    private final PropertyAccessor[] propertyAccessors;
+
+    public CompiledSheetAccessor(XLYSheet xlySheet) {
+        beanClass = xlySheet.type();
+        final XLYColumn[] xlyColumns = xlySheet.columns();
+        propertyAccessors = new PropertyAccessor[xlyColumns.length];
+        for (int column = 0; column < xlyColumns.length; column++) {
+            propertyAccessors[column] = new PropertyAccessor(beanClass, xlyColumns[column].field());
+        }
+        constructor = findConstructor(beanClass);
+    }
+
+    /**
+     * @return null if no public default constructor (same requirement as
+     *         Class#newInstance())
+     */
+    private MethodHandle findConstructor(Class<?> beanClass) {
+        try {
+            return MethodHandles.publicLookup().findConstructor(beanClass, MethodType.methodType(void.class))
+                    .asType(CONSTRUCTOR_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Object get(Object bean, int column) throws ReflectiveOperationException {
+        return propertyAccessors[column].get(bean);
+    }
+
+    @Override
+    public Object newInstance() throws ReflectiveOperationException {
+        if (constructor == null) {
+            // let Class#newInstance() build the exception
+            return beanClass.newInstance();
+        }
+        try {
+            return constructor.invokeExact();
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    @Override
+    public void set(Object bean, int column, Object value) throws ReflectiveOperationException {
+        propertyAccessors[column].set(bean, value);
+    }
+}
@@ -0,0 +1,134 @@
+package com.github.poi.xly.accessor;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.apache.commons.beanutils.PropertyUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Get and set one property of a bean class using MethodHandles resolved once,
+ * instead of the introspection (and synchronized caches) done by
+ * PropertyUtils on each call.<br/>
+ * Nested, indexed or mapped properties (a.b, a[0], a(key)) are delegated to
+ * PropertyUtils.<br/>
+ * Exceptions are the same as the PropertyUtils ones: NoSuchMethodException if
+ * there is no getter/setter, InvocationTargetException if the getter/setter
+ * throws and IllegalArgumentException if the value type doesn't match.
+ */
+public class PropertyAccessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PropertyAccessor.class);
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static PropertyDescriptor findDescriptor(Class<?> beanClass, String name) {
+        try {
+            for (PropertyDescriptor descriptor : Introspector.getBeanInfo(beanClass).getPropertyDescriptors()) {
+                if (descriptor.getName().equals(name)) {
+                    return descriptor;
+                }
+            }
+        } catch (IntrospectionException e) {
+            logger.error(e.getMessage(), e);
+        }
+        return null;
+    }
+
+    private static boolean isSimple(String name) {
+        return name.indexOf('.') < 0 && name.indexOf('[') < 0 && name.indexOf('(') < 0;
+    }
+
+    private static Class<?> toWrapper(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+    private static MethodHandle unreflect(Method method, MethodType methodType) {
+        if (method == null) {
+            return null;
+        }
+        try {
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method).asType(methodType);
+        } catch (IllegalAccessException | RuntimeException e) {
+            // keep the PropertyUtils behavior: fail when the property is used
+            logger.debug(e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private final Class<?> beanClass;
+
+    private final MethodHandle getter;
+
+    private final String name;
+
+    private final MethodHandle setter;
+
+    private final boolean simple;
+
+    /** wrapper type of the setter argument, use to check value type */
+    private final Class<?> valueType;
+
+    public PropertyAccessor(Class<?> beanClass, String name) {
+        this.beanClass = beanClass;
+        this.name = name;
+        this.simple = isSimple(name);
+        final PropertyDescriptor descriptor = simple ? findDescriptor(beanClass, name) : null;
+        if (descriptor == null) {
+            getter = null;
+            setter = null;
+            valueType = null;
+        } else {
+            getter = unreflect(descriptor.getReadMethod(), GETTER_TYPE);
+            setter = unreflect(descriptor.getWriteMethod(), SETTER_TYPE);
+            valueType = descriptor.getPropertyType() == null ? null : toWrapper(descriptor.getPropertyType());
+        }
+    }
+
+    public Object get(Object bean) throws ReflectiveOperationException {
+        if (!simple) {
+            return PropertyUtils.getProperty(bean, name);
+        }
+        if (getter == null) {
+            throw new NoSuchMethodException("Property '" + name + "' has no getter method in class '" + beanClass + "'");
+        }
+        try {
+            return getter.invokeExact(bean);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void set(Object bean, Object value) throws ReflectiveOperationException {
+        if (!simple) {
+            PropertyUtils.setProperty(bean, name, value);
+            return;
+        }
+        if (setter == null) {
+            throw new NoSuchMethodException("Property '" + name + "' has no setter method in class '" + beanClass + "'");
+        }
+        if (value != null && valueType != null && !valueType.isInstance(value)) {
+            throw new IllegalArgumentException("argument type mismatch: can't set " + value.getClass().getName()
+                    + " to property '" + name + "' of class '" + beanClass + "'");
+        }
+        try {
+            setter.invokeExact(bean, value);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.poi.xly.accessor;
+
+import com.github.poi.xly.annotation.XLYColumn;
+import com.github.poi.xly.annotation.XLYSheet;
+
+/**
+ * Create beans of {@link XLYSheet#type()} and access their properties by
+ * column index (index in {@link XLYSheet#columns()}).<br/>
+ * Resolved once per sheet so that the export/import loops don't do any
+ * introspection per cell.
+ */
+public interface SheetAccessor {
+
+    /**
+     * @return the value of the property define by {@link XLYColumn#field()}
+     */
+    Object get(Object bean, int column) throws ReflectiveOperationException;
+
+    /**
+     * @return a new instance of {@link XLYSheet#type()}
+     */
+    Object newInstance() throws ReflectiveOperationException;
+
+    void set(Object bean, int column, Object value) throws ReflectiveOperationException;
+}
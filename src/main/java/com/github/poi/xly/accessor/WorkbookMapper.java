@@ -0,0 +1,34 @@
+package com.github.poi.xly.accessor;
+
+import com.github.poi.xly.annotation.XLYSheet;
+
+/**
+ * Reflection free accessors of the sheets of a @XLYWorkbook class.<br/>
+ * Implementations are generated at compile time by
+ * {@link com.github.poi.xly.processor.XLYMapperProcessor} (class named
+ * {@link #getMapperClassName(Class)}) and picked up automatically when present
+ * on the classpath.
+ */
+public interface WorkbookMapper {
+
+    String SUFFIX = "_XLYMapper";
+
+    /**
+     * @return fully qualified name of the mapper generated for the workbook
+     *         class: same package, nested class names joined with '_' (e.g.
+     *         com.acme.Outer_Inner_XLYMapper for com.acme.Outer.Inner)
+     */
+    static String getMapperClassName(Class<?> workbookClass) {
+        final String name = workbookClass.getName();
+        final int packageEnd = name.lastIndexOf('.') + 1;
+        return name.substring(0, packageEnd) + name.substring(packageEnd).replace('$', '_') + SUFFIX;
+    }
+
+    /**
+     * @param sheetField
+     *            name of the workbook field annotated with {@link XLYSheet}
+     * @return the generated accessor of the sheet beans, null if none could be
+     *         generated (e.g. non public bean class or nested property)
+     */
+    SheetAccessor getSheetAccessor(String sheetField);
+}
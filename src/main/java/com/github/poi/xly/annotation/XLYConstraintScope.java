@@ -0,0 +1,19 @@
+package com.github.poi.xly.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.github.poi.xly.validation.ConstraintScope;
+
+/**
+ * Declare how long an instance of a Constraint or RowConstraint class is
+ * reused by {@link com.github.poi.xly.validation.CachingConstraintLocator}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface XLYConstraintScope {
+
+    public ConstraintScope value();
+}
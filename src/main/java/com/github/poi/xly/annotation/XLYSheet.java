@@ -27,7 +27,10 @@ public @interface XLYSheet {
     public boolean toImport() default true;
 
     /**
-     * Type of the inside the List&lt;type&gt; in the workbook.
+     * Type of the inside the List&lt;type&gt; in the workbook.<br/>
+     * For export the field can also be an Iterable, Iterator, Stream or
+     * Spliterator of this type (closed once the sheet is written if
+     * AutoCloseable).
      */
     public Class<?> type();
 }
@@ -0,0 +1,409 @@
+package com.github.poi.xly.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+import com.github.poi.xly.accessor.SheetAccessor;
+import com.github.poi.xly.accessor.WorkbookMapper;
+import com.github.poi.xly.annotation.XLYSheet;
+import com.github.poi.xly.annotation.XLYWorkbook;
+
+/**
+ * Generate a {@link WorkbookMapper} for each class annotated with
+ * {@link XLYWorkbook}: plain getter/setter/constructor calls for the beans of
+ * each {@link XLYSheet}, used instead of reflection at runtime.<br/>
+ * Sheets that can't be mapped from generated code (bean class not public, no
+ * public default constructor, nested/indexed property...) are left to the
+ * reflection based accessor, a note is printed for them.<br/>
+ * Registered in META-INF/services: runs automatically when poi-xly is on the
+ * compile classpath.
+ */
+public class XLYMapperProcessor extends AbstractProcessor {
+
+    /**
+     * Getter and setter of a column, null if missing.
+     */
+    private static final class Property {
+
+        private final ExecutableElement getter;
+
+        private final String name;
+
+        private final ExecutableElement setter;
+
+        private Property(String name, ExecutableElement getter, ExecutableElement setter) {
+            this.name = name;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+
+    private static final String INDENT = "    ";
+
+    /**
+     * Same as java.beans.Introspector#decapitalize (used to resolve the
+     * properties at runtime).
+     */
+    private static String decapitalize(String name) {
+        if (name.isEmpty()) {
+            return name;
+        }
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(1)) && Character.isUpperCase(name.charAt(0))) {
+            return name;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    private AnnotationMirror getAnnotation(Element element, Class<?> annotationType) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            final TypeElement type = (TypeElement) annotation.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(annotationType.getCanonicalName())) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private AnnotationValue getAnnotationValue(AnnotationMirror annotation, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : processingEnv
+                .getElementUtils().getElementValuesWithDefaults(annotation).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the name of the class used in the generated code (erasure, boxed
+     *         for primitives)
+     */
+    private String getBoxedName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass(processingEnv.getTypeUtils().getPrimitiveType(type.getKind()))
+                    .getQualifiedName().toString();
+        }
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    /**
+     * @return the sheet fields of the workbook class and its super classes
+     *         (super classes first, same order as at runtime)
+     */
+    private Map<String, AnnotationMirror> getSheets(TypeElement workbook) {
+        final Deque<TypeElement> hierarchy = new ArrayDeque<>();
+        for (TypeElement current = workbook; current != null; current = getSuperclass(current)) {
+            hierarchy.push(current);
+        }
+        final Map<String, AnnotationMirror> sheets = new LinkedHashMap<>();
+        for (TypeElement current : hierarchy) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                final AnnotationMirror xlySheet = getAnnotation(field, XLYSheet.class);
+                if (xlySheet != null) {
+                    sheets.put(field.getSimpleName().toString(), xlySheet);
+                }
+            }
+        }
+        return sheets;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(XLYWorkbook.class.getCanonicalName());
+    }
+
+    private TypeElement getSuperclass(TypeElement type) {
+        final TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        final TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return element.getQualifiedName().contentEquals(Object.class.getName()) ? null : element;
+    }
+
+    /**
+     * @return true if the generated code (in any package) can use the type
+     */
+    private boolean isAccessible(TypeElement type) {
+        for (Element current = type; current.getKind() != ElementKind.PACKAGE; current = current
+                .getEnclosingElement()) {
+            if (!current.getModifiers().contains(Modifier.PUBLIC)) {
+                return false;
+            }
+            if (current.getEnclosingElement().getKind() != ElementKind.PACKAGE
+                    && !current.getModifiers().contains(Modifier.STATIC)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasDefaultConstructor(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement workbook : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(XLYWorkbook.class))) {
+            try {
+                writeMapper(workbook);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Unable to generate " + WorkbookMapper.class.getSimpleName() + ": " + e.getMessage(), workbook);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return null if the property has no public getter nor setter
+     */
+    private Property resolveProperty(TypeElement bean, String name) {
+        ExecutableElement getter = null;
+        ExecutableElement setter = null;
+        final List<ExecutableElement> methods = ElementFilter
+                .methodsIn(processingEnv.getElementUtils().getAllMembers(bean));
+        for (ExecutableElement method : methods) {
+            final Set<Modifier> modifiers = method.getModifiers();
+            if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC)) {
+                continue;
+            }
+            final String methodName = method.getSimpleName().toString();
+            final int parameters = method.getParameters().size();
+            if (parameters == 0 && methodName.startsWith("get") && methodName.length() > 3
+                    && method.getReturnType().getKind() != TypeKind.VOID
+                    && decapitalize(methodName.substring(3)).equals(name)) {
+                getter = getter == null ? method : getter;
+            } else if (parameters == 0 && methodName.startsWith("is") && methodName.length() > 2
+                    && method.getReturnType().getKind() == TypeKind.BOOLEAN
+                    && decapitalize(methodName.substring(2)).equals(name)) {
+                getter = method;
+            } else if (parameters == 1 && methodName.startsWith("set") && methodName.length() > 3
+                    && method.getReturnType().getKind() == TypeKind.VOID
+                    && decapitalize(methodName.substring(3)).equals(name)) {
+                setter = setter == null ? method : setter;
+            }
+        }
+        if (getter != null && setter != null && !processingEnv.getTypeUtils().isSameType(
+                processingEnv.getTypeUtils().erasure(getter.getReturnType()),
+                processingEnv.getTypeUtils().erasure(setter.getParameters().get(0).asType()))) {
+            // ambiguous for the Introspector: leave it to the runtime
+            return null;
+        }
+        return getter == null && setter == null ? null : new Property(name, getter, setter);
+    }
+
+    /**
+     * @return the properties of the columns, null if the sheet can't be
+     *         mapped from generated code
+     */
+    private List<Property> resolveSheet(String sheetField, AnnotationMirror xlySheet, TypeElement workbook) {
+        final Object type = getAnnotationValue(xlySheet, "type").getValue();
+        // not a TypeMirror if the class doesn't compile, javac reports it
+        final Element bean = type instanceof TypeMirror ? processingEnv.getTypeUtils().asElement((TypeMirror) type)
+                : null;
+        if (!(bean instanceof TypeElement) || !isAccessible((TypeElement) bean)
+                || !hasDefaultConstructor((TypeElement) bean)) {
+            note(workbook, sheetField, "bean class not public or without public default constructor");
+            return null;
+        }
+        final List<Property> properties = new ArrayList<>();
+        @SuppressWarnings("unchecked")
+        final List<? extends AnnotationValue> columns = (List<? extends AnnotationValue>) getAnnotationValue(xlySheet,
+                "columns").getValue();
+        for (AnnotationValue column : columns) {
+            final String field = (String) getAnnotationValue((AnnotationMirror) column.getValue(), "field").getValue();
+            final Property property = SourceVersion.isIdentifier(field) ? resolveProperty((TypeElement) bean, field) : null;
+            if (property == null) {
+                note(workbook, sheetField, "no public getter/setter for column " + field);
+                return null;
+            }
+            properties.add(property);
+        }
+        return properties;
+    }
+
+    private void note(TypeElement workbook, String sheetField, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                "Sheet " + sheetField + " mapped with reflection: " + reason, workbook);
+    }
+
+    private void writeAccessor(PrintWriter out, String className, TypeMirror beanType, List<Property> properties) {
+        final String bean = getBoxedName(beanType);
+        out.println(INDENT + "private static final class " + className + " implements SheetAccessor {");
+        out.println();
+        // get
+        out.println(INDENT + INDENT + "@Override");
+        out.println(INDENT + INDENT + "public Object get(Object bean, int column) throws ReflectiveOperationException {");
+        out.println(INDENT + INDENT + INDENT + "final " + bean + " b = (" + bean + ") bean;");
+        out.println(INDENT + INDENT + INDENT + "switch (column) {");
+        for (int column = 0; column < properties.size(); column++) {
+            final Property property = properties.get(column);
+            out.println(INDENT + INDENT + INDENT + "case " + column + ":");
+            if (property.getter == null) {
+                out.println(INDENT + INDENT + INDENT + INDENT + "throw new NoSuchMethodException(\"Property '"
+                        + property.name + "' has no getter method in class '\" + " + bean + ".class + \"'\");");
+                continue;
+            }
+            out.println(INDENT + INDENT + INDENT + INDENT + "try {");
+            out.println(INDENT + INDENT + INDENT + INDENT + INDENT + "return b." + property.getter.getSimpleName()
+                    + "();");
+            out.println(INDENT + INDENT + INDENT + INDENT + "} catch (Throwable t) {");
+            out.println(INDENT + INDENT + INDENT + INDENT + INDENT + "throw new InvocationTargetException(t);");
+            out.println(INDENT + INDENT + INDENT + INDENT + "}");
+        }
+        out.println(INDENT + INDENT + INDENT + "default:");
+        out.println(INDENT + INDENT + INDENT + INDENT + "throw new IndexOutOfBoundsException(\"column: \" + column);");
+        out.println(INDENT + INDENT + INDENT + "}");
+        out.println(INDENT + INDENT + "}");
+        out.println();
+        // newInstance
+        out.println(INDENT + INDENT + "@Override");
+        out.println(INDENT + INDENT + "public Object newInstance() {");
+        out.println(INDENT + INDENT + INDENT + "return new " + bean + "();");
+        out.println(INDENT + INDENT + "}");
+        out.println();
+        // set
+        out.println(INDENT + INDENT + "@Override");
+        out.println(INDENT + INDENT
+                + "public void set(Object bean, int column, Object value) throws ReflectiveOperationException {");
+        out.println(INDENT + INDENT + INDENT + "final " + bean + " b = (" + bean + ") bean;");
+        out.println(INDENT + INDENT + INDENT + "switch (column) {");
+        for (int column = 0; column < properties.size(); column++) {
+            final Property property = properties.get(column);
+            out.println(INDENT + INDENT + INDENT + "case " + column + ":");
+            if (property.setter == null) {
+                out.println(INDENT + INDENT + INDENT + INDENT + "throw new NoSuchMethodException(\"Property '"
+                        + property.name + "' has no setter method in class '\" + " + bean + ".class + \"'\");");
+                continue;
+            }
+            final TypeMirror valueType = property.setter.getParameters().get(0).asType();
+            final String valueClass = getBoxedName(valueType);
+            // null into a primitive fails when unboxed, like the MethodHandle
+            out.println(INDENT + INDENT + INDENT + INDENT + "if (value != null && !(value instanceof " + valueClass
+                    + ")) {");
+            out.println(INDENT + INDENT + INDENT + INDENT + INDENT + "throw mismatch(value, " + quote(property.name)
+                    + ", " + bean + ".class);");
+            out.println(INDENT + INDENT + INDENT + INDENT + "}");
+            out.println(INDENT + INDENT + INDENT + INDENT + "try {");
+            out.println(INDENT + INDENT + INDENT + INDENT + INDENT + "b." + property.setter.getSimpleName() + "(("
+                    + valueClass + ") value);");
+            out.println(INDENT + INDENT + INDENT + INDENT + "} catch (Throwable t) {");
+            out.println(INDENT + INDENT + INDENT + INDENT + INDENT + "throw new InvocationTargetException(t);");
+            out.println(INDENT + INDENT + INDENT + INDENT + "}");
+            out.println(INDENT + INDENT + INDENT + INDENT + "return;");
+        }
+        out.println(INDENT + INDENT + INDENT + "default:");
+        out.println(INDENT + INDENT + INDENT + INDENT + "throw new IndexOutOfBoundsException(\"column: \" + column);");
+        out.println(INDENT + INDENT + INDENT + "}");
+        out.println(INDENT + INDENT + "}");
+        out.println(INDENT + "}");
+        out.println();
+    }
+
+    private void writeMapper(TypeElement workbook) throws IOException {
+        final PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(workbook);
+        final String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        final String binaryName = processingEnv.getElementUtils().getBinaryName(workbook).toString();
+        final String simpleName = (packageName.isEmpty() ? binaryName
+                : binaryName.substring(packageName.length() + 1)).replace('$', '_') + WorkbookMapper.SUFFIX;
+
+        final Map<String, List<Property>> sheets = new LinkedHashMap<>();
+        final Map<String, TypeMirror> beanTypes = new LinkedHashMap<>();
+        for (Map.Entry<String, AnnotationMirror> sheet : getSheets(workbook).entrySet()) {
+            final List<Property> properties = resolveSheet(sheet.getKey(), sheet.getValue(), workbook);
+            if (properties != null) {
+                sheets.put(sheet.getKey(), properties);
+                beanTypes.put(sheet.getKey(), (TypeMirror) getAnnotationValue(sheet.getValue(), "type").getValue());
+            }
+        }
+
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler()
+                .createSourceFile(packageName.isEmpty() ? simpleName : packageName + "." + simpleName, workbook)
+                .openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("import java.lang.reflect.InvocationTargetException;");
+            out.println();
+            out.println("import " + SheetAccessor.class.getName() + ";");
+            out.println("import " + WorkbookMapper.class.getName() + ";");
+            out.println();
+            out.println("/**");
+            out.println(" * Generated by " + XLYMapperProcessor.class.getSimpleName() + " for "
+                    + workbook.getQualifiedName() + ", do not edit.");
+            out.println(" */");
+            out.println("public final class " + simpleName + " implements WorkbookMapper {");
+            out.println();
+            int index = 0;
+            for (Map.Entry<String, List<Property>> sheet : sheets.entrySet()) {
+                writeAccessor(out, "Sheet" + index++, beanTypes.get(sheet.getKey()), sheet.getValue());
+            }
+            out.println(INDENT
+                    + "private static IllegalArgumentException mismatch(Object value, String name, Class<?> beanClass) {");
+            out.println(INDENT + INDENT + "return new IllegalArgumentException(\"argument type mismatch: can't set \"");
+            out.println(INDENT + INDENT + INDENT
+                    + "+ value.getClass().getName() + \" to property '\" + name");
+            out.println(INDENT + INDENT + INDENT + "+ \"' of class '\" + beanClass + \"'\");");
+            out.println(INDENT + "}");
+            out.println();
+            out.println(INDENT + "@Override");
+            out.println(INDENT + "public SheetAccessor getSheetAccessor(String sheetField) {");
+            out.println(INDENT + INDENT + "switch (sheetField) {");
+            index = 0;
+            for (String sheetField : sheets.keySet()) {
+                out.println(INDENT + INDENT + "case " + quote(sheetField) + ":");
+                out.println(INDENT + INDENT + INDENT + "return new Sheet" + index++ + "();");
+            }
+            out.println(INDENT + INDENT + "default:");
+            out.println(INDENT + INDENT + INDENT + "return null;");
+            out.println(INDENT + INDENT + "}");
+            out.println(INDENT + "}");
+            out.println("}");
+        }
+    }
+}
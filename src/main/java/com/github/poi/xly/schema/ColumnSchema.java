@@ -0,0 +1,65 @@
+package com.github.poi.xly.schema;
+
+import java.lang.reflect.Field;
+import java.util.regex.Pattern;
+
+import com.github.poi.xly.annotation.XLYColumn;
+
+/**
+ * One @XLYColumn of a sheet with everything resolved once: bean field, type
+ * and compiled pattern.
+ */
+public final class ColumnSchema {
+
+    private final Field field;
+
+    private final int index;
+
+    private final Pattern pattern;
+
+    private final XLYColumn xlyColumn;
+
+    ColumnSchema(int index, XLYColumn xlyColumn, Class<?> beanClass) {
+        this.index = index;
+        this.xlyColumn = xlyColumn;
+        this.field = WorkbookSchema.findField(beanClass, xlyColumn.field());
+        this.pattern = xlyColumn.pattern().isEmpty() ? null
+                : Pattern.compile(xlyColumn.pattern(), Pattern.CASE_INSENSITIVE);
+    }
+
+    /**
+     * @return the field of the bean (declared by the bean class or one of its
+     *         super classes), null if there is no such field (e.g. nested
+     *         property)
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * @return position of the column in {@link com.github.poi.xly.annotation.XLYSheet#columns()}
+     *         (0 based)
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return {@link XLYColumn#pattern()} compiled case insensitive, null if
+     *         no pattern
+     */
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @return the field type, null if there is no such field
+     */
+    public Class<?> getType() {
+        return field == null ? null : field.getType();
+    }
+
+    public XLYColumn getXlyColumn() {
+        return xlyColumn;
+    }
+}
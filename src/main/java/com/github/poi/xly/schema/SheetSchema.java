@@ -0,0 +1,89 @@
+package com.github.poi.xly.schema;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.poi.xly.accessor.CompiledSheetAccessor;
+import com.github.poi.xly.accessor.PropertyAccessor;
+import com.github.poi.xly.accessor.SheetAccessor;
+import com.github.poi.xly.accessor.WorkbookMapper;
+import com.github.poi.xly.annotation.XLYColumn;
+import com.github.poi.xly.annotation.XLYSheet;
+
+/**
+ * One @XLYSheet field of a workbook class: its columns and the accessors of
+ * the beans, resolved once.
+ */
+public final class SheetSchema {
+
+    private final List<ColumnSchema> columns;
+
+    private final Field field;
+
+    private final PropertyAccessor propertyAccessor;
+
+    private final SheetAccessor sheetAccessor;
+
+    private final XLYSheet xlySheet;
+
+    /**
+     * @param workbookMapper
+     *            generated accessors of the workbook, may be null
+     */
+    SheetSchema(XLYSheet xlySheet, Field field, WorkbookMapper workbookMapper) {
+        this.xlySheet = xlySheet;
+        this.field = field;
+        final XLYColumn[] xlyColumns = xlySheet.columns();
+        final List<ColumnSchema> columns = new ArrayList<>(xlyColumns.length);
+        for (int column = 0; column < xlyColumns.length; column++) {
+            columns.add(new ColumnSchema(column, xlyColumns[column], xlySheet.type()));
+        }
+        this.columns = Collections.unmodifiableList(columns);
+        this.propertyAccessor = new PropertyAccessor(field.getDeclaringClass(), field.getName());
+        final SheetAccessor generated = workbookMapper == null ? null
+                : workbookMapper.getSheetAccessor(field.getName());
+        this.sheetAccessor = generated != null ? generated : new CompiledSheetAccessor(xlySheet);
+    }
+
+    public ColumnSchema getColumn(int index) {
+        return columns.get(index);
+    }
+
+    public List<ColumnSchema> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return the field of the workbook class holding the beans of the sheet
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * @return accessor of the sheet field of the workbook (the list of beans)
+     */
+    public PropertyAccessor getPropertyAccessor() {
+        return propertyAccessor;
+    }
+
+    /**
+     * @return accessor of the columns of the beans
+     */
+    public SheetAccessor getSheetAccessor() {
+        return sheetAccessor;
+    }
+
+    /**
+     * @return the class of the beans ({@link XLYSheet#type()})
+     */
+    public Class<?> getType() {
+        return xlySheet.type();
+    }
+
+    public XLYSheet getXlySheet() {
+        return xlySheet;
+    }
+}
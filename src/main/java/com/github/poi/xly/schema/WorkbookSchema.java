@@ -0,0 +1,133 @@
+package com.github.poi.xly.schema;
+
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.poi.xly.accessor.WorkbookMapper;
+import com.github.poi.xly.annotation.XLYSheet;
+import com.github.poi.xly.annotation.XLYWorkbook;
+
+/**
+ * Immutable model of a class annotated with @XLYWorkbook: its sheets, their
+ * columns, fields, types, accessors and compiled patterns.<br/>
+ * Built once per class (see {@link #of(Class)}) and shared by all the engines
+ * and threads, annotations and reflection are not read again.<br/>
+ * Fields declared by super classes are supported, for the workbook class
+ * (super class sheets first) as well as for the beans.<br/>
+ * The beans are accessed by the {@link WorkbookMapper} generated at compile
+ * time when present, by MethodHandles otherwise.
+ */
+public final class WorkbookSchema {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkbookSchema.class);
+
+    private static final ClassValue<WorkbookSchema> SCHEMAS = new ClassValue<WorkbookSchema>() {
+        @Override
+        protected WorkbookSchema computeValue(Class<?> workbookClass) {
+            return new WorkbookSchema(workbookClass);
+        }
+    };
+
+    /**
+     * @return the field declared by the class or the closest super class, null
+     *         if not found
+     */
+    public static Field findField(Class<?> type, String name) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current
+                .getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.getName().equals(name)) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the mapper generated at compile time, null if not on the
+     *         classpath
+     */
+    private static WorkbookMapper findMapper(Class<?> workbookClass) {
+        try {
+            final Class<?> mapperClass = Class.forName(WorkbookMapper.getMapperClassName(workbookClass), true,
+                    workbookClass.getClassLoader());
+            return (WorkbookMapper) mapperClass.newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+            logger.warn("Ignoring mapper of " + workbookClass.getName() + ": " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * @param workbookClass
+     *            a class annotated with @XLYWorkbook
+     * @return the schema of the class, computed on first call then cached
+     *         (the cache doesn't prevent the class from being unloaded)
+     */
+    public static WorkbookSchema of(Class<?> workbookClass) {
+        if (workbookClass == null) {
+            throw new IllegalArgumentException("workbookClass can't be null");
+        }
+        if (workbookClass.getAnnotation(XLYWorkbook.class) == null) {
+            throw new IllegalArgumentException("workbookClass must be annotated with @XLYWorkbook");
+        }
+        return SCHEMAS.get(workbookClass);
+    }
+
+    private final Map<XLYSheet, SheetSchema> sheetsByAnnotation;
+
+    private final List<SheetSchema> sheets;
+
+    private final Class<?> workbookClass;
+
+    private WorkbookSchema(Class<?> workbookClass) {
+        this.workbookClass = workbookClass;
+        final Deque<Class<?>> hierarchy = new ArrayDeque<>();
+        for (Class<?> current = workbookClass; current != null && current != Object.class; current = current
+                .getSuperclass()) {
+            hierarchy.push(current);
+        }
+        final WorkbookMapper workbookMapper = findMapper(workbookClass);
+        final Map<XLYSheet, SheetSchema> sheetsByAnnotation = new LinkedHashMap<>();
+        for (Class<?> current : hierarchy) {
+            for (final Field field : current.getDeclaredFields()) {
+                final XLYSheet annotation = field.getAnnotation(XLYSheet.class);
+                if (annotation != null) {
+                    sheetsByAnnotation.put(annotation, new SheetSchema(annotation, field, workbookMapper));
+                }
+            }
+        }
+        this.sheetsByAnnotation = Collections.unmodifiableMap(sheetsByAnnotation);
+        this.sheets = Collections.unmodifiableList(new ArrayList<>(sheetsByAnnotation.values()));
+    }
+
+    /**
+     * @return null if the annotation doesn't belong to this workbook
+     */
+    public SheetSchema getSheet(XLYSheet xlySheet) {
+        return sheetsByAnnotation.get(xlySheet);
+    }
+
+    /**
+     * @return the sheets in declaration order
+     */
+    public List<SheetSchema> getSheets() {
+        return sheets;
+    }
+
+    public Class<?> getWorkbookClass() {
+        return workbookClass;
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.poi.xly.stream;
+
+/**
+ * Callback receiving the rows of a sheet one by one, in the file order.
+ *
+ * @see WorkbookReader#readSheet(String, RowHandler)
+ */
+public interface RowHandler {
+
+    /**
+     * @param row
+     *            only valid during this call (reused for the next row)
+     */
+    void handleRow(SheetRow row);
+
+    /**
+     * Called once all the rows of the sheet have been handled.
+     */
+    default void endSheet() {
+    }
+}
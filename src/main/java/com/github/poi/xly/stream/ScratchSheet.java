@@ -0,0 +1,117 @@
+package com.github.poi.xly.stream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * Copy the rows read by {@link WorkbookReader} into a poi row of an in memory
+ * scratch sheet, so that code written for the usermodel (Constraint,
+ * RowConstraint, DataFormatter...) runs unchanged on streamed rows.<br/>
+ * Only one row exists at a time: the previous row is removed by each
+ * {@link #copy(SheetRow)}. Cell values, types, formulas and number formats are
+ * copied, other style attributes are not.<br/>
+ * SXSSF cells are used because they hold plain values: XSSF cells would add
+ * every string to a shared strings table growing with the number of rows.
+ */
+public class ScratchSheet implements Closeable {
+
+    private Row row;
+
+    private final Sheet sheet;
+
+    /** data format string => style, one per distinct number format */
+    private final Map<String, CellStyle> styles = new HashMap<>();
+
+    private final SXSSFWorkbook workbook = new SXSSFWorkbook();
+
+    public ScratchSheet() {
+        sheet = workbook.createSheet();
+    }
+
+    /**
+     * Delete the temporary file created by SXSSF (no row is ever written to
+     * it).
+     */
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+
+    /**
+     * @return a poi row with the same row number and cells as the sheetRow,
+     *         only valid until the next call
+     */
+    public Row copy(SheetRow sheetRow) {
+        if (row != null) {
+            sheet.removeRow(row);
+        }
+        row = sheet.createRow(sheetRow.getRowNum());
+        for (int column = 0; column < sheetRow.getLastCellNum(); column++) {
+            final SheetCell sheetCell = sheetRow.getCell(column);
+            if (sheetCell != null) {
+                copy(sheetCell, row.createCell(column));
+            }
+        }
+        return row;
+    }
+
+    private void copy(SheetCell source, Cell target) {
+        if (source.getDataFormat() != 0 && source.getDataFormatString() != null) {
+            target.setCellStyle(getStyle(source.getDataFormatString()));
+        }
+        if (source.getCellTypeEnum() == CellType.FORMULA) {
+            // not parsed by SXSSF
+            target.setCellFormula(source.getCellFormula());
+        }
+        final CellType valueType = source.getCellTypeEnum() == CellType.FORMULA
+                ? source.getCachedFormulaResultTypeEnum() : source.getCellTypeEnum();
+        switch (valueType) {
+        case STRING:
+            target.setCellValue(source.getStringCellValue());
+            break;
+        case NUMERIC:
+            target.setCellValue(source.getNumericCellValue());
+            break;
+        case BOOLEAN:
+            target.setCellValue(source.getBooleanCellValue());
+            break;
+        case ERROR:
+            try {
+                target.setCellErrorValue(FormulaError.forString(source.getErrorCellString()).getCode());
+            } catch (IllegalArgumentException e) {
+                target.setCellValue(source.getErrorCellString());
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * @return the scratch workbook, e.g. to create styles unrelated to the
+     *         copied rows
+     */
+    public Workbook getWorkbook() {
+        return workbook;
+    }
+
+    private CellStyle getStyle(String dataFormatString) {
+        return styles.computeIfAbsent(dataFormatString, format -> {
+            final CellStyle style = workbook.createCellStyle();
+            style.setDataFormat(workbook.createDataFormat().getFormat(format));
+            return style;
+        });
+    }
+}
@@ -0,0 +1,156 @@
+package com.github.poi.xly.stream;
+
+import java.util.Date;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+
+/**
+ * A cell read by {@link WorkbookReader} without building any poi Cell
+ * object.<br/>
+ * <b>Warning</b>: instances are reused from one row to the next, copy the
+ * values you need before returning from {@link RowHandler#handleRow(SheetRow)}
+ */
+public class SheetCell {
+
+    private boolean booleanValue;
+
+    private CellType cachedFormulaResultType;
+
+    private CellType cellType;
+
+    private int columnIndex;
+
+    private short dataFormat;
+
+    private String dataFormatString;
+
+    private boolean date1904;
+
+    private String formula;
+
+    private double numericValue;
+
+    private int rowIndex;
+
+    private String stringValue;
+
+    /**
+     * @return cell address (A1, B12 etc.) as displayed in excel
+     */
+    public String getAddress() {
+        return new CellReference(rowIndex, columnIndex).formatAsString();
+    }
+
+    public boolean getBooleanCellValue() {
+        return booleanValue;
+    }
+
+    /**
+     * @return type of the cached value if {@link #getCellTypeEnum()} is
+     *         {@link CellType#FORMULA}
+     */
+    public CellType getCachedFormulaResultTypeEnum() {
+        return cachedFormulaResultType;
+    }
+
+    public CellType getCellTypeEnum() {
+        return cellType;
+    }
+
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    public short getDataFormat() {
+        return dataFormat;
+    }
+
+    public String getDataFormatString() {
+        return dataFormatString;
+    }
+
+    public Date getDateCellValue() {
+        return DateUtil.getJavaDate(numericValue, date1904);
+    }
+
+    /**
+     * @return the error code (#N/A, #DIV/0! etc.) for cells of type
+     *         {@link CellType#ERROR}
+     */
+    public String getErrorCellString() {
+        return stringValue;
+    }
+
+    public String getCellFormula() {
+        return formula;
+    }
+
+    public double getNumericCellValue() {
+        return numericValue;
+    }
+
+    public int getRowIndex() {
+        return rowIndex;
+    }
+
+    public String getStringCellValue() {
+        return stringValue;
+    }
+
+    public boolean isDate1904() {
+        return date1904;
+    }
+
+    /**
+     * Same check as the one use on a poi Cell:
+     * {@link DateUtil#isADateFormat(int, String)} on the cell style.
+     */
+    public boolean isDateFormatted() {
+        return DateUtil.isADateFormat(dataFormat, dataFormatString);
+    }
+
+    void reset(int rowIndex, int columnIndex, short dataFormat, String dataFormatString, boolean date1904) {
+        this.rowIndex = rowIndex;
+        this.columnIndex = columnIndex;
+        this.dataFormat = dataFormat;
+        this.dataFormatString = dataFormatString;
+        this.date1904 = date1904;
+        this.cellType = CellType.BLANK;
+        this.cachedFormulaResultType = null;
+        this.numericValue = 0;
+        this.booleanValue = false;
+        this.stringValue = null;
+        this.formula = null;
+    }
+
+    void setBooleanValue(boolean booleanValue) {
+        this.booleanValue = booleanValue;
+    }
+
+    void setCachedFormulaResultType(CellType cachedFormulaResultType) {
+        this.cachedFormulaResultType = cachedFormulaResultType;
+    }
+
+    void setCellType(CellType cellType) {
+        this.cellType = cellType;
+    }
+
+    void setFormula(String formula) {
+        this.formula = formula;
+    }
+
+    void setNumericValue(double numericValue) {
+        this.numericValue = numericValue;
+    }
+
+    void setStringValue(String stringValue) {
+        this.stringValue = stringValue;
+    }
+
+    @Override
+    public String toString() {
+        return getAddress() + ":" + cellType;
+    }
+}
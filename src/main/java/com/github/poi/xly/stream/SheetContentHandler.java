@@ -0,0 +1,227 @@
+package com.github.poi.xly.stream;
+
+import java.util.Arrays;
+
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * SAX handler for a sheetN.xml part: fill a {@link SheetRow} with the cells of
+ * the current &lt;row&gt; and push it to the {@link RowHandler}.<br/>
+ * Cell types are resolved the same way XSSFCell does (t attribute + presence
+ * of a formula).
+ *
+ * @see http://poi.apache.org/spreadsheet/how-to.html#xssf_sax_api
+ */
+class SheetContentHandler extends DefaultHandler {
+
+    private String cellTypeAttribute;
+
+    private final boolean date1904;
+
+    private boolean hasFormula;
+
+    private boolean hasValue;
+
+    private boolean inInlineString;
+
+    private boolean inPhonetic;
+
+    private int lastColumn = -1;
+
+    private int lastRowNum = -1;
+
+    private final RowHandler rowHandler;
+
+    private final SheetRow sheetRow = new SheetRow();
+
+    private final ReadOnlySharedStringsTable sharedStrings;
+
+    private SheetCell sheetCell;
+
+    /** cache of style index => dataFormat */
+    private short[] dataFormats = new short[0];
+
+    /** cache of style index => dataFormatString (null if not resolved yet) */
+    private String[] dataFormatStrings = new String[0];
+
+    private final StylesTable stylesTable;
+
+    private final StringBuilder text = new StringBuilder();
+
+    private boolean textExpected;
+
+    SheetContentHandler(ReadOnlySharedStringsTable sharedStrings, StylesTable stylesTable, boolean date1904,
+            RowHandler rowHandler) {
+        this.sharedStrings = sharedStrings;
+        this.stylesTable = stylesTable;
+        this.date1904 = date1904;
+        this.rowHandler = rowHandler;
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (textExpected) {
+            text.append(ch, start, length);
+        }
+    }
+
+    private void endCell() {
+        final String value = text.toString();
+        final CellType valueType;
+        switch (cellTypeAttribute == null ? "n" : cellTypeAttribute) {
+        case "s":
+            valueType = hasValue ? CellType.STRING : CellType.BLANK;
+            if (hasValue) {
+                sheetCell.setStringValue(sharedStrings.getEntryAt(Integer.parseInt(value.trim())));
+            }
+            break;
+        case "inlineStr":
+        case "str":
+            valueType = CellType.STRING;
+            sheetCell.setStringValue(value);
+            break;
+        case "b":
+            valueType = CellType.BOOLEAN;
+            sheetCell.setBooleanValue("1".equals(value.trim()) || "true".equalsIgnoreCase(value.trim()));
+            break;
+        case "e":
+            valueType = CellType.ERROR;
+            sheetCell.setStringValue(value);
+            break;
+        default:
+            if (hasValue && !value.isEmpty()) {
+                valueType = CellType.NUMERIC;
+                sheetCell.setNumericValue(Double.parseDouble(value));
+            } else {
+                valueType = CellType.BLANK;
+            }
+        }
+        if (hasFormula) {
+            sheetCell.setCellType(CellType.FORMULA);
+            sheetCell.setCachedFormulaResultType(valueType == CellType.BLANK ? CellType.NUMERIC : valueType);
+        } else {
+            sheetCell.setCellType(valueType);
+        }
+        sheetCell = null;
+    }
+
+    @Override
+    public void endDocument() {
+        rowHandler.endSheet();
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        switch (localName) {
+        case "v":
+            textExpected = false;
+            break;
+        case "t":
+            textExpected = false;
+            break;
+        case "f":
+            sheetCell.setFormula(text.toString());
+            text.setLength(0);
+            textExpected = false;
+            break;
+        case "rPh":
+            inPhonetic = false;
+            break;
+        case "is":
+            inInlineString = false;
+            break;
+        case "c":
+            endCell();
+            break;
+        case "row":
+            rowHandler.handleRow(sheetRow);
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Resolve the data format of a style index once: XSSFCellStyle creation
+     * is too costly to be done for each cell.
+     */
+    private int resolveStyle(String styleAttribute) {
+        final int styleIndex = styleAttribute == null ? 0 : Integer.parseInt(styleAttribute);
+        if (styleIndex >= dataFormatStrings.length) {
+            final int length = Math.max(styleIndex + 1, dataFormatStrings.length * 2);
+            dataFormats = Arrays.copyOf(dataFormats, length);
+            dataFormatStrings = Arrays.copyOf(dataFormatStrings, length);
+        }
+        if (dataFormatStrings[styleIndex] == null) {
+            if (stylesTable != null && styleIndex < stylesTable.getNumCellStyles()) {
+                final XSSFCellStyle style = stylesTable.getStyleAt(styleIndex);
+                dataFormats[styleIndex] = style.getDataFormat();
+                dataFormatStrings[styleIndex] = style.getDataFormatString();
+            } else {
+                dataFormats[styleIndex] = 0;
+                dataFormatStrings[styleIndex] = BuiltinFormats.getBuiltinFormat(0);
+            }
+        }
+        return styleIndex;
+    }
+
+    private void startCell(Attributes attributes) {
+        final String reference = attributes.getValue("r");
+        final int column = reference == null ? lastColumn + 1 : new CellReference(reference).getCol();
+        lastColumn = column;
+        final int styleIndex = resolveStyle(attributes.getValue("s"));
+        sheetCell = sheetRow.newCell(column);
+        sheetCell.reset(sheetRow.getRowNum(), column, dataFormats[styleIndex], dataFormatStrings[styleIndex],
+                date1904);
+        cellTypeAttribute = attributes.getValue("t");
+        hasFormula = false;
+        hasValue = false;
+        text.setLength(0);
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        switch (localName) {
+        case "row":
+            final String rowAttribute = attributes.getValue("r");
+            // r is 1 based and optional
+            final int rowNum = rowAttribute == null ? lastRowNum + 1 : Integer.parseInt(rowAttribute) - 1;
+            lastRowNum = rowNum;
+            lastColumn = -1;
+            sheetRow.reset(rowNum);
+            break;
+        case "c":
+            startCell(attributes);
+            break;
+        case "v":
+            hasValue = true;
+            textExpected = true;
+            break;
+        case "f":
+            hasFormula = true;
+            text.setLength(0);
+            textExpected = true;
+            break;
+        case "is":
+            inInlineString = true;
+            hasValue = true;
+            break;
+        case "rPh":
+            inPhonetic = true;
+            break;
+        case "t":
+            // text of inline strings (phonetic runs are not part of the value)
+            textExpected = inInlineString && !inPhonetic;
+            break;
+        default:
+            break;
+        }
+    }
+}
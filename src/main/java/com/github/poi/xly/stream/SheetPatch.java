@@ -0,0 +1,385 @@
+package com.github.poi.xly.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The errors of one sheet, written by copying the sheet xml (StAX) with the
+ * same changes as XLYFormatter/XLYErrorSink on a XSSFSheet: error style on the
+ * cells in error (created if missing), the messages in a cell after the last
+ * header column (appended to its value if it exists) and a red tab.
+ */
+final class SheetPatch {
+
+    /**
+     * Errors of one row.
+     */
+    private static final class RowPatch {
+
+        private final TreeSet<Integer> columns = new TreeSet<>();
+
+        private final List<String> messages = new ArrayList<>();
+    }
+
+    /** the red of XLYFormatter.RED, written as XSSFColor does */
+    private static final String RED_RGB = "FF0000";
+
+    private static final XMLEventFactory eventFactory = XMLEventFactory.newInstance();
+
+    private static final XMLInputFactory inputFactory = newInputFactory();
+
+    private static final Logger logger = LoggerFactory.getLogger(SheetPatch.class);
+
+    private static final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+
+    private static XMLInputFactory newInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * @return the 0 based column of a cell reference (e.g. "AB12")
+     */
+    private static int parseColumn(String reference) {
+        int end = 0;
+        while (end < reference.length() && Character.isLetter(reference.charAt(end))) {
+            end++;
+        }
+        return CellReference.convertColStringToIndex(reference.substring(0, end));
+    }
+
+    private final Map<Integer, RowPatch> rows = new TreeMap<>();
+
+    void addCell(int rownum, int column, String message) {
+        final RowPatch rowPatch = rows.computeIfAbsent(rownum, r -> new RowPatch());
+        rowPatch.columns.add(column);
+        rowPatch.messages.add(message);
+    }
+
+    void addRow(int rownum, String message) {
+        rows.computeIfAbsent(rownum, r -> new RowPatch()).messages.add(message);
+    }
+
+    /**
+     * Copy the sheet xml with the errors.
+     *
+     * @param errorStyle
+     *            index of the error cell style in styles.xml
+     */
+    void write(InputStream sheetData, OutputStream outputStream, int errorStyle,
+            ReadOnlySharedStringsTable sharedStrings) throws IOException {
+        try {
+            final XMLEventReader reader = inputFactory.createXMLEventReader(sheetData);
+            final XMLEventWriter writer = outputFactory.createXMLEventWriter(outputStream, "UTF-8");
+            new Copier(reader, writer, errorStyle, sharedStrings).copy();
+            writer.flush();
+            writer.close();
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * State of one copy of the sheet xml.
+     */
+    private final class Copier {
+
+        /** last header column + 1, -1 until the header row is read */
+        private int commentIndex = -1;
+
+        /** columns to create in the current row (cells in error and comment) */
+        private final TreeSet<Integer> createdColumns = new TreeSet<>();
+
+        private final String errorStyle;
+
+        private int lastColumn = -1;
+
+        private String namespace = XMLConstants.NULL_NS_URI;
+
+        private String prefix = XMLConstants.DEFAULT_NS_PREFIX;
+
+        private final XMLEventReader reader;
+
+        private int rownum = -1;
+
+        private RowPatch rowPatch;
+
+        private final ReadOnlySharedStringsTable sharedStrings;
+
+        private boolean sheetPrWritten;
+
+        private final XMLEventWriter writer;
+
+        Copier(XMLEventReader reader, XMLEventWriter writer, int errorStyle,
+                ReadOnlySharedStringsTable sharedStrings) {
+            this.reader = reader;
+            this.writer = writer;
+            this.errorStyle = String.valueOf(errorStyle);
+            this.sharedStrings = sharedStrings;
+        }
+
+        void copy() throws XMLStreamException {
+            int depth = 0;
+            while (reader.hasNext()) {
+                final XMLEvent event = reader.nextEvent();
+                if (event.isStartElement()) {
+                    depth++;
+                    final StartElement startElement = event.asStartElement();
+                    final String localName = startElement.getName().getLocalPart();
+                    if (depth == 1) {
+                        prefix = startElement.getName().getPrefix();
+                        namespace = startElement.getName().getNamespaceURI();
+                    } else if (depth == 2 && !sheetPrWritten && !"sheetPr".equals(localName)) {
+                        // sheetPr is the first child of worksheet
+                        writeStart("sheetPr", Collections.emptyList());
+                        writeTabColor();
+                        writeEnd("sheetPr");
+                    }
+                    if (depth == 2 && "sheetPr".equals(localName)) {
+                        writer.add(event);
+                        writeTabColor();
+                        continue;
+                    }
+                    if (depth == 3 && "tabColor".equals(localName)) {
+                        skip(); // replaced by the red one
+                        depth--;
+                        continue;
+                    }
+                    if (depth == 3 && "row".equals(localName)) {
+                        startRow(startElement);
+                        continue;
+                    }
+                    if (depth == 4 && "c".equals(localName)) {
+                        if (startCell(startElement)) {
+                            depth--; // whole cell consumed
+                        }
+                        continue;
+                    }
+                } else if (event.isEndElement()) {
+                    depth--;
+                    if (depth == 2 && "row".equals(event.asEndElement().getName().getLocalPart())) {
+                        endRow();
+                    }
+                }
+                writer.add(event);
+            }
+        }
+
+        private void endRow() throws XMLStreamException {
+            if (rownum == 0) {
+                commentIndex = lastColumn < 0 ? -1 : lastColumn + 1;
+            }
+            if (rowPatch != null) {
+                for (final Integer column : createdColumns) {
+                    writeCreatedCell(column);
+                }
+                createdColumns.clear();
+                rowPatch = null;
+            }
+        }
+
+        private boolean isComment(int column) {
+            return column == commentIndex && !rowPatch.messages.isEmpty();
+        }
+
+        /**
+         * Consume the cell and return its text value.
+         */
+        private String readCellValue(StartElement startElement) throws XMLStreamException {
+            final Attribute type = startElement.getAttributeByName(new QName("t"));
+            final StringBuilder value = new StringBuilder();
+            final StringBuilder text = new StringBuilder();
+            String element = null;
+            int depth = 1;
+            while (depth > 0) {
+                final XMLEvent event = reader.nextEvent();
+                if (event.isStartElement()) {
+                    depth++;
+                    element = event.asStartElement().getName().getLocalPart();
+                } else if (event.isEndElement()) {
+                    depth--;
+                    element = null;
+                } else if (event.isCharacters() && "v".equals(element)) {
+                    value.append(event.asCharacters().getData());
+                } else if (event.isCharacters() && "t".equals(element)) {
+                    text.append(event.asCharacters().getData());
+                }
+            }
+            if (type != null && "s".equals(type.getValue()) && value.length() > 0) {
+                return sharedStrings.getEntryAt(Integer.parseInt(value.toString().trim()));
+            }
+            if (type != null && "inlineStr".equals(type.getValue())) {
+                return text.toString();
+            }
+            return value.toString();
+        }
+
+        private void skip() throws XMLStreamException {
+            int depth = 1;
+            while (depth > 0) {
+                final XMLEvent event = reader.nextEvent();
+                if (event.isStartElement()) {
+                    depth++;
+                } else if (event.isEndElement()) {
+                    depth--;
+                }
+            }
+        }
+
+        /**
+         * @return true if the cell has been consumed (comment cell)
+         */
+        private boolean startCell(StartElement startElement) throws XMLStreamException {
+            final Attribute reference = startElement.getAttributeByName(new QName("r"));
+            final int column = reference == null ? lastColumn + 1 : parseColumn(reference.getValue());
+            lastColumn = column;
+            if (rowPatch == null) {
+                writer.add(startElement);
+                return false;
+            }
+            // missing cells before this one
+            while (!createdColumns.isEmpty() && createdColumns.first() < column) {
+                writeCreatedCell(createdColumns.pollFirst());
+            }
+            createdColumns.remove(column);
+            if (isComment(column)) {
+                // an existing comment cell keeps its style, as with XLYFormatter
+                final Attribute style = startElement.getAttributeByName(new QName("s"));
+                final String existingValue = readCellValue(startElement);
+                writeCommentCell(column, rowPatch.columns.contains(column) ? errorStyle
+                        : style == null ? null : style.getValue(), existingValue);
+                return true;
+            }
+            if (!rowPatch.columns.contains(column)) {
+                writer.add(startElement);
+                return false;
+            }
+            final List<Attribute> attributes = new ArrayList<>();
+            if (reference == null) {
+                attributes.add(eventFactory.createAttribute("r", new CellReference(rownum, column).formatAsString()));
+            }
+            for (final Iterator<?> iterator = startElement.getAttributes(); iterator.hasNext();) {
+                final Attribute attribute = (Attribute) iterator.next();
+                if (!"s".equals(attribute.getName().getLocalPart())) {
+                    attributes.add(attribute);
+                }
+            }
+            attributes.add(eventFactory.createAttribute("s", errorStyle));
+            writer.add(eventFactory.createStartElement(startElement.getName(), attributes.iterator(),
+                    startElement.getNamespaces()));
+            return false;
+        }
+
+        private void startRow(StartElement startElement) throws XMLStreamException {
+            final Attribute reference = startElement.getAttributeByName(new QName("r"));
+            rownum = reference == null ? rownum + 1 : Integer.parseInt(reference.getValue()) - 1;
+            lastColumn = -1;
+            rowPatch = rows.get(rownum);
+            if (rowPatch == null) {
+                writer.add(startElement);
+                return;
+            }
+            createdColumns.addAll(rowPatch.columns);
+            if (commentIndex >= 0 && !rowPatch.messages.isEmpty()) {
+                createdColumns.add(commentIndex);
+            } else if (!rowPatch.messages.isEmpty()) {
+                // same as XLYFormatter when the sheet has no header row
+                logger.error("Unable to add error comment to current line. The current row {} doesn't seems to have "
+                        + "any header cell (commentIndex {}).", rownum, commentIndex);
+            }
+            // spans is an optional hint which may not include the new cells
+            final List<Attribute> attributes = new ArrayList<>();
+            for (final Iterator<?> iterator = startElement.getAttributes(); iterator.hasNext();) {
+                final Attribute attribute = (Attribute) iterator.next();
+                if (!"spans".equals(attribute.getName().getLocalPart())) {
+                    attributes.add(attribute);
+                }
+            }
+            writer.add(eventFactory.createStartElement(startElement.getName(), attributes.iterator(),
+                    startElement.getNamespaces()));
+        }
+
+        /**
+         * @param style
+         *            null to write the cell without style
+         */
+        private void writeCommentCell(int column, String style, String existingValue) throws XMLStreamException {
+            final StringBuilder comment = new StringBuilder();
+            if (existingValue != null) {
+                comment.append(existingValue).append('\n');
+            }
+            comment.append(String.join("\n", rowPatch.messages));
+            final List<Attribute> attributes = new ArrayList<>();
+            attributes.add(eventFactory.createAttribute("r", new CellReference(rownum, column).formatAsString()));
+            if (style != null) {
+                attributes.add(eventFactory.createAttribute("s", style));
+            }
+            attributes.add(eventFactory.createAttribute("t", "inlineStr"));
+            writeStart("c", attributes);
+            writeStart("is", Collections.emptyList());
+            writeStart("t", Collections.singletonList(
+                    eventFactory.createAttribute("xml", XMLConstants.XML_NS_URI, "space", "preserve")));
+            writer.add(eventFactory.createCharacters(comment.toString()));
+            writeEnd("t");
+            writeEnd("is");
+            writeEnd("c");
+        }
+
+        /**
+         * A missing cell in error or the comment cell.
+         */
+        private void writeCreatedCell(int column) throws XMLStreamException {
+            if (isComment(column)) {
+                writeCommentCell(column, errorStyle, null);
+                return;
+            }
+            final List<Attribute> attributes = new ArrayList<>();
+            attributes.add(eventFactory.createAttribute("r", new CellReference(rownum, column).formatAsString()));
+            attributes.add(eventFactory.createAttribute("s", errorStyle));
+            writeStart("c", attributes);
+            writeEnd("c");
+        }
+
+        private void writeEnd(String localName) throws XMLStreamException {
+            writer.add(eventFactory.createEndElement(prefix, namespace, localName));
+        }
+
+        private void writeStart(String localName, List<Attribute> attributes) throws XMLStreamException {
+            writer.add(eventFactory.createStartElement(prefix, namespace, localName, attributes.iterator(), null));
+        }
+
+        private void writeTabColor() throws XMLStreamException {
+            sheetPrWritten = true;
+            writeStart("tabColor", Collections.singletonList(eventFactory.createAttribute("rgb", RED_RGB)));
+            writeEnd("tabColor");
+        }
+    }
+}
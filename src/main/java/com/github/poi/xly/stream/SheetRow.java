@@ -0,0 +1,71 @@
+package com.github.poi.xly.stream;
+
+import java.util.Arrays;
+
+/**
+ * A row read by {@link WorkbookReader}. Only hold the cells of the current
+ * row.<br/>
+ * <b>Warning</b>: the same instance is reused for every row of the sheet.
+ */
+public class SheetRow {
+
+    private SheetCell[] cells = new SheetCell[16];
+
+    private int lastCellNum = -1;
+
+    private boolean[] present = new boolean[16];
+
+    private int rowNum;
+
+    /**
+     * @return the cell or null if the cell is not defined in the file (same
+     *         behavior as Row#getCell(int))
+     */
+    public SheetCell getCell(int column) {
+        if (column < 0 || column >= lastCellNum || !present[column]) {
+            return null;
+        }
+        return cells[column];
+    }
+
+    /**
+     * @return last column index PLUS ONE or -1 if the row doesn't contain any
+     *         cell (same behavior as Row#getLastCellNum())
+     */
+    public int getLastCellNum() {
+        return lastCellNum;
+    }
+
+    /**
+     * @return 0 based row number (getRowNum():0 means row:1 in excel)
+     */
+    public int getRowNum() {
+        return rowNum;
+    }
+
+    /**
+     * Prepare a cell for the current row, reusing the instance of the
+     * previous rows.
+     */
+    SheetCell newCell(int column) {
+        if (column >= cells.length) {
+            final int length = Math.max(column + 1, cells.length * 2);
+            cells = Arrays.copyOf(cells, length);
+            present = Arrays.copyOf(present, length);
+        }
+        if (cells[column] == null) {
+            cells[column] = new SheetCell();
+        }
+        present[column] = true;
+        lastCellNum = Math.max(lastCellNum, column + 1);
+        return cells[column];
+    }
+
+    void reset(int rowNum) {
+        for (int i = 0; i < lastCellNum; i++) {
+            present[i] = false;
+        }
+        this.rowNum = rowNum;
+        this.lastCellNum = -1;
+    }
+}
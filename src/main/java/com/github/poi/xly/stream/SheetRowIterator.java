@@ -0,0 +1,140 @@
+package com.github.poi.xly.stream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.model.StylesTable;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Pull version of {@link WorkbookReader#readSheet(String, RowHandler)}: the
+ * sheet xml is read with StAX, only up to the next row, and the events are
+ * given to the same {@link SheetContentHandler}.<br/>
+ * Use it for code expecting an Iterator (e.g. RowConstraint) without loading
+ * the sheet in memory.<br/>
+ * <b>Warning</b>: the same {@link SheetRow} instance is returned for every
+ * row, it is only valid until the next call to {@link #hasNext()}.
+ *
+ * @see WorkbookReader#iterateSheet(String)
+ */
+public class SheetRowIterator implements Iterator<SheetRow>, Closeable {
+
+    private final AttributesImpl attributes = new AttributesImpl();
+
+    private final SheetContentHandler contentHandler;
+
+    private boolean ended;
+
+    private SheetRow next;
+
+    private final InputStream sheetData;
+
+    private final XMLStreamReader xmlReader;
+
+    SheetRowIterator(InputStream sheetData, ReadOnlySharedStringsTable sharedStrings, StylesTable stylesTable,
+            boolean date1904) throws IOException {
+        this.sheetData = sheetData;
+        this.contentHandler = new SheetContentHandler(sharedStrings, stylesTable, date1904, new RowHandler() {
+            @Override
+            public void endSheet() {
+                ended = true;
+            }
+
+            @Override
+            public void handleRow(SheetRow row) {
+                next = row;
+            }
+        });
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try {
+            xmlReader = factory.createXMLStreamReader(sheetData);
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read the xml until the end of the next row (or of the document).
+     */
+    private void advance() {
+        try {
+            while (next == null && !ended && xmlReader.hasNext()) {
+                switch (xmlReader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    attributes.clear();
+                    for (int i = 0; i < xmlReader.getAttributeCount(); i++) {
+                        final String prefix = xmlReader.getAttributePrefix(i);
+                        final String localName = xmlReader.getAttributeLocalName(i);
+                        attributes.addAttribute(xmlReader.getAttributeNamespace(i), localName,
+                                prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName, "CDATA",
+                                xmlReader.getAttributeValue(i));
+                    }
+                    contentHandler.startElement(xmlReader.getNamespaceURI(), xmlReader.getLocalName(), null,
+                            attributes);
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    contentHandler.characters(xmlReader.getTextCharacters(), xmlReader.getTextStart(),
+                            xmlReader.getTextLength());
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    contentHandler.endElement(xmlReader.getNamespaceURI(), xmlReader.getLocalName(), null);
+                    break;
+                case XMLStreamConstants.END_DOCUMENT:
+                    contentHandler.endDocument();
+                    break;
+                default:
+                    break;
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new UncheckedIOException(new IOException(e.getMessage(), e));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            xmlReader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        } finally {
+            sheetData.close();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            advance();
+        }
+        return next != null;
+    }
+
+    /**
+     * @return the next row, only valid until the next call to
+     *         {@link #hasNext()} or {@link #next()}
+     */
+    @Override
+    public SheetRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final SheetRow row = next;
+        next = null;
+        return row;
+    }
+}
@@ -0,0 +1,117 @@
+package com.github.poi.xly.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.poi.hssf.util.HSSFColor;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTFont;
+
+/**
+ * Write the validation errors into a copy of the file read by a
+ * {@link WorkbookReader} without loading it in a XSSFWorkbook: the sheets with
+ * errors and styles.xml are rewritten (streamed), all the other entries of the
+ * package are copied as is, without being inflated or deflated.<br/>
+ * The result is the same as the red cells, messages and red tabs written by
+ * XLYErrorSink on a XSSFWorkbook, except that the messages are inline strings
+ * rather than shared strings.
+ */
+public class WorkbookPatcher {
+
+    /**
+     * @return entry name of a part ("/xl/styles.xml" is "xl/styles.xml")
+     */
+    private static String getEntryName(PackagePart part) {
+        final String partName = part.getPartName().getName();
+        return partName.startsWith("/") ? partName.substring(1) : partName;
+    }
+
+    /** patches by sheet name, in the order they were added */
+    private final Map<String, SheetPatch> sheetPatches = new LinkedHashMap<>();
+
+    private final WorkbookReader workbookReader;
+
+    /**
+     * @param workbookReader
+     *            reader of the file to copy, open until
+     *            {@link #write(OutputStream)} returns
+     */
+    public WorkbookPatcher(WorkbookReader workbookReader) {
+        if (workbookReader == null) {
+            throw new IllegalArgumentException("workbookReader must not be null");
+        }
+        this.workbookReader = workbookReader;
+    }
+
+    /**
+     * Cell validation error: red cell and message at the end of its row.
+     */
+    public void addCellError(String sheetName, int rownum, int column, String message) {
+        sheetPatches.computeIfAbsent(sheetName, s -> new SheetPatch()).addCell(rownum, column, message);
+    }
+
+    /**
+     * Row validation error: message at the end of the row.
+     */
+    public void addRowError(String sheetName, int rownum, String message) {
+        sheetPatches.computeIfAbsent(sheetName, s -> new SheetPatch()).addRow(rownum, message);
+    }
+
+    /**
+     * Add the error cell style (same as XLYFormatter's one: red fill, white
+     * font) to the styles of the file.
+     *
+     * @return the index of the style
+     */
+    private int addErrorStyle(StylesTable stylesTable) {
+        // same as XSSFWorkbook#createFont()
+        final XSSFFont font = new XSSFFont(CTFont.Factory.newInstance());
+        font.setFontName(XSSFFont.DEFAULT_FONT_NAME);
+        font.setFontHeight((double) XSSFFont.DEFAULT_FONT_SIZE);
+        font.setColor(IndexedColors.WHITE.getIndex());
+        font.registerTo(stylesTable);
+        final XSSFCellStyle errorStyle = stylesTable.createCellStyle();
+        errorStyle.setFillForegroundColor(HSSFColor.RED.index);
+        errorStyle.setFillBackgroundColor(HSSFColor.RED.index);
+        errorStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        errorStyle.setFont(font);
+        return errorStyle.getIndex();
+    }
+
+    /**
+     * Write the patched copy of the file.
+     *
+     * @return false (nothing written) if the package can't be patched (zip64
+     *         or unusual layout), the file must then be annotated another way
+     */
+    public boolean write(OutputStream outputStream) throws IOException {
+        final PackagePart stylesPart = workbookReader.getStylesPart();
+        if (stylesPart == null) {
+            return false;
+        }
+        final StylesTable stylesTable = new StylesTable(stylesPart);
+        final int errorStyle = addErrorStyle(stylesTable);
+        final Map<String, ZipPatchWriter.EntryContent> replacements = new LinkedHashMap<>();
+        replacements.put(getEntryName(stylesPart), stylesTable::writeTo);
+        for (final Map.Entry<String, SheetPatch> entry : sheetPatches.entrySet()) {
+            final PackagePart sheetPart = workbookReader.getSheetPart(entry.getKey());
+            if (sheetPart == null) {
+                throw new IllegalArgumentException("Unknown sheet " + entry.getKey());
+            }
+            replacements.put(getEntryName(sheetPart), out -> {
+                try (InputStream sheetData = sheetPart.getInputStream()) {
+                    entry.getValue().write(sheetData, out, errorStyle, workbookReader.getSharedStrings());
+                }
+            });
+        }
+        return ZipPatchWriter.write(workbookReader.getFile(), replacements, outputStream);
+    }
+}
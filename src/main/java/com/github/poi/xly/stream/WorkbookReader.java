@@ -0,0 +1,222 @@
+package com.github.poi.xly.stream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.util.SAXHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.xmlbeans.XmlException;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.WorkbookDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * Low memory footprint reader of .xlsx files based on XSSFReader (SAX).<br/>
+ * Unlike XSSFWorkbook only one row is in memory at a time: rows are pushed to a
+ * {@link RowHandler} while the sheet xml is parsed.<br/>
+ * The inputStream is copied to a temporary file (deleted on {@link #close()})
+ * so that the zip entries are not inflated in memory.
+ *
+ * @see http://poi.apache.org/spreadsheet/how-to.html#xssf_sax_api
+ */
+public class WorkbookReader implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkbookReader.class);
+
+    private final boolean date1904;
+
+    private final OPCPackage opcPackage;
+
+    private final ReadOnlySharedStringsTable sharedStrings;
+
+    private final StylesTable stylesTable;
+
+    private final Path tempFile;
+
+    private final XSSFReader xssfReader;
+
+    /**
+     * @param inputStream
+     *            the .xlsx file (not closed by this reader)
+     */
+    public WorkbookReader(InputStream inputStream) throws IOException {
+        tempFile = Files.createTempFile("xly", ".xlsx");
+        try {
+            Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            opcPackage = OPCPackage.open(tempFile.toFile(), PackageAccess.READ);
+        } catch (IOException | OpenXML4JException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e instanceof IOException ? (IOException) e : new IOException(e.getMessage(), e);
+        }
+        try {
+            xssfReader = new XSSFReader(opcPackage);
+            sharedStrings = new ReadOnlySharedStringsTable(opcPackage);
+            stylesTable = xssfReader.getStylesTable();
+            date1904 = isDate1904(xssfReader);
+        } catch (IOException | OpenXML4JException | SAXException | XmlException | RuntimeException e) {
+            close();
+            throw e instanceof IOException ? (IOException) e : new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Revert the package (opened read only) and delete the temporary file.
+     */
+    @Override
+    public void close() throws IOException {
+        opcPackage.revert();
+        Files.deleteIfExists(tempFile);
+    }
+
+    /**
+     * @return the copy of the .xlsx file
+     */
+    Path getFile() {
+        return tempFile;
+    }
+
+    ReadOnlySharedStringsTable getSharedStrings() {
+        return sharedStrings;
+    }
+
+    /**
+     * @return the part of the sheet (case insensitive name), null if the sheet
+     *         doesn't exist
+     */
+    PackagePart getSheetPart(String sheetName) throws IOException {
+        final XSSFReader.SheetIterator sheetIterator = getSheetIterator();
+        while (sheetIterator.hasNext()) {
+            sheetIterator.next().close();
+            if (sheetIterator.getSheetName().equalsIgnoreCase(sheetName)) {
+                return sheetIterator.getSheetPart();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the styles part, null if the package has none
+     */
+    PackagePart getStylesPart() {
+        final List<PackagePart> parts = opcPackage.getPartsByContentType(XSSFRelation.STYLES.getContentType());
+        return parts.isEmpty() ? null : parts.get(0);
+    }
+
+    /**
+     * @return names of the sheets in the workbook order
+     */
+    public List<String> getSheetNames() throws IOException {
+        final List<String> sheetNames = new ArrayList<>();
+        final XSSFReader.SheetIterator sheetIterator = getSheetIterator();
+        while (sheetIterator.hasNext()) {
+            sheetIterator.next().close();
+            sheetNames.add(sheetIterator.getSheetName());
+        }
+        return sheetNames;
+    }
+
+    private XSSFReader.SheetIterator getSheetIterator() throws IOException {
+        try {
+            return (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+        } catch (OpenXML4JException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Sheet names are case insensitive (same behavior as
+     * XSSFWorkbook#getSheet(String)).
+     */
+    public boolean hasSheet(String sheetName) throws IOException {
+        return getSheetNames().stream().anyMatch(name -> name.equalsIgnoreCase(sheetName));
+    }
+
+    /**
+     * @return a new stream on the copy of the .xlsx file, e.g. to load it in a
+     *         XSSFWorkbook once it is known to be needed (to be closed by the
+     *         caller, before this reader)
+     */
+    public InputStream openFile() throws IOException {
+        return Files.newInputStream(tempFile);
+    }
+
+    private boolean isDate1904(XSSFReader xssfReader) throws IOException, OpenXML4JException, XmlException {
+        try (InputStream workbookData = xssfReader.getWorkbookData()) {
+            final CTWorkbook ctWorkbook = WorkbookDocument.Factory.parse(workbookData).getWorkbook();
+            return ctWorkbook.isSetWorkbookPr() && ctWorkbook.getWorkbookPr().getDate1904();
+        }
+    }
+
+    private void parse(InputStream sheetData, RowHandler rowHandler) throws IOException {
+        try {
+            final XMLReader xmlReader = SAXHelper.newXMLReader();
+            xmlReader.setContentHandler(new SheetContentHandler(sharedStrings, stylesTable, date1904, rowHandler));
+            xmlReader.parse(new InputSource(sheetData));
+        } catch (SAXException | ParserConfigurationException e) {
+            logger.error(e.getMessage(), e);
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Pull alternative to {@link #readSheet(String, RowHandler)}.
+     *
+     * @return an iterator on the rows of the sheet (to be closed), null if the
+     *         sheet doesn't exist
+     */
+    public SheetRowIterator iterateSheet(String sheetName) throws IOException {
+        final XSSFReader.SheetIterator sheetIterator = getSheetIterator();
+        while (sheetIterator.hasNext()) {
+            final InputStream sheetData = sheetIterator.next();
+            if (sheetIterator.getSheetName().equalsIgnoreCase(sheetName)) {
+                try {
+                    return new SheetRowIterator(sheetData, sharedStrings, stylesTable, date1904);
+                } catch (IOException | RuntimeException e) {
+                    sheetData.close();
+                    throw e;
+                }
+            }
+            sheetData.close();
+        }
+        return null;
+    }
+
+    /**
+     * Parse the sheet and call rowHandler for each row defined in the file
+     * (empty rows not stored in the file are skipped like with
+     * Sheet#iterator()).
+     *
+     * @return false if the sheet doesn't exist
+     */
+    public boolean readSheet(String sheetName, RowHandler rowHandler) throws IOException {
+        final XSSFReader.SheetIterator sheetIterator = getSheetIterator();
+        while (sheetIterator.hasNext()) {
+            try (InputStream sheetData = sheetIterator.next()) {
+                if (sheetIterator.getSheetName().equalsIgnoreCase(sheetName)) {
+                    parse(sheetData, rowHandler);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
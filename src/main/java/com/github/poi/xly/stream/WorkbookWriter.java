@@ -0,0 +1,394 @@
+package com.github.poi.xly.stream;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.model.StylesTable;
+
+/**
+ * Low memory footprint writer of .xlsx files: the zip entries are written
+ * directly into the outputStream while rows are produced (no temporary file,
+ * unlike SXSSFWorkbook which copies everything at the end in write()).<br/>
+ * Sheets are written one after the other, strings are written inline (no
+ * shared strings table), styles come from the given StylesTable which is only
+ * written on {@link #close()} so styles can still be created while rows are
+ * written.
+ *
+ * <pre>
+ * startSheet, (startRow, writeCell*, endRow)*, endSheet ... close | abort
+ * </pre>
+ */
+public class WorkbookWriter implements Closeable {
+
+    private static final String CONTENT_TYPE_SHEET = "application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml";
+
+    private static final String NS_MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+    private static final String NS_RELATIONSHIPS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    private boolean closed;
+
+    private String[] columnNames = new String[0];
+
+    private boolean inRow;
+
+    private boolean inSheet;
+
+    private int rowNum = -1;
+
+    private final List<String> sheetNames = new ArrayList<>();
+
+    private final StylesTable stylesTable;
+
+    private final Writer writer;
+
+    private final ZipOutputStream zipOutputStream;
+
+    /**
+     * @param outputStream
+     *            where the .xlsx file is written (not closed by this writer)
+     * @param stylesTable
+     *            styles referenced by the style index of the cells (e.g.
+     *            XSSFWorkbook#getStylesSource())
+     */
+    public WorkbookWriter(OutputStream outputStream, StylesTable stylesTable) {
+        if (outputStream == null || stylesTable == null) {
+            throw new IllegalArgumentException("outputStream or stylesTable must not be null");
+        }
+        this.stylesTable = stylesTable;
+        zipOutputStream = new ZipOutputStream(outputStream);
+        writer = new BufferedWriter(new OutputStreamWriter(zipOutputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Stop writing after a failure: the current sheet entry is closed but the
+     * workbook parts are not written and the zip is not finished, so the
+     * output can't be opened as a (truncated) workbook. The outputStream is
+     * not closed, {@link #close()} does nothing afterwards.
+     */
+    public void abort() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        inRow = false;
+        writer.flush();
+        if (inSheet) {
+            inSheet = false;
+            zipOutputStream.closeEntry();
+        }
+        zipOutputStream.flush();
+    }
+
+    private void checkRow() {
+        if (!inRow) {
+            throw new IllegalStateException("No row started");
+        }
+    }
+
+    /**
+     * Write the workbook parts (workbook.xml, styles.xml...) and finish the
+     * zip. The outputStream is not closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (inSheet) {
+            endSheet();
+        }
+        closed = true;
+        putEntry("xl/styles.xml");
+        writer.flush();
+        stylesTable.writeTo(zipOutputStream);
+        zipOutputStream.closeEntry();
+        writeWorkbook();
+        writeRelationships();
+        writeContentTypes();
+        zipOutputStream.finish();
+        zipOutputStream.flush();
+    }
+
+    public void endRow() throws IOException {
+        checkRow();
+        writer.write("</row>");
+        inRow = false;
+    }
+
+    public void endSheet() throws IOException {
+        if (!inSheet) {
+            throw new IllegalStateException("No sheet started");
+        }
+        if (inRow) {
+            endRow();
+        }
+        writer.write("</sheetData></worksheet>");
+        writer.flush();
+        zipOutputStream.closeEntry();
+        inSheet = false;
+    }
+
+    private String getColumnName(int column) {
+        if (column >= columnNames.length) {
+            final String[] names = new String[Math.max(column + 1, columnNames.length * 2)];
+            System.arraycopy(columnNames, 0, names, 0, columnNames.length);
+            columnNames = names;
+        }
+        if (columnNames[column] == null) {
+            columnNames[column] = CellReference.convertNumToColString(column);
+        }
+        return columnNames[column];
+    }
+
+    private void putEntry(String name) throws IOException {
+        writer.flush();
+        zipOutputStream.putNextEntry(new ZipEntry(name));
+    }
+
+    /**
+     * Start a new row, rows must be written in ascending order.
+     *
+     * @param rowNum
+     *            0 based
+     */
+    public void startRow(int rowNum) throws IOException {
+        if (!inSheet) {
+            throw new IllegalStateException("No sheet started");
+        }
+        if (rowNum <= this.rowNum) {
+            throw new IllegalArgumentException(
+                    "Row " + rowNum + " must be written after the previous one (" + this.rowNum + ")");
+        }
+        if (inRow) {
+            endRow();
+        }
+        this.rowNum = rowNum;
+        inRow = true;
+        writer.write("<row r=\"");
+        writer.write(Integer.toString(rowNum + 1));
+        writer.write("\">");
+    }
+
+    /**
+     * Start a new sheet (the previous one is ended if needed), its xml is
+     * written straight away into the outputStream.
+     *
+     * @param columnWidths
+     *            width of each column in units of 1/256th of a character (same
+     *            as Sheet#setColumnWidth(int, int)), 0 to keep the default
+     *            width
+     */
+    public void startSheet(String sheetName, int... columnWidths) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Writer already closed");
+        }
+        WorkbookUtil.validateSheetName(sheetName);
+        if (sheetNames.stream().anyMatch(name -> name.equalsIgnoreCase(sheetName))) {
+            throw new IllegalArgumentException("The workbook already contains a sheet named '" + sheetName + "'");
+        }
+        if (inSheet) {
+            endSheet();
+        }
+        sheetNames.add(sheetName);
+        inSheet = true;
+        rowNum = -1;
+        putEntry("xl/worksheets/sheet" + sheetNames.size() + ".xml");
+        writer.write(XML_HEADER);
+        writer.write("<worksheet xmlns=\"" + NS_MAIN + "\">");
+        if (columnWidths.length > 0) {
+            writer.write("<cols>");
+            for (int column = 0; column < columnWidths.length; column++) {
+                if (columnWidths[column] > 0) {
+                    final String index = Integer.toString(column + 1);
+                    writer.write("<col min=\"" + index + "\" max=\"" + index + "\" width=\""
+                            + columnWidths[column] / 256d + "\" customWidth=\"1\"/>");
+                }
+            }
+            writer.write("</cols>");
+        }
+        writer.write("<sheetData>");
+    }
+
+    private void startCell(int column, int styleIndex, String type) throws IOException {
+        checkRow();
+        writer.write("<c r=\"");
+        writer.write(getColumnName(column));
+        writer.write(Integer.toString(rowNum + 1));
+        writer.write('"');
+        if (styleIndex > 0) {
+            writer.write(" s=\"");
+            writer.write(Integer.toString(styleIndex));
+            writer.write('"');
+        }
+        if (type != null) {
+            writer.write(" t=\"");
+            writer.write(type);
+            writer.write('"');
+        }
+    }
+
+    /**
+     * Write text escaped for xml, characters not allowed in xml 1.0 are
+     * skipped.
+     */
+    private void writeEscaped(String value) throws IOException {
+        final int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            final String replacement;
+            switch (c) {
+            case '<':
+                replacement = "&lt;";
+                break;
+            case '>':
+                replacement = "&gt;";
+                break;
+            case '&':
+                replacement = "&amp;";
+                break;
+            case '"':
+                replacement = "&quot;";
+                break;
+            default:
+                replacement = c < 0x20 && c != '\t' && c != '\n' && c != '\r' || c == 0xFFFE || c == 0xFFFF ? ""
+                        : null;
+            }
+            if (replacement != null) {
+                writer.write(value, start, i - start);
+                writer.write(replacement);
+                start = i + 1;
+            }
+        }
+        writer.write(value, start, length - start);
+    }
+
+    /**
+     * Write an empty cell (same as Row#createCell(int) without value).
+     */
+    public void writeBlankCell(int column, int styleIndex) throws IOException {
+        startCell(column, styleIndex, null);
+        writer.write("/>");
+    }
+
+    public void writeCell(int column, boolean value, int styleIndex) throws IOException {
+        startCell(column, styleIndex, "b");
+        writer.write(value ? "><v>1</v></c>" : "><v>0</v></c>");
+    }
+
+    /**
+     * Dates are stored as numeric (use a date formatted style), see
+     * Cell#setCellValue(Date).
+     */
+    public void writeCell(int column, Date value, int styleIndex) throws IOException {
+        if (value == null) {
+            writeBlankCell(column, styleIndex);
+        } else {
+            writeCell(column, DateUtil.getExcelDate(value), styleIndex);
+        }
+    }
+
+    public void writeCell(int column, double value, int styleIndex) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            // same as XSSFCell#setCellValue(double)
+            final FormulaError error = Double.isNaN(value) ? FormulaError.NUM : FormulaError.DIV0;
+            startCell(column, styleIndex, "e");
+            writer.write("><v>" + error.getString() + "</v></c>");
+            return;
+        }
+        startCell(column, styleIndex, null);
+        writer.write("><v>");
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            writer.write(Long.toString((long) value));
+        } else {
+            writer.write(Double.toString(value));
+        }
+        writer.write("</v></c>");
+    }
+
+    public void writeCell(int column, String value, int styleIndex) throws IOException {
+        if (value == null) {
+            writeBlankCell(column, styleIndex);
+            return;
+        }
+        startCell(column, styleIndex, "inlineStr");
+        if (!value.isEmpty() && (Character.isWhitespace(value.charAt(0))
+                || Character.isWhitespace(value.charAt(value.length() - 1)))) {
+            writer.write("><is><t xml:space=\"preserve\">");
+        } else {
+            writer.write("><is><t>");
+        }
+        writeEscaped(value);
+        writer.write("</t></is></c>");
+    }
+
+    private void writeContentTypes() throws IOException {
+        putEntry("[Content_Types].xml");
+        writer.write(XML_HEADER);
+        writer.write("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+                + "<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>");
+        for (int i = 1; i <= sheetNames.size(); i++) {
+            writer.write("<Override PartName=\"/xl/worksheets/sheet" + i + ".xml\" ContentType=\""
+                    + CONTENT_TYPE_SHEET + "\"/>");
+        }
+        writer.write("</Types>");
+        writer.flush();
+        zipOutputStream.closeEntry();
+    }
+
+    private void writeRelationships() throws IOException {
+        putEntry("_rels/.rels");
+        writer.write(XML_HEADER);
+        writer.write("<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + "<Relationship Id=\"rId1\" Type=\"" + NS_RELATIONSHIPS
+                + "/officeDocument\" Target=\"xl/workbook.xml\"/></Relationships>");
+        writer.flush();
+        zipOutputStream.closeEntry();
+
+        putEntry("xl/_rels/workbook.xml.rels");
+        writer.write(XML_HEADER);
+        writer.write("<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+        for (int i = 1; i <= sheetNames.size(); i++) {
+            writer.write("<Relationship Id=\"rId" + i + "\" Type=\"" + NS_RELATIONSHIPS
+                    + "/worksheet\" Target=\"worksheets/sheet" + i + ".xml\"/>");
+        }
+        writer.write("<Relationship Id=\"rId" + (sheetNames.size() + 1) + "\" Type=\"" + NS_RELATIONSHIPS
+                + "/styles\" Target=\"styles.xml\"/></Relationships>");
+        writer.flush();
+        zipOutputStream.closeEntry();
+    }
+
+    private void writeWorkbook() throws IOException {
+        putEntry("xl/workbook.xml");
+        writer.write(XML_HEADER);
+        writer.write("<workbook xmlns=\"" + NS_MAIN + "\" xmlns:r=\"" + NS_RELATIONSHIPS + "\"><sheets>");
+        for (int i = 1; i <= sheetNames.size(); i++) {
+            writer.write("<sheet name=\"");
+            writeEscaped(sheetNames.get(i - 1));
+            writer.write("\" sheetId=\"" + i + "\" r:id=\"rId" + i + "\"/>");
+        }
+        writer.write("</sheets></workbook>");
+        writer.flush();
+        zipOutputStream.closeEntry();
+    }
+}
@@ -0,0 +1,356 @@
+package com.github.poi.xly.stream;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Write a copy of a zip file where some entries are replaced: the other
+ * entries are copied byte for byte, still compressed (no inflate/deflate), the
+ * replaced ones are deflated as they are written.<br/>
+ * Zip64, split and encrypted archives are not supported, see
+ * {@link #write(Path, Map, OutputStream)}.
+ *
+ * @see https://pkware.cachefly.net/webdocs/casestudies/APPNOTE.TXT
+ */
+final class ZipPatchWriter {
+
+    /**
+     * Writes the new content of a replaced entry (the stream must not be
+     * closed).
+     */
+    @FunctionalInterface
+    interface EntryContent {
+        void write(OutputStream outputStream) throws IOException;
+    }
+
+    /**
+     * One entry of the central directory: the fixed size header and the
+     * variable fields.
+     */
+    private static final class CentralEntry {
+
+        private final byte[] comment;
+
+        private final byte[] extra;
+
+        private final ByteBuffer header;
+
+        private final byte[] name;
+
+        private final String entryName;
+
+        CentralEntry(ByteBuffer header, byte[] name, byte[] extra, byte[] comment) {
+            this.header = header;
+            this.name = name;
+            this.extra = extra;
+            this.comment = comment;
+            this.entryName = new String(name,
+                    (getFlags() & UTF8_FLAG) != 0 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+        }
+
+        long getCompressedSize() {
+            return header.getInt(20) & MAX_SIZE;
+        }
+
+        int getFlags() {
+            return header.getShort(8) & 0xffff;
+        }
+
+        long getLocalHeaderOffset() {
+            return header.getInt(42) & MAX_SIZE;
+        }
+
+        long getSize() {
+            return header.getInt(24) & MAX_SIZE;
+        }
+    }
+
+    /**
+     * Count the bytes written, closing it only flushes the underlying stream.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+
+    private static final int CENTRAL_HEADER_SIZE = 46;
+
+    private static final int DATA_DESCRIPTOR_FLAG = 0x08;
+
+    private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+
+    private static final int DEFLATED = 8;
+
+    private static final int ENCRYPTED_FLAG = 0x01;
+
+    private static final int END_SIGNATURE = 0x06054b50;
+
+    private static final int END_SIZE = 22;
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+
+    private static final int LOCAL_HEADER_SIZE = 30;
+
+    private static final long MAX_SIZE = 0xffffffffL;
+
+    private static final int UTF8_FLAG = 0x800;
+
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+
+    private static void checkSize(long size) throws IOException {
+        if (size >= MAX_SIZE) {
+            throw new IOException("Zip64 is not supported, size: " + size);
+        }
+    }
+
+    private static void copy(FileChannel channel, long position, long length, OutputStream outputStream)
+            throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(BUFFER_SIZE, Math.max(1, length)));
+        long remaining = length;
+        while (remaining > 0) {
+            // Buffer casts: ByteBuffer overrides these methods since java 9
+            ((Buffer) buffer).clear();
+            ((Buffer) buffer).limit((int) Math.min(buffer.capacity(), remaining));
+            final int read = channel.read(buffer, position + length - remaining);
+            if (read < 0) {
+                throw new IOException("Truncated zip entry");
+            }
+            outputStream.write(buffer.array(), 0, read);
+            remaining -= read;
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated zip file");
+            }
+        }
+        ((Buffer) buffer).flip();
+        return buffer;
+    }
+
+    /**
+     * @return the entries of the central directory, null if the archive is not
+     *         supported
+     */
+    private static List<CentralEntry> readCentralDirectory(FileChannel channel) throws IOException {
+        final long fileSize = channel.size();
+        final int tailSize = (int) Math.min(fileSize, END_SIZE + 0xffff);
+        if (tailSize < END_SIZE) {
+            return null;
+        }
+        final ByteBuffer tail = read(channel, fileSize - tailSize, tailSize);
+        int end = -1;
+        for (int i = tailSize - END_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_SIGNATURE && i + END_SIZE + (tail.getShort(i + 20) & 0xffff) == tailSize) {
+                end = i;
+                break;
+            }
+        }
+        if (end < 0 || tail.getShort(end + 4) != 0 || tail.getShort(end + 6) != 0) {
+            return null; // not a zip or split archive
+        }
+        if (end >= ZIP64_LOCATOR_SIZE && tail.getInt(end - ZIP64_LOCATOR_SIZE) == ZIP64_LOCATOR_SIGNATURE) {
+            return null;
+        }
+        final int entryCount = tail.getShort(end + 10) & 0xffff;
+        final long directorySize = tail.getInt(end + 12) & MAX_SIZE;
+        final long directoryOffset = tail.getInt(end + 16) & MAX_SIZE;
+        if (entryCount == 0xffff || directorySize == MAX_SIZE || directoryOffset == MAX_SIZE
+                || directoryOffset + directorySize > fileSize) {
+            return null;
+        }
+        final ByteBuffer directory = read(channel, directoryOffset, (int) directorySize);
+        final List<CentralEntry> entries = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            if (directory.remaining() < CENTRAL_HEADER_SIZE
+                    || directory.getInt(directory.position()) != CENTRAL_HEADER_SIGNATURE) {
+                return null;
+            }
+            final ByteBuffer header = ByteBuffer.allocate(CENTRAL_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            directory.get(header.array());
+            final byte[] name = new byte[header.getShort(28) & 0xffff];
+            final byte[] extra = new byte[header.getShort(30) & 0xffff];
+            final byte[] comment = new byte[header.getShort(32) & 0xffff];
+            directory.get(name).get(extra).get(comment);
+            final CentralEntry entry = new CentralEntry(header, name, extra, comment);
+            if ((entry.getFlags() & ENCRYPTED_FLAG) != 0 || entry.getCompressedSize() == MAX_SIZE
+                    || entry.getSize() == MAX_SIZE || entry.getLocalHeaderOffset() == MAX_SIZE) {
+                return null;
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * @param zipFile
+     *            the original archive
+     * @param replacements
+     *            new content by entry name, the entries must exist
+     * @return false (nothing written) if the archive is not supported or an
+     *         entry to replace doesn't exist
+     */
+    static boolean write(Path zipFile, Map<String, EntryContent> replacements, OutputStream outputStream)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(zipFile, StandardOpenOption.READ)) {
+            final List<CentralEntry> entries = readCentralDirectory(channel);
+            if (entries == null) {
+                return false;
+            }
+            final Set<String> entryNames = new HashSet<>();
+            for (final CentralEntry entry : entries) {
+                entryNames.add(entry.entryName);
+            }
+            if (!entryNames.containsAll(replacements.keySet())) {
+                return false;
+            }
+            final CountingOutputStream out = new CountingOutputStream(outputStream);
+            final long[] offsets = new long[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                final CentralEntry entry = entries.get(i);
+                offsets[i] = out.count;
+                checkSize(offsets[i]);
+                final EntryContent content = replacements.get(entry.entryName);
+                if (content == null) {
+                    copyEntry(channel, entry, out);
+                } else {
+                    writeEntry(entry, content, out);
+                }
+            }
+            final long directoryOffset = out.count;
+            checkSize(directoryOffset);
+            for (int i = 0; i < entries.size(); i++) {
+                final CentralEntry entry = entries.get(i);
+                entry.header.putInt(42, (int) offsets[i]);
+                out.write(entry.header.array());
+                out.write(entry.name);
+                out.write(entry.extra);
+                out.write(entry.comment);
+            }
+            final ByteBuffer end = ByteBuffer.allocate(END_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            end.putInt(END_SIGNATURE).putShort((short) 0).putShort((short) 0).putShort((short) entries.size())
+                    .putShort((short) entries.size()).putInt((int) (out.count - directoryOffset))
+                    .putInt((int) directoryOffset).putShort((short) 0);
+            out.write(end.array());
+            out.flush();
+            return true;
+        }
+    }
+
+    /**
+     * Copy the compressed data, the local header is rewritten with the sizes
+     * of the central directory (no data descriptor).
+     */
+    private static void copyEntry(FileChannel channel, CentralEntry entry, CountingOutputStream out)
+            throws IOException {
+        final ByteBuffer localHeader = read(channel, entry.getLocalHeaderOffset(), LOCAL_HEADER_SIZE);
+        if (localHeader.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+            throw new IOException("Invalid zip entry: " + entry.entryName);
+        }
+        final long dataOffset = entry.getLocalHeaderOffset() + LOCAL_HEADER_SIZE
+                + (localHeader.getShort(26) & 0xffff) + (localHeader.getShort(28) & 0xffff);
+        entry.header.putShort(8, (short) (entry.getFlags() & ~DATA_DESCRIPTOR_FLAG));
+        writeLocalHeader(entry, out);
+        copy(channel, dataOffset, entry.getCompressedSize(), out);
+    }
+
+    /**
+     * Deflate the new content, its crc and sizes are written in a data
+     * descriptor.
+     */
+    private static void writeEntry(CentralEntry entry, EntryContent content, CountingOutputStream out)
+            throws IOException {
+        entry.header.putShort(6, (short) Math.max(20, entry.header.getShort(6)));
+        entry.header.putShort(8, (short) ((entry.getFlags() & UTF8_FLAG) | DATA_DESCRIPTOR_FLAG));
+        entry.header.putShort(10, (short) DEFLATED);
+        entry.header.putInt(16, 0).putInt(20, 0).putInt(24, 0);
+        writeLocalHeader(entry, out);
+        final long dataOffset = out.count;
+        final CRC32 crc = new CRC32();
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        final CountingOutputStream uncompressed;
+        try {
+            final DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(new CountingOutputStream(out),
+                    deflater, BUFFER_SIZE);
+            uncompressed = new CountingOutputStream(new CheckedOutputStream(deflaterOutputStream, crc));
+            content.write(uncompressed);
+            uncompressed.flush();
+            deflaterOutputStream.finish();
+        } finally {
+            deflater.end();
+        }
+        final long compressedSize = out.count - dataOffset;
+        checkSize(compressedSize);
+        checkSize(uncompressed.count);
+        entry.header.putInt(16, (int) crc.getValue()).putInt(20, (int) compressedSize).putInt(24,
+                (int) uncompressed.count);
+        final ByteBuffer dataDescriptor = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+        dataDescriptor.putInt(DATA_DESCRIPTOR_SIGNATURE).putInt((int) crc.getValue()).putInt((int) compressedSize)
+                .putInt((int) uncompressed.count);
+        out.write(dataDescriptor.array());
+    }
+
+    /**
+     * Local header from the central one, without extra field.
+     */
+    private static void writeLocalHeader(CentralEntry entry, OutputStream out) throws IOException {
+        final ByteBuffer localHeader = ByteBuffer.allocate(LOCAL_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        localHeader.putInt(LOCAL_HEADER_SIGNATURE).putShort(entry.header.getShort(6))
+                .putShort(entry.header.getShort(8)).putShort(entry.header.getShort(10))
+                .putShort(entry.header.getShort(12)).putShort(entry.header.getShort(14))
+                .putInt(entry.header.getInt(16)).putInt(entry.header.getInt(20)).putInt(entry.header.getInt(24))
+                .putShort((short) entry.name.length).putShort((short) 0);
+        out.write(localHeader.array());
+        out.write(entry.name);
+    }
+
+    private ZipPatchWriter() {
+    }
+}
@@ -0,0 +1,153 @@
+package com.github.poi.xly.validation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.github.poi.xly.annotation.XLYConstraintScope;
+
+/**
+ * Reuse the constraint instances created by another locator, so that
+ * constraints loading reference data (in their constructor or lazily) are
+ * built once rather than per cell or per upload. The {@link ConstraintScope}
+ * of a class is the one of its {@link XLYConstraintScope} annotation, or the
+ * default scope of the locator:
+ *
+ * <pre>
+ * &#64;XLYConstraintScope(ConstraintScope.SINGLETON)
+ * public class AirportConstraint implements Constraint { ... }
+ *
+ * final XLYValidator xlyValidator = new XLYValidator(new CachingConstraintLocator(new DefaultConstraintLocator()),
+ *         TestWorkbook.class);
+ * </pre>
+ *
+ * Constraints in the {@link ConstraintScope#VALIDATION} scope are only reused
+ * through {@link #forValidation()}, they are created on each call otherwise.
+ */
+public class CachingConstraintLocator implements ConstraintLocator {
+
+    /**
+     * The locator of one validation.
+     */
+    private final class ValidationConstraintLocator implements ConstraintLocator {
+
+        private final Map<Class<?>, Object> validationInstances = new ConcurrentHashMap<>();
+
+        @Override
+        public Constraint getConstraint(Class<? extends Constraint> validatorClass) {
+            return locate(validatorClass, constraintLocator::getConstraint, validationInstances);
+        }
+
+        @Override
+        public RowConstraint getRowConstraint(Class<? extends RowConstraint> validatorClass) {
+            return locate(validatorClass, constraintLocator::getRowConstraint, validationInstances);
+        }
+
+        @Override
+        public ConstraintLocator forValidation() {
+            return this;
+        }
+    }
+
+    private final ConstraintLocator constraintLocator;
+
+    private final ConstraintScope defaultScope;
+
+    private final Map<Class<?>, ConstraintScope> scopes = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, Object> singletons = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Map<Class<?>, Object>> threadInstances = ThreadLocal.withInitial(HashMap::new);
+
+    /**
+     * Constraints without {@link XLYConstraintScope} are in the
+     * {@link ConstraintScope#VALIDATION} scope.
+     *
+     * @param constraintLocator
+     *            creates the constraint instances
+     */
+    public CachingConstraintLocator(ConstraintLocator constraintLocator) {
+        this(constraintLocator, ConstraintScope.VALIDATION);
+    }
+
+    /**
+     * @param constraintLocator
+     *            creates the constraint instances
+     * @param defaultScope
+     *            scope of the constraints without {@link XLYConstraintScope}
+     */
+    public CachingConstraintLocator(ConstraintLocator constraintLocator, ConstraintScope defaultScope) {
+        if (constraintLocator == null || defaultScope == null) {
+            throw new IllegalArgumentException("constraintLocator and defaultScope must not be null");
+        }
+        this.constraintLocator = constraintLocator;
+        this.defaultScope = defaultScope;
+    }
+
+    /**
+     * Drop the singletons and the instances of the current thread, e.g. once
+     * the reference data changed (instances of the other threads are dropped
+     * when they end).
+     */
+    public void clear() {
+        singletons.clear();
+        threadInstances.remove();
+    }
+
+    /**
+     * @return a locator reusing the {@link ConstraintScope#VALIDATION}
+     *         constraints until the validation ends
+     */
+    @Override
+    public ConstraintLocator forValidation() {
+        return new ValidationConstraintLocator();
+    }
+
+    @Override
+    public Constraint getConstraint(Class<? extends Constraint> validatorClass) {
+        return locate(validatorClass, constraintLocator::getConstraint, null);
+    }
+
+    @Override
+    public RowConstraint getRowConstraint(Class<? extends RowConstraint> validatorClass) {
+        return locate(validatorClass, constraintLocator::getRowConstraint, null);
+    }
+
+    /**
+     * @return the scope declared by the class annotation, the default scope
+     *         otherwise
+     */
+    public ConstraintScope getScope(Class<?> validatorClass) {
+        return scopes.computeIfAbsent(validatorClass, c -> {
+            final XLYConstraintScope constraintScope = c.getAnnotation(XLYConstraintScope.class);
+            return constraintScope == null ? defaultScope : constraintScope.value();
+        });
+    }
+
+    /**
+     * @param validationInstances
+     *            instances of the current validation, null outside a
+     *            validation
+     */
+    @SuppressWarnings("unchecked")
+    private <C, K extends C> C locate(Class<K> validatorClass, Function<Class<K>, C> factory,
+            Map<Class<?>, Object> validationInstances) {
+        final Map<Class<?>, Object> instances;
+        switch (getScope(validatorClass)) {
+        case SINGLETON:
+            instances = singletons;
+            break;
+        case THREAD:
+            instances = threadInstances.get();
+            break;
+        default:
+            instances = validationInstances;
+            break;
+        }
+        if (instances == null) {
+            return factory.apply(validatorClass);
+        }
+        return (C) instances.computeIfAbsent(validatorClass, c -> factory.apply(validatorClass));
+    }
+}
@@ -0,0 +1,293 @@
+package com.github.poi.xly.validation;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache the {@link ExistConstraint#transform(String)} and
+ * {@link ExistConstraint#exists(Object)} answers of another ExistConstraint:
+ * reference values (airports, agencies...) are then looked up once for all
+ * their occurrences, in one upload and across uploads.<br/>
+ * Answers (missing values included) are kept at most <code>ttl</code> and the
+ * least recently used ones are evicted above <code>maximumSize</code>. The
+ * cache is thread safe, return the same instance from the
+ * {@link ConstraintLocator} to share it between validations:
+ *
+ * <pre>
+ * private final CachingExistConstraint&lt;String&gt; agencyConstraint = new CachingExistConstraint&lt;&gt;(
+ *         new AgencyConstraint(agencyRepository), 10_000, 10, TimeUnit.MINUTES);
+ * </pre>
+ *
+ * <b>Warning</b>: validation goes through
+ * {@link ExistConstraint#validate(org.apache.poi.ss.usermodel.Cell)}, a custom
+ * validate of the cached constraint is not called.
+ */
+public class CachingExistConstraint<T> implements ExistConstraint<T> {
+
+    /**
+     * Counters of the exists lookups since the cache creation.
+     */
+    public static final class Statistics {
+
+        private final long evictionCount;
+
+        private final long hitCount;
+
+        private final long missCount;
+
+        private final int size;
+
+        Statistics(long hitCount, long missCount, long evictionCount, int size) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+        }
+
+        /**
+         * @return number of answers removed because they were expired or the
+         *         cache was full
+         */
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * @return hits / lookups, 1 if there was no lookup
+         */
+        public double getHitRate() {
+            final long lookups = hitCount + missCount;
+            return lookups == 0 ? 1 : (double) hitCount / lookups;
+        }
+
+        /**
+         * @return number of values given to the cached constraint
+         */
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * @return number of cached exists answers
+         */
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%s, misses=%s, evictions=%s, size=%s", hitCount, missCount, evictionCount,
+                    size);
+        }
+    }
+
+    /**
+     * An answer and its expiration time.
+     */
+    private static final class Entry<V> {
+
+        private final long expiresAt;
+
+        private final V value;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * LRU map of answers, callers synchronize on it.
+     */
+    private static final class LruCache<K, V> extends LinkedHashMap<K, Entry<V>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private long evictionCount;
+
+        private final int maximumSize;
+
+        LruCache(int maximumSize) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+        }
+
+        /**
+         * @return the answer, null if it isn't cached or is expired
+         */
+        Entry<V> getEntry(K key, long now) {
+            final Entry<V> entry = get(key);
+            if (entry != null && entry.expiresAt - now <= 0) {
+                remove(key);
+                evictionCount++;
+                return null;
+            }
+            return entry;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            if (size() > maximumSize) {
+                evictionCount++;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private final ExistConstraint<T> existConstraint;
+
+    private final LruCache<T, Boolean> existsCache;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private final LongSupplier ticker;
+
+    private final LruCache<String, T> transformCache;
+
+    private final long ttlNanos;
+
+    /**
+     * @param existConstraint
+     *            the constraint to cache
+     * @param maximumSize
+     *            maximum number of exists (and transform) answers kept
+     * @param ttl
+     *            how long an answer is kept
+     * @param unit
+     *            unit of ttl
+     */
+    public CachingExistConstraint(ExistConstraint<T> existConstraint, int maximumSize, long ttl, TimeUnit unit) {
+        this(existConstraint, maximumSize, ttl, unit, System::nanoTime);
+    }
+
+    CachingExistConstraint(ExistConstraint<T> existConstraint, int maximumSize, long ttl, TimeUnit unit,
+            LongSupplier ticker) {
+        if (existConstraint == null) {
+            throw new IllegalArgumentException("existConstraint must not be null");
+        }
+        if (maximumSize <= 0 || ttl <= 0) {
+            throw new IllegalArgumentException("maximumSize and ttl must be positive");
+        }
+        this.existConstraint = existConstraint;
+        this.existsCache = new LruCache<>(maximumSize);
+        this.transformCache = new LruCache<>(maximumSize);
+        this.ttlNanos = unit.toNanos(ttl);
+        this.ticker = ticker;
+    }
+
+    @Override
+    public boolean exists(T value) {
+        synchronized (existsCache) {
+            final Entry<Boolean> entry = existsCache.getEntry(value, ticker.getAsLong());
+            if (entry != null) {
+                hitCount++;
+                return entry.value;
+            }
+            missCount++;
+        }
+        // not synchronized: concurrent misses of one value may both call the
+        // cached constraint
+        final boolean exists = existConstraint.exists(value);
+        synchronized (existsCache) {
+            existsCache.put(value, new Entry<>(exists, ticker.getAsLong() + ttlNanos));
+        }
+        return exists;
+    }
+
+    /**
+     * Only the values that aren't cached are given to the cached constraint
+     * {@link ExistConstraint#existsAll(Set)}.
+     */
+    @Override
+    public Set<T> existsAll(Set<T> values) {
+        final Set<T> missingValues = new HashSet<>();
+        final Set<T> uncachedValues = new HashSet<>();
+        synchronized (existsCache) {
+            final long now = ticker.getAsLong();
+            for (final T value : values) {
+                final Entry<Boolean> entry = existsCache.getEntry(value, now);
+                if (entry == null) {
+                    uncachedValues.add(value);
+                } else if (!entry.value) {
+                    missingValues.add(value);
+                }
+            }
+            hitCount += values.size() - uncachedValues.size();
+            missCount += uncachedValues.size();
+        }
+        if (uncachedValues.isEmpty()) {
+            return missingValues;
+        }
+        final Set<T> result = existConstraint.existsAll(Collections.unmodifiableSet(uncachedValues));
+        // null means none missing, as for ExistConstraintBatch
+        final Set<T> uncachedMissingValues = result == null ? Collections.emptySet() : result;
+        missingValues.addAll(uncachedMissingValues);
+        synchronized (existsCache) {
+            final long expiresAt = ticker.getAsLong() + ttlNanos;
+            for (final T value : uncachedValues) {
+                existsCache.put(value, new Entry<>(!uncachedMissingValues.contains(value), expiresAt));
+            }
+        }
+        return missingValues;
+    }
+
+    @Override
+    public String format(T value) {
+        return existConstraint.format(value);
+    }
+
+    @Override
+    public int getBatchSize() {
+        return existConstraint.getBatchSize();
+    }
+
+    @Override
+    public String getErrorMessage(T value) {
+        return existConstraint.getErrorMessage(value);
+    }
+
+    public Statistics getStatistics() {
+        synchronized (existsCache) {
+            return new Statistics(hitCount, missCount, existsCache.evictionCount, existsCache.size());
+        }
+    }
+
+    /**
+     * Remove all the cached answers, e.g. once the reference data changed.
+     */
+    public void invalidateAll() {
+        synchronized (existsCache) {
+            existsCache.clear();
+        }
+        synchronized (transformCache) {
+            transformCache.clear();
+        }
+    }
+
+    @Override
+    public T transform(String cellValue) {
+        synchronized (transformCache) {
+            final Entry<T> entry = transformCache.getEntry(cellValue, ticker.getAsLong());
+            if (entry != null) {
+                return entry.value;
+            }
+        }
+        final T value = existConstraint.transform(cellValue);
+        synchronized (transformCache) {
+            transformCache.put(cellValue, new Entry<>(value, ticker.getAsLong() + ttlNanos));
+        }
+        return value;
+    }
+}
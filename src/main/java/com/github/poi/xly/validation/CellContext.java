@@ -8,13 +8,21 @@ import com.github.poi.xly.annotation.XLYColumn;
 
 /**
  * A simple pojo object to hold values necessary for {@link CellValidator}.
+ * <br/>
+ * The validators of a {@link ColumnValidationPlan} are given a typed view of
+ * the cell (see {@link #getValue()}), {@link #getCellValue()} is then only
+ * formatted if a validator asks for it.
  */
 public class CellContext {
 
     private Cell cell;
 
+    /** null to format the value when asked */
     private String cellValue;
 
+    /** null until asked if the cell was set without a view */
+    private CellValue value;
+
     private Field field;
 
     private XLYColumn xlyColumn;
@@ -33,7 +41,13 @@ public class CellContext {
         return cell;
     }
 
+    /**
+     * @return the cell value as displayed
+     */
     public String getCellValue() {
+        if (cellValue == null && value != null) {
+            return value.getText();
+        }
         return cellValue;
     }
 
@@ -41,18 +55,49 @@ public class CellContext {
         return field;
     }
 
+    /**
+     * @return the typed view of the cell
+     */
+    public CellValue getValue() {
+        if (value == null) {
+            value = CellValue.of(cell);
+        }
+        return value;
+    }
+
     public XLYColumn getXlyColumn() {
         return xlyColumn;
     }
 
+    /**
+     * @return true if the cell value is empty, without formatting numbers
+     *         (see {@link CellValue#isEmpty()})
+     */
+    public boolean isEmpty() {
+        if (cellValue != null) {
+            return cellValue.isEmpty();
+        }
+        return getValue().isEmpty();
+    }
+
     public void setCell(Cell cell) {
         this.cell = cell;
+        this.value = null;
     }
 
     public void setCellValue(String cellValue) {
         this.cellValue = cellValue;
     }
 
+    /**
+     * Validate the cell of the view, its value is formatted if asked.
+     */
+    public void setValue(CellValue value) {
+        this.value = value;
+        this.cell = value.getCell();
+        this.cellValue = null;
+    }
+
     public void setField(Field field) {
         this.field = field;
     }
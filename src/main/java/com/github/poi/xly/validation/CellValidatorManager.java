@@ -2,6 +2,7 @@ package com.github.poi.xly.validation;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -9,8 +10,11 @@ import java.util.Set;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.DataFormatter;
 
+import com.github.poi.xly.XLYErrorSink;
 import com.github.poi.xly.XLYFormatter;
 import com.github.poi.xly.annotation.XLYColumn;
+import com.github.poi.xly.schema.ColumnSchema;
+import com.github.poi.xly.schema.SheetSchema;
 
 /**
  * Responsible of running all CellValidators in the correct order. <br/>
@@ -22,10 +26,33 @@ public class CellValidatorManager {
 
     private final List<CellValidator> cellValidators = new ArrayList<>();
 
+    private final ConstraintLocator constraintLocator;
+
+    /** null if the cells are annotated right away */
+    private final XLYErrorSink errorSink;
+
     private final XLYFormatter xlyFormatter;
 
+    /**
+     * The cells in error are annotated as soon as they are validated.
+     */
     public CellValidatorManager(ConstraintLocator constraintLocator, XLYFormatter xlyFormatter) {
+        this(constraintLocator, xlyFormatter, null);
+    }
+
+    /**
+     * The cells in error are collected by the sink, until
+     * {@link XLYErrorSink#flush()}.
+     */
+    public CellValidatorManager(ConstraintLocator constraintLocator, XLYErrorSink errorSink) {
+        this(constraintLocator, null, errorSink);
+    }
+
+    private CellValidatorManager(ConstraintLocator constraintLocator, XLYFormatter xlyFormatter,
+            XLYErrorSink errorSink) {
+        this.constraintLocator = constraintLocator;
         this.xlyFormatter = xlyFormatter;
+        this.errorSink = errorSink;
         // configure validators and validation order
         cellValidators.add(new MandatoryValidator());
         cellValidators.add(new UserDefineValidator(constraintLocator));
@@ -34,24 +61,139 @@ public class CellValidatorManager {
     }
 
     /**
-     * Get the value of the cell as a formatted string.
+     * @return the locator of the cell and row constraints
      */
-    private String getValue(Cell cell) {
-        final DataFormatter formatter = new DataFormatter();
-        return formatter.formatCellValue(cell);
+    public ConstraintLocator getConstraintLocator() {
+        return constraintLocator;
     }
 
     /**
-     * Run all CellValidator on the specific cell.
+     * Resolve, for each column of the sheet, the validators that apply to it
+     * (same order as the chain): {@link MandatoryValidator} if the column is
+     * mandatory, {@link UserDefineValidator} with its constraint located once
+     * if there is one, {@link PatternValidator} with the compiled pattern if
+     * there is one, {@link EnumValidator} if the field type is an enum.<br/>
+     * Build it once per sheet and validation, see {@link ColumnValidationPlan}.
+     * The columns of a plan share one DataFormatter (not thread safe): a plan
+     * is used by one thread at a time, e.g. one plan per parallel task.
+     *
+     * @return one plan per column, in the {@link com.github.poi.xly.annotation.XLYSheet#columns()}
+     *         order
      */
-    public Set<String> validate(Cell cell, XLYColumn xlyColumn, Field field) {
-        final Set<String> violations = new HashSet<>();
-        final String value = getValue(cell);
+    public List<ColumnValidationPlan> getValidationPlan(SheetSchema sheetSchema) {
+        return getValidationPlan(sheetSchema, null);
+    }
+
+    /**
+     * Same as {@link #getValidationPlan(SheetSchema)} but the
+     * {@link ExistConstraint}s (not overriding
+     * {@link ExistConstraint#validate(org.apache.poi.ss.usermodel.Cell)}) are
+     * checked by chunks of distinct values with
+     * {@link ExistConstraint#existsAll(Set)}: their violations are given to
+     * the violationHandler once a chunk is full or on
+     * {@link #flush(List)}, not returned by
+     * {@link #getViolations(Cell, ColumnValidationPlan)}.
+     *
+     * @param violationHandler
+     *            null to check the ExistConstraints cell by cell
+     */
+    public List<ColumnValidationPlan> getValidationPlan(SheetSchema sheetSchema,
+            CellViolationHandler violationHandler) {
+        final List<ColumnValidationPlan> validationPlan = new ArrayList<>();
+        final DataFormatter dataFormatter = new DataFormatter();
+        for (final ColumnSchema columnSchema : sheetSchema.getColumns()) {
+            final XLYColumn xlyColumn = columnSchema.getXlyColumn();
+            final List<CellValidator> columnValidators = new ArrayList<>();
+            ExistConstraintBatch<?> existConstraintBatch = null;
+            if (xlyColumn.mandatory()) {
+                columnValidators.add(new MandatoryValidator());
+            }
+            if (!NoContraint.class.equals(xlyColumn.cellValidator())) {
+                final Constraint constraint = constraintLocator.getConstraint(xlyColumn.cellValidator());
+                if (violationHandler != null && ExistConstraintBatch.isBatchable(constraint)) {
+                    existConstraintBatch = new ExistConstraintBatch<>((ExistConstraint<?>) constraint,
+                            columnSchema.getIndex(), violationHandler);
+                } else {
+                    columnValidators.add(new UserDefineValidator(constraint));
+                }
+            }
+            if (columnSchema.getPattern() != null) {
+                columnValidators.add(new PatternValidator(columnSchema.getPattern()));
+            }
+            final Class<?> type = columnSchema.getType();
+            if (type != null && type.isEnum()) {
+                columnValidators.add(new EnumValidator(type));
+            }
+            validationPlan.add(new ColumnValidationPlan(columnSchema, columnValidators, existConstraintBatch,
+                    new CellValue(dataFormatter)));
+        }
+        return validationPlan;
+    }
+
+    /**
+     * Check the values still queued for the {@link ExistConstraint}s of the
+     * plan, call it once all the rows of the sheet have been validated.
+     */
+    public void flush(List<ColumnValidationPlan> validationPlan) {
+        for (final ColumnValidationPlan columnValidationPlan : validationPlan) {
+            columnValidationPlan.flush();
+        }
+    }
+
+    /**
+     * Run all CellValidator on the specific cell without modifying it.
+     *
+     * @return the error messages in the validators order, empty if the cell is
+     *         valid
+     */
+    public List<String> getViolations(Cell cell, XLYColumn xlyColumn, Field field) {
+        final List<String> violations = new ArrayList<>();
+        final CellContext cellContext = new CellContext(null, null, xlyColumn, field);
+        cellContext.setValue(CellValue.of(cell));
         for (CellValidator cellValidator : cellValidators) {
-            final CellContext cellContext = new CellContext(cell, value, xlyColumn, field);
             final String errorMessage = cellValidator.validate(cellContext);
             if (errorMessage != null) {
                 violations.add(errorMessage);
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Run the validators of the column plan on the specific cell without
+     * modifying it.
+     *
+     * @return the error messages in the validators order, empty if the cell is
+     *         valid
+     */
+    public List<String> getViolations(Cell cell, ColumnValidationPlan columnValidationPlan) {
+        if (columnValidationPlan.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return columnValidationPlan.validate(cell);
+    }
+
+    /**
+     * Run the validators of the column plan on the specific cell.
+     */
+    public Set<String> validate(Cell cell, ColumnValidationPlan columnValidationPlan) {
+        return annotate(cell, getViolations(cell, columnValidationPlan));
+    }
+
+    /**
+     * Run all CellValidator on the specific cell.
+     */
+    public Set<String> validate(Cell cell, XLYColumn xlyColumn, Field field) {
+        return annotate(cell, getViolations(cell, xlyColumn, field));
+    }
+
+    private Set<String> annotate(Cell cell, List<String> errorMessages) {
+        final Set<String> violations = new HashSet<>();
+        for (String errorMessage : errorMessages) {
+            violations.add(errorMessage);
+            if (errorSink != null) {
+                errorSink.addError(cell, errorMessage);
+            } else {
                 xlyFormatter.addErrorMessage(cell, errorMessage);
             }
         }
@@ -0,0 +1,172 @@
+package com.github.poi.xly.validation;
+
+import java.util.Date;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+/**
+ * Typed view of the cell being validated, given to the
+ * {@link CellValidator}s (see {@link CellContext#getValue()}) and to
+ * {@link Constraint#validate(CellValue)}: numbers, booleans and dates are read
+ * without being formatted, the text (as displayed, same as
+ * DataFormatter#formatCellValue(Cell)) is only formatted when asked for and
+ * then kept for the other validators of the cell.<br/>
+ * One view is reused for every cell of a
+ * {@link ColumnValidationPlan}, it must not be kept once the validation of
+ * the cell is done.
+ */
+public final class CellValue {
+
+    /**
+     * @return a view of one cell, the DataFormatter is only created if the
+     *         text is needed
+     */
+    public static CellValue of(Cell cell) {
+        return new CellValue(null).setCell(cell);
+    }
+
+    private Cell cell;
+
+    /** shared by the cells of a validation plan, null until needed */
+    private DataFormatter dataFormatter;
+
+    /** null until formatted */
+    private String text;
+
+    /**
+     * @param dataFormatter
+     *            shared by the views of a validation plan (not thread
+     *            safe), null to create one if needed
+     */
+    public CellValue(DataFormatter dataFormatter) {
+        this.dataFormatter = dataFormatter;
+    }
+
+    /**
+     * @return the boolean value, or the cached result of a formula
+     * @throws IllegalStateException
+     *             if the value is not a boolean
+     */
+    public boolean getBoolean() {
+        return cell.getBooleanCellValue();
+    }
+
+    /**
+     * @return the cell, null if it doesn't exist
+     */
+    public Cell getCell() {
+        return cell;
+    }
+
+    /**
+     * @return the date of a numeric value, null for a blank cell
+     * @throws IllegalStateException
+     *             if the value is not numeric
+     */
+    public Date getDate() {
+        return cell == null ? null : cell.getDateCellValue();
+    }
+
+    /**
+     * @return the numeric value (a date is a number of days), or the cached
+     *         result of a formula, 0 for a blank cell
+     * @throws IllegalStateException
+     *             if the value is not numeric
+     */
+    public double getNumber() {
+        return cell == null ? 0 : cell.getNumericCellValue();
+    }
+
+    /**
+     * @return the formatted text of the cell, "" for a blank cell
+     */
+    public String getText() {
+        if (text == null) {
+            text = format();
+        }
+        return text;
+    }
+
+    /**
+     * @return the type of the value: the cached result type for a formula,
+     *         BLANK if the cell doesn't exist
+     */
+    public CellType getType() {
+        if (cell == null) {
+            return CellType.BLANK;
+        }
+        final CellType cellType = cell.getCellTypeEnum();
+        return cellType == CellType.FORMULA ? cell.getCachedFormulaResultTypeEnum() : cellType;
+    }
+
+    private String format() {
+        if (cell == null) {
+            return "";
+        }
+        switch (cell.getCellTypeEnum()) {
+        case BLANK:
+            return "";
+        case STRING:
+            return cell.getStringCellValue();
+        case BOOLEAN:
+            return cell.getBooleanCellValue() ? "TRUE" : "FALSE";
+        default:
+            if (dataFormatter == null) {
+                dataFormatter = new DataFormatter();
+            }
+            return dataFormatter.formatCellValue(cell);
+        }
+    }
+
+    /**
+     * @return true if a numeric value has a date format
+     */
+    public boolean isDate() {
+        return getType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(cell);
+    }
+
+    /**
+     * Same as an empty {@link #getText()}: numbers are only formatted if
+     * their format has sections (e.g. ";;;" hides them).
+     */
+    public boolean isEmpty() {
+        if (cell == null) {
+            return true;
+        }
+        switch (cell.getCellTypeEnum()) {
+        case BLANK:
+            return true;
+        case STRING:
+            return cell.getStringCellValue().isEmpty();
+        case BOOLEAN:
+            return false;
+        case NUMERIC:
+            final String format = cell.getCellStyle().getDataFormatString();
+            return format != null && format.indexOf(';') >= 0 && getText().isEmpty();
+        default:
+            return getText().isEmpty();
+        }
+    }
+
+    /**
+     * @return true if the value is a number (or a date)
+     */
+    public boolean isNumeric() {
+        return getType() == CellType.NUMERIC;
+    }
+
+    /**
+     * Point the view to another cell.
+     *
+     * @param cell
+     *            may be null
+     */
+    public CellValue setCell(Cell cell) {
+        this.cell = cell;
+        this.text = null;
+        return this;
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.poi.xly.validation;
+
+/**
+ * Receive the cell violations found after the cell has been validated (see
+ * {@link CellValidatorManager#getValidationPlan(com.github.poi.xly.schema.SheetSchema, CellViolationHandler)}).
+ */
+@FunctionalInterface
+public interface CellViolationHandler {
+
+    /**
+     * @param rownum
+     *            0 based row index of the cell
+     * @param column
+     *            0 based column index of the cell
+     * @param message
+     *            the error message
+     */
+    void handleViolation(int rownum, int column, String message);
+}
@@ -0,0 +1,87 @@
+package com.github.poi.xly.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Cell;
+
+import com.github.poi.xly.schema.ColumnSchema;
+
+/**
+ * The {@link CellValidator}s that apply to one column, resolved once per sheet
+ * (see {@link CellValidatorManager#getValidationPlan(com.github.poi.xly.schema.SheetSchema)}):
+ * validators that can't fail for the column are left out, patterns are
+ * compiled, enum labels hashed and constraints located once. An
+ * {@link ExistConstraint} can be checked by chunks of distinct values, its
+ * violations are then reported after the cells have been validated.<br/>
+ * <b>Warning</b>: the {@link CellContext} given to the validators is reused
+ * from one cell to the next, a plan must not be shared between threads.
+ */
+public final class ColumnValidationPlan {
+
+    private final CellContext cellContext;
+
+    private final CellValidator[] cellValidators;
+
+    /** view of the validated cell, reused */
+    private final CellValue cellValue;
+
+    private final ColumnSchema columnSchema;
+
+    /** null if the column has no batched {@link ExistConstraint} */
+    private final ExistConstraintBatch<?> existConstraintBatch;
+
+    ColumnValidationPlan(ColumnSchema columnSchema, List<CellValidator> cellValidators,
+            ExistConstraintBatch<?> existConstraintBatch, CellValue cellValue) {
+        this.columnSchema = columnSchema;
+        this.cellValue = cellValue;
+        this.existConstraintBatch = existConstraintBatch;
+        this.cellValidators = cellValidators.toArray(new CellValidator[cellValidators.size()]);
+        this.cellContext = new CellContext(null, null, columnSchema.getXlyColumn(), columnSchema.getField());
+    }
+
+    public ColumnSchema getColumnSchema() {
+        return columnSchema;
+    }
+
+    /**
+     * @return true if no validator applies to the column (the cell value
+     *         doesn't even need to be formatted)
+     */
+    public boolean isEmpty() {
+        return cellValidators.length == 0 && existConstraintBatch == null;
+    }
+
+    /**
+     * Check the values queued for the {@link ExistConstraint} of the column.
+     */
+    void flush() {
+        if (existConstraintBatch != null) {
+            existConstraintBatch.flush();
+        }
+    }
+
+    /**
+     * @return the error messages in the validators order, empty if the cell is
+     *         valid (the {@link ExistConstraint} violations are reported
+     *         later, see {@link #flush()})
+     */
+    List<String> validate(Cell cell) {
+        cellContext.setValue(cellValue.setCell(cell));
+        List<String> violations = Collections.emptyList();
+        for (CellValidator cellValidator : cellValidators) {
+            final String errorMessage = cellValidator.validate(cellContext);
+            if (errorMessage != null) {
+                if (violations.isEmpty()) {
+                    violations = new ArrayList<>(cellValidators.length);
+                }
+                violations.add(errorMessage);
+            }
+        }
+        if (existConstraintBatch != null && !cellValue.isEmpty()) {
+            existConstraintBatch.add(cell.getRowIndex(), cellValue.getText());
+        }
+        return violations;
+    }
+}
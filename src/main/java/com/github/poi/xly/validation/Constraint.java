@@ -7,4 +7,17 @@ import org.apache.poi.ss.usermodel.Cell;
  */
 public interface Constraint {
     String validate(Cell cell);
+
+    /**
+     * Typed version called by the validators, override it (along with
+     * {@link #validate(Cell)}) to read numbers, dates or booleans without
+     * formatting them to a String. Only called if it is declared by the same
+     * class as {@link #validate(Cell)} or a subclass of it.
+     *
+     * @param cellValue
+     *            view of the cell, only valid during the call
+     */
+    default String validate(CellValue cellValue) {
+        return validate(cellValue.getCell());
+    }
 }
@@ -5,4 +5,14 @@ public interface ConstraintLocator {
     Constraint getConstraint(Class<? extends Constraint> validatorClass);
 
     RowConstraint getRowConstraint(Class<? extends RowConstraint> validatorClass);
+
+    /**
+     * Called by the validators at the start of each validation, the returned
+     * locator is used for all the constraints of the validation.
+     *
+     * @return this by default
+     */
+    default ConstraintLocator forValidation() {
+        return this;
+    }
 }
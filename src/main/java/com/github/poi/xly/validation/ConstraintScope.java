@@ -0,0 +1,23 @@
+package com.github.poi.xly.validation;
+
+/**
+ * How long a constraint instance is reused by {@link CachingConstraintLocator}
+ * (see {@link com.github.poi.xly.annotation.XLYConstraintScope}).
+ */
+public enum ConstraintScope {
+    /**
+     * One instance for all the validations, the constraint must be thread
+     * safe.
+     */
+    SINGLETON,
+    /**
+     * One instance per thread, reused by all the validations run by the
+     * thread.
+     */
+    THREAD,
+    /**
+     * One instance per validation (see {@link ConstraintLocator#forValidation()}),
+     * shared by all the cells and sheets of the uploaded file.
+     */
+    VALIDATION
+}
@@ -0,0 +1,287 @@
+package com.github.poi.xly.validation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Find the duplicated 128 bits fingerprints of a sequence of rows.<br/>
+ * Fingerprints are kept in a primitive open addressing table until it reaches
+ * the memory budget, the table and the next fingerprints are then spilled to
+ * {@value #PARTITIONS} temporary files (by the high bits of the fingerprint)
+ * which are checked one by one by {@link #finish()}.<br/>
+ * The table has 20 bytes per slot and is at most half full. It only doubles
+ * while the doubled table fits twice in the budget (the old table is still
+ * held while it grows).
+ */
+final class DuplicateFinder implements Closeable {
+
+    /**
+     * Receives each duplicated row with the row of its first occurrence.
+     */
+    @FunctionalInterface
+    interface DuplicateHandler {
+        void handleDuplicate(int rownum, int firstRownum);
+    }
+
+    /**
+     * Open addressing table (linear probing) of fingerprints and their first
+     * row.
+     */
+    static final class FingerprintTable {
+
+        /** memory of one slot: two longs and one int */
+        static final int SLOT_BYTES = 20;
+
+        private final long[] highs;
+
+        private final long[] lows;
+
+        private final int mask;
+
+        /** row + 1, 0 for an empty slot */
+        private final int[] rows;
+
+        private int size;
+
+        FingerprintTable(int capacity) {
+            this.highs = new long[capacity];
+            this.lows = new long[capacity];
+            this.rows = new int[capacity];
+            this.mask = capacity - 1;
+        }
+
+        int capacity() {
+            return rows.length;
+        }
+
+        /**
+         * @return true once half of the slots are used
+         */
+        boolean isFull() {
+            return size >= rows.length / 2;
+        }
+
+        /**
+         * @return the first row of the fingerprint, -1 if it was added
+         */
+        int putIfAbsent(long high, long low, int rownum) {
+            int slot = (int) low & mask;
+            while (rows[slot] != 0) {
+                if (highs[slot] == high && lows[slot] == low) {
+                    return rows[slot] - 1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            highs[slot] = high;
+            lows[slot] = low;
+            rows[slot] = rownum + 1;
+            size++;
+            return -1;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * @return a table twice as large with the same fingerprints
+         */
+        FingerprintTable grow() {
+            final FingerprintTable table = new FingerprintTable(rows.length * 2);
+            for (int slot = 0; slot < rows.length; slot++) {
+                if (rows[slot] != 0) {
+                    table.putIfAbsent(highs[slot], lows[slot], rows[slot] - 1);
+                }
+            }
+            return table;
+        }
+
+        void write(DataOutputStream[] partitions) throws IOException {
+            for (int slot = 0; slot < rows.length; slot++) {
+                if (rows[slot] != 0) {
+                    DuplicateFinder.write(partitions, highs[slot], lows[slot], rows[slot] - 1);
+                }
+            }
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(DuplicateFinder.class);
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    static final int PARTITIONS = 64;
+
+    /** bytes of a fingerprint and its row in a partition file */
+    private static final int RECORD_BYTES = 20;
+
+    private static int partition(long high) {
+        return (int) (high >>> 58);
+    }
+
+    private static void write(DataOutputStream[] partitions, long high, long low, int rownum) throws IOException {
+        final DataOutputStream partition = partitions[partition(high)];
+        partition.writeLong(high);
+        partition.writeLong(low);
+        partition.writeInt(rownum);
+    }
+
+    private final DuplicateHandler duplicateHandler;
+
+    private final int maximumCapacity;
+
+    private Path[] partitionFiles;
+
+    private DataOutputStream[] partitions;
+
+    private FingerprintTable table = new FingerprintTable(INITIAL_CAPACITY);
+
+    /**
+     * @param memoryBudget
+     *            bytes of the in memory table before spilling to disk
+     * @param duplicateHandler
+     *            receives the duplicated rows, when they are added or on
+     *            {@link #finish()} once spilled
+     */
+    DuplicateFinder(long memoryBudget, DuplicateHandler duplicateHandler) {
+        if (duplicateHandler == null) {
+            throw new IllegalArgumentException("duplicateHandler must not be null");
+        }
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < 1 << 30 && (long) capacity * 2 * FingerprintTable.SLOT_BYTES <= memoryBudget) {
+            capacity *= 2;
+        }
+        this.maximumCapacity = capacity;
+        this.duplicateHandler = duplicateHandler;
+    }
+
+    void add(long high, long low, int rownum) {
+        if (partitions != null) {
+            try {
+                write(partitions, high, low, rownum);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return;
+        }
+        final int firstRownum = table.putIfAbsent(high, low, rownum);
+        if (firstRownum >= 0) {
+            duplicateHandler.handleDuplicate(rownum, firstRownum);
+        } else if (table.isFull()) {
+            if (table.capacity() < maximumCapacity) {
+                table = table.grow();
+            } else {
+                spill();
+            }
+        }
+    }
+
+    /**
+     * Delete the temporary files.
+     */
+    @Override
+    public void close() {
+        if (partitionFiles == null) {
+            return;
+        }
+        if (partitions != null) {
+            for (final DataOutputStream partition : partitions) {
+                if (partition == null) {
+                    continue;
+                }
+                try {
+                    partition.close();
+                } catch (IOException e) {
+                    logger.warn("Unable to close duplicates partition", e);
+                }
+            }
+            partitions = null;
+        }
+        for (final Path partitionFile : partitionFiles) {
+            if (partitionFile == null) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(partitionFile);
+            } catch (IOException e) {
+                logger.warn("Unable to delete duplicates partition {}", partitionFile, e);
+            }
+        }
+        partitionFiles = null;
+    }
+
+    /**
+     * Report the duplicates of the spilled partitions and delete them. The
+     * fingerprints of the table are written first, so the first occurrence of
+     * a partition is the first row.
+     */
+    void finish() {
+        if (partitionFiles == null) {
+            return;
+        }
+        try {
+            for (final DataOutputStream partition : partitions) {
+                partition.close();
+            }
+            partitions = null;
+            for (final Path partitionFile : partitionFiles) {
+                final long records = Files.size(partitionFile) / RECORD_BYTES;
+                int capacity = INITIAL_CAPACITY;
+                while (capacity / 2 <= records) {
+                    capacity *= 2;
+                }
+                final FingerprintTable partitionTable = new FingerprintTable(capacity);
+                try (DataInputStream input = new DataInputStream(
+                        new BufferedInputStream(Files.newInputStream(partitionFile)))) {
+                    for (long i = 0; i < records; i++) {
+                        final long high = input.readLong();
+                        final long low = input.readLong();
+                        final int rownum = input.readInt();
+                        final int firstRownum = partitionTable.putIfAbsent(high, low, rownum);
+                        if (firstRownum >= 0) {
+                            duplicateHandler.handleDuplicate(rownum, firstRownum);
+                        }
+                    }
+                } catch (EOFException e) {
+                    throw new IllegalStateException("Truncated duplicates partition " + partitionFile, e);
+                }
+                Files.delete(partitionFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            close();
+        }
+    }
+
+    boolean isSpilled() {
+        return partitionFiles != null;
+    }
+
+    private void spill() {
+        logger.debug("Spilling {} fingerprints of duplicate detection to disk", table.size());
+        partitionFiles = new Path[PARTITIONS];
+        partitions = new DataOutputStream[PARTITIONS];
+        try {
+            for (int i = 0; i < PARTITIONS; i++) {
+                partitionFiles[i] = Files.createTempFile("xly-duplicates-", ".bin");
+                partitions[i] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partitionFiles[i])));
+            }
+            table.write(partitions);
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException(e);
+        }
+        table = null;
+    }
+}
@@ -16,32 +16,39 @@ import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.Row;
 
 /**
- * Check if at least one row is duplicated. <br/>
+ * Check if rows are duplicated. <br/>
  * A line is considered as duplicate if all values in columns define in
- * {@link DuplicatedRowConstraint#columnsHeaders()} are identical.
+ * {@link DuplicatedRowConstraint#columnsHeaders()} are identical. Every
+ * duplicated line is reported with its first occurrence.<br/>
+ * The values of a line are hashed to a 128 bits fingerprint (so two different
+ * lines are practically never confused), fingerprints are kept in memory up to
+ * {@link #getMemoryBudget()} and spilled to temporary files beyond.
  */
-public abstract class DuplicatedRowConstraint implements RowConstraint {
+public abstract class DuplicatedRowConstraint implements StreamingRowConstraint {
 
     public static final String DUPLICATE_ERROR = "Duplicate line";
-    private static final char SEP = ';';
 
-    private String buildUniqueKey(final Set<Integer> cellNums, final DataFormatter dataFormatter, final Row row) {
-        final StringBuilder uniqueKey = new StringBuilder();
-        for (Integer cellnum : cellNums) {
-            final Cell cell = row.getCell(cellnum);
-            uniqueKey.append(dataFormatter.formatCellValue(cell));
-            uniqueKey.append(SEP);
+    /** 64 MB, see {@link DuplicateFinder} for how the table is sized */
+    private static final long MEMORY_BUDGET = 64L * 1024 * 1024;
+
+    /**
+     * Hash the values as displayed: strings are hashed as they are, only
+     * numbers, dates and formulas are formatted.
+     */
+    private void hashRow(final Murmur3Hasher hasher, final int[] cellNums, final CellValue cellValue,
+            final Row row) {
+        hasher.reset();
+        for (int cellnum : cellNums) {
+            hasher.putString(cellValue.setCell(row.getCell(cellnum)).getText());
         }
-        return uniqueKey.toString();
+        hasher.finish();
     }
 
     /**
-     * Extract column num to be checked for the provided columns header.<br/>
-     * <b>Warning</b> move the iterator of one row.
+     * Extract column num to be checked for the provided columns header.
      */
-    private Set<Integer> getCellNums(Iterator<Row> rowIterator, final Set<String> fields) {
+    private Set<Integer> getCellNums(final Row headers, final Set<String> fields) {
         final Set<Integer> cellNums = new HashSet<>();
-        final Row headers = rowIterator.next();
         final Iterator<Cell> headerIterator = headers.cellIterator();
         while (headerIterator.hasNext()) {
             final Cell header = headerIterator.next();
@@ -56,6 +63,29 @@ public abstract class DuplicatedRowConstraint implements RowConstraint {
         return cellNums;
     }
 
+    /**
+     * Override to change the message of a duplicated line.
+     *
+     * @param rownum
+     *            the duplicated row
+     * @param firstRownum
+     *            the first row with the same values
+     * @return {@value #DUPLICATE_ERROR} followed by the first line
+     */
+    protected String getDuplicateMessage(int rownum, int firstRownum) {
+        return String.format("%s (same as line %d)", DUPLICATE_ERROR, firstRownum + 1);
+    }
+
+    /**
+     * Override to keep more or less fingerprints in memory before spilling to
+     * disk.
+     *
+     * @return bytes of the in memory fingerprints, 64 MB by default
+     */
+    protected long getMemoryBudget() {
+        return MEMORY_BUDGET;
+    }
+
     /**
      * Compare expected fields vs actual columns headers and throw an exception
      * if mismatch.
@@ -70,25 +100,42 @@ public abstract class DuplicatedRowConstraint implements RowConstraint {
     }
 
     /**
-     * @see RowConstraint#validate(Iterator)
+     * @see StreamingRowConstraint#start(Row)
      */
     @Override
-    public Map<Integer, String> validate(Iterator<Row> rowIterator) {
+    public RowChecker start(Row headers) {
+        final int[] cellNums = getCellNums(headers, columnsHeaders()).stream().mapToInt(Integer::intValue).sorted()
+                .toArray();
+        final CellValue cellValue = new CellValue(new DataFormatter());
+        final Murmur3Hasher hasher = new Murmur3Hasher();
         final Map<Integer, String> violations = new HashMap<>();
-        final Set<String> fields = columnsHeaders();
-        final Set<Integer> cellNums = getCellNums(rowIterator, fields);
-        final Set<String> uniqueKeys = new HashSet<>();
-        final DataFormatter dataFormatter = new DataFormatter();
-        while (rowIterator.hasNext()) {
-            final Row row = rowIterator.next();
-            final String uniqueKey = buildUniqueKey(cellNums, dataFormatter, row);
-            if (uniqueKeys.contains(uniqueKey)) {
-                violations.put(row.getRowNum(), DUPLICATE_ERROR);
-                break; // stop on first duplicated line to avoid creating too
-                       // many object in memory
+        final DuplicateFinder duplicateFinder = new DuplicateFinder(getMemoryBudget(),
+                (rownum, firstRownum) -> violations.put(rownum, getDuplicateMessage(rownum, firstRownum)));
+        return new RowChecker() {
+            private boolean finished;
+
+            @Override
+            public void close() {
+                duplicateFinder.close();
             }
-            uniqueKeys.add(uniqueKey.toString());
-        }
-        return violations;
+
+            @Override
+            public void checkRow(Row row) {
+                hashRow(hasher, cellNums, cellValue, row);
+                duplicateFinder.add(hasher.getHigh(), hasher.getLow(), row.getRowNum());
+            }
+
+            /**
+             * Also report the duplicates of the lines spilled to disk.
+             */
+            @Override
+            public Map<Integer, String> getViolations() {
+                if (!finished) {
+                    finished = true;
+                    duplicateFinder.finish();
+                }
+                return violations;
+            }
+        };
     }
 }
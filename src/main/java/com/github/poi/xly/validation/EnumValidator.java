@@ -1,30 +1,71 @@
 package com.github.poi.xly.validation;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class EnumValidator implements CellValidator {
 
+    /** toString() of the enum constants, null to use the cell field type */
+    private final Set<String> enumLabels;
+
+    private final String possiblesValues;
+
+    public EnumValidator() {
+        this.enumLabels = null;
+        this.possiblesValues = null;
+    }
+
+    /**
+     * Validate the cells of a column of this enum type, constants are listed
+     * once.<br/>
+     * An empty cell is left to {@link MandatoryValidator}.
+     *
+     * @param enumType
+     *            the field type of the validated column
+     */
+    public EnumValidator(Class<?> enumType) {
+        if (enumType == null || !enumType.isEnum()) {
+            throw new IllegalArgumentException("enumType must be an enum");
+        }
+        final List<String> enumsList = toStrings(enumType.getEnumConstants());
+        this.enumLabels = new HashSet<>(enumsList);
+        this.possiblesValues = String.join(" or ", enumsList);
+    }
+
     @Override
     public String validate(CellContext cellContext) {
         final String cellValue = cellContext.getCellValue();
         if (cellValue == null) {
             return null;
         }
+        if (enumLabels != null) {
+            if (cellValue.isEmpty() || enumLabels.contains(cellValue)) {
+                return null;
+            }
+            return getMessage(cellValue, possiblesValues);
+        }
         final Class<?> type = cellContext.getField().getType();
         if (!type.isEnum()) {
             return null;
         }
-        final Object[] enumValues = type.getEnumConstants();
-        final List<String> enumsList = new ArrayList<>();
+        final List<String> enumsList = toStrings(type.getEnumConstants());
+        if (enumsList.contains(cellValue)) {
+            return null; // found the value in the enum list
+        }
+        return getMessage(cellValue, String.join(" or ", enumsList));
+    }
+
+    private static String getMessage(String cellValue, String possiblesValues) {
+        return String.format("%s not exists. Did you mean : %s ?", cellValue, possiblesValues);
+    }
+
+    private static List<String> toStrings(Object[] enumValues) {
+        final List<String> enumsList = new ArrayList<>(enumValues.length);
         for (final Object enumValue : enumValues) {
-            if (enumValue.toString().equals(cellValue)) {
-                return null; // found the value in the enum list
-            }
             enumsList.add(enumValue.toString());
         }
-        final String possiblesValues = String.join(" or ", enumsList);
-        final String msg = String.format("%s not exists. Did you mean : %s ?", cellValue, possiblesValues);
-        return msg;
+        return enumsList;
     }
 }
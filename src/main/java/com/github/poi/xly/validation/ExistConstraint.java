@@ -1,7 +1,9 @@
 package com.github.poi.xly.validation;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.DataFormatter;
 
 /**
  * A method to check that a value in excel exist 'somewhere'. <br/>
@@ -12,6 +14,35 @@ public interface ExistConstraint<T> extends Constraint {
 
     boolean exists(T value);
 
+    /**
+     * Batch version of {@link #exists(Object)} used by the validators: the
+     * values of a column are checked by chunks of {@link #getBatchSize()}
+     * distinct values. Override it to check a chunk with one query (e.g. a
+     * repository <code>findByCodeIn(values)</code>), the default calls
+     * {@link #exists(Object)} for each value.
+     *
+     * @param values
+     *            distinct values to check, not modifiable
+     * @return the values that don't exist, an empty set if they all exist
+     */
+    default Set<T> existsAll(Set<T> values) {
+        final Set<T> missingValues = new HashSet<>();
+        for (final T value : values) {
+            if (!exists(value)) {
+                missingValues.add(value);
+            }
+        }
+        return missingValues;
+    }
+
+    /**
+     * @return maximum number of distinct values given to
+     *         {@link #existsAll(Set)}
+     */
+    default int getBatchSize() {
+        return 1000;
+    }
+
     /**
      * Format the entity to be included in error message.
      */
@@ -21,15 +52,29 @@ public interface ExistConstraint<T> extends Constraint {
 
     @Override
     default String validate(Cell cell) {
-        final DataFormatter dataFormatter = new DataFormatter();
-        final String cellValue = dataFormatter.formatCellValue(cell);
+        return validate(CellValue.of(cell));
+    }
+
+    /**
+     * The value is formatted with the DataFormatter of the validation plan,
+     * only if the cell is not empty.
+     */
+    @Override
+    default String validate(CellValue cellValue) {
         if (cellValue.isEmpty()) {
             return null;
         }
-        final T entity = transform(cellValue);
+        final T entity = transform(cellValue.getText());
         if (exists(entity)) {
             return null;
         }
-        return String.format("%s is not a valid value", format(entity));
+        return getErrorMessage(entity);
+    }
+
+    /**
+     * @return the error message of a value that doesn't exist
+     */
+    default String getErrorMessage(T value) {
+        return String.format("%s is not a valid value", format(value));
     }
 }
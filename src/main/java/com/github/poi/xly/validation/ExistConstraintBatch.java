@@ -0,0 +1,143 @@
+package com.github.poi.xly.validation;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.poi.ss.usermodel.Cell;
+
+/**
+ * The {@link ExistConstraint} of a column checked by chunks: cell values are
+ * transformed and deduplicated, each chunk of
+ * {@link ExistConstraint#getBatchSize()} distinct values is checked with one
+ * {@link ExistConstraint#existsAll(Set)} call and the missing values are
+ * reported for each of their cells. <br/>
+ * The checked values are remembered (up to {@link #MAX_RESOLVED_VALUES}): a
+ * known value is never queued again, the cells of a known missing value are
+ * reported at once. The queued cells are bounded by
+ * {@link #MAX_PENDING_CELLS} so that a low cardinality column doesn't keep
+ * its rows.
+ */
+final class ExistConstraintBatch<T> {
+
+    /** maximum number of cells queued before the chunk is checked */
+    static final int MAX_PENDING_CELLS = 10000;
+
+    /** maximum number of checked values remembered */
+    static final int MAX_RESOLVED_VALUES = 10000;
+
+    /**
+     * @return true if the constraint is an {@link ExistConstraint} which
+     *         overrides neither {@link ExistConstraint#validate(Cell)} nor
+     *         {@link ExistConstraint#validate(CellValue)} (a custom validate
+     *         must be called cell by cell)
+     */
+    static boolean isBatchable(Constraint constraint) {
+        if (!(constraint instanceof ExistConstraint)) {
+            return false;
+        }
+        try {
+            final Method validateCell = constraint.getClass().getMethod("validate", Cell.class);
+            final Method validateValue = constraint.getClass().getMethod("validate", CellValue.class);
+            return ExistConstraint.class.equals(validateCell.getDeclaringClass())
+                    && ExistConstraint.class.equals(validateValue.getDeclaringClass());
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private final int batchSize;
+
+    private final int column;
+
+    private final ExistConstraint<T> existConstraint;
+
+    /** values known to exist */
+    private final Set<T> existingValues = new HashSet<>();
+
+    private final int maxPendingCells;
+
+    private final int maxResolvedValues;
+
+    /** error message of the values known to be missing */
+    private final Map<T, String> missingValues = new HashMap<>();
+
+    /** number of cells queued in {@link #pendingRows} */
+    private int pendingCellCount;
+
+    /** rownums of each distinct value not checked yet */
+    private final Map<T, List<Integer>> pendingRows = new LinkedHashMap<>();
+
+    private final CellViolationHandler violationHandler;
+
+    ExistConstraintBatch(ExistConstraint<T> existConstraint, int column, CellViolationHandler violationHandler) {
+        this(existConstraint, column, violationHandler, MAX_PENDING_CELLS, MAX_RESOLVED_VALUES);
+    }
+
+    ExistConstraintBatch(ExistConstraint<T> existConstraint, int column, CellViolationHandler violationHandler,
+            int maxPendingCells, int maxResolvedValues) {
+        this.existConstraint = existConstraint;
+        this.column = column;
+        this.violationHandler = violationHandler;
+        this.batchSize = Math.max(1, existConstraint.getBatchSize());
+        this.maxPendingCells = Math.max(1, maxPendingCells);
+        this.maxResolvedValues = maxResolvedValues;
+    }
+
+    /**
+     * Queue the cell value if it wasn't checked yet, the chunk is checked once
+     * it is full.
+     */
+    void add(int rownum, String cellValue) {
+        if (cellValue == null || cellValue.isEmpty()) {
+            return;
+        }
+        final T value = existConstraint.transform(cellValue);
+        if (existingValues.contains(value)) {
+            return;
+        }
+        final String message = missingValues.get(value);
+        if (message != null) {
+            violationHandler.handleViolation(rownum, column, message);
+            return;
+        }
+        pendingRows.computeIfAbsent(value, v -> new ArrayList<>()).add(rownum);
+        pendingCellCount++;
+        if (pendingRows.size() >= batchSize || pendingCellCount >= maxPendingCells) {
+            flush();
+        }
+    }
+
+    /**
+     * Check the queued values and report the cells of the missing ones.
+     */
+    void flush() {
+        if (pendingRows.isEmpty()) {
+            return;
+        }
+        final Set<T> missing = existConstraint.existsAll(Collections.unmodifiableSet(pendingRows.keySet()));
+        if (existingValues.size() + missingValues.size() + pendingRows.size() > maxResolvedValues) {
+            existingValues.clear();
+            missingValues.clear();
+        }
+        for (final Map.Entry<T, List<Integer>> entry : pendingRows.entrySet()) {
+            if (missing != null && missing.contains(entry.getKey())) {
+                final String message = existConstraint.getErrorMessage(entry.getKey());
+                missingValues.put(entry.getKey(), message);
+                for (final Integer rownum : entry.getValue()) {
+                    violationHandler.handleViolation(rownum, column, message);
+                }
+            } else {
+                existingValues.add(entry.getKey());
+            }
+        }
+        pendingRows.clear();
+        pendingCellCount = 0;
+    }
+}
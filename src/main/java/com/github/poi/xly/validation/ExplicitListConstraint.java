@@ -1,24 +1,146 @@
 package com.github.poi.xly.validation;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Predicate;
 
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.DataFormatter;
 
 /**
  * Validate if value of the cell is present in the {@link #getListOfValues()}.
- * 
+ * <br/>
+ * The list is indexed once (hash set or prefix trie, see
+ * {@link #getMatchMode()}) so that each cell is checked in constant time. The
+ * index is rebuilt when another list is set: call
+ * {@link #setListOfValues(List)} again after modifying the list in place. If
+ * {@link #getPredicate(String)} is overridden, the list is scanned with the
+ * predicate for each cell.
+ *
  * @see https://poi.apache.org/apidocs/org/apache/poi/ss/usermodel/DataValidationHelper.html#createExplicitListConstraint-java.lang.String:A-
  */
 public abstract class ExplicitListConstraint implements ExistConstraint<String> {
 
+    /**
+     * How a cell value is compared to the values of the list.
+     */
+    public enum MatchMode {
+        /** the cell value equals one of the values */
+        EXACT,
+        /** the cell value equals one of the values ignoring case */
+        CASE_INSENSITIVE,
+        /** the cell value starts with one of the values */
+        PREFIX
+    }
+
+    /**
+     * The list of values indexed for one {@link MatchMode}.
+     */
+    private static final class ListIndex {
+
+        /** the indexed list */
+        private final List<String> listOfValues;
+
+        private final MatchMode matchMode;
+
+        /** root of the prefix trie (PREFIX mode) */
+        private final TrieNode trie;
+
+        private final Set<String> values;
+
+        ListIndex(List<String> listOfValues, MatchMode matchMode) {
+            this.listOfValues = listOfValues;
+            this.matchMode = matchMode;
+            if (matchMode == MatchMode.PREFIX) {
+                this.values = null;
+                this.trie = new TrieNode();
+                for (final String value : listOfValues) {
+                    trie.add(value);
+                }
+            } else {
+                this.trie = null;
+                this.values = new HashSet<>(listOfValues.size() * 4 / 3 + 1);
+                for (final String value : listOfValues) {
+                    values.add(normalize(value));
+                }
+            }
+        }
+
+        boolean contains(String cellValue) {
+            if (trie != null) {
+                return trie.hasPrefixOf(cellValue);
+            }
+            return values.contains(normalize(cellValue));
+        }
+
+        private String normalize(String value) {
+            if (value != null && matchMode == MatchMode.CASE_INSENSITIVE) {
+                return value.toLowerCase(Locale.ROOT);
+            }
+            return value;
+        }
+    }
+
+    private static final class TrieNode {
+
+        private Map<Character, TrieNode> children;
+
+        private boolean terminal;
+
+        void add(String value) {
+            if (value == null) {
+                return;
+            }
+            TrieNode node = this;
+            for (int i = 0; i < value.length(); i++) {
+                if (node.children == null) {
+                    node.children = new HashMap<>();
+                }
+                node = node.children.computeIfAbsent(value.charAt(i), c -> new TrieNode());
+            }
+            node.terminal = true;
+        }
+
+        /**
+         * @return true if one of the values is a prefix of cellValue
+         */
+        boolean hasPrefixOf(String cellValue) {
+            TrieNode node = this;
+            for (int i = 0; !node.terminal; i++) {
+                if (cellValue == null || i == cellValue.length() || node.children == null) {
+                    return false;
+                }
+                node = node.children.get(cellValue.charAt(i));
+                if (node == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /** null until computed */
+    private Boolean customPredicate;
+
+    private volatile ListIndex listIndex;
+
     private List<String> listOfValues;
 
     @Override
     public boolean exists(String value) {
-        final boolean anyMatch = listOfValues.stream().anyMatch(getPredicate(value));
-        return anyMatch;
+        final List<String> values = getListOfValues();
+        if (isCustomPredicate()) {
+            return values.stream().anyMatch(getPredicate(value));
+        }
+        ListIndex index = listIndex;
+        if (index == null || index.listOfValues != values || index.matchMode != getMatchMode()) {
+            index = new ListIndex(values, getMatchMode());
+            listIndex = index;
+        }
+        return index.contains(value);
     }
 
     @Override
@@ -31,12 +153,34 @@ public abstract class ExplicitListConstraint implements ExistConstraint<String>
     }
 
     /**
-     * Override if more complex logic is necessary
+     * Override to compare the values ignoring case or by prefix.
+     *
+     * @return {@link MatchMode#EXACT}
+     */
+    public MatchMode getMatchMode() {
+        return MatchMode.EXACT;
+    }
+
+    /**
+     * Override if more complex logic is necessary (the list is then scanned
+     * for each cell, prefer {@link #getMatchMode()} when it is enough).
      */
     public Predicate<? super String> getPredicate(String cellValue) {
         return p -> p.equals(cellValue);
     }
 
+    private boolean isCustomPredicate() {
+        if (customPredicate == null) {
+            try {
+                customPredicate = !ExplicitListConstraint.class
+                        .equals(getClass().getMethod("getPredicate", String.class).getDeclaringClass());
+            } catch (NoSuchMethodException e) {
+                customPredicate = false;
+            }
+        }
+        return customPredicate;
+    }
+
     public void setListOfValues(List<String> listOfValues) {
         this.listOfValues = listOfValues;
     }
@@ -51,14 +195,22 @@ public abstract class ExplicitListConstraint implements ExistConstraint<String>
      */
     @Override
     public String validate(Cell cell) {
-        final DataFormatter dataFormatter = new DataFormatter();
-        final String cellValue = dataFormatter.formatCellValue(cell);
+        return validate(CellValue.of(cell));
+    }
+
+    /**
+     * Same as {@link #validate(Cell)}, with the DataFormatter of the
+     * validation plan.
+     */
+    @Override
+    public String validate(CellValue cellValue) {
         if (cellValue.isEmpty()) {
             return null;
         }
-        if (exists(cellValue)) {
+        final String text = cellValue.getText();
+        if (exists(text)) {
             return null;
         }
-        return String.format("%s is not a valid value", cellValue);
+        return String.format("%s is not a valid value", text);
     }
-}
\ No newline at end of file
+}
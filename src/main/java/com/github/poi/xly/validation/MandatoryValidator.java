@@ -7,11 +7,9 @@ public class MandatoryValidator implements CellValidator {
         if (cellContext.getXlyColumn().mandatory() == false) {
             return null;
         }
-        final String cellValue = cellContext.getCellValue();
-        if (cellValue != null) {
-            if (!cellValue.isEmpty()) {
-                return null;
-            }
+        // numbers are not formatted to know if they are empty
+        if (!cellContext.isEmpty()) {
+            return null;
         }
         return "Field required";
     }
@@ -0,0 +1,133 @@
+package com.github.poi.xly.validation;
+
+/**
+ * Incremental MurmurHash3 x64 128 bits (seed 0) of a sequence of bytes, ints
+ * and strings, without allocating.<br/>
+ * Use {@link #reset()} before hashing a new sequence, then read
+ * {@link #getHigh()} and {@link #getLow()} after {@link #finish()}.
+ *
+ * @see https://github.com/aappleby/smhasher/blob/master/src/MurmurHash3.cpp
+ */
+final class Murmur3Hasher {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        return k1;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        return k2;
+    }
+
+    /** bytes of the current block (0 to 15) */
+    private int blockLength;
+
+    private long h1;
+
+    private long h2;
+
+    private long k1;
+
+    private long k2;
+
+    private long length;
+
+    void finish() {
+        if (blockLength > 0) {
+            h1 ^= mixK1(k1);
+            h2 ^= mixK2(k2);
+        }
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+    }
+
+    /**
+     * @return first 64 bits of the hash
+     */
+    long getHigh() {
+        return h1;
+    }
+
+    /**
+     * @return last 64 bits of the hash
+     */
+    long getLow() {
+        return h2;
+    }
+
+    void putByte(int b) {
+        final long value = b & 0xffL;
+        if (blockLength < 8) {
+            k1 |= value << (blockLength * 8);
+        } else {
+            k2 |= value << ((blockLength - 8) * 8);
+        }
+        length++;
+        if (++blockLength == 16) {
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+            blockLength = 0;
+            k1 = 0;
+            k2 = 0;
+        }
+    }
+
+    void putInt(int value) {
+        putByte(value);
+        putByte(value >>> 8);
+        putByte(value >>> 16);
+        putByte(value >>> 24);
+    }
+
+    /**
+     * Hash the length then the UTF-16 chars of the string, so that
+     * consecutive strings can't be confused ("a", "bc" vs "ab", "c").
+     */
+    void putString(String value) {
+        putInt(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            putByte(c);
+            putByte(c >>> 8);
+        }
+    }
+
+    void reset() {
+        blockLength = 0;
+        h1 = 0;
+        h2 = 0;
+        k1 = 0;
+        k2 = 0;
+        length = 0;
+    }
+}
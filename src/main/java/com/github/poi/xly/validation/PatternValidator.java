@@ -5,17 +5,34 @@ import java.util.regex.Pattern;
 
 public class PatternValidator implements CellValidator {
 
+    /** compiled once, null to compile the pattern of the cell column */
+    private final Pattern compiledPattern;
+
+    public PatternValidator() {
+        this(null);
+    }
+
+    /**
+     * @param compiledPattern
+     *            the pattern of the validated column (see
+     *            {@link com.github.poi.xly.schema.ColumnSchema#getPattern()})
+     */
+    public PatternValidator(Pattern compiledPattern) {
+        this.compiledPattern = compiledPattern;
+    }
+
     @Override
     public String validate(CellContext cellContext) {
         final String cellValue = cellContext.getCellValue();
         if (cellValue == null) {
             return null;
         }
-        final String pattern = cellContext.getXlyColumn().pattern();
-        final Pattern validatorPattern = Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
+        final Pattern validatorPattern = compiledPattern != null ? compiledPattern
+                : Pattern.compile(cellContext.getXlyColumn().pattern(), Pattern.CASE_INSENSITIVE);
         final Matcher matcher = validatorPattern.matcher(cellValue);
         if (!matcher.find()) {
-            return String.format("Invalid cell value. Value doesn't match with this pattern : %s", pattern);
+            return String.format("Invalid cell value. Value doesn't match with this pattern : %s",
+                    validatorPattern.pattern());
         }
         return null;
     }
@@ -0,0 +1,42 @@
+package com.github.poi.xly.validation;
+
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.Row;
+
+/**
+ * One pass of a {@link StreamingRowConstraint} over the data rows of a sheet.
+ * <br/>
+ * {@link #close()} is called once the pass ends, whether the violations have
+ * been read or not.
+ */
+public interface RowChecker extends AutoCloseable {
+
+    /**
+     * Release the resources of the pass (e.g. temporary files).
+     */
+    @Override
+    default void close() {
+    }
+
+    /**
+     * @param row
+     *            the next data row, only valid during the call (don't keep a
+     *            reference on it or its cells)
+     */
+    void checkRow(Row row);
+
+    /**
+     * @return Map&lt;rowNum, errorMesage&gt; of the rows checked so far, empty
+     *         if no error
+     */
+    Map<Integer, String> getViolations();
+
+    /**
+     * @return true if the next rows can't change the violations (they are
+     *         then not given anymore)
+     */
+    default boolean isDone() {
+        return false;
+    }
+}
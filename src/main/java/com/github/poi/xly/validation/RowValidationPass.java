@@ -0,0 +1,142 @@
+package com.github.poi.xly.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.apache.poi.ss.usermodel.Row;
+
+import com.github.poi.xly.annotation.XLYSheet;
+
+/**
+ * Run the {@link XLYSheet#rowValidator()} of a sheet: the rows are pushed
+ * once to all the {@link StreamingRowConstraint}s, each other
+ * {@link RowConstraint} iterates the sheet on its own. {@link NoContraint} is
+ * skipped.<br/>
+ * A pass is used for one sheet of one validation and by one thread, then
+ * closed.
+ */
+public final class RowValidationPass implements AutoCloseable {
+
+    /** checker of each constraint, null if not streaming or not started */
+    private final RowChecker[] rowCheckers;
+
+    private final List<RowConstraint> rowConstraints = new ArrayList<>();
+
+    private boolean streaming;
+
+    public RowValidationPass(ConstraintLocator constraintLocator, XLYSheet xlySheet) {
+        for (final Class<? extends RowConstraint> validatorClass : xlySheet.rowValidator()) {
+            if (!NoContraint.class.equals(validatorClass)) {
+                final RowConstraint rowConstraint = constraintLocator.getRowConstraint(validatorClass);
+                streaming |= rowConstraint instanceof StreamingRowConstraint;
+                rowConstraints.add(rowConstraint);
+            }
+        }
+        this.rowCheckers = new RowChecker[rowConstraints.size()];
+    }
+
+    /**
+     * Give a data row to the streaming constraints (once {@link #start(Row)}
+     * has been called).
+     */
+    public void checkRow(Row row) {
+        for (final RowChecker rowChecker : rowCheckers) {
+            if (rowChecker != null && !rowChecker.isDone()) {
+                rowChecker.checkRow(row);
+            }
+        }
+    }
+
+    /**
+     * Close the {@link RowChecker}s.
+     */
+    @Override
+    public void close() {
+        for (int i = 0; i < rowCheckers.length; i++) {
+            if (rowCheckers[i] != null) {
+                rowCheckers[i].close();
+                rowCheckers[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Push the headers then the data rows of the sheet to the streaming
+     * constraints.
+     */
+    public void checkRows(Iterator<Row> rowIterator) {
+        if (!streaming || !rowIterator.hasNext()) {
+            return;
+        }
+        start(rowIterator.next());
+        while (rowIterator.hasNext() && !isDone()) {
+            checkRow(rowIterator.next());
+        }
+    }
+
+    /**
+     * @param pullValidation
+     *            run a constraint which isn't a
+     *            {@link StreamingRowConstraint} on its own pass over the rows
+     *            of the sheet (headers included), e.g.
+     *            <code>rowConstraint -&gt; rowConstraint.validate(sheet.iterator())</code>
+     * @return the violations (Map&lt;rowNum, errorMesage&gt;) of each
+     *         constraint, in the {@link XLYSheet#rowValidator()} order
+     */
+    public List<Map<Integer, String>> finish(Function<RowConstraint, Map<Integer, String>> pullValidation) {
+        final List<Map<Integer, String>> violations = new ArrayList<>();
+        for (int i = 0; i < rowConstraints.size(); i++) {
+            final RowConstraint rowConstraint = rowConstraints.get(i);
+            if (!(rowConstraint instanceof StreamingRowConstraint)) {
+                violations.add(pullValidation.apply(rowConstraint));
+            } else if (rowCheckers[i] != null) {
+                violations.add(rowCheckers[i].getViolations());
+            } else {
+                violations.add(Collections.emptyMap()); // no rows
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * @return true if there is no row constraint to run
+     */
+    public boolean isEmpty() {
+        return rowConstraints.isEmpty();
+    }
+
+    /**
+     * @return true if no streaming constraint needs the next rows
+     */
+    public boolean isDone() {
+        for (final RowChecker rowChecker : rowCheckers) {
+            if (rowChecker != null && !rowChecker.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the rows have to be pushed to the pass (at least one
+     *         {@link StreamingRowConstraint})
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Start the streaming constraints with the first row of the sheet.
+     */
+    public void start(Row headers) {
+        for (int i = 0; i < rowConstraints.size(); i++) {
+            if (rowConstraints.get(i) instanceof StreamingRowConstraint) {
+                rowCheckers[i] = ((StreamingRowConstraint) rowConstraints.get(i)).start(headers);
+            }
+        }
+    }
+}
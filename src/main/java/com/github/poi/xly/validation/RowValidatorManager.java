@@ -4,49 +4,123 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BooleanSupplier;
 
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 
+import com.github.poi.xly.XLYErrorSink;
 import com.github.poi.xly.XLYFormatter;
 import com.github.poi.xly.annotation.XLYSheet;
 
 public class RowValidatorManager {
 
+    /**
+     * @param rownum
+     *            0 based row number
+     * @return the message reported for a row violation
+     */
+    public static String formatViolation(int rownum, String error) {
+        // +1 because getRowNum() is 0 based (getRowNum():0 means row:1 in
+        // excel)
+        return String.format("line:%s - error: %s", rownum + 1, error);
+    }
+
     private final ConstraintLocator constraintLocator;
 
+    /** null if the rows are annotated right away */
+    private final XLYErrorSink errorSink;
+
     private final XLYFormatter xlyFormatter;
 
+    /**
+     * The rows in error are annotated as soon as they are validated.
+     */
     public RowValidatorManager(ConstraintLocator constraintLocator, XLYFormatter xlyFormatter) {
         this.constraintLocator = constraintLocator;
         this.xlyFormatter = xlyFormatter;
+        this.errorSink = null;
+    }
+
+    /**
+     * The rows in error are collected by the sink, until
+     * {@link XLYErrorSink#flush()}.
+     */
+    public RowValidatorManager(ConstraintLocator constraintLocator, XLYErrorSink errorSink) {
+        this.constraintLocator = constraintLocator;
+        this.xlyFormatter = null;
+        this.errorSink = errorSink;
     }
 
     private void addErrorCell(XSSFSheet sheet, Map<Integer, String> violations, Integer rownum) {
         final Row row = sheet.getRow(rownum);
-        xlyFormatter.addErrorMessage(row, violations.get(rownum));
+        if (errorSink != null) {
+            errorSink.addError(row, violations.get(rownum));
+        } else {
+            xlyFormatter.addErrorMessage(row, violations.get(rownum));
+        }
     }
 
-    private Set<String> handleViolations(XSSFSheet sheet, Map<Integer, String> rows) {
+    private Set<String> handleViolations(XSSFSheet sheet, Map<Integer, String> rows,
+            BooleanSupplier acceptViolation) {
         final Set<String> violations = new HashSet<>();
-        for (Integer rownum : rows.keySet()) {
-            // +1 because getRowNum() is 0 based (getRowNum():0 means row:1 in
-            // excel)
-            final String msg = String.format("line:%s - error: %s", rownum + 1, rows.get(rownum));
-            violations.add(msg);
-            addErrorCell(sheet, rows, rownum);
+        for (Integer rownum : new TreeMap<>(rows).keySet()) {
+            if (acceptViolation.getAsBoolean()) {
+                final String msg = formatViolation(rownum, rows.get(rownum));
+                violations.add(msg);
+                addErrorCell(sheet, rows, rownum);
+            }
         }
         return violations;
     }
 
+    /**
+     * @return the rows of the sheet until continueScan is false
+     */
+    private static Iterator<Row> iterator(XSSFSheet sheet, BooleanSupplier continueScan) {
+        final Iterator<Row> rows = sheet.iterator();
+        return new Iterator<Row>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext() && continueScan.getAsBoolean();
+            }
+
+            @Override
+            public Row next() {
+                return rows.next();
+            }
+        };
+    }
+
+    /**
+     * Run the row constraints of the sheet: one pass over the rows for all
+     * the {@link StreamingRowConstraint}s, one pass for each other
+     * constraint.
+     */
     public Set<String> validateRows(XSSFSheet sheet, XLYSheet xlySheet) {
+        return validateRows(sheet, xlySheet, () -> true, () -> true);
+    }
+
+    /**
+     * Same as {@link #validateRows(XSSFSheet, XLYSheet)} with limits.
+     *
+     * @param continueScan
+     *            checked before each row given to the constraints, they are
+     *            given no more rows once false
+     * @param acceptViolation
+     *            checked before annotating each violation (by row number for
+     *            each constraint), the violation is dropped if false
+     */
+    public Set<String> validateRows(XSSFSheet sheet, XLYSheet xlySheet, BooleanSupplier continueScan,
+            BooleanSupplier acceptViolation) {
         final Set<String> violations = new HashSet<>();
-        final Class<? extends RowConstraint>[] validators = xlySheet.rowValidator();
-        for (Class<? extends RowConstraint> validatorClass : validators) {
-            final RowConstraint validator = constraintLocator.getRowConstraint(validatorClass);
-            final Iterator<Row> rowIterator = sheet.iterator();
-            final Map<Integer, String> rowViolations = validator.validate(rowIterator);
-            violations.addAll(handleViolations(sheet, rowViolations));
+        try (RowValidationPass rowValidationPass = new RowValidationPass(constraintLocator, xlySheet)) {
+            rowValidationPass.checkRows(iterator(sheet, continueScan));
+            for (Map<Integer, String> rowViolations : rowValidationPass
+                    .finish(validator -> validator.validate(iterator(sheet, continueScan)))) {
+                violations.addAll(handleViolations(sheet, rowViolations, acceptViolation));
+            }
         }
         return violations;
     }
@@ -0,0 +1,36 @@
+package com.github.poi.xly.validation;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.Row;
+
+/**
+ * A {@link RowConstraint} the rows are pushed to: all the streaming row
+ * constraints of a sheet share one pass over its rows (see
+ * {@link RowValidationPass}) instead of iterating the sheet each.
+ */
+public interface StreamingRowConstraint extends RowConstraint {
+
+    /**
+     * Start a pass over the rows of a sheet.
+     *
+     * @param headers
+     *            the first row of the sheet, only valid during the call
+     * @return the checker of the data rows of this pass
+     */
+    RowChecker start(Row headers);
+
+    /**
+     * Pull the rows of the iterator through {@link #start(Row)}.
+     */
+    @Override
+    default Map<Integer, String> validate(Iterator<Row> rowIterator) {
+        try (RowChecker rowChecker = start(rowIterator.next())) {
+            while (rowIterator.hasNext() && !rowChecker.isDone()) {
+                rowChecker.checkRow(rowIterator.next());
+            }
+            return rowChecker.getViolations();
+        }
+    }
+}
@@ -1,18 +1,67 @@
 package com.github.poi.xly.validation;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import org.apache.poi.ss.usermodel.Cell;
+
 import com.github.poi.xly.annotation.XLYColumn;
 
 public class UserDefineValidator implements CellValidator {
 
+    /**
+     * @return true if {@link Constraint#validate(CellValue)} overrides the
+     *         {@link Constraint#validate(Cell)} of the constraint (declared by
+     *         the same class or a subclass): a constraint only overriding
+     *         validate(Cell) must still be called with the cell
+     */
+    static boolean isTyped(Constraint constraint) {
+        try {
+            final Class<?> cellDeclaringClass = constraint.getClass().getMethod("validate", Cell.class)
+                    .getDeclaringClass();
+            final Method validateValue = constraint.getClass().getMethod("validate", CellValue.class);
+            return cellDeclaringClass.isAssignableFrom(validateValue.getDeclaringClass());
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /** located once, null to locate the constraint of the cell column */
+    private final Constraint constraint;
+
     private final ConstraintLocator constraintLocator;
 
     private List<String> possibleValues = new ArrayList<>();
 
+    /** see {@link #isTyped(Constraint)}, false if located for each cell */
+    private final boolean typed;
+
     public UserDefineValidator(ConstraintLocator constraintLocator) {
         this.constraintLocator = constraintLocator;
+        this.constraint = null;
+        this.typed = false;
+    }
+
+    /**
+     * The possible values of an {@link ExplicitListConstraint} are given to it
+     * here and in {@link #setPossibleValues(List)}, not for each cell: the
+     * constraint may be shared by the tasks of a parallel validation.
+     *
+     * @param constraint
+     *            the {@link XLYColumn#cellValidator()} of the validated
+     *            column, already located
+     */
+    public UserDefineValidator(Constraint constraint) {
+        if (constraint == null) {
+            throw new IllegalArgumentException("constraint must not be null");
+        }
+        this.constraintLocator = null;
+        this.constraint = constraint;
+        this.typed = isTyped(constraint);
+        this.possibleValues = Collections.emptyList();
+        setListOfValues(constraint);
     }
 
     public List<String> getPossibleValues() {
@@ -21,19 +70,38 @@ public class UserDefineValidator implements CellValidator {
 
     public void setPossibleValues(List<String> possibleValues) {
         this.possibleValues = possibleValues;
+        if (constraint != null) {
+            setListOfValues(constraint);
+        }
+    }
+
+    /**
+     * Only written if it changed, so that the constraints shared by parallel
+     * tasks keep their index.
+     */
+    private void setListOfValues(Constraint validator) {
+        if (validator instanceof ExplicitListConstraint) {
+            final ExplicitListConstraint explicitListConstraint = (ExplicitListConstraint) validator;
+            if (explicitListConstraint.getListOfValues() != possibleValues) {
+                explicitListConstraint.setListOfValues(possibleValues);
+            }
+        }
     }
 
     @Override
     public String validate(CellContext cellContext) {
-        final XLYColumn xlyColumn = cellContext.getXlyColumn();
-        final Class<? extends Constraint> validatorClass = xlyColumn.cellValidator();
-        if (NoContraint.class.equals(validatorClass)) {
-            return null;
+        Constraint validator = constraint;
+        if (validator == null) {
+            final XLYColumn xlyColumn = cellContext.getXlyColumn();
+            final Class<? extends Constraint> validatorClass = xlyColumn.cellValidator();
+            if (NoContraint.class.equals(validatorClass)) {
+                return null;
+            }
+            validator = constraintLocator.getConstraint(validatorClass);
+            setListOfValues(validator);
         }
-        final Constraint validator = constraintLocator.getConstraint(validatorClass);
-        if (validator instanceof ExplicitListConstraint) {
-            final ExplicitListConstraint explicitListConstraint = (ExplicitListConstraint) validator;
-            explicitListConstraint.setListOfValues(possibleValues);
+        if (typed) {
+            return validator.validate(cellContext.getValue());
         }
         return validator.validate(cellContext.getCell());
     }
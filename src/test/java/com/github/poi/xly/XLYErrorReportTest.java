@@ -0,0 +1,124 @@
+package com.github.poi.xly;
+
+import static com.github.poi.xly.test.XLYAssert.assertCellsWithErrorStyle;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class XLYErrorReportTest {
+
+    private ByteArrayOutputStream outputStream;
+
+    private Sheet sheet;
+
+    private XSSFWorkbook workbook;
+
+    @Before
+    public void createSheet() {
+        outputStream = new ByteArrayOutputStream();
+        workbook = new XSSFWorkbook();
+        sheet = workbook.createSheet("Sheet \"1\"");
+        final Row headers = sheet.createRow(0);
+        headers.createCell(0).setCellValue("Code");
+        headers.createCell(1).setCellValue("Label, long");
+        headers.createCell(2).setCellValue(" ");
+        final Row row = sheet.createRow(4);
+        row.createCell(0).setCellValue(12);
+        row.createCell(1).setCellValue("say \"hello\"\nworld");
+        row.createCell(2).setCellValue("back\\slash");
+        row.createCell(3).setCellValue("after the headers");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        workbook.close();
+    }
+
+    private void write(XLYReportFormat reportFormat) throws IOException {
+        try (XLYErrorReport errorReport = XLYErrorReport.newReport(reportFormat, outputStream)) {
+            errorReport.startSheet(sheet.getSheetName(), sheet.getRow(0));
+            errorReport.addRow(sheet.getRow(4), Arrays.asList(0, 2), Arrays.asList("first", "second"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNewReport_annotatedWorkbook() {
+        XLYErrorReport.newReport(XLYReportFormat.ANNOTATED_WORKBOOK, outputStream);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAddRow_noSheet() throws IOException {
+        XLYErrorReport.newReport(XLYReportFormat.ERROR_ROWS_CSV, outputStream).addRow(sheet.getRow(4),
+                Collections.emptyList(), Collections.singletonList("error"));
+    }
+
+    @Test
+    public void testCsv() throws IOException {
+        write(XLYReportFormat.ERROR_ROWS_CSV);
+        assertEquals("Sheet,Line,Code,\"Label, long\", ,Errors\r\n"
+                + "\"Sheet \"\"1\"\"\",5,12,\"say \"\"hello\"\"\nworld\",back\\slash,\"first\nsecond\"\r\n",
+                new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Values run as formulas by a spreadsheet are prefixed with a quote,
+     * numbers are left as they are.
+     */
+    @Test
+    public void testCsv_formulas() throws IOException {
+        final Row row = sheet.getRow(4);
+        row.getCell(0).setCellValue(-12.5);
+        row.getCell(1).setCellValue("=HYPERLINK(\"http://evil\")");
+        row.getCell(2).setCellValue("@SUM(A1)");
+        try (XLYErrorReport errorReport = XLYErrorReport.newReport(XLYReportFormat.ERROR_ROWS_CSV, outputStream)) {
+            errorReport.startSheet("+Sheet", sheet.getRow(0));
+            errorReport.addRow(row, Arrays.asList(0), Arrays.asList("-1+1", "\rcmd"));
+        }
+        assertEquals("Sheet,Line,Code,\"Label, long\", ,Errors\r\n"
+                + "'+Sheet,5,-12.5,\"'=HYPERLINK(\"\"http://evil\"\")\",'@SUM(A1),\"'-1+1\n\rcmd\"\r\n",
+                new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The blank header is replaced by the column name.
+     */
+    @Test
+    public void testJsonLines() throws IOException {
+        write(XLYReportFormat.ERROR_ROWS_JSON_LINES);
+        assertEquals("{\"sheet\":\"Sheet \\\"1\\\"\",\"line\":5,"
+                + "\"values\":{\"Code\":\"12\",\"Label, long\":\"say \\\"hello\\\"\\nworld\",\"C\":\"back\\\\slash\"},"
+                + "\"errorColumns\":[\"Code\",\"C\"],\"errors\":[\"first\",\"second\"]}\n",
+                new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testXlsx() throws IOException {
+        write(XLYReportFormat.ERROR_ROWS_XLSX);
+        try (XSSFWorkbook report = new XSSFWorkbook(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            assertEquals(1, report.getNumberOfSheets());
+            final Sheet reportSheet = report.getSheet("Sheet \"1\"");
+            assertEquals(1, reportSheet.getLastRowNum());
+            final Row headers = reportSheet.getRow(0);
+            assertEquals("Line", headers.getCell(0).getStringCellValue());
+            assertEquals("Code", headers.getCell(1).getStringCellValue());
+            assertEquals("Errors", headers.getCell(4).getStringCellValue());
+            final Row row = reportSheet.getRow(1);
+            assertEquals(5, row.getCell(0).getNumericCellValue(), 0);
+            assertEquals("12", row.getCell(1).getStringCellValue());
+            assertEquals("first\nsecond", row.getCell(4).getStringCellValue());
+            assertCellsWithErrorStyle(report, 0, "B2", "D2", "E2");
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.poi.xly;
+
+import static com.github.poi.xly.test.XLYAssert.assertCellsWithErrorStyle;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.poi.xly.test.WorkbookTest;
+
+public class XLYErrorSinkTest extends WorkbookTest {
+
+    private XLYErrorSink errorSink;
+
+    private XSSFSheet sheet;
+
+    @Before
+    public void createSheet() {
+        errorSink = new XLYErrorSink(new XLYFormatter(workbook));
+        sheet = workbook.createSheet("test");
+        final Row headers = sheet.createRow(0);
+        headers.createCell(0).setCellValue("first header");
+        headers.createCell(1).setCellValue("second header");
+        for (int rownum = 1; rownum <= 2; rownum++) {
+            final Row row = sheet.createRow(rownum);
+            row.createCell(0).setCellValue("a value");
+            row.createCell(1).setCellValue("another value");
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testXLYErrorSink_nullFormatter() {
+        new XLYErrorSink(null);
+    }
+
+    /**
+     * Nothing is written before the flush, then each row gets one comment cell
+     * with its messages in order.
+     */
+    @Test
+    public void testFlush() {
+        errorSink.addError(sheet.getRow(1).getCell(0), "first error");
+        errorSink.addError(sheet.getRow(2).getCell(1), "other row error");
+        errorSink.addError(sheet.getRow(1).getCell(1), "second error");
+        errorSink.addError(sheet.getRow(1), "row error");
+        assertFalse(errorSink.isEmpty());
+        assertEquals(4, errorSink.size());
+        assertNull(sheet.getRow(1).getCell(2));
+        errorSink.flush();
+        assertTrue(errorSink.isEmpty());
+        assertEquals("first error\nsecond error\nrow error", sheet.getRow(1).getCell(2).getStringCellValue());
+        assertEquals("other row error", sheet.getRow(2).getCell(2).getStringCellValue());
+        assertCellsWithErrorStyle(workbook, 0, "A2", "B2", "C2", "B3", "C3");
+    }
+
+    /**
+     * Same layout as {@link XLYFormatter#addErrorMessage(org.apache.poi.ss.usermodel.Cell, String)}.
+     */
+    @Test
+    public void testFlush_sameAsFormatter() {
+        errorSink.addError(sheet.getRow(1).getCell(0), "first error");
+        errorSink.addError(sheet.getRow(1), "row error");
+        errorSink.flush();
+        errorSink.addError(sheet.getRow(1).getCell(1), "second error");
+        errorSink.flush();
+        final XLYFormatter xlyFormatter = new XLYFormatter(workbook);
+        xlyFormatter.addErrorMessage(sheet.getRow(2).getCell(0), "first error");
+        xlyFormatter.addErrorMessage(sheet.getRow(2), "row error");
+        xlyFormatter.addErrorMessage(sheet.getRow(2).getCell(1), "second error");
+        assertEquals(sheet.getRow(2).getCell(2).getStringCellValue(), sheet.getRow(1).getCell(2).getStringCellValue());
+    }
+
+    /**
+     * No comment for a sheet without headers.
+     */
+    @Test
+    public void testFlush_noHeaders() {
+        final Row row = workbook.createSheet("noHeaders").createRow(1);
+        errorSink.addError(row, "row error");
+        errorSink.flush();
+        assertEquals(-1, row.getLastCellNum());
+    }
+}
@@ -1,18 +1,41 @@
 package com.github.poi.xly;
 
+import static com.github.poi.xly.Colors.GREY;
+import static com.github.poi.xly.Colors.WHITE;
+import static com.github.poi.xly.test.TestWorkbook.AGENCIES_HEADER;
+import static com.github.poi.xly.test.TestWorkbook.EMAIL_HEADER;
 import static com.github.poi.xly.test.XLYAssert.assertFlownSheet;
 import static com.github.poi.xly.test.XLYAssert.assertScenarioSheet;
 import static com.github.poi.xly.test.XLYAssert.toWorkbook;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.github.poi.xly.annotation.XLYColumn;
+import com.github.poi.xly.annotation.XLYSheet;
+import com.github.poi.xly.annotation.XLYWorkbook;
+import com.github.poi.xly.schema.WorkbookSchemaTest.ChildBean;
+import com.github.poi.xly.schema.WorkbookSchemaTest.ChildWorkbook;
+import com.github.poi.xly.test.TestBananas;
+import com.github.poi.xly.test.TestScenario;
 import com.github.poi.xly.test.TestWorkbook;
 import com.github.poi.xly.test.XLYFactory;
 
@@ -61,4 +84,151 @@ public class XLYExporterTest {
         assertScenarioSheet(generatedWorkbook, EXPECTED_SCENARIO_ROWS);
         generatedWorkbook.close();
     }
+
+    /**
+     * One exporter built for the workbook class is shared by concurrent
+     * exports.
+     */
+    @Test
+    public void testExport_sharedInstance() throws Exception {
+        xlyExporter = new XLYExporter(TestWorkbook.class);
+        final List<Callable<byte[]>> exports = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final TestWorkbook workbook = XLYFactory.getWorkbook();
+            exports.add(() -> {
+                final ByteArrayOutputStream output = new ByteArrayOutputStream();
+                xlyExporter.export(workbook, output);
+                return output.toByteArray();
+            });
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (Future<byte[]> export : executor.invokeAll(exports)) {
+                final ByteArrayOutputStream output = new ByteArrayOutputStream();
+                output.write(export.get());
+                final XSSFWorkbook generatedWorkbook = toWorkbook(output);
+                assertFlownSheet(generatedWorkbook, EXPECTED_FLOWN_ROWS);
+                assertScenarioSheet(generatedWorkbook, EXPECTED_SCENARIO_ROWS);
+                generatedWorkbook.close();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Sheets and bean fields declared by super classes are exported.
+     */
+    @Test
+    public void testExport_inheritance() throws Exception {
+        final ChildBean child = new ChildBean();
+        child.setName("child");
+        child.setAge(3);
+        final ChildWorkbook workbook = new ChildWorkbook();
+        workbook.setParents(Collections.emptyList());
+        workbook.setChildren(Collections.singletonList(child));
+        xlyExporter = new XLYExporter(ChildWorkbook.class);
+        xlyExporter.export(workbook, outputStream);
+        try (XSSFWorkbook generatedWorkbook = toWorkbook(outputStream)) {
+            assertEquals("Parent", generatedWorkbook.getSheetName(0));
+            assertEquals("Child", generatedWorkbook.getSheetName(1));
+            assertEquals("child", generatedWorkbook.getSheetAt(1).getRow(1).getCell(0).getStringCellValue());
+            assertEquals(3d, generatedWorkbook.getSheetAt(1).getRow(1).getCell(1).getNumericCellValue(), 0.1);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExport_wrongWorkbookType() {
+        xlyExporter = new XLYExporter(TestWorkbook.class);
+        xlyExporter.export(new StreamWorkbook(), outputStream);
+    }
+
+    /**
+     * Export from a Stream and an Iterator instead of a List, the stream must
+     * be closed once exported.
+     */
+    @Test
+    public void testExport_streamSource() throws Exception {
+        final AtomicBoolean closed = new AtomicBoolean();
+        final StreamWorkbook workbook = new StreamWorkbook();
+        workbook.setBananas(XLYFactory.getBananas().stream().onClose(() -> closed.set(true)));
+        workbook.setScenarios(XLYFactory.getScenario().iterator());
+        xlyExporter = new XLYExporter(workbook);
+        xlyExporter.export(outputStream);
+        assertTrue(closed.get());
+        final XSSFWorkbook generatedWorkbook = toWorkbook(outputStream);
+        assertEquals(2, generatedWorkbook.getNumberOfSheets());
+        assertFlownSheet(generatedWorkbook, EXPECTED_FLOWN_ROWS);
+        assertScenarioSheet(generatedWorkbook, EXPECTED_SCENARIO_ROWS);
+        generatedWorkbook.close();
+    }
+
+    /**
+     * The failure of the source is thrown, the failure of its close is
+     * suppressed.
+     */
+    @Test
+    public void testExport_sourceAndCloseFail() {
+        final StreamWorkbook workbook = new StreamWorkbook();
+        workbook.setBananas(XLYFactory.getBananas().stream().peek(banana -> {
+            throw new IllegalStateException("source failure");
+        }).onClose(() -> {
+            throw new IllegalStateException("close failure");
+        }));
+        workbook.setScenarios(XLYFactory.getScenario().iterator());
+        xlyExporter = new XLYExporter(workbook);
+        try {
+            xlyExporter.export(outputStream);
+            fail("the source failure must be thrown");
+        } catch (final IllegalStateException e) {
+            assertEquals("source failure", e.getMessage());
+            assertEquals(1, e.getSuppressed().length);
+            assertEquals("close failure", e.getSuppressed()[0].getMessage());
+        }
+    }
+
+    @Test(expected = XLYException.class)
+    public void testExport_closeFails() {
+        final StreamWorkbook workbook = new StreamWorkbook();
+        workbook.setBananas(XLYFactory.getBananas().stream().onClose(() -> {
+            throw new IllegalStateException("close failure");
+        }));
+        workbook.setScenarios(XLYFactory.getScenario().iterator());
+        xlyExporter = new XLYExporter(workbook);
+        xlyExporter.export(outputStream);
+    }
+
+    @XLYWorkbook
+    public static class StreamWorkbook {
+
+        @XLYSheet(name = "Bananas", type = TestBananas.class, columns = {
+                @XLYColumn(field = "agencies", headerTitle = AGENCIES_HEADER, headerForeground = GREY),
+                @XLYColumn(field = "creationDate", datePattern = "dd/MM/YYYY", headerTitle = "Creation date", headerForeground = GREY, headerFont = WHITE),
+                @XLYColumn(field = "quantity", headerTitle = "Quantity", headerForeground = GREY),
+                @XLYColumn(field = "revenue", headerTitle = "Revenue", headerForeground = GREY),
+                @XLYColumn(field = "email", headerTitle = EMAIL_HEADER, headerForeground = GREY),
+                @XLYColumn(field = "origin", headerTitle = "Origin", headerForeground = GREY),
+                @XLYColumn(field = "destination", headerTitle = "Destination", headerForeground = GREY) })
+        private Stream<TestBananas> bananas;
+
+        @XLYSheet(name = "Scenario", type = TestScenario.class, columns = {
+                @XLYColumn(field = "name", headerTitle = "Name", headerForeground = GREY) })
+        private Iterator<TestScenario> scenarios;
+
+        public Stream<TestBananas> getBananas() {
+            return bananas;
+        }
+
+        public void setBananas(Stream<TestBananas> bananas) {
+            this.bananas = bananas;
+        }
+
+        public Iterator<TestScenario> getScenarios() {
+            return scenarios;
+        }
+
+        public void setScenarios(Iterator<TestScenario> scenarios) {
+            this.scenarios = scenarios;
+        }
+    }
 }
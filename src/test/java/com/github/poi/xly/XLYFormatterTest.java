@@ -3,6 +3,7 @@ package com.github.poi.xly;
 import static com.github.poi.xly.test.XLYAssert.assertCellsWithErrorStyle;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Mockito.mock;
@@ -128,6 +129,13 @@ public class XLYFormatterTest extends WorkbookTest {
         assertEquals(xlyFormatter.getDefaultCellStyle(), cell.getCellStyle());
     }
 
+    @Test
+    public void testGetColumnWriter_resolvedOnce() throws NoSuchFieldException {
+        final Field field = getField("anEnum");
+        final XLYColumn xlyColumn = getXLYColumn("anEnum");
+        assertSame(xlyFormatter.getColumnWriter(field, xlyColumn), xlyFormatter.getColumnWriter(field, xlyColumn));
+    }
+
     @Test
     public void testFormatCell_boolean() throws NoSuchFieldException {
         final Cell cell = formatCell("aBoolean", true);
@@ -171,6 +179,66 @@ public class XLYFormatterTest extends WorkbookTest {
         assertEquals("dd/MM/YYYY", cellStyle.getDataFormatString());
     }
 
+    /**
+     * The writer is resolved once and reused for all the cells of the column.
+     */
+    @Test
+    public void testGetColumnWriter() throws NoSuchFieldException {
+        final ColumnWriter columnWriter = xlyFormatter.getColumnWriter(getField("aLong"), getXLYColumn("aLong"));
+        final Row row = workbook.createSheet("testSheet").createRow(0);
+        columnWriter.write(row.createCell(0), 1L);
+        columnWriter.write(row.createCell(1), 2L);
+        columnWriter.write(row.createCell(2), null);
+        assertEquals(1d, row.getCell(0).getNumericCellValue(), 0.1);
+        assertEquals(2d, row.getCell(1).getNumericCellValue(), 0.1);
+        assertEquals(CellType.BLANK, row.getCell(2).getCellTypeEnum());
+        assertEquals(xlyFormatter.getDefaultCellStyle(), columnWriter.getCellStyle());
+    }
+
+    /**
+     * Enum labels come from toString (same as before the writers).
+     */
+    @Test
+    public void testGetColumnWriter_enumToString() throws NoSuchFieldException {
+        final ColumnWriter columnWriter = xlyFormatter.getColumnWriter(getField("aLabel"), getXLYColumn("aString"));
+        final Cell cell = createCell();
+        columnWriter.write(cell, MyLabel.FIRST);
+        assertEquals("first label", cell.getStringCellValue());
+    }
+
+    /**
+     * Date cells with the same pattern must share the same style.
+     */
+    @Test
+    public void testFormatCell_dateSharedStyle() throws NoSuchFieldException {
+        final Field field = getField("aDate");
+        final XLYColumn xlyColumn = getXLYColumn("aDate");
+        final Row row = workbook.createSheet("testSheet").createRow(0);
+        xlyFormatter.formatCell(field, xlyColumn, row.createCell(0), new Date());
+        final int numCellStyles = workbook.getNumCellStyles();
+        for (int column = 1; column < 100; column++) {
+            xlyFormatter.formatCell(field, xlyColumn, row.createCell(column), new Date());
+        }
+        assertEquals(numCellStyles, workbook.getNumCellStyles());
+        assertEquals(row.getCell(0).getCellStyle(), row.getCell(99).getCellStyle());
+    }
+
+    /**
+     * Headers with the same colors must share the same style and font.
+     */
+    @Test
+    public void testFormatHeader_sharedStyle() throws NoSuchFieldException {
+        final XLYColumn[] xlyColumns = getXLYSheet().columns();
+        final Row row = workbook.createSheet("testSheet").createRow(0);
+        xlyFormatter.formatHeader(xlyColumns[2], row.createCell(0));
+        final int numCellStyles = workbook.getNumCellStyles();
+        final int numberOfFonts = workbook.getNumberOfFonts();
+        xlyFormatter.formatHeader(xlyColumns[3], row.createCell(1));
+        assertEquals(numCellStyles, workbook.getNumCellStyles());
+        assertEquals(numberOfFonts, workbook.getNumberOfFonts());
+        assertEquals(row.getCell(0).getCellStyle().getIndex(), row.getCell(1).getCellStyle().getIndex());
+    }
+
     @Test
     public void testAutoSizing() {
         final SXSSFSheet sheet = mock(SXSSFSheet.class);
@@ -318,5 +386,15 @@ public class XLYFormatterTest extends WorkbookTest {
         public Long aLong;
         public Boolean aBoolean;
         public DayOfWeek anEnum;
+        public MyLabel aLabel;
+    }
+
+    public enum MyLabel {
+        FIRST {
+            @Override
+            public String toString() {
+                return "first label";
+            }
+        }
     }
 }
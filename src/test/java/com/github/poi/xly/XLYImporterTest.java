@@ -6,7 +6,12 @@ import static org.junit.Assert.assertNotNull;
 import java.io.InputStream;
 import java.text.SimpleDateFormat;
 import java.time.DayOfWeek;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.beanutils.Converter;
 import org.junit.Before;
@@ -59,6 +64,28 @@ public class XLYImporterTest {
         assertScenario(workbook.getScenarios());
     }
 
+    /**
+     * One importer built for the workbook class is shared by concurrent
+     * imports.
+     */
+    @Test
+    public void testSave_sharedInstance() throws Exception {
+        xlyImporter = new XLYImporter<>(TestWorkbook.class);
+        final List<Callable<TestWorkbook>> imports = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            imports.add(() -> xlyImporter.save(XLYFactory.getBananasOK()));
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (Future<TestWorkbook> result : executor.invokeAll(imports)) {
+                assertFlowns(result.get().getBananas());
+                assertScenario(result.get().getScenarios());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void testGetWorkbookClass() {
         xlyImporter = new XLYImporter<>();
@@ -5,6 +5,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 import java.lang.reflect.Field;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -68,6 +69,35 @@ public class XLYMetadataParserTest {
         xlyMetadataParser.getValues(xlyWorkbook, sheets.get(0));
     }
 
+    @Test
+    public void testGetIterator() {
+        final TestWorkbook xlyWorkbook = XLYFactory.getWorkbook();
+        xlyMetadataParser = new XLYMetadataParser(xlyWorkbook);
+        final Object source = xlyMetadataParser.getSource(xlyWorkbook, getFlownSheet());
+        assertEquals(xlyWorkbook.getBananas(), source);
+        assertEquals(2, count(xlyMetadataParser.getIterator(source)));
+        assertEquals(2, count(xlyMetadataParser.getIterator(xlyWorkbook.getBananas().stream())));
+        assertEquals(2, count(xlyMetadataParser.getIterator(xlyWorkbook.getBananas().spliterator())));
+        assertEquals(0, count(xlyMetadataParser.getIterator(null)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testGetIterator_invalidWorkbook() {
+        final InvalidWorkbookTestXLY xlyWorkbook = new InvalidWorkbookTestXLY();
+        xlyMetadataParser = new XLYMetadataParser(xlyWorkbook);
+        final List<XLYSheet> sheets = xlyMetadataParser.getSheets();
+        xlyMetadataParser.getIterator(xlyMetadataParser.getSource(xlyWorkbook, sheets.get(0)));
+    }
+
+    private int count(Iterator<?> iterator) {
+        int count = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        return count;
+    }
+
     @Test
     public void testGetField() {
         final TestWorkbook workbook = XLYFactory.getWorkbook();
@@ -0,0 +1,198 @@
+package com.github.poi.xly;
+
+import static com.github.poi.xly.test.XLYAssert.assertFlownSheet;
+import static com.github.poi.xly.test.XLYAssert.assertScenarioSheet;
+import static com.github.poi.xly.test.XLYAssert.toWorkbook;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.poi.xly.XLYExporterTest.StreamWorkbook;
+import com.github.poi.xly.test.TestBananas;
+import com.github.poi.xly.test.TestScenario;
+import com.github.poi.xly.test.TestWorkbook;
+import com.github.poi.xly.test.XLYFactory;
+
+public class XLYStreamingExporterTest {
+
+    private static final String[] EXPECTED_FLOWN_ROWS = { "FR;08/06/2018;2;2;email1@corp1.com;FR;AL;",
+            "FR;08/06/2018;2;2;email2@corp2.com;AL;FR;" };
+
+    private static final String[] EXPECTED_SCENARIO_ROWS = { "SCENARIO;" };
+
+    private ByteArrayOutputStream outputStream;
+
+    public XLYStreamingExporter xlyExporter;
+
+    @Before
+    public void setup() {
+        XLYFactory.setup();
+        outputStream = new ByteArrayOutputStream();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        outputStream.close();
+    }
+
+    /**
+     * Test IllegalArgumentException if null workbook object.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testExport_nullWorkbook() {
+        xlyExporter = new XLYStreamingExporter(null);
+        xlyExporter.export(outputStream);
+    }
+
+    @Test
+    public void testExport() throws Exception {
+        final TestWorkbook workbook = XLYFactory.getWorkbook();
+        xlyExporter = new XLYStreamingExporter(workbook);
+        xlyExporter.export(outputStream);
+        final XSSFWorkbook generatedWorkbook = toWorkbook(outputStream);
+        assertEquals(2, generatedWorkbook.getNumberOfSheets());
+        assertFlownSheet(generatedWorkbook, EXPECTED_FLOWN_ROWS);
+        assertScenarioSheet(generatedWorkbook, EXPECTED_SCENARIO_ROWS);
+        generatedWorkbook.close();
+    }
+
+    /**
+     * Same column widths as the SXSSFWorkbook based exporter.
+     */
+    @Test
+    public void testExport_columnWidths() throws Exception {
+        final TestWorkbook workbook = XLYFactory.getWorkbook();
+        new XLYStreamingExporter(workbook).export(outputStream);
+        final ByteArrayOutputStream expectedStream = new ByteArrayOutputStream();
+        new XLYExporter(workbook).export(expectedStream);
+        try (XSSFWorkbook generatedWorkbook = toWorkbook(outputStream);
+                XSSFWorkbook expectedWorkbook = toWorkbook(expectedStream)) {
+            final XSSFSheet expectedSheet = expectedWorkbook.getSheetAt(0);
+            final XSSFSheet sheet = generatedWorkbook.getSheetAt(0);
+            for (int column = 0; column < expectedSheet.getRow(0).getLastCellNum(); column++) {
+                assertEquals(expectedSheet.getColumnWidth(column), sheet.getColumnWidth(column));
+            }
+        }
+    }
+
+    /**
+     * The beginning of the file is sent before the beans are read.
+     */
+    @Test
+    public void testExport_firstBytesBeforeRows() throws Exception {
+        final List<TestBananas> bananas = XLYFactory.getBananas();
+        final StreamWorkbook workbook = new StreamWorkbook();
+        workbook.setBananas(bananas.stream().peek(banana -> assertTrue(outputStream.size() > 0)));
+        workbook.setScenarios(XLYFactory.getScenario().iterator());
+        xlyExporter = new XLYStreamingExporter(workbook);
+        xlyExporter.export(outputStream);
+        final XSSFWorkbook generatedWorkbook = toWorkbook(outputStream);
+        assertFlownSheet(generatedWorkbook, EXPECTED_FLOWN_ROWS);
+        assertScenarioSheet(generatedWorkbook, EXPECTED_SCENARIO_ROWS);
+        generatedWorkbook.close();
+    }
+
+    /**
+     * An empty source only produces the header row.
+     */
+    @Test
+    public void testExport_emptySheet() throws Exception {
+        final StreamWorkbook workbook = new StreamWorkbook();
+        workbook.setScenarios(new Iterator<TestScenario>() {
+            @Override
+            public boolean hasNext() {
+                return false;
+            }
+
+            @Override
+            public TestScenario next() {
+                throw new IllegalStateException();
+            }
+        });
+        xlyExporter = new XLYStreamingExporter(workbook);
+        xlyExporter.export(outputStream);
+        try (XSSFWorkbook generatedWorkbook = toWorkbook(outputStream)) {
+            assertEquals(2, generatedWorkbook.getNumberOfSheets());
+            assertEquals(0, generatedWorkbook.getSheetAt(0).getLastRowNum());
+            assertEquals(0, generatedWorkbook.getSheetAt(1).getLastRowNum());
+            assertEquals("Name", generatedWorkbook.getSheetAt(1).getRow(0).getCell(0).getStringCellValue());
+        }
+    }
+
+    /**
+     * A source failing partway through doesn't leave a readable but truncated
+     * workbook.
+     */
+    @Test
+    public void testExport_sourceFails() throws Exception {
+        final List<TestBananas> bananas = XLYFactory.getBananas();
+        final StreamWorkbook workbook = new StreamWorkbook();
+        workbook.setBananas(bananas.stream().peek(banana -> {
+            if (banana != bananas.get(0)) {
+                throw new IllegalStateException("source failure");
+            }
+        }));
+        workbook.setScenarios(XLYFactory.getScenario().iterator());
+        xlyExporter = new XLYStreamingExporter(workbook);
+        try {
+            xlyExporter.export(outputStream);
+            fail("the source failure must be thrown");
+        } catch (final IllegalStateException e) {
+            assertEquals("source failure", e.getMessage());
+        }
+        final List<String> entries = new ArrayList<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(
+                new ByteArrayInputStream(outputStream.toByteArray()))) {
+            for (ZipEntry entry = zipInputStream.getNextEntry(); entry != null; entry = zipInputStream
+                    .getNextEntry()) {
+                entries.add(entry.getName());
+            }
+        }
+        assertEquals("[xl/worksheets/sheet1.xml]", entries.toString());
+        try {
+            toWorkbook(outputStream).close();
+            fail("the output must not be readable");
+        } catch (final Exception e) {
+            // expected
+        }
+    }
+
+    /**
+     * The failure of the source is thrown, the failure of its close is
+     * suppressed.
+     */
+    @Test
+    public void testExport_sourceAndCloseFail() {
+        final StreamWorkbook workbook = new StreamWorkbook();
+        workbook.setBananas(XLYFactory.getBananas().stream().peek(banana -> {
+            throw new IllegalStateException("source failure");
+        }).onClose(() -> {
+            throw new IllegalStateException("close failure");
+        }));
+        workbook.setScenarios(XLYFactory.getScenario().iterator());
+        xlyExporter = new XLYStreamingExporter(workbook);
+        try {
+            xlyExporter.export(outputStream);
+            fail("the source failure must be thrown");
+        } catch (final IllegalStateException e) {
+            assertEquals("source failure", e.getMessage());
+            assertEquals(1, e.getSuppressed().length);
+            assertEquals("close failure", e.getSuppressed()[0].getMessage());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.poi.xly;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.beanutils.BeanUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.poi.xly.test.TestBananas;
+import com.github.poi.xly.test.TestWorkbook;
+import com.github.poi.xly.test.XLYFactory;
+
+public class XLYStreamingImporterTest {
+
+    public XLYStreamingImporter<TestWorkbook> xlyImporter;
+
+    @Before
+    public void setup() {
+        XLYFactory.setup();
+        xlyImporter = new XLYStreamingImporter<>();
+    }
+
+    /**
+     * Test IllegalArgumentException if null workbook object.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testSave_nullWorkbook() {
+        xlyImporter.setWorkbookClass(null);
+        final InputStream inputStream = XLYFactory.getBananasOK();
+        xlyImporter.save(inputStream);
+    }
+
+    /**
+     * Test IllegalArgumentException if null inputStream object.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testSave_nullInputstream() {
+        xlyImporter.setWorkbookClass(TestWorkbook.class);
+        xlyImporter.save(null);
+    }
+
+    @Test(expected = XLYException.class)
+    public void testSave_missingSheet() {
+        xlyImporter.setWorkbookClass(TestWorkbook.class);
+        xlyImporter.save(XLYFactory.getBananasKO_missingSheet());
+    }
+
+    /**
+     * The streaming import must produce exactly the same beans than the DOM
+     * based {@link XLYImporter}.
+     */
+    @Test
+    public void testSave() throws Exception {
+        xlyImporter.setWorkbookClass(TestWorkbook.class);
+        final TestWorkbook workbook = xlyImporter.save(XLYFactory.getBananasOK());
+        assertNotNull(workbook);
+        final XLYImporter<TestWorkbook> domImporter = new XLYImporter<>();
+        domImporter.setWorkbookClass(TestWorkbook.class);
+        final TestWorkbook expected = domImporter.save(XLYFactory.getBananasOK());
+        assertBananas(expected.getBananas(), workbook.getBananas());
+        assertEquals(1, workbook.getScenarios().size());
+        assertEquals(expected.getScenarios().get(0).getName(), workbook.getScenarios().get(0).getName());
+    }
+
+    @Test
+    public void testImportBatches() {
+        xlyImporter.setWorkbookClass(TestWorkbook.class);
+        final List<String> batches = new ArrayList<>();
+        xlyImporter.importBatches(XLYFactory.getBananasOK(), 1, (xlySheet, beans) -> {
+            assertEquals(1, beans.size());
+            assertEquals(xlySheet.type(), beans.get(0).getClass());
+            batches.add(xlySheet.name());
+        });
+        assertEquals(Arrays.asList("Bananas", "Bananas", "Scenario"), batches);
+    }
+
+    @Test
+    public void testImportBatches_remainingBeans() {
+        xlyImporter.setWorkbookClass(TestWorkbook.class);
+        final List<Integer> batchSizes = new ArrayList<>();
+        xlyImporter.importBatches(XLYFactory.getBananasOK(), 1000, (xlySheet, beans) -> batchSizes.add(beans.size()));
+        assertEquals(Arrays.asList(2, 1), batchSizes);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testImportBatches_invalidBatchSize() {
+        xlyImporter.setWorkbookClass(TestWorkbook.class);
+        xlyImporter.importBatches(XLYFactory.getBananasOK(), 0, (xlySheet, beans) -> {
+        });
+    }
+
+    private void assertBananas(List<TestBananas> expected, List<TestBananas> actual) throws Exception {
+        assertNotNull(actual);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(BeanUtils.describe(expected.get(i)), BeanUtils.describe(actual.get(i)));
+        }
+    }
+}
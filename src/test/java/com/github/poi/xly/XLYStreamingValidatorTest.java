@@ -0,0 +1,177 @@
+package com.github.poi.xly;
+
+import static com.github.poi.xly.XLYValidatorTest.EXPECTED_BANANAS_ROWS;
+import static com.github.poi.xly.XLYValidatorTest.EXPECTED_BANANAS_ROWS_DUP;
+import static com.github.poi.xly.XLYValidatorTest.EXPECTED_SCENARIO_ROWS;
+import static com.github.poi.xly.XLYValidatorTest.assertViolations;
+import static com.github.poi.xly.XLYValidatorTest.getReportedLines;
+import static com.github.poi.xly.test.XLYAssert.assertCellsWithErrorStyle;
+import static com.github.poi.xly.test.XLYAssert.assertFlownSheet;
+import static com.github.poi.xly.test.XLYAssert.assertScenarioSheet;
+import static com.github.poi.xly.test.XLYAssert.toWorkbook;
+import static com.github.poi.xly.test.XLYFactory.BANANAS_DATA_SHEET_NAME;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.poi.xly.test.TestDestinationConstraint;
+import com.github.poi.xly.test.TestDestinationWorkbook;
+import com.github.poi.xly.test.TestWorkbook;
+import com.github.poi.xly.test.XLYFactory;
+import com.github.poi.xly.validation.DefaultConstraintLocator;
+
+public class XLYStreamingValidatorTest {
+
+    private ByteArrayOutputStream outputStream;
+
+    private XLYValidator xlyValidator;
+
+    @Before
+    public void setup() {
+        XLYFactory.setup();
+        outputStream = new ByteArrayOutputStream();
+        xlyValidator = new XLYStreamingValidator(new DefaultConstraintLocator(), TestWorkbook.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testValidate_nullWorkbookClass() {
+        new XLYStreamingValidator(new DefaultConstraintLocator()).validate(XLYFactory.getBananasOK(), outputStream);
+    }
+
+    @Test
+    public void testValidate() {
+        final Set<String> violations = xlyValidator.validate(XLYFactory.getBananasOK(), outputStream);
+        assertEquals(Collections.emptySet(), violations);
+        assertEquals(0, outputStream.size());
+    }
+
+    /**
+     * Same violations and annotated file as {@link XLYValidator}.
+     */
+    @Test
+    public void testValidate_KO_cellErrors() throws IOException {
+        final Set<String> violations = xlyValidator.validate(XLYFactory.getBananasKO_cellErrors(), outputStream);
+        assertViolations(violations);
+        assertEquals(new XLYValidator(new DefaultConstraintLocator(), TestWorkbook.class)
+                .validate(XLYFactory.getBananasKO_cellErrors(), new ByteArrayOutputStream()), violations);
+        try (XSSFWorkbook generatedWorkbook = toWorkbook(outputStream)) {
+            assertEquals(2, generatedWorkbook.getNumberOfSheets());
+            assertFlownSheet(generatedWorkbook, EXPECTED_BANANAS_ROWS);
+            assertScenarioSheet(generatedWorkbook, EXPECTED_SCENARIO_ROWS);
+            assertCellsWithErrorStyle(generatedWorkbook, 0, "E2", "F2", "H2", "B4", "H4");
+            assertEquals(XLYFormatter.RED, generatedWorkbook.getSheet(BANANAS_DATA_SHEET_NAME).getTabColor());
+        }
+    }
+
+    /**
+     * Same reports as {@link XLYValidator}, the rows in error are read again.
+     */
+    @Test
+    public void testValidate_KO_cellErrors_reports() throws IOException {
+        for (XLYReportFormat reportFormat : Arrays.asList(XLYReportFormat.ERROR_ROWS_CSV,
+                XLYReportFormat.ERROR_ROWS_JSON_LINES)) {
+            final XLYValidator domValidator = new XLYValidator(new DefaultConstraintLocator(), TestWorkbook.class);
+            domValidator.setReportFormat(reportFormat);
+            final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            domValidator.validate(XLYFactory.getBananasKO_cellErrors(), expected);
+            xlyValidator.setReportFormat(reportFormat);
+            outputStream.reset();
+            assertViolations(xlyValidator.validate(XLYFactory.getBananasKO_cellErrors(), outputStream));
+            assertEquals(expected.toString("UTF-8"), outputStream.toString("UTF-8"));
+        }
+    }
+
+    /**
+     * Same limits as {@link XLYValidator}: the parsing of the sheet stops.
+     */
+    @Test
+    public void testValidateWithResult_limits() {
+        xlyValidator.setReportFormat(XLYReportFormat.ERROR_ROWS_CSV);
+        assertFalse(xlyValidator.validateWithResult(XLYFactory.getBananasKO_invalidEmails(5), outputStream)
+                .isTruncated());
+        assertEquals(Arrays.asList(2, 3, 4, 5, 6, 7), getReportedLines(outputStream));
+
+        xlyValidator.setMaxViolations(3);
+        outputStream.reset();
+        assertTrue(xlyValidator.validateWithResult(XLYFactory.getBananasKO_invalidEmails(5), outputStream)
+                .isTruncated());
+        assertEquals(Arrays.asList(2, 3, 4), getReportedLines(outputStream));
+
+        xlyValidator = new XLYStreamingValidator(new DefaultConstraintLocator(), TestWorkbook.class);
+        xlyValidator.setReportFormat(XLYReportFormat.ERROR_ROWS_CSV);
+        xlyValidator.setMaxViolationsPerColumn(2);
+        outputStream.reset();
+        assertTrue(xlyValidator.validateWithResult(XLYFactory.getBananasKO_invalidEmails(5), outputStream)
+                .isTruncated());
+        assertEquals(Arrays.asList(2, 3, 7), getReportedLines(outputStream));
+
+        xlyValidator.setTimeBudget(1, TimeUnit.NANOSECONDS);
+        assertFalse(xlyValidator.isValid(XLYFactory.getBananasOK(), outputStream));
+    }
+
+    /**
+     * The pending ExistConstraint values are checked every
+     * {@link XLYValidator#EXIST_FLUSH_ROWS} rows when the violations are
+     * limited: the parsing stops before the end of the sheet.
+     */
+    @Test
+    public void testValidateWithResult_maxViolations_existConstraint() {
+        TestDestinationConstraint.CHUNKS.clear();
+        xlyValidator = new XLYStreamingValidator(TestDestinationConstraint.getSingleChunkLocator(),
+                TestDestinationWorkbook.class);
+        xlyValidator.setMaxViolations(10);
+        final XLYValidationResult result = xlyValidator.validateWithResult(
+                XLYFactory.getBananasKO_invalidDestinations(3 * XLYValidator.EXIST_FLUSH_ROWS), outputStream);
+        assertTrue(result.isTruncated());
+        assertEquals(10, result.getViolations().size());
+        assertEquals(1, TestDestinationConstraint.CHUNKS.size());
+        assertEquals(XLYValidator.EXIST_FLUSH_ROWS, TestDestinationConstraint.CHUNKS.get(0).size());
+    }
+
+    @Test
+    public void testValidate_KO_duplicatedLines() throws IOException {
+        final Set<String> violations = xlyValidator.validate(XLYFactory.getBananasKO_duplicatedLines(),
+                outputStream);
+        assertEquals(Collections.singleton("line:3 - error: Duplicate line (same as line 2)"), violations);
+        try (XSSFWorkbook generatedWorkbook = toWorkbook(outputStream)) {
+            assertFlownSheet(generatedWorkbook, EXPECTED_BANANAS_ROWS_DUP);
+            assertScenarioSheet(generatedWorkbook, EXPECTED_SCENARIO_ROWS);
+            assertCellsWithErrorStyle(generatedWorkbook, 0, "H3");
+            assertTrue(generatedWorkbook.getSheet(BANANAS_DATA_SHEET_NAME).getTabColor() != null);
+        }
+    }
+
+    /**
+     * The ExistConstraint of the destination column is checked by chunks of
+     * distinct values, the invalid cell is still annotated.
+     */
+    @Test
+    public void testValidate_KO_existConstraint() throws IOException {
+        TestDestinationConstraint.CHUNKS.clear();
+        final Set<String> violations = new XLYStreamingValidator(new DefaultConstraintLocator(), TestDestinationWorkbook.class)
+                .validate(XLYFactory.getBananasKO_cellErrors(), outputStream);
+        assertEquals(Collections.singleton("INVALID_DESTINATION is not a valid value"), violations);
+        assertEquals(Arrays.asList(new HashSet<>(Arrays.asList("FR", "INVALID_DESTINATION")),
+                new HashSet<>(Arrays.asList("AL"))), TestDestinationConstraint.CHUNKS);
+        try (XSSFWorkbook generatedWorkbook = toWorkbook(outputStream)) {
+            assertCellsWithErrorStyle(generatedWorkbook, 0, "G3", "H3");
+        }
+    }
+
+    @Test(expected = XLYException.class)
+    public void testValidate_KO_missingSheet() {
+        xlyValidator.validate(XLYFactory.getBananasKO_missingSheet(), outputStream);
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.poi.xly;
+
+import static com.github.poi.xly.XLYValidatorTest.EXPECTED_BANANAS_ROWS;
+import static com.github.poi.xly.XLYValidatorTest.assertViolations;
+import static com.github.poi.xly.test.XLYAssert.assertCellsWithErrorStyle;
+import static com.github.poi.xly.test.XLYAssert.assertFlownSheet;
+import static com.github.poi.xly.test.XLYAssert.toWorkbook;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+
+import org.apache.commons.beanutils.BeanUtils;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.poi.xly.test.TestWorkbook;
+import com.github.poi.xly.test.XLYFactory;
+import com.github.poi.xly.validation.DefaultConstraintLocator;
+
+public class XLYValidatingImporterTest {
+
+    private XLYValidatingImporter<TestWorkbook> xlyImporter;
+
+    private ByteArrayOutputStream outputStream;
+
+    @Before
+    public void setup() {
+        XLYFactory.setup();
+        outputStream = new ByteArrayOutputStream();
+        xlyImporter = new XLYValidatingImporter<>(new DefaultConstraintLocator(), TestWorkbook.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testValidateAndSave_nullInputstream() {
+        xlyImporter.validateAndSave(null, outputStream);
+    }
+
+    @Test
+    public void testGetWorkbookClass() {
+        assertEquals(TestWorkbook.class, xlyImporter.getWorkbookClass());
+    }
+
+    /**
+     * A valid file gives the same beans as {@link XLYImporter}, nothing is
+     * written to the outputStream.
+     */
+    @Test
+    public void testValidateAndSave() throws Exception {
+        final XLYImportResult<TestWorkbook> result = xlyImporter.validateAndSave(XLYFactory.getBananasOK(),
+                outputStream);
+        assertTrue(result.isValid());
+        assertEquals(Collections.emptySet(), result.getViolations());
+        assertEquals(0, outputStream.size());
+
+        final TestWorkbook expected = new XLYImporter<>(TestWorkbook.class).save(XLYFactory.getBananasOK());
+        final TestWorkbook workbook = result.getWorkbook();
+        assertEquals(expected.getBananas().size(), workbook.getBananas().size());
+        for (int i = 0; i < expected.getBananas().size(); i++) {
+            assertEquals(BeanUtils.describe(expected.getBananas().get(i)),
+                    BeanUtils.describe(workbook.getBananas().get(i)));
+        }
+        assertEquals(BeanUtils.describe(expected.getScenarios().get(0)),
+                BeanUtils.describe(workbook.getScenarios().get(0)));
+    }
+
+    @Test
+    public void testValidateAndSave_KO_cellErrors() throws IOException {
+        final XLYImportResult<TestWorkbook> result = xlyImporter
+                .validateAndSave(XLYFactory.getBananasKO_cellErrors(), outputStream);
+        assertFalse(result.isValid());
+        assertNull(result.getWorkbook());
+        assertViolations(result.getViolations());
+        try (XSSFWorkbook generatedWorkbook = toWorkbook(outputStream)) {
+            assertFlownSheet(generatedWorkbook, EXPECTED_BANANAS_ROWS);
+            assertCellsWithErrorStyle(generatedWorkbook, 0, "E2", "F2", "H2", "B4", "H4");
+        }
+    }
+
+    @Test
+    public void testValidateAndSave_KO_duplicatedLines() {
+        final XLYImportResult<TestWorkbook> result = xlyImporter
+                .validateAndSave(XLYFactory.getBananasKO_duplicatedLines(), outputStream);
+        assertNull(result.getWorkbook());
+        assertEquals(Collections.singleton("line:3 - error: Duplicate line (same as line 2)"), result.getViolations());
+        assertTrue(outputStream.size() > 0);
+    }
+
+    @Test(expected = XLYException.class)
+    public void testValidateAndSave_KO_missingSheet() {
+        xlyImporter.validateAndSave(XLYFactory.getBananasKO_missingSheet(), outputStream);
+    }
+}
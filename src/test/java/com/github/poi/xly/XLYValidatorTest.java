@@ -19,10 +19,22 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.poi.xssf.usermodel.XSSFColor;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.After;
 import org.junit.Before;
@@ -31,6 +43,8 @@ import org.junit.Test;
 import com.github.poi.xly.annotation.XLYSheet;
 import com.github.poi.xly.annotation.XLYWorkbook;
 import com.github.poi.xly.test.TestBananas;
+import com.github.poi.xly.test.TestDestinationConstraint;
+import com.github.poi.xly.test.TestDestinationWorkbook;
 import com.github.poi.xly.test.TestWorkbook;
 import com.github.poi.xly.test.XLYFactory;
 import com.github.poi.xly.validation.ConstraintLocator;
@@ -40,16 +54,20 @@ public class XLYValidatorTest {
 
     private ConstraintLocator constraintLocator = new DefaultConstraintLocator();
 
-    private static final String[] EXPECTED_BANANAS_ROWS = {
+    static final String[] EXPECTED_BANANAS_ROWS = {
             "FR;6/8/18;2;INVALID_REVENUE;INVALID_EMAIL;INVALID_ORIGIN;FR;Invalid cell value. Value doesn't match with this pattern : ^[A-Z0-9._%+-]+@[A-Z0-9.-]+\\.[A-Z]{2,6}$Origin not exists;",
             "FR;08/32/2018;INVALID_OPPORTUNITY;2;email2@corp2.com;AL;INVALID_DESTINATION;",
             "FR;;2;2;date.mandatory.but.empty@corp1.com;FR;AL;Field required;",
             "FR;6/8/18;2;2;valid.line@corp1.com;FR;AL;" };
 
-    private static final String[] EXPECTED_BANANAS_ROWS_DUP = { "FR;6/8/18;2;2;duplicated.line@corp1.com;FR;AL;",
-            "FR;6/8/18;2;2;duplicated.line@corp1.com;FR;AL;Duplicate line;" };
+    static final String EXPECTED_BANANAS_CSV_REPORT = "Sheet,Line,Agencies,Creation date,Quantity,Revenue,Email,Origin,Destination,Errors\r\n"
+            + "Bananas,2,FR,6/8/18,2,INVALID_REVENUE,INVALID_EMAIL,INVALID_ORIGIN,FR,\"Invalid cell value. Value doesn't match with this pattern : ^[A-Z0-9._%+-]+@[A-Z0-9.-]+\\.[A-Z]{2,6}$\nOrigin not exists\"\r\n"
+            + "Bananas,4,FR,,2,2,date.mandatory.but.empty@corp1.com,FR,AL,Field required\r\n";
 
-    private static final String[] EXPECTED_SCENARIO_ROWS = { "SCENARIO;" };
+    static final String[] EXPECTED_BANANAS_ROWS_DUP = { "FR;6/8/18;2;2;duplicated.line@corp1.com;FR;AL;",
+            "FR;6/8/18;2;2;duplicated.line@corp1.com;FR;AL;Duplicate line (same as line 2);" };
+
+    static final String[] EXPECTED_SCENARIO_ROWS = { "SCENARIO;" };
 
     private XLYValidator xlyValidator;
     private ByteArrayOutputStream outputStream;
@@ -130,6 +148,193 @@ public class XLYValidatorTest {
         generatedWorkbook.close();
     }
 
+    /**
+     * The cells validated by chunks in parallel are annotated as in the
+     * calling thread.
+     */
+    @Test
+    public void testValidate_KO_cellErrors_parallel() throws IOException {
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            xlyValidator = new XLYValidator(constraintLocator, TestWorkbook.class);
+            xlyValidator.setForkJoinPool(forkJoinPool);
+            xlyValidator.setChunkSize(1);
+            final Set<String> violations = xlyValidator.validate(XLYFactory.getBananasKO_cellErrors(), outputStream);
+            assertViolations(violations);
+            try (XSSFWorkbook generatedWorkbook = toWorkbook(outputStream)) {
+                assertFlownSheet(generatedWorkbook, EXPECTED_BANANAS_ROWS);
+                assertScenarioSheet(generatedWorkbook, EXPECTED_SCENARIO_ROWS);
+                assertCellsWithErrorStyle(generatedWorkbook, 0, "E2", "F2", "H2", "B4", "H4");
+            }
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetChunkSize_zero() {
+        new XLYValidator(constraintLocator).setChunkSize(0);
+    }
+
+    /**
+     * @return the lines of the rows of a CSV report
+     */
+    static List<Integer> getReportedLines(ByteArrayOutputStream outputStream) {
+        final List<Integer> lines = new ArrayList<>();
+        for (String record : new String(outputStream.toByteArray(), StandardCharsets.UTF_8).split("\r\n")) {
+            if (record.startsWith(BANANAS_DATA_SHEET_NAME + ",")) {
+                lines.add(Integer.valueOf(record.split(",")[1]));
+            }
+        }
+        return lines;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetMaxViolations_zero() {
+        new XLYValidator(constraintLocator).setMaxViolations(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetTimeBudget_negative() {
+        new XLYValidator(constraintLocator).setTimeBudget(-1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testValidateWithResult_noLimit() {
+        xlyValidator = new XLYValidator(constraintLocator, TestWorkbook.class);
+        xlyValidator.setReportFormat(XLYReportFormat.ERROR_ROWS_CSV);
+        final XLYValidationResult result = xlyValidator.validateWithResult(XLYFactory.getBananasKO_invalidEmails(5),
+                outputStream);
+        assertFalse(result.isTruncated());
+        assertFalse(result.isValid());
+        assertEquals(Arrays.asList(2, 3, 4, 5, 6, 7), getReportedLines(outputStream));
+    }
+
+    /**
+     * The scan stops at the third violation.
+     */
+    @Test
+    public void testValidateWithResult_maxViolations() {
+        xlyValidator = new XLYValidator(constraintLocator, TestWorkbook.class);
+        xlyValidator.setReportFormat(XLYReportFormat.ERROR_ROWS_CSV);
+        xlyValidator.setMaxViolations(3);
+        final XLYValidationResult result = xlyValidator.validateWithResult(XLYFactory.getBananasKO_invalidEmails(5),
+                outputStream);
+        assertTrue(result.isTruncated());
+        assertFalse(result.isValid());
+        assertEquals(Arrays.asList(2, 3, 4), getReportedLines(outputStream));
+    }
+
+    /**
+     * The pending ExistConstraint values are checked every
+     * {@link XLYValidator#EXIST_FLUSH_ROWS} rows when the violations are
+     * limited: the scan stops before the end of the sheet.
+     */
+    @Test
+    public void testValidateWithResult_maxViolations_existConstraint() {
+        TestDestinationConstraint.CHUNKS.clear();
+        xlyValidator = new XLYValidator(TestDestinationConstraint.getSingleChunkLocator(),
+                TestDestinationWorkbook.class);
+        xlyValidator.setMaxViolations(10);
+        final XLYValidationResult result = xlyValidator.validateWithResult(
+                XLYFactory.getBananasKO_invalidDestinations(3 * XLYValidator.EXIST_FLUSH_ROWS), outputStream);
+        assertTrue(result.isTruncated());
+        assertEquals(10, result.getViolations().size());
+        assertEquals(1, TestDestinationConstraint.CHUNKS.size());
+        assertEquals(XLYValidator.EXIST_FLUSH_ROWS, TestDestinationConstraint.CHUNKS.get(0).size());
+    }
+
+    /**
+     * Same violations when the cells are validated in parallel.
+     */
+    @Test
+    public void testValidateWithResult_maxViolationsPerSheet_parallel() {
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(2);
+        try {
+            xlyValidator = new XLYValidator(constraintLocator, TestWorkbook.class);
+            xlyValidator.setReportFormat(XLYReportFormat.ERROR_ROWS_CSV);
+            xlyValidator.setMaxViolationsPerSheet(3);
+            xlyValidator.setForkJoinPool(forkJoinPool);
+            xlyValidator.setChunkSize(1);
+            final XLYValidationResult result = xlyValidator
+                    .validateWithResult(XLYFactory.getBananasKO_invalidEmails(5), outputStream);
+            assertTrue(result.isTruncated());
+            assertEquals(Arrays.asList(2, 3, 4), getReportedLines(outputStream));
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    /**
+     * The emails are no longer checked after the second violation, the other
+     * columns still are.
+     */
+    @Test
+    public void testValidateWithResult_maxViolationsPerColumn() {
+        xlyValidator = new XLYValidator(constraintLocator, TestWorkbook.class);
+        xlyValidator.setReportFormat(XLYReportFormat.ERROR_ROWS_CSV);
+        xlyValidator.setMaxViolationsPerColumn(2);
+        final XLYValidationResult result = xlyValidator.validateWithResult(XLYFactory.getBananasKO_invalidEmails(5),
+                outputStream);
+        assertTrue(result.isTruncated());
+        assertEquals(Arrays.asList(2, 3, 7), getReportedLines(outputStream));
+    }
+
+    /**
+     * A file not fully checked is not valid.
+     */
+    @Test
+    public void testIsValid_timeBudget() {
+        xlyValidator = new XLYValidator(constraintLocator, TestWorkbook.class);
+        xlyValidator.setTimeBudget(1, TimeUnit.NANOSECONDS);
+        assertTrue(xlyValidator.validateWithResult(XLYFactory.getBananasOK(), outputStream).isTruncated());
+        assertFalse(xlyValidator.isValid(XLYFactory.getBananasOK(), outputStream));
+    }
+
+    /**
+     * A partly checked file is never reported without error.
+     */
+    @Test
+    public void testValidate_timeBudget() {
+        xlyValidator = new XLYValidator(constraintLocator, TestWorkbook.class);
+        xlyValidator.setTimeBudget(1, TimeUnit.NANOSECONDS);
+        final Set<String> violations = xlyValidator.validate(XLYFactory.getBananasOK(), outputStream);
+        assertEquals(Collections.singleton(XLYValidator.TRUNCATED_MESSAGE), violations);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetReportFormat_null() {
+        new XLYValidator(constraintLocator).setReportFormat(null);
+    }
+
+    /**
+     * Only the rows in error are written, with their line and messages.
+     */
+    @Test
+    public void testValidate_KO_cellErrors_csvReport() throws IOException {
+        xlyValidator = new XLYValidator(constraintLocator, TestWorkbook.class);
+        xlyValidator.setReportFormat(XLYReportFormat.ERROR_ROWS_CSV);
+        final Set<String> violations = xlyValidator.validate(XLYFactory.getBananasKO_cellErrors(), outputStream);
+        assertViolations(violations);
+        assertEquals(EXPECTED_BANANAS_CSV_REPORT, new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testValidate_KO_cellErrors_xlsxReport() throws IOException {
+        xlyValidator = new XLYValidator(constraintLocator, TestWorkbook.class);
+        xlyValidator.setReportFormat(XLYReportFormat.ERROR_ROWS_XLSX);
+        assertViolations(xlyValidator.validate(XLYFactory.getBananasKO_cellErrors(), outputStream));
+        try (XSSFWorkbook report = toWorkbook(outputStream)) {
+            assertEquals(1, report.getNumberOfSheets());
+            final XSSFSheet sheet = report.getSheet(BANANAS_DATA_SHEET_NAME);
+            assertEquals(2, sheet.getLastRowNum());
+            assertEquals(2, sheet.getRow(1).getCell(0).getNumericCellValue(), 0);
+            assertEquals(4, sheet.getRow(2).getCell(0).getNumericCellValue(), 0);
+            assertEquals("Field required", sheet.getRow(2).getCell(8).getStringCellValue());
+            assertCellsWithErrorStyle(report, 0, "F2", "G2", "I2", "C3", "I3");
+        }
+    }
+
     @Test
     public void testValidate_KO_duplicatedLines() throws IOException {
         xlyValidator = new XLYValidator(constraintLocator);
@@ -139,7 +344,7 @@ public class XLYValidatorTest {
         assertNotNull(violations);
         assertFalse(violations.isEmpty());
         final String msg = String.join(",", violations);
-        assertTrue(msg, violations.contains("line:3 - error: Duplicate line"));
+        assertTrue(msg, violations.contains("line:3 - error: Duplicate line (same as line 2)"));
         assertEquals(msg, 1, violations.size());
         final XSSFWorkbook generatedWorkbook = toWorkbook(outputStream);
         assertEquals(2, generatedWorkbook.getNumberOfSheets());
@@ -151,6 +356,23 @@ public class XLYValidatorTest {
         generatedWorkbook.close();
     }
 
+    /**
+     * The ExistConstraint of the destination column is checked by chunks of
+     * distinct values, the invalid cell is still annotated.
+     */
+    @Test
+    public void testValidate_KO_existConstraint() throws IOException {
+        TestDestinationConstraint.CHUNKS.clear();
+        final Set<String> violations = new XLYValidator(new DefaultConstraintLocator(), TestDestinationWorkbook.class)
+                .validate(XLYFactory.getBananasKO_cellErrors(), outputStream);
+        assertEquals(Collections.singleton("INVALID_DESTINATION is not a valid value"), violations);
+        assertEquals(Arrays.asList(new HashSet<>(Arrays.asList("FR", "INVALID_DESTINATION")),
+                new HashSet<>(Arrays.asList("AL"))), TestDestinationConstraint.CHUNKS);
+        try (XSSFWorkbook generatedWorkbook = toWorkbook(outputStream)) {
+            assertCellsWithErrorStyle(generatedWorkbook, 0, "G3", "H3");
+        }
+    }
+
     @Test(expected = XLYException.class)
     public void testValidate_KO_missingSheet() {
         xlyValidator = new XLYValidator(constraintLocator);
@@ -171,6 +393,35 @@ public class XLYValidatorTest {
         xlyValidator.validate(inputStream, outputStream);
     }
 
+    /**
+     * One validator built for the workbook class is shared by concurrent
+     * validations of valid and invalid files.
+     */
+    @Test
+    public void testValidate_sharedInstance() throws Exception {
+        xlyValidator = new XLYValidator(constraintLocator, TestWorkbook.class);
+        final List<Callable<Set<String>>> validations = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final boolean valid = i % 2 == 0;
+            validations.add(() -> xlyValidator.validate(
+                    valid ? XLYFactory.getBananasOK() : XLYFactory.getBananasKO_cellErrors(),
+                    new ByteArrayOutputStream()));
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Set<String>>> results = executor.invokeAll(validations);
+            for (int i = 0; i < results.size(); i++) {
+                if (i % 2 == 0) {
+                    assertTrue(results.get(i).get().isEmpty());
+                } else {
+                    assertViolations(results.get(i).get());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void testGetWorkbookClass() {
         xlyValidator = new XLYValidator(constraintLocator);
@@ -178,7 +429,7 @@ public class XLYValidatorTest {
         assertEquals(TestWorkbook.class, xlyValidator.getWorkbookClass());
     }
 
-    private void assertViolations(Set<String> violations) {
+    static void assertViolations(Set<String> violations) {
         final String msg = String.join(",", violations);
         assertTrue(msg, violations.contains("Field required"));
         assertTrue(msg, violations.contains(
@@ -0,0 +1,27 @@
+package com.github.poi.xly.accessor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.github.poi.xly.annotation.XLYSheet;
+import com.github.poi.xly.test.TestBananas;
+import com.github.poi.xly.test.TestWorkbook;
+
+public class CompiledSheetAccessorTest {
+
+    @Test
+    public void testAccessor() throws ReflectiveOperationException {
+        final XLYSheet xlySheet = TestWorkbook.class.getDeclaredField("bananas").getAnnotation(XLYSheet.class);
+        final SheetAccessor sheetAccessor = new CompiledSheetAccessor(xlySheet);
+        final Object bean = sheetAccessor.newInstance();
+        assertTrue(bean instanceof TestBananas);
+        // columns: agencies, creationDate, quantity, revenue, email...
+        sheetAccessor.set(bean, 0, "FR");
+        sheetAccessor.set(bean, 3, 2d);
+        assertEquals("FR", ((TestBananas) bean).getAgencies());
+        assertEquals("FR", sheetAccessor.get(bean, 0));
+        assertEquals(2d, sheetAccessor.get(bean, 3));
+    }
+}
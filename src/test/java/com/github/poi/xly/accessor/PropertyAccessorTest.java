@@ -0,0 +1,91 @@
+package com.github.poi.xly.accessor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.junit.Test;
+
+import com.github.poi.xly.test.TestBananas;
+
+public class PropertyAccessorTest {
+
+    @Test
+    public void testGetSet() throws ReflectiveOperationException {
+        final TestBananas bananas = new TestBananas();
+        final PropertyAccessor accessor = new PropertyAccessor(TestBananas.class, "quantity");
+        assertNull(accessor.get(bananas));
+        accessor.set(bananas, 12);
+        assertEquals(Integer.valueOf(12), bananas.getQuantity());
+        assertEquals(12, accessor.get(bananas));
+        assertEquals("quantity", accessor.getName());
+    }
+
+    @Test
+    public void testSet_primitive() throws ReflectiveOperationException {
+        final PrimitiveBean bean = new PrimitiveBean();
+        final PropertyAccessor accessor = new PropertyAccessor(PrimitiveBean.class, "count");
+        accessor.set(bean, 3);
+        assertEquals(3, bean.getCount());
+        assertEquals(3, accessor.get(bean));
+    }
+
+    @Test(expected = NoSuchMethodException.class)
+    public void testGet_unknownProperty() throws ReflectiveOperationException {
+        new PropertyAccessor(TestBananas.class, "unknown").get(new TestBananas());
+    }
+
+    @Test(expected = NoSuchMethodException.class)
+    public void testSet_readOnlyProperty() throws ReflectiveOperationException {
+        new PropertyAccessor(PrimitiveBean.class, "readOnly").set(new PrimitiveBean(), "value");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSet_typeMismatch() throws ReflectiveOperationException {
+        new PropertyAccessor(TestBananas.class, "quantity").set(new TestBananas(), "not an integer");
+    }
+
+    @Test(expected = InvocationTargetException.class)
+    public void testGet_getterException() throws ReflectiveOperationException {
+        new PropertyAccessor(PrimitiveBean.class, "failing").get(new PrimitiveBean());
+    }
+
+    /**
+     * Nested properties are delegated to PropertyUtils.
+     */
+    @Test
+    public void testGetSet_nested() throws ReflectiveOperationException {
+        final PrimitiveBean bean = new PrimitiveBean();
+        final PropertyAccessor accessor = new PropertyAccessor(PrimitiveBean.class, "bananas.email");
+        accessor.set(bean, "email@corp.com");
+        assertEquals("email@corp.com", bean.getBananas().getEmail());
+        assertEquals("email@corp.com", accessor.get(bean));
+    }
+
+    public static class PrimitiveBean {
+        private final TestBananas bananas = new TestBananas();
+
+        private int count;
+
+        public TestBananas getBananas() {
+            return bananas;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public String getFailing() {
+            throw new IllegalStateException("failing getter");
+        }
+
+        public String getReadOnly() {
+            return "readOnly";
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+}
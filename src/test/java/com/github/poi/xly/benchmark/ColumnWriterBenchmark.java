@@ -0,0 +1,132 @@
+package com.github.poi.xly.benchmark;
+
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.xssf.streaming.SXSSFRow;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.poi.xly.ColumnWriter;
+import com.github.poi.xly.XLYFormatter;
+import com.github.poi.xly.accessor.CompiledSheetAccessor;
+import com.github.poi.xly.annotation.XLYColumn;
+import com.github.poi.xly.annotation.XLYSheet;
+import com.github.poi.xly.test.TestBananas;
+import com.github.poi.xly.test.TestWorkbook;
+import com.github.poi.xly.test.XLYFactory;
+
+/**
+ * Per row cost of writing all the columns of the Bananas sheet into SXSSF
+ * cells with the previous XLYFormatter#formatCell code (field type checks +
+ * string round-trips for each cell) vs {@link ColumnWriter} resolved once per
+ * column.<br/>
+ * Run with:
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main ColumnWriterBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnWriterBenchmark {
+
+    private Cell[] cells;
+
+    private ColumnWriter[] columnWriters;
+
+    private Field[] fields;
+
+    private SXSSFWorkbook workbook;
+
+    private XLYFormatter xlyFormatter;
+
+    private Object[] values;
+
+    @Setup(Level.Trial)
+    public void setup() throws ReflectiveOperationException {
+        final XLYSheet xlySheet = TestWorkbook.class.getDeclaredField("bananas").getAnnotation(XLYSheet.class);
+        final XLYColumn[] xlyColumns = xlySheet.columns();
+        workbook = new SXSSFWorkbook();
+        xlyFormatter = new XLYFormatter(workbook);
+        final SXSSFRow row = workbook.createSheet().createRow(1);
+        final CompiledSheetAccessor sheetAccessor = new CompiledSheetAccessor(xlySheet);
+        final TestBananas bananas = XLYFactory.getBananas("FR", "AL", "email1@corp1.com");
+        cells = new Cell[xlyColumns.length];
+        columnWriters = new ColumnWriter[xlyColumns.length];
+        fields = new Field[xlyColumns.length];
+        values = new Object[xlyColumns.length];
+        for (int column = 0; column < xlyColumns.length; column++) {
+            cells[column] = row.createCell(column);
+            fields[column] = TestBananas.class.getDeclaredField(xlyColumns[column].field());
+            columnWriters[column] = xlyFormatter.getColumnWriter(fields[column], xlyColumns[column]);
+            values[column] = sheetAccessor.get(bananas, column);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        workbook.dispose();
+    }
+
+    /**
+     * XLYFormatter#formatCell before the column writers (styles excluded).
+     */
+    private void legacyFormatCell(Field field, Cell cell, Object value) {
+        if (field.getType().isAssignableFrom(Boolean.class)) {
+            cell.setCellValue(value.toString());
+            cell.setCellType(CellType.BOOLEAN);
+        } else if (field.getType().isAssignableFrom(Double.class) || field.getType().isAssignableFrom(Integer.class)
+                || field.getType().isAssignableFrom(Long.class)) {
+            cell.setCellValue(Double.valueOf(value.toString()));
+            cell.setCellType(CellType.NUMERIC);
+        } else if (field.getType().isAssignableFrom(Date.class)
+                || field.getType().isAssignableFrom(LocalDate.class)) {
+            if (field.getType().isAssignableFrom(Date.class)) {
+                cell.setCellValue((Date) value);
+            } else {
+                cell.setCellValue(value.toString());
+            }
+        } else {
+            cell.setCellValue(value.toString());
+            cell.setCellType(CellType.STRING);
+        }
+        cell.setCellStyle(xlyFormatter.getDefaultCellStyle());
+    }
+
+    @Benchmark
+    public Cell[] columnWriter() {
+        for (int column = 0; column < cells.length; column++) {
+            columnWriters[column].write(cells[column], values[column]);
+        }
+        return cells;
+    }
+
+    @Benchmark
+    public Cell[] formatCell() {
+        for (int column = 0; column < cells.length; column++) {
+            legacyFormatCell(fields[column], cells[column], values[column]);
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,87 @@
+package com.github.poi.xly.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.poi.xly.validation.ExplicitListConstraint;
+
+/**
+ * Per cell cost of {@link ExplicitListConstraint#exists(String)} with the
+ * indexed list vs a list scanned with a custom predicate (previous
+ * behaviour).<br/>
+ * Run with:
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main ExplicitListConstraintBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExplicitListConstraintBenchmark {
+
+    public static class IndexedConstraint extends ExplicitListConstraint {
+    }
+
+    public static class ScannedConstraint extends ExplicitListConstraint {
+        @Override
+        public Predicate<? super String> getPredicate(String cellValue) {
+            return p -> p.equals(cellValue);
+        }
+    }
+
+    private ExplicitListConstraint indexedConstraint;
+
+    private int next;
+
+    private ExplicitListConstraint scannedConstraint;
+
+    @Param({ "50000" })
+    private int size;
+
+    private String[] values;
+
+    @Setup
+    public void setup() {
+        final List<String> listOfValues = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            listOfValues.add("AGENCY-" + i);
+        }
+        indexedConstraint = new IndexedConstraint();
+        indexedConstraint.setListOfValues(listOfValues);
+        scannedConstraint = new ScannedConstraint();
+        scannedConstraint.setListOfValues(listOfValues);
+        values = new String[1024];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = "AGENCY-" + (i * 7919 % (size + size / 10)); // ~10% missing
+        }
+    }
+
+    @Benchmark
+    public boolean existsIndexed() {
+        return indexedConstraint.exists(values[next++ & 1023]);
+    }
+
+    @Benchmark
+    public boolean existsScanned() {
+        return scannedConstraint.exists(values[next++ & 1023]);
+    }
+}
@@ -0,0 +1,116 @@
+package com.github.poi.xly.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.beanutils.PropertyUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.poi.xly.accessor.CompiledSheetAccessor;
+import com.github.poi.xly.accessor.SheetAccessor;
+import com.github.poi.xly.annotation.XLYColumn;
+import com.github.poi.xly.annotation.XLYSheet;
+import com.github.poi.xly.schema.WorkbookSchema;
+import com.github.poi.xly.test.TestBananas;
+import com.github.poi.xly.test.TestWorkbook;
+import com.github.poi.xly.test.XLYFactory;
+
+/**
+ * Per row cost of reading/writing all the columns of the Bananas sheet with
+ * PropertyUtils (previous export/import code) vs {@link SheetAccessor}
+ * (MethodHandles, or code generated by the XLYMapperProcessor).<br/>
+ * Run with:
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main PropertyAccessBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyAccessBenchmark {
+
+    private TestBananas bananas;
+
+    private SheetAccessor generatedAccessor;
+
+    private SheetAccessor sheetAccessor;
+
+    private XLYColumn[] xlyColumns;
+
+    private Object[] values;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        final XLYSheet xlySheet = TestWorkbook.class.getDeclaredField("bananas").getAnnotation(XLYSheet.class);
+        xlyColumns = xlySheet.columns();
+        sheetAccessor = new CompiledSheetAccessor(xlySheet);
+        generatedAccessor = WorkbookSchema.of(TestWorkbook.class).getSheet(xlySheet).getSheetAccessor();
+        bananas = XLYFactory.getBananas("FR", "AL", "email1@corp1.com");
+        values = new Object[xlyColumns.length];
+        for (int column = 0; column < xlyColumns.length; column++) {
+            values[column] = sheetAccessor.get(bananas, column);
+        }
+    }
+
+    @Benchmark
+    public void getGenerated(Blackhole blackhole) throws ReflectiveOperationException {
+        for (int column = 0; column < xlyColumns.length; column++) {
+            blackhole.consume(generatedAccessor.get(bananas, column));
+        }
+    }
+
+    @Benchmark
+    public void getPropertyUtils(Blackhole blackhole) throws ReflectiveOperationException {
+        for (XLYColumn xlyColumn : xlyColumns) {
+            blackhole.consume(PropertyUtils.getProperty(bananas, xlyColumn.field()));
+        }
+    }
+
+    @Benchmark
+    public void getSheetAccessor(Blackhole blackhole) throws ReflectiveOperationException {
+        for (int column = 0; column < xlyColumns.length; column++) {
+            blackhole.consume(sheetAccessor.get(bananas, column));
+        }
+    }
+
+    @Benchmark
+    public Object setGenerated() throws ReflectiveOperationException {
+        final Object bean = generatedAccessor.newInstance();
+        for (int column = 0; column < xlyColumns.length; column++) {
+            generatedAccessor.set(bean, column, values[column]);
+        }
+        return bean;
+    }
+
+    @Benchmark
+    public Object setPropertyUtils() throws ReflectiveOperationException {
+        final TestBananas bean = TestBananas.class.newInstance();
+        for (int column = 0; column < xlyColumns.length; column++) {
+            PropertyUtils.setProperty(bean, xlyColumns[column].field(), values[column]);
+        }
+        return bean;
+    }
+
+    @Benchmark
+    public Object setSheetAccessor() throws ReflectiveOperationException {
+        final Object bean = sheetAccessor.newInstance();
+        for (int column = 0; column < xlyColumns.length; column++) {
+            sheetAccessor.set(bean, column, values[column]);
+        }
+        return bean;
+    }
+}
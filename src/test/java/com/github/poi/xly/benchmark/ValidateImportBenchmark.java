@@ -0,0 +1,132 @@
+package com.github.poi.xly.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.poi.xly.XLYExporter;
+import com.github.poi.xly.XLYImportResult;
+import com.github.poi.xly.XLYImporter;
+import com.github.poi.xly.XLYStreamingImporter;
+import com.github.poi.xly.XLYStreamingValidator;
+import com.github.poi.xly.XLYValidatingImporter;
+import com.github.poi.xly.XLYValidator;
+import com.github.poi.xly.test.TestBananas;
+import com.github.poi.xly.test.TestWorkbook;
+import com.github.poi.xly.test.XLYFactory;
+import com.github.poi.xly.validation.DefaultConstraintLocator;
+
+/**
+ * Validate then import a valid upload: XLYValidator + XLYImporter (DOM, file
+ * parsed twice), their streaming versions, and
+ * {@link XLYValidatingImporter} (file unzipped once, sheets parsed once).
+ * The validation alone is also measured with the cells validated in the
+ * calling thread or in parallel.<br/>
+ * Run with:
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main ValidateImportBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidateImportBenchmark {
+
+    private byte[] file;
+
+    @Param({ "5000" })
+    private int rows;
+
+    private XLYImporter<TestWorkbook> xlyImporter;
+
+    private XLYValidator xlyParallelValidator;
+
+    private XLYStreamingImporter<TestWorkbook> xlyStreamingImporter;
+
+    private XLYValidator xlyStreamingValidator;
+
+    private XLYValidatingImporter<TestWorkbook> xlyValidatingImporter;
+
+    private XLYValidator xlyValidator;
+
+    @Setup
+    public void setup() {
+        XLYFactory.setup();
+        final TestWorkbook workbook = XLYFactory.getWorkbook();
+        final List<TestBananas> bananas = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            bananas.add(XLYFactory.getBananas("FR", "AL", "email" + i + "@corp1.com"));
+        }
+        workbook.setBananas(bananas);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new XLYExporter(TestWorkbook.class).export(workbook, outputStream);
+        file = outputStream.toByteArray();
+
+        final DefaultConstraintLocator constraintLocator = new DefaultConstraintLocator();
+        xlyValidator = new XLYValidator(constraintLocator, TestWorkbook.class);
+        xlyParallelValidator = new XLYValidator(constraintLocator, TestWorkbook.class);
+        xlyParallelValidator.setForkJoinPool(ForkJoinPool.commonPool());
+        xlyImporter = new XLYImporter<>(TestWorkbook.class);
+        xlyStreamingValidator = new XLYStreamingValidator(constraintLocator, TestWorkbook.class);
+        xlyStreamingImporter = new XLYStreamingImporter<>(TestWorkbook.class);
+        xlyValidatingImporter = new XLYValidatingImporter<>(constraintLocator, TestWorkbook.class);
+    }
+
+    @Benchmark
+    public Set<String> validate() {
+        return xlyValidator.validate(new ByteArrayInputStream(file), new ByteArrayOutputStream());
+    }
+
+    @Benchmark
+    public Set<String> validateParallel() {
+        return xlyParallelValidator.validate(new ByteArrayInputStream(file), new ByteArrayOutputStream());
+    }
+
+    @Benchmark
+    public TestWorkbook validateThenSave() {
+        return validateThenSave(xlyValidator, xlyImporter);
+    }
+
+    private TestWorkbook validateThenSave(XLYValidator validator, XLYImporter<TestWorkbook> importer) {
+        if (!validator.validate(new ByteArrayInputStream(file), new ByteArrayOutputStream()).isEmpty()) {
+            throw new IllegalStateException("invalid file");
+        }
+        return importer.save(new ByteArrayInputStream(file));
+    }
+
+    @Benchmark
+    public TestWorkbook validateThenSaveStreaming() {
+        return validateThenSave(xlyStreamingValidator, xlyStreamingImporter);
+    }
+
+    @Benchmark
+    public TestWorkbook validateAndSave() {
+        final XLYImportResult<TestWorkbook> result = xlyValidatingImporter
+                .validateAndSave(new ByteArrayInputStream(file), new ByteArrayOutputStream());
+        if (!result.isValid()) {
+            throw new IllegalStateException("invalid file");
+        }
+        return result.getWorkbook();
+    }
+}
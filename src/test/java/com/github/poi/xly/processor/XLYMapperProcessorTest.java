@@ -0,0 +1,110 @@
+package com.github.poi.xly.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.poi.xly.accessor.CompiledSheetAccessor;
+import com.github.poi.xly.accessor.SheetAccessor;
+import com.github.poi.xly.accessor.WorkbookMapper;
+import com.github.poi.xly.annotation.XLYColumn;
+import com.github.poi.xly.annotation.XLYSheet;
+import com.github.poi.xly.annotation.XLYWorkbook;
+import com.github.poi.xly.schema.SheetSchema;
+import com.github.poi.xly.schema.WorkbookSchema;
+import com.github.poi.xly.test.TestBananas;
+import com.github.poi.xly.test.TestWorkbook;
+
+public class XLYMapperProcessorTest {
+
+    /**
+     * Not public: can't be used by the generated code.
+     */
+    static class HiddenBean {
+
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    @XLYWorkbook
+    public static class FallbackWorkbook {
+
+        @XLYSheet(name = "Hidden", type = HiddenBean.class, columns = { @XLYColumn(field = "name", headerTitle = "Name") })
+        private List<HiddenBean> hidden;
+
+        @XLYSheet(name = "Nested", type = TestWorkbook.class, columns = { @XLYColumn(field = "bananas.empty", headerTitle = "Empty") })
+        private List<TestWorkbook> nested;
+
+        @XLYSheet(name = "Bananas", type = TestBananas.class, columns = { @XLYColumn(field = "email", headerTitle = "Email") })
+        private List<TestBananas> bananas;
+    }
+
+    @Test
+    public void testGeneratedMapper() throws Exception {
+        final Class<?> mapperClass = Class.forName(WorkbookMapper.getMapperClassName(TestWorkbook.class));
+        final WorkbookMapper workbookMapper = (WorkbookMapper) mapperClass.newInstance();
+        assertEquals("com.github.poi.xly.test.TestWorkbook_XLYMapper", mapperClass.getName());
+        assertNull(workbookMapper.getSheetAccessor("unknown"));
+
+        for (SheetSchema sheetSchema : WorkbookSchema.of(TestWorkbook.class).getSheets()) {
+            assertEquals(mapperClass, sheetSchema.getSheetAccessor().getClass().getEnclosingClass());
+        }
+    }
+
+    @Test
+    public void testGeneratedAccessor() throws Exception {
+        final SheetSchema sheetSchema = WorkbookSchema.of(TestWorkbook.class).getSheets().get(0);
+        final SheetAccessor generated = sheetSchema.getSheetAccessor();
+        final SheetAccessor reflective = new CompiledSheetAccessor(sheetSchema.getXlySheet());
+
+        final Object bean = generated.newInstance();
+        assertTrue(bean instanceof TestBananas);
+        final Date now = new Date();
+        generated.set(bean, 1, now);
+        generated.set(bean, 2, 12);
+        reflective.set(bean, 4, "test@xly.com");
+        for (int column = 0; column < sheetSchema.getColumns().size(); column++) {
+            assertEquals(reflective.get(bean, column), generated.get(bean, column));
+        }
+        assertEquals(now, generated.get(bean, 1));
+        assertEquals(12, generated.get(bean, 2));
+        assertEquals("test@xly.com", generated.get(bean, 4));
+
+        generated.set(bean, 2, null);
+        assertNull(generated.get(bean, 2));
+    }
+
+    @Test
+    public void testGeneratedAccessor_typeMismatch() throws Exception {
+        final SheetAccessor generated = WorkbookSchema.of(TestWorkbook.class).getSheets().get(0).getSheetAccessor();
+        try {
+            generated.set(new TestBananas(), 2, "12");
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("argument type mismatch: can't set java.lang.String to property 'quantity' of class '"
+                    + TestBananas.class + "'", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testFallback() throws Exception {
+        final List<SheetSchema> sheets = WorkbookSchema.of(FallbackWorkbook.class).getSheets();
+        assertEquals(CompiledSheetAccessor.class, sheets.get(0).getSheetAccessor().getClass());
+        assertEquals(CompiledSheetAccessor.class, sheets.get(1).getSheetAccessor().getClass());
+        assertEquals(WorkbookMapper.getMapperClassName(FallbackWorkbook.class),
+                sheets.get(2).getSheetAccessor().getClass().getEnclosingClass().getName());
+    }
+}
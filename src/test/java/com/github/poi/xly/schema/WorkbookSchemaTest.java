@@ -0,0 +1,136 @@
+package com.github.poi.xly.schema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.poi.xly.annotation.XLYColumn;
+import com.github.poi.xly.annotation.XLYSheet;
+import com.github.poi.xly.annotation.XLYWorkbook;
+import com.github.poi.xly.test.TestBananas;
+import com.github.poi.xly.test.TestWorkbook;
+
+public class WorkbookSchemaTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOf_null() {
+        WorkbookSchema.of(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOf_notAnnotated() {
+        WorkbookSchema.of(String.class);
+    }
+
+    @Test
+    public void testOf_cached() {
+        assertSame(WorkbookSchema.of(TestWorkbook.class), WorkbookSchema.of(TestWorkbook.class));
+    }
+
+    @Test
+    public void testOf() {
+        final WorkbookSchema workbookSchema = WorkbookSchema.of(TestWorkbook.class);
+        assertEquals(TestWorkbook.class, workbookSchema.getWorkbookClass());
+        assertEquals(2, workbookSchema.getSheets().size());
+        final SheetSchema bananas = workbookSchema.getSheets().get(0);
+        assertEquals("bananas", bananas.getField().getName());
+        assertEquals(TestBananas.class, bananas.getType());
+        assertSame(bananas, workbookSchema.getSheet(bananas.getXlySheet()));
+        final ColumnSchema creationDate = bananas.getColumn(1);
+        assertEquals(1, creationDate.getIndex());
+        assertEquals(Date.class, creationDate.getType());
+        assertNull(creationDate.getPattern());
+        final ColumnSchema email = bananas.getColumn(4);
+        assertNotNull(email.getPattern());
+        assertTrue(email.getPattern().matcher("EMAIL@CORP.COM").find());
+    }
+
+    /**
+     * Sheets of the super class come first, bean fields can be inherited too.
+     */
+    @Test
+    public void testOf_inheritance() throws ReflectiveOperationException {
+        final WorkbookSchema workbookSchema = WorkbookSchema.of(ChildWorkbook.class);
+        final List<SheetSchema> sheets = workbookSchema.getSheets();
+        assertEquals(2, sheets.size());
+        assertEquals("Parent", sheets.get(0).getXlySheet().name());
+        assertEquals("Child", sheets.get(1).getXlySheet().name());
+        final ColumnSchema inherited = sheets.get(1).getColumn(0);
+        assertEquals(String.class, inherited.getType());
+        assertEquals(ParentBean.class, inherited.getField().getDeclaringClass());
+
+        final ChildWorkbook workbook = new ChildWorkbook();
+        sheets.get(0).getPropertyAccessor().set(workbook, Collections.emptyList());
+        assertNotNull(workbook.getParents());
+        final ChildBean bean = (ChildBean) sheets.get(1).getSheetAccessor().newInstance();
+        sheets.get(1).getSheetAccessor().set(bean, 0, "inherited");
+        assertEquals("inherited", bean.getName());
+    }
+
+    @Test
+    public void testFindField_missing() {
+        assertNull(WorkbookSchema.findField(ChildBean.class, "missing"));
+    }
+
+    public static class ParentBean {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class ChildBean extends ParentBean {
+        private Integer age;
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public void setAge(Integer age) {
+            this.age = age;
+        }
+    }
+
+    @XLYWorkbook
+    public static class ParentWorkbook {
+        @XLYSheet(name = "Parent", type = ParentBean.class, columns = {
+                @XLYColumn(field = "name", headerTitle = "Name") })
+        private List<ParentBean> parents;
+
+        public List<ParentBean> getParents() {
+            return parents;
+        }
+
+        public void setParents(List<ParentBean> parents) {
+            this.parents = parents;
+        }
+    }
+
+    @XLYWorkbook
+    public static class ChildWorkbook extends ParentWorkbook {
+        @XLYSheet(name = "Child", type = ChildBean.class, columns = {
+                @XLYColumn(field = "name", headerTitle = "Name"), @XLYColumn(field = "age", headerTitle = "Age") })
+        private List<ChildBean> children;
+
+        public List<ChildBean> getChildren() {
+            return children;
+        }
+
+        public void setChildren(List<ChildBean> children) {
+            this.children = children;
+        }
+    }
+}
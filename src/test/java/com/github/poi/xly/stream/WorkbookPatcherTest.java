@@ -0,0 +1,216 @@
+package com.github.poi.xly.stream;
+
+import static com.github.poi.xly.test.XLYAssert.assertCellsWithErrorStyle;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.poi.xly.XLYErrorSink;
+import com.github.poi.xly.XLYFormatter;
+
+public class WorkbookPatcherTest {
+
+    /**
+     * @return entry name to [compressed size, content]
+     */
+    private static Map<String, Object[]> readEntries(byte[] file) throws IOException {
+        final Map<String, Object[]> entries = new HashMap<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(file))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                final ByteArrayOutputStream content = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[4096];
+                int read;
+                while ((read = zipInputStream.read(buffer)) > 0) {
+                    content.write(buffer, 0, read);
+                }
+                entries.put(entry.getName(), new Object[] { entry.getCompressedSize(), content.toByteArray() });
+            }
+        }
+        return entries;
+    }
+
+    private byte[] file;
+
+    private WorkbookReader workbookReader;
+
+    @Before
+    public void createReader() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            final XSSFSheet sheet = workbook.createSheet("First");
+            final Row headers = sheet.createRow(0);
+            headers.createCell(0).setCellValue("Code");
+            headers.createCell(1).setCellValue("Label");
+            headers.createCell(2).setCellValue("Count");
+            final Row first = sheet.createRow(1);
+            first.createCell(0).setCellValue("A");
+            first.createCell(1).setCellValue("first");
+            // cell 2 is missing on purpose
+            final Row second = sheet.createRow(2);
+            second.createCell(0).setCellValue("B");
+            second.createCell(2).setCellValue(3);
+            second.createCell(3).setCellValue("previous");
+            second.createCell(5).setCellValue("after");
+            final XSSFSheet untouched = workbook.createSheet("Untouched");
+            untouched.createRow(0).createCell(0).setCellValue("untouched");
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            workbook.write(outputStream);
+            file = outputStream.toByteArray();
+        }
+        workbookReader = new WorkbookReader(new ByteArrayInputStream(file));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        workbookReader.close();
+    }
+
+    private void addErrors(String sheetName, WorkbookPatcher workbookPatcher) {
+        workbookPatcher.addCellError(sheetName, 1, 0, "invalid code");
+        workbookPatcher.addCellError(sheetName, 1, 2, "count required");
+        workbookPatcher.addRowError(sheetName, 1, "row error");
+        workbookPatcher.addCellError(sheetName, 2, 1, "label required");
+        workbookPatcher.addRowError(sheetName, 2, "another row error");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWorkbookPatcher_nullReader() {
+        new WorkbookPatcher(null);
+    }
+
+    /**
+     * Same cells and messages as XLYErrorSink on the loaded workbook.
+     */
+    @Test
+    public void testWrite() throws IOException {
+        final WorkbookPatcher workbookPatcher = new WorkbookPatcher(workbookReader);
+        addErrors("first", workbookPatcher);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertTrue(workbookPatcher.write(outputStream));
+        try (XSSFWorkbook patched = new XSSFWorkbook(new ByteArrayInputStream(outputStream.toByteArray()));
+                XSSFWorkbook expected = new XSSFWorkbook(new ByteArrayInputStream(file))) {
+            final XSSFSheet expectedSheet = expected.getSheet("First");
+            final XLYErrorSink errorSink = new XLYErrorSink(new XLYFormatter(expected));
+            errorSink.addError(expectedSheet.getRow(1).getCell(0), "invalid code");
+            errorSink.addError(expectedSheet.getRow(1).createCell(2), "count required");
+            errorSink.addError(expectedSheet.getRow(1), "row error");
+            errorSink.addError(expectedSheet.getRow(2).createCell(1), "label required");
+            errorSink.addError(expectedSheet.getRow(2), "another row error");
+            errorSink.flush();
+            expectedSheet.setTabColor(XLYFormatter.RED);
+            final DataFormatter dataFormatter = new DataFormatter();
+            final XSSFSheet patchedSheet = patched.getSheet("First");
+            for (int rownum = 0; rownum <= 2; rownum++) {
+                final Row expectedRow = expectedSheet.getRow(rownum);
+                final Row patchedRow = patchedSheet.getRow(rownum);
+                assertEquals(expectedRow.getLastCellNum(), patchedRow.getLastCellNum());
+                for (int column = 0; column < expectedRow.getLastCellNum(); column++) {
+                    assertEquals(dataFormatter.formatCellValue(expectedRow.getCell(column)),
+                            dataFormatter.formatCellValue(patchedRow.getCell(column)));
+                }
+            }
+            assertEquals("invalid code\ncount required\nrow error",
+                    patchedSheet.getRow(1).getCell(3).getStringCellValue());
+            assertEquals("previous\nlabel required\nanother row error",
+                    patchedSheet.getRow(2).getCell(3).getStringCellValue());
+            assertCellsWithErrorStyle(patched, 0, "A2", "C2", "D2", "B3");
+            // the existing comment cell keeps its style
+            assertEquals(expectedSheet.getRow(2).getCell(3).getCellStyle().getIndex(),
+                    patchedSheet.getRow(2).getCell(3).getCellStyle().getIndex());
+            assertEquals(XLYFormatter.RED, patchedSheet.getTabColor());
+            assertNull(patched.getSheet("Untouched").getTabColor());
+            assertEquals("untouched", patched.getSheet("Untouched").getRow(0).getCell(0).getStringCellValue());
+        }
+    }
+
+    /**
+     * Without header row the messages are dropped (and logged) like with
+     * XLYFormatter, the cells in error are still styled.
+     */
+    @Test
+    public void testWrite_noHeaderRow() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            final Row row = workbook.createSheet("First").createRow(1);
+            row.createCell(0).setCellValue("A");
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            workbook.write(outputStream);
+            file = outputStream.toByteArray();
+        }
+        workbookReader.close();
+        workbookReader = new WorkbookReader(new ByteArrayInputStream(file));
+        final WorkbookPatcher workbookPatcher = new WorkbookPatcher(workbookReader);
+        workbookPatcher.addCellError("First", 1, 0, "invalid code");
+        workbookPatcher.addRowError("First", 1, "row error");
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertTrue(workbookPatcher.write(outputStream));
+        try (XSSFWorkbook patched = new XSSFWorkbook(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            final Row patchedRow = patched.getSheet("First").getRow(1);
+            assertEquals(1, patchedRow.getLastCellNum());
+            assertEquals("A", patchedRow.getCell(0).getStringCellValue());
+            assertCellsWithErrorStyle(patched, 0, "A2");
+        }
+    }
+
+    /**
+     * The entries other than the sheet in error and the styles are copied
+     * without being recompressed.
+     */
+    @Test
+    public void testWrite_rawCopy() throws IOException {
+        final WorkbookPatcher workbookPatcher = new WorkbookPatcher(workbookReader);
+        addErrors("First", workbookPatcher);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertTrue(workbookPatcher.write(outputStream));
+        final Map<String, Object[]> original = readEntries(file);
+        final Map<String, Object[]> patched = readEntries(outputStream.toByteArray());
+        assertEquals(original.keySet(), patched.keySet());
+        for (Map.Entry<String, Object[]> entry : original.entrySet()) {
+            final Object[] patchedEntry = patched.get(entry.getKey());
+            if ("xl/worksheets/sheet1.xml".equals(entry.getKey()) || "xl/styles.xml".equals(entry.getKey())) {
+                assertFalse(entry.getKey(), Arrays.equals((byte[]) entry.getValue()[1], (byte[]) patchedEntry[1]));
+            } else {
+                assertEquals(entry.getKey(), entry.getValue()[0], patchedEntry[0]);
+                assertArrayEquals(entry.getKey(), (byte[]) entry.getValue()[1], (byte[]) patchedEntry[1]);
+            }
+        }
+    }
+
+    /**
+     * Nothing is written if an entry to replace doesn't exist.
+     */
+    @Test
+    public void testWrite_missingEntry() throws IOException {
+        final Path zipFile = Files.createTempFile("xly", ".zip");
+        try {
+            Files.write(zipFile, file);
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            assertFalse(ZipPatchWriter.write(zipFile, Collections.singletonMap("missing.xml", out -> {
+            }), outputStream));
+            assertEquals(0, outputStream.size());
+        } finally {
+            Files.delete(zipFile);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.github.poi.xly.stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WorkbookReaderTest {
+
+    private final Date date = new Date(1528408800000L);
+
+    private WorkbookReader workbookReader;
+
+    @Before
+    public void createReader() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            final XSSFSheet sheet = workbook.createSheet("First");
+            final Row row = sheet.createRow(0);
+            row.createCell(0).setCellValue("a string");
+            row.createCell(1).setCellValue(12.5d);
+            row.createCell(2).setCellValue(true);
+            final CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("dd/MM/yyyy"));
+            row.createCell(3).setCellValue(date);
+            row.getCell(3).setCellStyle(dateStyle);
+            row.createCell(5).setCellFormula("B1*2");
+            row.createCell(6); // blank
+            // row 1 is missing on purpose
+            sheet.createRow(2).createCell(1).setCellValue("third row");
+            workbook.createSheet("Second");
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            workbook.write(outputStream);
+            workbookReader = new WorkbookReader(new ByteArrayInputStream(outputStream.toByteArray()));
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        workbookReader.close();
+    }
+
+    @Test
+    public void testGetSheetNames() throws IOException {
+        assertEquals(Arrays.asList("First", "Second"), workbookReader.getSheetNames());
+        assertTrue(workbookReader.hasSheet("first"));
+        assertFalse(workbookReader.hasSheet("Third"));
+    }
+
+    @Test
+    public void testReadSheet_missingSheet() throws IOException {
+        assertFalse(workbookReader.readSheet("Third", row -> {
+        }));
+    }
+
+    @Test
+    public void testReadSheet() throws IOException {
+        final List<String> rows = new ArrayList<>();
+        assertTrue(workbookReader.readSheet("First", row -> {
+            if (row.getRowNum() == 0) {
+                assertFirstRow(row);
+            } else {
+                assertEquals(1, row.getCell(1).getColumnIndex());
+                assertEquals("third row", row.getCell(1).getStringCellValue());
+                assertNull(row.getCell(5)); // cells of the previous row are not visible
+            }
+            rows.add(String.valueOf(row.getRowNum()));
+        }));
+        assertEquals(Arrays.asList("0", "2"), rows);
+    }
+
+    @Test
+    public void testIterateSheet() throws IOException {
+        assertNull(workbookReader.iterateSheet("Third"));
+        final List<String> rows = new ArrayList<>();
+        try (SheetRowIterator iterator = workbookReader.iterateSheet("first")) {
+            assertTrue(iterator.hasNext());
+            final SheetRow first = iterator.next();
+            assertFirstRow(first);
+            rows.add(String.valueOf(first.getRowNum()));
+            while (iterator.hasNext()) {
+                rows.add(String.valueOf(iterator.next().getRowNum()));
+            }
+            assertFalse(iterator.hasNext());
+        }
+        assertEquals(Arrays.asList("0", "2"), rows);
+    }
+
+    /**
+     * The usermodel view of a streamed row has the same formatted values as
+     * the original one.
+     */
+    @Test
+    public void testScratchSheet() throws IOException {
+        final DataFormatter dataFormatter = new DataFormatter();
+        try (ScratchSheet scratchSheet = new ScratchSheet();
+                SheetRowIterator iterator = workbookReader.iterateSheet("First")) {
+            final Row row = scratchSheet.copy(iterator.next());
+            assertEquals(0, row.getRowNum());
+            assertEquals("a string", dataFormatter.formatCellValue(row.getCell(0)));
+            assertEquals("12.5", dataFormatter.formatCellValue(row.getCell(1)));
+            assertEquals("TRUE", dataFormatter.formatCellValue(row.getCell(2)));
+            assertEquals(new SimpleDateFormat("dd/MM/yyyy").format(date),
+                    dataFormatter.formatCellValue(row.getCell(3)));
+            assertNull(row.getCell(4));
+            assertEquals("B1*2", dataFormatter.formatCellValue(row.getCell(5)));
+            assertEquals(CellType.BLANK, row.getCell(6).getCellTypeEnum());
+
+            final Row third = scratchSheet.copy(iterator.next());
+            assertEquals(2, third.getRowNum());
+            assertEquals("third row", third.getCell(1).getStringCellValue());
+            assertNull(third.getCell(0));
+            assertEquals(1, third.getSheet().getPhysicalNumberOfRows());
+        }
+    }
+
+    private void assertFirstRow(SheetRow row) {
+        assertEquals(7, row.getLastCellNum());
+        assertEquals(CellType.STRING, row.getCell(0).getCellTypeEnum());
+        assertEquals("a string", row.getCell(0).getStringCellValue());
+        assertEquals(CellType.NUMERIC, row.getCell(1).getCellTypeEnum());
+        assertEquals(12.5d, row.getCell(1).getNumericCellValue(), 0.01);
+        assertFalse(row.getCell(1).isDateFormatted());
+        assertEquals(CellType.BOOLEAN, row.getCell(2).getCellTypeEnum());
+        assertTrue(row.getCell(2).getBooleanCellValue());
+        assertTrue(row.getCell(3).isDateFormatted());
+        assertEquals("dd/MM/yyyy", row.getCell(3).getDataFormatString());
+        assertEquals(date, row.getCell(3).getDateCellValue());
+        assertNull(row.getCell(4));
+        assertEquals(CellType.FORMULA, row.getCell(5).getCellTypeEnum());
+        assertEquals("B1*2", row.getCell(5).getCellFormula());
+        assertEquals("F1", row.getCell(5).getAddress());
+        assertEquals(CellType.BLANK, row.getCell(6).getCellTypeEnum());
+    }
+}
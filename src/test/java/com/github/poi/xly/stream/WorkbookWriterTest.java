@@ -0,0 +1,122 @@
+package com.github.poi.xly.stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Date;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WorkbookWriterTest {
+
+    private final Date date = new Date(1528408800000L);
+
+    private ByteArrayOutputStream outputStream;
+
+    private XSSFWorkbook stylesWorkbook;
+
+    private WorkbookWriter workbookWriter;
+
+    @Before
+    public void createWriter() {
+        outputStream = new ByteArrayOutputStream();
+        stylesWorkbook = new XSSFWorkbook();
+        workbookWriter = new WorkbookWriter(outputStream, stylesWorkbook.getStylesSource());
+    }
+
+    private XSSFWorkbook toWorkbook() throws IOException {
+        return new XSSFWorkbook(new ByteArrayInputStream(outputStream.toByteArray()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNew_nullStylesTable() {
+        new WorkbookWriter(outputStream, null);
+    }
+
+    @Test
+    public void testWrite() throws IOException {
+        // style created after the sheet has started
+        workbookWriter.startSheet("First", 0, 20 * 256);
+        final CellStyle dateStyle = stylesWorkbook.createCellStyle();
+        dateStyle.setDataFormat(stylesWorkbook.createDataFormat().getFormat("dd/MM/yyyy"));
+        workbookWriter.startRow(0);
+        workbookWriter.writeCell(0, "a <string> & \"quotes\"\u0001", 0);
+        workbookWriter.writeCell(1, 12.5d, 0);
+        workbookWriter.writeCell(2, true, 0);
+        workbookWriter.writeCell(3, date, dateStyle.getIndex());
+        workbookWriter.writeBlankCell(5, 0);
+        workbookWriter.writeCell(6, " padded ", 0);
+        workbookWriter.writeCell(27, 3d, 0);
+        // row 1 is missing on purpose
+        workbookWriter.startRow(2);
+        workbookWriter.writeCell(1, "third row", 0);
+        workbookWriter.startSheet("Second & last");
+        workbookWriter.close();
+
+        try (XSSFWorkbook workbook = toWorkbook()) {
+            assertEquals(2, workbook.getNumberOfSheets());
+            assertEquals("Second & last", workbook.getSheetName(1));
+            final XSSFSheet sheet = workbook.getSheet("First");
+            assertEquals(20 * 256, sheet.getColumnWidth(1));
+            final XSSFRow row = sheet.getRow(0);
+            assertEquals("a <string> & \"quotes\"", row.getCell(0).getStringCellValue());
+            assertEquals(12.5d, row.getCell(1).getNumericCellValue(), 0.01);
+            assertTrue(row.getCell(2).getBooleanCellValue());
+            assertEquals(date, row.getCell(3).getDateCellValue());
+            assertEquals("dd/MM/yyyy", row.getCell(3).getCellStyle().getDataFormatString());
+            assertNull(row.getCell(4));
+            assertEquals(CellType.BLANK, row.getCell(5).getCellTypeEnum());
+            assertEquals(" padded ", row.getCell(6).getStringCellValue());
+            assertEquals(3d, row.getCell(27).getNumericCellValue(), 0.01);
+            assertNull(sheet.getRow(1));
+            assertEquals("third row", sheet.getRow(2).getCell(1).getStringCellValue());
+        }
+    }
+
+    /**
+     * The written file can also be read back by the streaming reader.
+     */
+    @Test
+    public void testWrite_readBack() throws IOException {
+        workbookWriter.startSheet("First");
+        workbookWriter.startRow(0);
+        workbookWriter.writeCell(0, "value", 0);
+        workbookWriter.writeCell(1, 1d, 0);
+        workbookWriter.close();
+        try (WorkbookReader workbookReader = new WorkbookReader(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            assertTrue(workbookReader.readSheet("First", row -> {
+                assertEquals("value", row.getCell(0).getStringCellValue());
+                assertEquals(CellType.NUMERIC, row.getCell(1).getCellTypeEnum());
+            }));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStartSheet_duplicatedName() throws IOException {
+        workbookWriter.startSheet("First");
+        workbookWriter.startSheet("FIRST");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStartRow_notAscending() throws IOException {
+        workbookWriter.startSheet("First");
+        workbookWriter.startRow(1);
+        workbookWriter.startRow(0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWriteCell_noRow() throws IOException {
+        workbookWriter.startSheet("First");
+        workbookWriter.writeCell(0, "value", 0);
+    }
+}
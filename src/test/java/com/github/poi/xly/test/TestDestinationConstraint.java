@@ -0,0 +1,71 @@
+package com.github.poi.xly.test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.github.poi.xly.validation.Constraint;
+import com.github.poi.xly.validation.ConstraintLocator;
+import com.github.poi.xly.validation.DefaultConstraintLocator;
+import com.github.poi.xly.validation.ExistConstraint;
+
+/**
+ * An {@link ExistConstraint} checked by chunks of 2 values, the chunks are
+ * recorded in {@link #CHUNKS}.
+ */
+public class TestDestinationConstraint implements ExistConstraint<String> {
+
+    public static final List<Set<String>> CHUNKS = new ArrayList<>();
+
+    /**
+     * Checks all the values of a sheet in one chunk.
+     */
+    public static class SingleChunk extends TestDestinationConstraint {
+
+        @Override
+        public int getBatchSize() {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * @return a locator giving a {@link SingleChunk} instead of this
+     *         constraint
+     */
+    public static ConstraintLocator getSingleChunkLocator() {
+        return new DefaultConstraintLocator() {
+            @Override
+            public Constraint getConstraint(Class<? extends Constraint> validatorClass) {
+                return TestDestinationConstraint.class.equals(validatorClass) ? new SingleChunk()
+                        : super.getConstraint(validatorClass);
+            }
+        };
+    }
+
+    @Override
+    public boolean exists(String value) {
+        return "FR".equals(value) || "AL".equals(value);
+    }
+
+    @Override
+    public Set<String> existsAll(Set<String> values) {
+        CHUNKS.add(new HashSet<>(values));
+        return ExistConstraint.super.existsAll(values);
+    }
+
+    @Override
+    public int getBatchSize() {
+        return 2;
+    }
+
+    @Override
+    public String format(String value) {
+        return value;
+    }
+
+    @Override
+    public String transform(String cellValue) {
+        return cellValue;
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.poi.xly.test;
+
+import java.util.List;
+
+import com.github.poi.xly.annotation.XLYColumn;
+import com.github.poi.xly.annotation.XLYSheet;
+import com.github.poi.xly.annotation.XLYWorkbook;
+
+/**
+ * The Bananas sheet of {@link TestWorkbook} with only an
+ * {@link TestDestinationConstraint} on the destination column.
+ */
+@XLYWorkbook
+public class TestDestinationWorkbook {
+
+    @XLYSheet(name = "Bananas", type = TestBananas.class, columns = {
+            @XLYColumn(field = "agencies", headerTitle = "Agencies"),
+            @XLYColumn(field = "creationDate", headerTitle = "Creation date"),
+            @XLYColumn(field = "quantity", headerTitle = "Quantity"),
+            @XLYColumn(field = "revenue", headerTitle = "Revenue"),
+            @XLYColumn(field = "email", headerTitle = "Email"),
+            @XLYColumn(field = "origin", headerTitle = "Origin"),
+            @XLYColumn(field = "destination", cellValidator = TestDestinationConstraint.class, headerTitle = "Destination") })
+    private List<TestBananas> bananas;
+
+    public List<TestBananas> getBananas() {
+        return bananas;
+    }
+
+    public void setBananas(List<TestBananas> bananas) {
+        this.bananas = bananas;
+    }
+}
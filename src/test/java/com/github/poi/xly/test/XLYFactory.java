@@ -1,5 +1,7 @@
 package com.github.poi.xly.test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -7,6 +9,8 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
+import com.github.poi.xly.XLYExporter;
+
 //import org.hibernate.ScrollableResults;
 
 public final class XLYFactory {
@@ -64,6 +68,38 @@ public final class XLYFactory {
         return getFile("/xly/bananasKO_duplicatedLines.xlsx");
     }
 
+    /**
+     * @return a generated file with one invalid email per row, then one
+     *         invalid origin
+     */
+    public static InputStream getBananasKO_invalidEmails(int rows) {
+        final List<TestBananas> bananas = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            bananas.add(getBananas("FR", "AL", "INVALID_EMAIL" + i));
+        }
+        bananas.add(getBananas("INVALID_ORIGIN", "AL", "email@corp1.com"));
+        final TestWorkbook workbook = getWorkbook();
+        workbook.setBananas(bananas);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new XLYExporter(TestWorkbook.class).export(workbook, outputStream);
+        return new ByteArrayInputStream(outputStream.toByteArray());
+    }
+
+    /**
+     * @return a generated file with one distinct invalid destination per row
+     */
+    public static InputStream getBananasKO_invalidDestinations(int rows) {
+        final List<TestBananas> bananas = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            bananas.add(getBananas("FR", "INVALID_DESTINATION" + i, "email@corp1.com"));
+        }
+        final TestWorkbook workbook = getWorkbook();
+        workbook.setBananas(bananas);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new XLYExporter(TestWorkbook.class).export(workbook, outputStream);
+        return new ByteArrayInputStream(outputStream.toByteArray());
+    }
+
     public static InputStream getBananasKO_missingSheet() {
         return getFile("/xly/bananasKO_missingSheet.xlsx");
     }
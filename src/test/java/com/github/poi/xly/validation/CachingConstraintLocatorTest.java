@@ -0,0 +1,140 @@
+package com.github.poi.xly.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.poi.xly.XLYStreamingValidator;
+import com.github.poi.xly.XLYValidator;
+import com.github.poi.xly.annotation.XLYConstraintScope;
+import com.github.poi.xly.test.TestOriginConstraint;
+import com.github.poi.xly.test.TestWorkbook;
+import com.github.poi.xly.test.XLYFactory;
+
+public class CachingConstraintLocatorTest {
+
+    @XLYConstraintScope(ConstraintScope.SINGLETON)
+    public static class SingletonConstraint implements Constraint {
+        @Override
+        public String validate(Cell cell) {
+            return null;
+        }
+    }
+
+    @XLYConstraintScope(ConstraintScope.THREAD)
+    public static class ThreadConstraint implements Constraint {
+        @Override
+        public String validate(Cell cell) {
+            return null;
+        }
+    }
+
+    /**
+     * Count the instances created.
+     */
+    private static class CountingConstraintLocator extends DefaultConstraintLocator {
+
+        private final AtomicInteger created = new AtomicInteger();
+
+        @Override
+        public Constraint getConstraint(Class<? extends Constraint> validatorClass) {
+            created.incrementAndGet();
+            return super.getConstraint(validatorClass);
+        }
+
+        @Override
+        public RowConstraint getRowConstraint(Class<? extends RowConstraint> validatorClass) {
+            created.incrementAndGet();
+            return super.getRowConstraint(validatorClass);
+        }
+    }
+
+    private CachingConstraintLocator cachingConstraintLocator;
+
+    private CountingConstraintLocator countingConstraintLocator;
+
+    @Before
+    public void setup() {
+        XLYFactory.setup();
+        countingConstraintLocator = new CountingConstraintLocator();
+        cachingConstraintLocator = new CachingConstraintLocator(countingConstraintLocator);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCachingConstraintLocator_nullLocator() {
+        new CachingConstraintLocator(null);
+    }
+
+    @Test
+    public void testGetScope() {
+        assertEquals(ConstraintScope.SINGLETON, cachingConstraintLocator.getScope(SingletonConstraint.class));
+        assertEquals(ConstraintScope.THREAD, cachingConstraintLocator.getScope(ThreadConstraint.class));
+        assertEquals(ConstraintScope.VALIDATION, cachingConstraintLocator.getScope(TestOriginConstraint.class));
+        assertEquals(ConstraintScope.SINGLETON,
+                new CachingConstraintLocator(countingConstraintLocator, ConstraintScope.SINGLETON)
+                        .getScope(TestOriginConstraint.class));
+    }
+
+    @Test
+    public void testGetConstraint_singleton() {
+        final Constraint constraint = cachingConstraintLocator.getConstraint(SingletonConstraint.class);
+        assertSame(constraint, cachingConstraintLocator.getConstraint(SingletonConstraint.class));
+        assertSame(constraint, cachingConstraintLocator.forValidation().getConstraint(SingletonConstraint.class));
+        assertEquals(1, countingConstraintLocator.created.get());
+        cachingConstraintLocator.clear();
+        assertNotSame(constraint, cachingConstraintLocator.getConstraint(SingletonConstraint.class));
+    }
+
+    @Test
+    public void testGetConstraint_thread() throws Exception {
+        final Constraint constraint = cachingConstraintLocator.getConstraint(ThreadConstraint.class);
+        assertSame(constraint, cachingConstraintLocator.forValidation().getConstraint(ThreadConstraint.class));
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Constraint otherThreadConstraint = executor
+                    .submit(() -> cachingConstraintLocator.getConstraint(ThreadConstraint.class)).get();
+            assertNotSame(constraint, otherThreadConstraint);
+            assertSame(otherThreadConstraint,
+                    executor.submit(() -> cachingConstraintLocator.getConstraint(ThreadConstraint.class)).get());
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(2, countingConstraintLocator.created.get());
+    }
+
+    @Test
+    public void testGetConstraint_validation() {
+        final ConstraintLocator validationLocator = cachingConstraintLocator.forValidation();
+        final Constraint constraint = validationLocator.getConstraint(TestOriginConstraint.class);
+        assertSame(constraint, validationLocator.getConstraint(TestOriginConstraint.class));
+        assertNotSame(constraint, cachingConstraintLocator.forValidation().getConstraint(TestOriginConstraint.class));
+        // outside a validation
+        assertNotSame(cachingConstraintLocator.getConstraint(TestOriginConstraint.class),
+                cachingConstraintLocator.getConstraint(TestOriginConstraint.class));
+    }
+
+    /**
+     * Each constraint of the workbook is created once per validation: the
+     * cell and row constraints of the Bananas sheet.
+     */
+    @Test
+    public void testValidate() {
+        for (XLYValidator xlyValidator : new XLYValidator[] {
+                new XLYValidator(cachingConstraintLocator, TestWorkbook.class),
+                new XLYStreamingValidator(cachingConstraintLocator, TestWorkbook.class) }) {
+            countingConstraintLocator.created.set(0);
+            assertTrue(xlyValidator.validate(XLYFactory.getBananasOK(), new ByteArrayOutputStream()).isEmpty());
+            assertEquals(2, countingConstraintLocator.created.get());
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.github.poi.xly.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.poi.xly.test.WorkbookTest;
+
+public class CachingExistConstraintTest extends WorkbookTest {
+
+    private CountingExistConstraint countingConstraint;
+
+    private CachingExistConstraint<String> cachingConstraint;
+
+    private long now;
+
+    @Before
+    public void createConstraint() {
+        countingConstraint = new CountingExistConstraint();
+        cachingConstraint = new CachingExistConstraint<>(countingConstraint, 2, 10, TimeUnit.SECONDS, () -> now);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCachingExistConstraint_nullConstraint() {
+        new CachingExistConstraint<String>(null, 2, 10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testExists() {
+        assertTrue(cachingConstraint.exists("FR"));
+        assertTrue(cachingConstraint.exists("FR"));
+        assertFalse(cachingConstraint.exists("US"));
+        assertFalse(cachingConstraint.exists("US"));
+        assertEquals(2, countingConstraint.exists.get());
+        assertStatistics(2, 2, 0, 2);
+        assertEquals(0.5, cachingConstraint.getStatistics().getHitRate(), 0);
+    }
+
+    @Test
+    public void testExists_expired() {
+        cachingConstraint.exists("FR");
+        now += TimeUnit.SECONDS.toNanos(9);
+        cachingConstraint.exists("FR");
+        now += TimeUnit.SECONDS.toNanos(1);
+        cachingConstraint.exists("FR");
+        assertEquals(2, countingConstraint.exists.get());
+        assertStatistics(1, 2, 1, 1);
+    }
+
+    @Test
+    public void testExists_leastRecentlyUsedEvicted() {
+        cachingConstraint.exists("FR");
+        cachingConstraint.exists("AL");
+        cachingConstraint.exists("FR");
+        cachingConstraint.exists("US"); // evicts AL
+        cachingConstraint.exists("FR");
+        cachingConstraint.exists("AL");
+        assertEquals(4, countingConstraint.exists.get());
+        assertStatistics(2, 4, 2, 2);
+    }
+
+    /**
+     * Only the values not cached are given to the cached constraint.
+     */
+    @Test
+    public void testExistsAll() {
+        cachingConstraint.exists("US");
+        assertEquals(Collections.singleton("US"),
+                cachingConstraint.existsAll(new HashSet<>(Arrays.asList("FR", "US"))));
+        assertEquals(Collections.singletonList(Collections.singleton("FR")), countingConstraint.existsAll);
+        assertEquals(Collections.singleton("US"),
+                cachingConstraint.existsAll(new HashSet<>(Arrays.asList("FR", "US"))));
+        assertEquals(1, countingConstraint.existsAll.size());
+        assertStatistics(3, 2, 0, 2);
+    }
+
+    /**
+     * A null result of the cached constraint means that no value is missing.
+     */
+    @Test
+    public void testExistsAll_nullResult() {
+        final CachingExistConstraint<String> constraint = new CachingExistConstraint<>(new CountingExistConstraint() {
+            @Override
+            public Set<String> existsAll(Set<String> values) {
+                return null;
+            }
+        }, 2, 10, TimeUnit.SECONDS, () -> now);
+        assertEquals(Collections.emptySet(), constraint.existsAll(new HashSet<>(Arrays.asList("FR", "US"))));
+        assertTrue(constraint.exists("US"));
+    }
+
+    @Test
+    public void testTransform() {
+        assertEquals("FR", cachingConstraint.transform("fr"));
+        assertEquals("FR", cachingConstraint.transform("fr"));
+        assertEquals(1, countingConstraint.transform.get());
+    }
+
+    @Test
+    public void testValidate() {
+        assertEquals("US is not a valid value", cachingConstraint.validate(getCell("us")));
+        assertEquals(null, cachingConstraint.validate(workbook.getSheet("test").getRow(0).createCell(1)));
+    }
+
+    /**
+     * One cache shared by concurrent validations.
+     */
+    @Test
+    public void testExists_concurrent() throws Exception {
+        cachingConstraint = new CachingExistConstraint<>(countingConstraint, 100, 10, TimeUnit.MINUTES);
+        final List<Callable<Boolean>> lookups = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            final String value = i % 2 == 0 ? "FR" : "US" + (i % 10);
+            lookups.add(() -> cachingConstraint.exists(value) == "FR".equals(value));
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (Future<Boolean> lookup : executor.invokeAll(lookups)) {
+                assertTrue(lookup.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        final CachingExistConstraint.Statistics statistics = cachingConstraint.getStatistics();
+        assertEquals(1000, statistics.getHitCount() + statistics.getMissCount());
+        assertEquals(6, statistics.getSize());
+    }
+
+    private void assertStatistics(long hits, long misses, long evictions, int size) {
+        final CachingExistConstraint.Statistics statistics = cachingConstraint.getStatistics();
+        assertEquals(statistics.toString(), hits, statistics.getHitCount());
+        assertEquals(statistics.toString(), misses, statistics.getMissCount());
+        assertEquals(statistics.toString(), evictions, statistics.getEvictionCount());
+        assertEquals(statistics.toString(), size, statistics.getSize());
+    }
+
+    private static class CountingExistConstraint implements ExistConstraint<String> {
+
+        private final AtomicInteger exists = new AtomicInteger();
+
+        private final List<Set<String>> existsAll = new ArrayList<>();
+
+        private final AtomicInteger transform = new AtomicInteger();
+
+        @Override
+        public boolean exists(String value) {
+            exists.incrementAndGet();
+            return "FR".equals(value) || "AL".equals(value);
+        }
+
+        @Override
+        public Set<String> existsAll(Set<String> values) {
+            existsAll.add(new HashSet<>(values));
+            return ExistConstraint.super.existsAll(values);
+        }
+
+        @Override
+        public String format(String value) {
+            return value;
+        }
+
+        @Override
+        public String transform(String cellValue) {
+            transform.incrementAndGet();
+            return cellValue.toUpperCase();
+        }
+    }
+}
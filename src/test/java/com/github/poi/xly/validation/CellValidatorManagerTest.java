@@ -0,0 +1,128 @@
+package com.github.poi.xly.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.DayOfWeek;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.poi.xly.XLYFormatter;
+import com.github.poi.xly.annotation.XLYColumn;
+import com.github.poi.xly.annotation.XLYSheet;
+import com.github.poi.xly.annotation.XLYWorkbook;
+import com.github.poi.xly.schema.ColumnSchema;
+import com.github.poi.xly.schema.SheetSchema;
+import com.github.poi.xly.schema.WorkbookSchema;
+import com.github.poi.xly.test.TestWorkbook;
+import com.github.poi.xly.test.WorkbookTest;
+
+public class CellValidatorManagerTest extends WorkbookTest {
+
+    @XLYWorkbook
+    public static class DayWorkbook {
+        @XLYSheet(name = "Days", type = Day.class, columns = {
+                @XLYColumn(field = "dayOfWeek", headerTitle = "Day of week") })
+        public List<Day> days;
+    }
+
+    public static class Day {
+        private DayOfWeek dayOfWeek;
+
+        public DayOfWeek getDayOfWeek() {
+            return dayOfWeek;
+        }
+
+        public void setDayOfWeek(DayOfWeek dayOfWeek) {
+            this.dayOfWeek = dayOfWeek;
+        }
+    }
+
+    private CellValidatorManager cellValidatorManager;
+
+    private Row row;
+
+    @Before
+    public void createManager() {
+        cellValidatorManager = new CellValidatorManager(new DefaultConstraintLocator(), new XLYFormatter(workbook));
+        row = workbook.createSheet("test").createRow(0);
+    }
+
+    /**
+     * Columns without mandatory, constraint, pattern or enum type have nothing
+     * to validate.
+     */
+    @Test
+    public void testGetValidationPlan() {
+        final List<ColumnValidationPlan> validationPlan = getValidationPlan(TestWorkbook.class);
+        assertEquals(7, validationPlan.size());
+        final boolean[] expectedEmpty = { true, false, true, true, false, false, true };
+        for (int column = 0; column < expectedEmpty.length; column++) {
+            assertEquals("column " + column, expectedEmpty[column], validationPlan.get(column).isEmpty());
+            assertEquals(column, validationPlan.get(column).getColumnSchema().getIndex());
+        }
+    }
+
+    /**
+     * Same messages as the validators chain.
+     */
+    @Test
+    public void testGetViolations() {
+        final List<ColumnValidationPlan> validationPlan = getValidationPlan(TestWorkbook.class);
+        final Cell creationDate = row.createCell(1);
+        final Cell email = cell(4, "not an email");
+        final Cell origin = cell(5, "US");
+        assertEquals(Collections.singletonList("Field required"),
+                cellValidatorManager.getViolations(creationDate, validationPlan.get(1)));
+        assertEquals(
+                Collections.singletonList(
+                        "Invalid cell value. Value doesn't match with this pattern : ^[A-Z0-9._%+-]+@[A-Z0-9.-]+\\.[A-Z]{2,6}$"),
+                cellValidatorManager.getViolations(email, validationPlan.get(4)));
+        assertEquals(Collections.singletonList("Origin not exists"),
+                cellValidatorManager.getViolations(origin, validationPlan.get(5)));
+        for (int column : Arrays.asList(1, 4, 5)) {
+            final ColumnSchema columnSchema = validationPlan.get(column).getColumnSchema();
+            final Cell cell = row.getCell(column);
+            assertEquals(cellValidatorManager.getViolations(cell, columnSchema.getXlyColumn(), columnSchema.getField()),
+                    cellValidatorManager.getViolations(cell, validationPlan.get(column)));
+        }
+
+        email.setCellValue("banana@corp1.com");
+        origin.setCellValue("FR");
+        assertTrue(cellValidatorManager.getViolations(email, validationPlan.get(4)).isEmpty());
+        assertTrue(cellValidatorManager.getViolations(origin, validationPlan.get(5)).isEmpty());
+    }
+
+    /**
+     * The enum type is the one of the column field.
+     */
+    @Test
+    public void testGetViolations_enum() {
+        final List<ColumnValidationPlan> validationPlan = getValidationPlan(DayWorkbook.class);
+        assertFalse(validationPlan.get(0).isEmpty());
+        assertTrue(cellValidatorManager.getViolations(cell(0, "MONDAY"), validationPlan.get(0)).isEmpty());
+        assertTrue(cellValidatorManager.getViolations(row.createCell(1), validationPlan.get(0)).isEmpty());
+        assertEquals(
+                Collections.singletonList(
+                        "FUNDAY not exists. Did you mean : MONDAY or TUESDAY or WEDNESDAY or THURSDAY or FRIDAY or SATURDAY or SUNDAY ?"),
+                cellValidatorManager.getViolations(cell(2, "FUNDAY"), validationPlan.get(0)));
+    }
+
+    private Cell cell(int column, String value) {
+        final Cell cell = row.createCell(column);
+        cell.setCellValue(value);
+        return cell;
+    }
+
+    private List<ColumnValidationPlan> getValidationPlan(Class<?> workbookClass) {
+        final SheetSchema sheetSchema = WorkbookSchema.of(workbookClass).getSheets().get(0);
+        return cellValidatorManager.getValidationPlan(sheetSchema);
+    }
+}
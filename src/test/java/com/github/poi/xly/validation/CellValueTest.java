@@ -0,0 +1,136 @@
+package com.github.poi.xly.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.poi.xly.test.WorkbookTest;
+
+public class CellValueTest extends WorkbookTest {
+
+    private final DataFormatter dataFormatter = new DataFormatter();
+
+    private Row row;
+
+    private CellValue cellValue;
+
+    private void assertText(Cell cell) {
+        final String expected = dataFormatter.formatCellValue(cell);
+        assertEquals(expected, cellValue.setCell(cell).getText());
+        assertEquals(expected.isEmpty(), cellValue.isEmpty());
+    }
+
+    @Before
+    public void createRow() {
+        row = workbook.createSheet("test").createRow(0);
+        cellValue = new CellValue(new DataFormatter());
+    }
+
+    private CellStyle getStyle(String format) {
+        final CellStyle style = workbook.createCellStyle();
+        style.setDataFormat(workbook.createDataFormat().getFormat(format));
+        return style;
+    }
+
+    @Test
+    public void testGetText() {
+        final Cell string = row.createCell(0);
+        string.setCellValue("banana");
+        assertText(string);
+
+        final Cell emptyString = row.createCell(1);
+        emptyString.setCellValue("");
+        assertText(emptyString);
+
+        final Cell number = row.createCell(2);
+        number.setCellValue(1.5);
+        assertText(number);
+
+        final Cell date = row.createCell(3);
+        date.setCellValue(new GregorianCalendar(2016, Calendar.MARCH, 14).getTime());
+        date.setCellStyle(getStyle("yyyy-mm-dd"));
+        assertText(date);
+
+        final Cell bool = row.createCell(4);
+        bool.setCellValue(true);
+        assertText(bool);
+
+        final Cell blank = row.createCell(5);
+        assertText(blank);
+
+        assertText(null);
+
+        final Cell formula = row.createCell(6);
+        formula.setCellFormula("C1*2");
+        assertText(formula);
+
+        final Cell hidden = row.createCell(7);
+        hidden.setCellValue(42);
+        hidden.setCellStyle(getStyle(";;;"));
+        assertText(hidden);
+    }
+
+    @Test
+    public void testGetText_cached() {
+        final Cell cell = row.createCell(0);
+        cell.setCellValue(12);
+        cellValue.setCell(cell);
+        assertSame(cellValue.getText(), cellValue.getText());
+
+        final Cell other = row.createCell(1);
+        other.setCellValue(13);
+        assertEquals("13", cellValue.setCell(other).getText());
+    }
+
+    @Test
+    public void testTypedValues() {
+        final Cell number = row.createCell(0);
+        number.setCellValue(2.5);
+        cellValue.setCell(number);
+        assertTrue(cellValue.isNumeric());
+        assertFalse(cellValue.isDate());
+        assertEquals(2.5, cellValue.getNumber(), 0);
+
+        final Date expected = new GregorianCalendar(2016, Calendar.MARCH, 14).getTime();
+        final Cell date = row.createCell(1);
+        date.setCellValue(expected);
+        date.setCellStyle(getStyle("yyyy-mm-dd"));
+        cellValue.setCell(date);
+        assertTrue(cellValue.isDate());
+        assertEquals(expected, cellValue.getDate());
+
+        final Cell bool = row.createCell(2);
+        bool.setCellValue(false);
+        cellValue.setCell(bool);
+        assertEquals(CellType.BOOLEAN, cellValue.getType());
+        assertFalse(cellValue.getBoolean());
+
+        cellValue.setCell(null);
+        assertEquals(CellType.BLANK, cellValue.getType());
+        assertNull(cellValue.getDate());
+        assertEquals(0, cellValue.getNumber(), 0);
+    }
+
+    @Test
+    public void testOf() {
+        final Cell cell = row.createCell(0);
+        cell.setCellValue(3);
+        final CellValue value = CellValue.of(cell);
+        assertSame(cell, value.getCell());
+        assertEquals("3", value.getText());
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.poi.xly.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+public class DuplicateFinderTest {
+
+    private final Map<Integer, Integer> duplicates = new TreeMap<>();
+
+    private DuplicateFinder newDuplicateFinder(long memoryBudget) {
+        return new DuplicateFinder(memoryBudget, duplicates::put);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateFinder_nullHandler() {
+        new DuplicateFinder(0, null);
+    }
+
+    /**
+     * Duplicates are reported as soon as they are added while in memory.
+     */
+    @Test
+    public void testAdd() {
+        final DuplicateFinder duplicateFinder = newDuplicateFinder(Long.MAX_VALUE);
+        for (int rownum = 0; rownum < 10000; rownum++) {
+            duplicateFinder.add(rownum % 3000, rownum % 3000 * 31L, rownum);
+        }
+        assertFalse(duplicateFinder.isSpilled());
+        assertEquals(7000, duplicates.size());
+        assertEquals(Integer.valueOf(0), duplicates.get(3000));
+        assertEquals(Integer.valueOf(2999), duplicates.get(8999));
+        duplicateFinder.finish();
+        assertEquals(7000, duplicates.size());
+    }
+
+    /**
+     * Beyond the budget, duplicates are reported by finish with the first
+     * occurrence.
+     */
+    @Test
+    public void testFinish_spilled() {
+        final Murmur3Hasher hasher = new Murmur3Hasher();
+        final DuplicateFinder duplicateFinder = newDuplicateFinder(0);
+        for (int rownum = 0; rownum < 10000; rownum++) {
+            hasher.reset();
+            hasher.putString("value" + rownum % 3000);
+            hasher.finish();
+            duplicateFinder.add(hasher.getHigh(), hasher.getLow(), rownum);
+        }
+        assertTrue(duplicateFinder.isSpilled());
+        duplicateFinder.finish();
+        assertFalse(duplicateFinder.isSpilled());
+        assertEquals(7000, duplicates.size());
+        assertEquals(Integer.valueOf(0), duplicates.get(3000));
+        assertEquals(Integer.valueOf(2999), duplicates.get(8999));
+    }
+
+    /**
+     * Reference vector of MurmurHash3_x64_128.
+     */
+    @Test
+    public void testMurmur3Hasher() {
+        final Murmur3Hasher hasher = new Murmur3Hasher();
+        for (byte b : "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8)) {
+            hasher.putByte(b);
+        }
+        hasher.finish();
+        assertEquals(0xe34bbc7bbc071b6cL, hasher.getHigh());
+        assertEquals(0x7a433ca9c49a9347L, hasher.getLow());
+        hasher.reset();
+        hasher.putString("a");
+        hasher.putString("bc");
+        hasher.finish();
+        final long high = hasher.getHigh();
+        hasher.reset();
+        hasher.putString("ab");
+        hasher.putString("c");
+        hasher.finish();
+        assertNotEquals(high, hasher.getHigh());
+    }
+}
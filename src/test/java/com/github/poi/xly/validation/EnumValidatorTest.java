@@ -39,6 +39,21 @@ public class EnumValidatorTest {
         assertNull(validator.validate(cellContext));
     }
 
+    @Test
+    public void testValidate_enumType() throws Exception {
+        final EnumValidator validator = new EnumValidator(DayOfWeek.class);
+        assertNull(validator.validate(getCellContext(DayOfWeek.FRIDAY.name())));
+        assertNull(validator.validate(getCellContext("")));
+        assertEquals(
+                "NO_A_VALID_WEEK_DAY not exists. Did you mean : MONDAY or TUESDAY or WEDNESDAY or THURSDAY or FRIDAY or SATURDAY or SUNDAY ?",
+                validator.validate(getCellContext("NO_A_VALID_WEEK_DAY")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testValidate_notAnEnumType() {
+        new EnumValidator(String.class);
+    }
+
     private CellContext getCellContext(String dayOfWeek) throws NoSuchFieldException {
         final CellContext cellContext = new CellContext();
         cellContext.setCellValue(dayOfWeek);
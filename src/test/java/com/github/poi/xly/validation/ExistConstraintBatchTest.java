@@ -0,0 +1,199 @@
+package com.github.poi.xly.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.poi.xly.test.MyCustomListConstraint;
+
+public class ExistConstraintBatchTest {
+
+    private RecordingExistConstraint existConstraint;
+
+    private List<String> violations;
+
+    @Before
+    public void createConstraint() {
+        existConstraint = new RecordingExistConstraint();
+        violations = new ArrayList<>();
+    }
+
+    private ExistConstraintBatch<String> newBatch(int maxPendingCells, int maxResolvedValues) {
+        return new ExistConstraintBatch<>(existConstraint, 3,
+                (rownum, column, message) -> violations.add(rownum + ":" + column + ":" + message), maxPendingCells,
+                maxResolvedValues);
+    }
+
+    private static Set<String> chunk(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
+    @Test
+    public void testAdd_chunkBoundaries() {
+        final ExistConstraintBatch<String> batch = newBatch(100, 100);
+        batch.add(1, "FR");
+        assertTrue(existConstraint.chunks.isEmpty());
+        batch.add(2, "AL");
+        assertEquals(Arrays.asList(chunk("FR", "AL")), existConstraint.chunks);
+        batch.add(3, "IT");
+        batch.flush();
+        batch.flush();
+        assertEquals(Arrays.asList(chunk("FR", "AL"), chunk("IT")), existConstraint.chunks);
+        assertTrue(violations.isEmpty());
+    }
+
+    @Test
+    public void testAdd_deduplicated() {
+        final ExistConstraintBatch<String> batch = newBatch(100, 100);
+        batch.add(1, "FR");
+        batch.add(2, "FR");
+        batch.add(3, "AL");
+        batch.add(4, "FR");
+        batch.add(5, "IT");
+        batch.flush();
+        assertEquals(Arrays.asList(chunk("FR", "AL"), chunk("IT")), existConstraint.chunks);
+    }
+
+    @Test
+    public void testAdd_emptyValues() {
+        final ExistConstraintBatch<String> batch = newBatch(100, 100);
+        batch.add(1, null);
+        batch.add(2, "");
+        batch.flush();
+        assertTrue(existConstraint.chunks.isEmpty());
+    }
+
+    @Test
+    public void testFlush_missingValueReportedForAllCells() {
+        final ExistConstraintBatch<String> batch = newBatch(100, 100);
+        batch.add(1, "XX");
+        batch.add(2, "FR");
+        batch.add(3, "XX");
+        batch.flush();
+        assertEquals(Arrays.asList("1:3:XX is not a valid value", "3:3:XX is not a valid value"), violations);
+
+        // a known missing value is reported at once without a new check
+        batch.add(4, "XX");
+        assertEquals("4:3:XX is not a valid value", violations.get(2));
+        batch.add(5, "FR");
+        batch.flush();
+        assertEquals(1, existConstraint.chunks.size());
+        assertEquals(3, violations.size());
+    }
+
+    @Test
+    public void testFlush_nullResult() {
+        existConstraint.nullResult = true;
+        final ExistConstraintBatch<String> batch = newBatch(100, 100);
+        batch.add(1, "XX");
+        batch.flush();
+        assertTrue(violations.isEmpty());
+    }
+
+    @Test
+    public void testAdd_maxPendingCells() {
+        final ExistConstraintBatch<String> batch = newBatch(3, 100);
+        batch.add(1, "XX");
+        batch.add(2, "XX");
+        assertTrue(existConstraint.chunks.isEmpty());
+        batch.add(3, "XX");
+        assertEquals(Arrays.asList(chunk("XX")), existConstraint.chunks);
+        assertEquals(3, violations.size());
+
+        // the known values are not queued anymore
+        for (int rownum = 4; rownum < 10; rownum++) {
+            batch.add(rownum, "XX");
+        }
+        batch.flush();
+        assertEquals(1, existConstraint.chunks.size());
+        assertEquals(9, violations.size());
+    }
+
+    @Test
+    public void testFlush_maxResolvedValues() {
+        final ExistConstraintBatch<String> batch = newBatch(100, 2);
+        batch.add(1, "FR");
+        batch.add(2, "AL");
+        batch.add(3, "IT");
+        batch.flush();
+        // FR and AL are forgotten when IT is resolved
+        batch.add(4, "IT");
+        batch.add(5, "FR");
+        batch.flush();
+        assertEquals(Arrays.asList(chunk("FR", "AL"), chunk("IT"), chunk("FR")), existConstraint.chunks);
+    }
+
+    @Test
+    public void testIsBatchable() {
+        assertTrue(ExistConstraintBatch.isBatchable(existConstraint));
+        assertFalse(ExistConstraintBatch.isBatchable(new MyCustomListConstraint()));
+    }
+
+    @Test
+    public void testIsBatchable_customValidateValue() {
+        final RecordingExistConstraint customConstraint = new RecordingExistConstraint() {
+            @Override
+            public String validate(CellValue cellValue) {
+                return cellValue.isNumeric() ? "Numbers are not valid" : super.validate(cellValue);
+            }
+        };
+        assertFalse(ExistConstraintBatch.isBatchable(customConstraint));
+    }
+
+    @Test
+    public void testIsBatchable_customValidateCell() {
+        final RecordingExistConstraint customConstraint = new RecordingExistConstraint() {
+            @Override
+            public String validate(Cell cell) {
+                return cell == null ? "Mandatory" : super.validate(cell);
+            }
+        };
+        assertFalse(ExistConstraintBatch.isBatchable(customConstraint));
+    }
+
+    /**
+     * Checks chunks of 2 values, FR AL and IT exist.
+     */
+    private static class RecordingExistConstraint implements ExistConstraint<String> {
+
+        private final List<Set<String>> chunks = new ArrayList<>();
+
+        private boolean nullResult;
+
+        @Override
+        public boolean exists(String value) {
+            return "FR".equals(value) || "AL".equals(value) || "IT".equals(value);
+        }
+
+        @Override
+        public Set<String> existsAll(Set<String> values) {
+            chunks.add(new HashSet<>(values));
+            return nullResult ? null : ExistConstraint.super.existsAll(values);
+        }
+
+        @Override
+        public int getBatchSize() {
+            return 2;
+        }
+
+        @Override
+        public String format(String value) {
+            return value;
+        }
+
+        @Override
+        public String transform(String cellValue) {
+            return cellValue;
+        }
+    }
+}
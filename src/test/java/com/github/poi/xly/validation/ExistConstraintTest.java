@@ -1,5 +1,11 @@
 package com.github.poi.xly.validation;
 
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
 import org.junit.Test;
 
 import com.github.poi.xly.test.WorkbookTest;
@@ -18,6 +24,15 @@ public class ExistConstraintTest extends WorkbookTest {
         existConstraint.validate(getCell("NOT AN EXISTING value"));
     }
 
+    @Test
+    public void testExistsAll() {
+        final ExistConstraint<String> existConstraint = new MyExistConstraint();
+        assertEquals(Collections.singleton("NOT AN EXISTING value"),
+                existConstraint.existsAll(new HashSet<>(Arrays.asList("a value", "NOT AN EXISTING value"))));
+        assertEquals("NOT AN EXISTING value is not a valid value",
+                existConstraint.validate(getCell("NOT AN EXISTING value")));
+    }
+
     private class MyExistConstraint implements ExistConstraint<String> {
 
         @Override
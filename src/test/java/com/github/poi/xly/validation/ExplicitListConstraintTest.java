@@ -1,7 +1,9 @@
 package com.github.poi.xly.validation;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.List;
@@ -10,6 +12,7 @@ import java.util.function.Predicate;
 import org.junit.Test;
 
 import com.github.poi.xly.test.WorkbookTest;
+import com.github.poi.xly.validation.ExplicitListConstraint.MatchMode;
 
 public class ExplicitListConstraintTest extends WorkbookTest {
 
@@ -37,6 +40,54 @@ public class ExplicitListConstraintTest extends WorkbookTest {
         assertEquals("NOT_A_NOR_B_NOR_C is not a valid value", msg);
     }
 
+    @Test
+    public void testExists() {
+        explicitListConstraint = new SimpleExplicitListConstraint();
+        explicitListConstraint.setListOfValues(getListOfValues());
+        assertTrue(explicitListConstraint.exists("B"));
+        assertFalse(explicitListConstraint.exists("b"));
+        assertFalse(explicitListConstraint.exists("BB"));
+        // a new list is indexed again
+        explicitListConstraint.setListOfValues(Arrays.asList("D"));
+        assertTrue(explicitListConstraint.exists("D"));
+        assertFalse(explicitListConstraint.exists("B"));
+    }
+
+    @Test
+    public void testExists_caseInsensitive() {
+        explicitListConstraint = new ModeExplicitListConstraint(MatchMode.CASE_INSENSITIVE);
+        explicitListConstraint.setListOfValues(getListOfValues());
+        assertTrue(explicitListConstraint.exists("b"));
+        assertTrue(explicitListConstraint.exists("B"));
+        assertFalse(explicitListConstraint.exists("bb"));
+        assertNull(explicitListConstraint.validate(getCell("c")));
+    }
+
+    @Test
+    public void testExists_prefix() {
+        explicitListConstraint = new ModeExplicitListConstraint(MatchMode.PREFIX);
+        explicitListConstraint.setListOfValues(Arrays.asList("FR-", "DE", "DEU"));
+        assertTrue(explicitListConstraint.exists("FR-75"));
+        assertTrue(explicitListConstraint.exists("FR-"));
+        assertTrue(explicitListConstraint.exists("DE"));
+        assertTrue(explicitListConstraint.exists("DEUTSCH"));
+        assertFalse(explicitListConstraint.exists("FR"));
+        assertFalse(explicitListConstraint.exists("D"));
+        assertFalse(explicitListConstraint.exists("US"));
+        assertEquals("FR is not a valid value", explicitListConstraint.validate(getCell("FR")));
+    }
+
+    /**
+     * A custom predicate is still used when it is overridden.
+     */
+    @Test
+    public void testExists_customPredicate() {
+        explicitListConstraint = new CustomPredicateExplicitListConstraint();
+        explicitListConstraint.setListOfValues(getListOfValues());
+        assertTrue(explicitListConstraint.exists("c"));
+        assertFalse(explicitListConstraint.exists("C"));
+    }
+
     private List<String> getListOfValues() {
         return Arrays.asList("A", "B", "C");
     }
@@ -44,6 +95,20 @@ public class ExplicitListConstraintTest extends WorkbookTest {
     private class SimpleExplicitListConstraint extends ExplicitListConstraint {
     }
 
+    private class ModeExplicitListConstraint extends ExplicitListConstraint {
+
+        private final MatchMode matchMode;
+
+        ModeExplicitListConstraint(MatchMode matchMode) {
+            this.matchMode = matchMode;
+        }
+
+        @Override
+        public MatchMode getMatchMode() {
+            return matchMode;
+        }
+    }
+
     /**
      * compare string using lower case.
      */
@@ -0,0 +1,186 @@
+package com.github.poi.xly.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.poi.xly.annotation.XLYColumn;
+import com.github.poi.xly.annotation.XLYSheet;
+import com.github.poi.xly.test.WorkbookTest;
+
+public class RowValidationPassTest extends WorkbookTest {
+
+    /**
+     * Report the rows with an even code.
+     */
+    public static class EvenRowConstraint implements StreamingRowConstraint {
+
+        @Override
+        public Set<String> columnsHeaders() {
+            return Collections.singleton("Code");
+        }
+
+        @Override
+        public RowChecker start(Row headers) {
+            return new RowChecker() {
+                private final Map<Integer, String> violations = new TreeMap<>();
+
+                @Override
+                public void checkRow(Row row) {
+                    checkedRows++;
+                    if ((int) row.getCell(0).getNumericCellValue() % 2 == 0) {
+                        violations.put(row.getRowNum(), "even");
+                    }
+                }
+
+                @Override
+                public Map<Integer, String> getViolations() {
+                    return violations;
+                }
+            };
+        }
+    }
+
+    /**
+     * Report the last row, iterating the rows itself.
+     */
+    public static class LastRowConstraint implements RowConstraint {
+
+        @Override
+        public Set<String> columnsHeaders() {
+            return Collections.singleton("Code");
+        }
+
+        @Override
+        public Map<Integer, String> validate(Iterator<Row> rowIterator) {
+            pulls++;
+            Row row = null;
+            while (rowIterator.hasNext()) {
+                row = rowIterator.next();
+            }
+            return Collections.singletonMap(row.getRowNum(), "last");
+        }
+    }
+
+    public static class CodeDuplicatedRowConstraint extends DuplicatedRowConstraint {
+
+        @Override
+        public Set<String> columnsHeaders() {
+            return new HashSet<>(Arrays.asList("Code"));
+        }
+    }
+
+    @XLYSheet(name = "Codes", type = Object.class, rowValidator = { EvenRowConstraint.class, NoContraint.class,
+            LastRowConstraint.class, CodeDuplicatedRowConstraint.class }, columns = {
+                    @XLYColumn(field = "code", headerTitle = "Code") })
+    private Object codes;
+
+    @XLYSheet(name = "Codes", type = Object.class, columns = { @XLYColumn(field = "code", headerTitle = "Code") })
+    private Object noRowValidator;
+
+    private static int checkedRows;
+
+    private static int pulls;
+
+    private XSSFSheet sheet;
+
+    private XLYSheet xlySheet;
+
+    @Before
+    public void createSheet() throws NoSuchFieldException {
+        checkedRows = 0;
+        pulls = 0;
+        xlySheet = getClass().getDeclaredField("codes").getAnnotation(XLYSheet.class);
+        sheet = workbook.createSheet("Codes");
+        sheet.createRow(0).createCell(0).setCellValue("Code");
+        final int[] codes = { 1, 2, 3, 3, 4, 4 };
+        for (int i = 0; i < codes.length; i++) {
+            sheet.createRow(i + 1).createCell(0).setCellValue(codes[i]);
+        }
+    }
+
+    /**
+     * The streaming constraints share one pass, the other ones iterate the
+     * sheet on their own, the results are in the declaration order.
+     */
+    @Test
+    public void testCheckRows() {
+        final RowValidationPass rowValidationPass = new RowValidationPass(new DefaultConstraintLocator(), xlySheet);
+        assertFalse(rowValidationPass.isEmpty());
+        assertTrue(rowValidationPass.isStreaming());
+        rowValidationPass.checkRows(sheet.iterator());
+        assertEquals(6, checkedRows);
+        assertEquals(0, pulls);
+        final List<Map<Integer, String>> violations = rowValidationPass
+                .finish(rowConstraint -> rowConstraint.validate(sheet.iterator()));
+        assertEquals(1, pulls);
+        final Map<Integer, String> even = new TreeMap<>();
+        even.put(2, "even");
+        even.put(5, "even");
+        even.put(6, "even");
+        final Map<Integer, String> duplicates = new TreeMap<>();
+        duplicates.put(4, "Duplicate line (same as line 4)");
+        duplicates.put(6, "Duplicate line (same as line 6)");
+        assertEquals(Arrays.asList(even, Collections.singletonMap(6, "last"), duplicates), violations);
+    }
+
+    /**
+     * Every duplicate is reported with its first occurrence.
+     */
+    @Test
+    public void testDuplicatedRowConstraint() {
+        final DuplicatedRowConstraint rowConstraint = new CodeDuplicatedRowConstraint();
+        final Map<Integer, String> duplicates = new TreeMap<>();
+        duplicates.put(4, "Duplicate line (same as line 4)");
+        duplicates.put(6, "Duplicate line (same as line 6)");
+        assertEquals(duplicates, rowConstraint.validate(sheet.iterator()));
+    }
+
+    /**
+     * Without memory budget the fingerprints are spilled to disk once the
+     * smallest table is half full.
+     */
+    @Test
+    public void testDuplicatedRowConstraint_spilled() {
+        final DuplicatedRowConstraint rowConstraint = new CodeDuplicatedRowConstraint() {
+            @Override
+            protected long getMemoryBudget() {
+                return 0;
+            }
+        };
+        for (int i = 1; i <= 3000; i++) {
+            sheet.createRow(i).createCell(0).setCellValue("CODE" + ((i - 1) % 1000 + 1));
+        }
+        final Map<Integer, String> violations = rowConstraint.validate(sheet.iterator());
+        assertEquals(2000, violations.size());
+        assertEquals("Duplicate line (same as line 2)", violations.get(1001));
+        assertEquals("Duplicate line (same as line 2)", violations.get(2001));
+        assertEquals("Duplicate line (same as line 1000)", violations.get(1999));
+        assertNull(violations.get(1000));
+    }
+
+    @Test
+    public void testIsEmpty() throws NoSuchFieldException {
+        final XLYSheet noRowValidator = getClass().getDeclaredField("noRowValidator").getAnnotation(XLYSheet.class);
+        final RowValidationPass rowValidationPass = new RowValidationPass(new DefaultConstraintLocator(),
+                noRowValidator);
+        assertTrue(rowValidationPass.isEmpty());
+        assertFalse(rowValidationPass.isStreaming());
+        assertTrue(rowValidationPass.finish(rowConstraint -> null).isEmpty());
+    }
+}
@@ -1,12 +1,19 @@
 package com.github.poi.xly.validation;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
+import java.util.List;
 
+import org.apache.poi.ss.usermodel.Cell;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -50,6 +57,60 @@ public class UserDefineValidatorTest extends WorkbookTest {
         assertNull(msg);
     }
 
+    @Test
+    public void testIsTyped() {
+        assertFalse(UserDefineValidator.isTyped(new MyCustomConstraint()));
+        assertTrue(UserDefineValidator.isTyped(new MyCustomListConstraint()));
+        assertTrue(UserDefineValidator.isTyped(new TypedConstraint()));
+    }
+
+    @Test
+    public void testValidate_typedConstraint() {
+        final Cell cell = workbook.createSheet("test").createRow(0).createCell(0);
+        cell.setCellValue(12);
+        final CellContext cellContext = new CellContext();
+        cellContext.setCell(cell);
+        final String msg = new UserDefineValidator(new TypedConstraint()).validate(cellContext);
+        assertEquals("12.0 is too big", msg);
+    }
+
+    @Test
+    public void testValidate_cellConstraint() {
+        final CellContext cellContext = new CellContext();
+        cellContext.setValue(CellValue.of(getCell("xxx")));
+        final String msg = new UserDefineValidator(new MyCustomConstraint()).validate(cellContext);
+        assertEquals("my custom message", msg);
+    }
+
+    /**
+     * A located constraint may be shared by parallel tasks: its values are
+     * set once, not for each cell.
+     */
+    @Test
+    public void testValidate_listConstraint_setOnce() {
+        final MyCustomListConstraint constraint = Mockito.spy(new MyCustomListConstraint());
+        final UserDefineValidator validator = new UserDefineValidator(constraint);
+        validator.setPossibleValues(Arrays.asList("A", "B"));
+        final CellContext cellContext = new CellContext();
+        cellContext.setValue(CellValue.of(getCell("A")));
+        assertNull(validator.validate(cellContext));
+        assertNull(validator.validate(cellContext));
+        assertEquals(Arrays.asList("A", "B"), constraint.getListOfValues());
+        verify(constraint, times(2)).setListOfValues(any(List.class));
+    }
+
+    private static class TypedConstraint implements Constraint {
+        @Override
+        public String validate(Cell cell) {
+            throw new AssertionError("the typed value must be validated");
+        }
+
+        @Override
+        public String validate(CellValue cellValue) {
+            return cellValue.getNumber() > 10 ? cellValue.getNumber() + " is too big" : null;
+        }
+    }
+
     private CellContext initCustomConstraint(String cellValue) {
         final CellContext cellContext = new CellContext();
         cellContext.setCell(getCell(cellValue));